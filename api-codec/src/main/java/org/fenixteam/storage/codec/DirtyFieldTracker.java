@@ -0,0 +1,361 @@
+package org.fenixteam.storage.codec;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remembers the serialized fields of at most {@code maxSize} models last written to, or read one by
+ * one from, a repository, so a save only writes the changed fields. The repository must be the only
+ * writer of the tracked models.
+ *
+ * @param <ValueType> the serialized field value type
+ */
+public final class DirtyFieldTracker<ValueType> {
+  public static final int DEFAULT_MAX_SIZE = 10_000;
+  private static final int LOCK_STRIPES = 64;
+
+  private final Map<String, Map<String, ValueType>> snapshots;
+  private final UnaryOperator<ValueType> copier;
+  private final ReentrantLock[] locks;
+  private final AtomicLong generation;
+  private final int maxSize;
+  private final int evictedSize;
+  private final AtomicBoolean evicting;
+
+  private DirtyFieldTracker(final @NotNull UnaryOperator<ValueType> copier, final int maxSize) {
+    this.snapshots = new ConcurrentHashMap<>();
+    this.copier = copier;
+    this.maxSize = maxSize;
+    this.evictedSize = maxSize - Math.max(1, maxSize / 10);
+    this.evicting = new AtomicBoolean();
+    this.locks = new ReentrantLock[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      this.locks[i] = new ReentrantLock();
+    }
+    this.generation = new AtomicLong();
+  }
+
+  /**
+   * Creates a tracker for immutable field values, such as strings.
+   *
+   * @param maxSize the maximum amount of remembered models
+   * @param <V>     the serialized field value type
+   * @return the created tracker
+   */
+  @Contract("_ -> new")
+  public static <V> @NotNull DirtyFieldTracker<V> create(final int maxSize) {
+    return DirtyFieldTracker.create(UnaryOperator.identity(), maxSize);
+  }
+
+  /**
+   * Creates a tracker for mutable field values, remembering deep copies of them.
+   *
+   * @param copier  the function which deeply copies a field value
+   * @param maxSize the maximum amount of remembered models
+   * @param <V>     the serialized field value type
+   * @return the created tracker
+   */
+  @Contract("_, _ -> new")
+  public static <V> @NotNull DirtyFieldTracker<V> create(final @NotNull UnaryOperator<V> copier, final int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    return new DirtyFieldTracker<>(copier, maxSize);
+  }
+
+  /**
+   * Returns the stamp to take before reading a model, see {@link #recordLoaded(String, Map, long)}.
+   *
+   * @return the current stamp
+   */
+  public long stamp() {
+    return this.generation.get();
+  }
+
+  /**
+   * Remembers the form of a model read from the repository, unless the model was written or
+   * forgotten since the stamp was taken.
+   *
+   * @param id     the model id
+   * @param fields the serialized fields read
+   * @param stamp  the stamp taken before the read
+   */
+  public void recordLoaded(
+    final @NotNull String id,
+    final @NotNull Map<String, ? extends ValueType> fields,
+    final long stamp
+  ) {
+    final var lock = this.lock(id);
+    lock.lock();
+    try {
+      if (this.generation.get() == stamp) {
+        this.remember(id, fields);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Runs the writer with the difference between the given and the last persisted form of the model,
+   * unless it is empty.
+   *
+   * @param id     the model id
+   * @param fields the serialized fields of the model
+   * @param writer the writer of the difference
+   * @return whether the writer was run
+   */
+  public boolean write(
+    final @NotNull String id,
+    final @NotNull Map<String, ? extends ValueType> fields,
+    final @NotNull Consumer<FieldChanges<ValueType>> writer
+  ) {
+    final var lock = this.lock(id);
+    lock.lock();
+    try {
+      final var changes = this.diff(this.snapshots.get(id), fields);
+      if (changes.isEmpty()) {
+        return false;
+      }
+      this.generation.incrementAndGet();
+      this.snapshots.remove(id);
+      writer.accept(changes);
+      this.remember(id, fields);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Same as {@link #write(String, Map, Consumer)} for several models, the writer receives the
+   * non-empty differences by id.
+   *
+   * @param models the serialized fields of every model keyed by id
+   * @param writer the writer of the differences
+   * @return the amount of models written
+   */
+  public int writeAll(
+    final @NotNull Map<String, ? extends Map<String, ? extends ValueType>> models,
+    final @NotNull Consumer<Map<String, FieldChanges<ValueType>>> writer
+  ) {
+    final var stripes = this.lockAll(models.keySet());
+    try {
+      final var changesById = new LinkedHashMap<String, FieldChanges<ValueType>>(models.size());
+      for (final var entry : models.entrySet()) {
+        final var changes = this.diff(this.snapshots.get(entry.getKey()), entry.getValue());
+        if (!changes.isEmpty()) {
+          changesById.put(entry.getKey(), changes);
+        }
+      }
+      if (changesById.isEmpty()) {
+        return 0;
+      }
+      this.generation.incrementAndGet();
+      for (final var id : changesById.keySet()) {
+        this.snapshots.remove(id);
+      }
+      writer.accept(changesById);
+      for (final var id : changesById.keySet()) {
+        this.remember(id, models.get(id));
+      }
+      return changesById.size();
+    } finally {
+      this.unlockAll(stripes);
+    }
+  }
+
+  /**
+   * Forgets the given model and runs a write bypassing this tracker, such as a delete or a patch.
+   *
+   * @param id    the model id
+   * @param write the write to run
+   * @param <R>   the write result type
+   * @return the write result
+   */
+  public <R> R writeUntracked(final @NotNull String id, final @NotNull Supplier<R> write) {
+    final var lock = this.lock(id);
+    lock.lock();
+    try {
+      this.generation.incrementAndGet();
+      this.snapshots.remove(id);
+      return write.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Same as {@link #writeUntracked(String, Supplier)} for several models at once.
+   *
+   * @param ids   the model ids
+   * @param write the write to run
+   * @param <R>   the write result type
+   * @return the write result
+   */
+  public <R> R writeUntracked(final @NotNull Collection<String> ids, final @NotNull Supplier<R> write) {
+    final var stripes = this.lockAll(ids);
+    try {
+      this.generation.incrementAndGet();
+      for (final var id : ids) {
+        this.snapshots.remove(id);
+      }
+      return write.get();
+    } finally {
+      this.unlockAll(stripes);
+    }
+  }
+
+  /**
+   * Forgets the given model, so its next save is a full write.
+   *
+   * @param id the model id
+   */
+  public void forget(final @NotNull String id) {
+    final var lock = this.lock(id);
+    lock.lock();
+    try {
+      this.generation.incrementAndGet();
+      this.snapshots.remove(id);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Forgets the given models, see {@link #forget(String)}.
+   *
+   * @param ids the model ids
+   */
+  public void forgetAll(final @NotNull Collection<String> ids) {
+    for (final var id : ids) {
+      this.forget(id);
+    }
+  }
+
+  /**
+   * Forgets every model, for example once the whole collection was modified by another writer.
+   */
+  public void clear() {
+    for (final var lock : this.locks) {
+      lock.lock();
+    }
+    try {
+      this.generation.incrementAndGet();
+      this.snapshots.clear();
+    } finally {
+      for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+        this.locks[i].unlock();
+      }
+    }
+  }
+
+  int size() {
+    return this.snapshots.size();
+  }
+
+  private void remember(final @NotNull String id, final @NotNull Map<String, ? extends ValueType> fields) {
+    if (this.snapshots.size() >= this.maxSize) {
+      this.evict();
+    }
+    this.snapshots.put(id, this.copy(fields));
+  }
+
+  private void evict() {
+    if (!this.evicting.compareAndSet(false, true)) {
+      // another thread is already making room
+      return;
+    }
+    try {
+      // a forgotten model is only written in full, so any of them can go
+      final var iterator = this.snapshots.keySet()
+        .iterator();
+      while (this.snapshots.size() > this.evictedSize && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    } finally {
+      this.evicting.set(false);
+    }
+  }
+
+  private @NotNull FieldChanges<ValueType> diff(
+    final @Nullable Map<String, ValueType> snapshot,
+    final @NotNull Map<String, ? extends ValueType> fields
+  ) {
+    if (snapshot == null) {
+      return new FieldChanges<>(new LinkedHashMap<>(fields), Set.of(), true);
+    }
+    final var changed = new LinkedHashMap<String, ValueType>();
+    for (final var entry : fields.entrySet()) {
+      final var key = entry.getKey();
+      final var value = entry.getValue();
+      if (!snapshot.containsKey(key) || !Objects.equals(snapshot.get(key), value)) {
+        changed.put(key, value);
+      }
+    }
+    Set<String> removed = Set.of();
+    if (snapshot.size() > fields.size() - changed.size()) {
+      removed = new HashSet<>();
+      for (final var key : snapshot.keySet()) {
+        if (!fields.containsKey(key)) {
+          removed.add(key);
+        }
+      }
+    }
+    return new FieldChanges<>(changed, removed, false);
+  }
+
+  private @NotNull Map<String, ValueType> copy(final @NotNull Map<String, ? extends ValueType> fields) {
+    final var copy = new HashMap<String, ValueType>(fields.size());
+    for (final var entry : fields.entrySet()) {
+      copy.put(entry.getKey(), this.copier.apply(entry.getValue()));
+    }
+    return copy;
+  }
+
+  private boolean @NotNull [] lockAll(final @NotNull Collection<String> ids) {
+    final var stripes = new boolean[LOCK_STRIPES];
+    for (final var id : ids) {
+      stripes[this.stripe(id)] = true;
+    }
+    // locked in ascending order so that two concurrent calls can't deadlock
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      if (stripes[i]) {
+        this.locks[i].lock();
+      }
+    }
+    return stripes;
+  }
+
+  private void unlockAll(final boolean @NotNull [] stripes) {
+    for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+      if (stripes[i]) {
+        this.locks[i].unlock();
+      }
+    }
+  }
+
+  private @NotNull ReentrantLock lock(final @NotNull String id) {
+    return this.locks[this.stripe(id)];
+  }
+
+  private int stripe(final @NotNull String id) {
+    return Math.floorMod(id.hashCode(), LOCK_STRIPES);
+  }
+}
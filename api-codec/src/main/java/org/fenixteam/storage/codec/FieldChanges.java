@@ -0,0 +1,23 @@
+package org.fenixteam.storage.codec;
+
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The difference between the serialized form of a model and its last persisted form.
+ *
+ * @param changed     the fields whose value changed or which were added, every field if {@code full}
+ * @param removed     the fields which are no longer written
+ * @param full        whether the persisted form is unknown, so the whole model must be written
+ * @param <ValueType> the serialized field value type
+ */
+public record FieldChanges<ValueType>(
+  @NotNull Map<String, ValueType> changed,
+  @NotNull Set<String> removed,
+  boolean full
+) {
+  public boolean isEmpty() {
+    return !this.full && this.changed.isEmpty() && this.removed.isEmpty();
+  }
+}
@@ -0,0 +1,79 @@
+package org.fenixteam.storage.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class DirtyFieldTrackerTest {
+  private final DirtyFieldTracker<String> tracker = DirtyFieldTracker.create(100);
+  private final List<FieldChanges<String>> writes = new ArrayList<>();
+
+  @Test
+  void firstWriteIsFull() {
+    this.tracker.write("a", Map.of("name", "Steve"), this.writes::add);
+
+    assertEquals(List.of(new FieldChanges<>(Map.of("name", "Steve"), Set.of(), true)), this.writes);
+  }
+
+  @Test
+  void unchangedWriteIsSkipped() {
+    this.tracker.write("a", Map.of("name", "Steve"), this.writes::add);
+
+    assertFalse(this.tracker.write("a", Map.of("name", "Steve"), this.writes::add));
+    assertEquals(1, this.writes.size());
+  }
+
+  @Test
+  void onlyChangedAndRemovedFieldsAreWritten() {
+    this.tracker.write("a", Map.of("name", "Steve", "level", "1", "guild", "red"), this.writes::add);
+    this.tracker.write("a", Map.of("name", "Steve", "level", "2"), this.writes::add);
+
+    assertEquals(new FieldChanges<>(Map.of("level", "2"), Set.of("guild"), false), this.writes.get(1));
+  }
+
+  @Test
+  void failedWriteMakesTheNextOneFull() {
+    this.tracker.write("a", Map.of("name", "Steve"), this.writes::add);
+    assertThrows(IllegalStateException.class, () -> this.tracker.write("a", Map.of("name", "Alex"), changes -> {
+      throw new IllegalStateException();
+    }));
+    this.tracker.write("a", Map.of("name", "Alex"), this.writes::add);
+
+    assertTrue(this.writes.get(1)
+                 .full());
+  }
+
+  @Test
+  void loadOlderThanAWriteIsNotRemembered() {
+    final var stamp = this.tracker.stamp();
+    this.tracker.forget("b");
+    this.tracker.recordLoaded("a", Map.of("name", "Steve"), stamp);
+    this.tracker.write("a", Map.of("name", "Steve"), this.writes::add);
+
+    assertEquals(1, this.writes.size());
+  }
+
+  @Test
+  void loadIsRemembered() {
+    this.tracker.recordLoaded("a", Map.of("name", "Steve"), this.tracker.stamp());
+
+    assertFalse(this.tracker.write("a", Map.of("name", "Steve"), this.writes::add));
+  }
+
+  @Test
+  void rememberedModelsAreBounded() {
+    for (int i = 0; i < 1_000; i++) {
+      this.tracker.write("model-" + i, Map.of("name", "Steve"), this.writes::add);
+    }
+
+    assertTrue(this.tracker.size() <= 100);
+    assertEquals(1_000, this.writes.size());
+  }
+}
@@ -1,3 +1,26 @@
+val java21: SourceSet by sourceSets.creating {
+  java.srcDir("src/main/java21")
+}
+
 dependencies {
   compileOnlyApi("org.jetbrains:annotations:24.0.0")
+  "java21CompileOnly"("org.jetbrains:annotations:24.0.0")
+}
+
+tasks {
+  named<JavaCompile>(java21.compileJavaTaskName) {
+    javaCompiler.set(project.javaToolchains.compilerFor {
+      languageVersion.set(JavaLanguageVersion.of(21))
+    })
+    options.release.set(21)
+  }
+
+  jar {
+    into("META-INF/versions/21") {
+      from(java21.output)
+    }
+    manifest {
+      attributes("Multi-Release" to "true")
+    }
+  }
 }
\ No newline at end of file
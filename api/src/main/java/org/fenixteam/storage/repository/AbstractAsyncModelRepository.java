@@ -1,11 +1,21 @@
 package org.fenixteam.storage.repository;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.publisher.StreamPublisher;
+import org.fenixteam.storage.repository.query.Query;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -18,7 +28,15 @@ public abstract class AbstractAsyncModelRepository<ModelType extends Model> impl
 
   @Override
   public @NotNull CompletableFuture<@Nullable ModelType> find(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.findSync(id), this.executor);
+    return this.supplyAsync(() -> this.findSync(id));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable ModelType> find(
+    final @NotNull String id,
+    final @NotNull Set<String> fields
+  ) {
+    return this.supplyAsync(() -> this.findSync(id, fields));
   }
 
   @Override
@@ -27,14 +45,22 @@ public abstract class AbstractAsyncModelRepository<ModelType extends Model> impl
     final @NotNull String value,
     final @NotNull Function<Integer, C> factory
   ) {
-    return CompletableFuture.supplyAsync(() -> this.findSync(field, value, factory), this.executor);
+    return this.supplyAsync(() -> this.findSync(field, value, factory));
+  }
+
+  @Override
+  public @NotNull <C extends Collection<ModelType>> CompletableFuture<@NotNull C> findMany(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.supplyAsync(() -> this.findManySync(ids, factory));
   }
 
   @Override
   public @NotNull <C extends Collection<ModelType>> CompletableFuture<@Nullable C> findAll(
     final @NotNull Function<Integer, C> factory
   ) {
-    return CompletableFuture.supplyAsync(() -> this.findAllSync(factory), this.executor);
+    return this.supplyAsync(() -> this.findAllSync(factory));
   }
 
   @Override
@@ -42,31 +68,119 @@ public abstract class AbstractAsyncModelRepository<ModelType extends Model> impl
     final @NotNull Consumer<ModelType> postLoadAction,
     final @NotNull Function<Integer, C> factory
   ) {
-    return CompletableFuture.supplyAsync(() -> this.findAllSync(postLoadAction, factory), this.executor);
+    return this.supplyAsync(() -> this.findAllSync(postLoadAction, factory));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@NotNull Page<ModelType>> findPage(
+    final @Nullable String continuationToken,
+    final int limit
+  ) {
+    return this.supplyAsync(() -> this.findPageSync(continuationToken, limit));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull CompletableFuture<@NotNull C> query(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.supplyAsync(() -> this.querySync(query, factory));
   }
 
   @Override
   public @NotNull CompletableFuture<@Nullable Collection<String>> findIds() {
-    return CompletableFuture.supplyAsync(this::findIdsSync, this.executor);
+    return this.supplyAsync(this::findIdsSync);
+  }
+
+  @Override
+  public @NotNull CompletableFuture<Void> forEachBatch(
+    final int batchSize,
+    final @NotNull Consumer<List<ModelType>> batchAction
+  ) {
+    return this.runAsync(() -> this.forEachBatchSync(batchSize, batchAction));
+  }
+
+  @Override
+  public @NotNull Flow.Publisher<ModelType> publishAll(final int batchSize) {
+    return StreamPublisher.create(() -> this.streamAllSync(batchSize), this.executor);
+  }
+
+  @Override
+  public @NotNull Flow.Publisher<String> publishIds(final int batchSize) {
+    return StreamPublisher.create(() -> this.streamIdsSync(batchSize), this.executor);
   }
 
   @Override
   public @NotNull CompletableFuture<@NotNull Boolean> exists(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.existsSync(id), this.executor);
+    return this.supplyAsync(() -> this.existsSync(id));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@NotNull Collection<String>> existsMany(final @NotNull Collection<String> ids) {
+    return this.supplyAsync(() -> this.existsManySync(ids));
   }
 
   @Override
   public @NotNull CompletableFuture<ModelType> save(final @NotNull ModelType model) {
-    return CompletableFuture.supplyAsync(() -> this.saveSync(model), this.executor);
+    return this.supplyAsync(() -> this.saveSync(model));
+  }
+
+  @Override
+  public @NotNull <C extends Collection<ModelType>> CompletableFuture<@NotNull C> saveMany(final @NotNull C models) {
+    return this.supplyAsync(() -> this.saveManySync(models));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@NotNull Boolean> patch(final @NotNull String id, final @NotNull Patch patch) {
+    return this.supplyAsync(() -> this.patchSync(id, patch));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable ModelType> compute(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.supplyAsync(() -> this.computeSync(id, function));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable ModelType> update(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<ModelType> function
+  ) {
+    return this.supplyAsync(() -> this.updateSync(id, function));
   }
 
   @Override
   public @NotNull CompletableFuture<@NotNull Boolean> delete(final @NotNull ModelType model) {
-    return CompletableFuture.supplyAsync(() -> this.deleteSync(model), this.executor);
+    return this.supplyAsync(() -> this.deleteSync(model));
   }
 
   @Override
   public @NotNull CompletableFuture<@NotNull Boolean> delete(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.deleteSync(id), this.executor);
+    return this.supplyAsync(() -> this.deleteSync(id));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@NotNull Boolean> deleteMany(final @NotNull Collection<String> ids) {
+    return this.supplyAsync(() -> this.deleteManySync(ids));
+  }
+
+  /**
+   * Runs the given call on the executor under the {@link Deadline} of the calling thread, if any.
+   *
+   * @param call the call
+   * @param <R>  the result type
+   * @return the future of the result
+   */
+  protected <R> @NotNull CompletableFuture<R> supplyAsync(final @NotNull Supplier<R> call) {
+    return CompletableFuture.supplyAsync(Deadline.propagate(call), this.executor);
+  }
+
+  protected @NotNull CompletableFuture<Void> runAsync(final @NotNull Runnable action) {
+    return this.supplyAsync(() -> {
+      action.run();
+      return null;
+    });
   }
 }
@@ -1,23 +1,74 @@
 package org.fenixteam.storage.repository;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 @SuppressWarnings("unused")
-public interface AsyncModelRepository<ModelType extends Model> extends ModelRepository<ModelType> {
+public interface AsyncModelRepository<ModelType extends Model> extends ReactiveModelRepository<ModelType> {
   @NotNull CompletableFuture<@Nullable ModelType> find(final @NotNull String id);
 
+  default @NotNull CompletableFuture<@Nullable ModelType> find(
+    final @NotNull String id,
+    final @NotNull Set<String> fields
+  ) {
+    return this.find(id);
+  }
+
   <C extends Collection<ModelType>> @NotNull CompletableFuture<@Nullable C> find(
     final @NotNull String field,
     final @NotNull String value,
     final @NotNull Function<Integer, C> factory
   );
 
+  default <C extends Collection<ModelType>> @NotNull CompletableFuture<@NotNull C> findMany(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var futures = new ArrayList<CompletableFuture<ModelType>>(ids.size());
+    for (final var id : ids) {
+      futures.add(this.find(id));
+    }
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+             .thenApply(ignored -> {
+               final var foundModels = factory.apply(futures.size());
+               for (final var future : futures) {
+                 final var model = future.join();
+                 if (model != null) {
+                   foundModels.add(model);
+                 }
+               }
+               return foundModels;
+             });
+  }
+
+  default @NotNull CompletableFuture<@NotNull Page<ModelType>> findPage(
+    final @Nullable String continuationToken,
+    final int limit
+  ) {
+    return this.callSync(() -> this.findPageSync(continuationToken, limit));
+  }
+
+  default <C extends Collection<ModelType>> @NotNull CompletableFuture<@NotNull C> query(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.callSync(() -> this.querySync(query, factory));
+  }
+
   @NotNull CompletableFuture<@Nullable Collection<String>> findIds();
 
   <C extends Collection<ModelType>> @NotNull CompletableFuture<@Nullable C> findAll(
@@ -29,11 +80,97 @@ public interface AsyncModelRepository<ModelType extends Model> extends ModelRepo
     final @NotNull Function<Integer, C> factory
   );
 
+  default @NotNull CompletableFuture<Void> forEachBatch(
+    final int batchSize,
+    final @NotNull Consumer<List<ModelType>> batchAction
+  ) {
+    return this.callSync(() -> {
+      this.forEachBatchSync(batchSize, batchAction);
+      return null;
+    });
+  }
+
   @NotNull CompletableFuture<@NotNull Boolean> exists(final @NotNull String id);
 
+  default @NotNull CompletableFuture<@NotNull Collection<String>> existsMany(final @NotNull Collection<String> ids) {
+    final var futures = new LinkedHashMap<String, CompletableFuture<Boolean>>(ids.size());
+    for (final var id : ids) {
+      futures.computeIfAbsent(id, this::exists);
+    }
+    return CompletableFuture.allOf(futures.values()
+                                     .toArray(CompletableFuture[]::new))
+             .thenApply(ignored -> {
+               final var existingIds = new ArrayList<String>(futures.size());
+               futures.forEach((id, future) -> {
+                 if (future.join()) {
+                   existingIds.add(id);
+                 }
+               });
+               return existingIds;
+             });
+  }
+
   @NotNull CompletableFuture<@NotNull ModelType> save(final @NotNull ModelType model);
 
+  default <C extends Collection<ModelType>> @NotNull CompletableFuture<@NotNull C> saveMany(final @NotNull C models) {
+    final var futures = new ArrayList<CompletableFuture<ModelType>>(models.size());
+    for (final var model : models) {
+      futures.add(this.save(model));
+    }
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+             .thenApply(ignored -> models);
+  }
+
+  default @NotNull CompletableFuture<@NotNull Boolean> patch(final @NotNull String id, final @NotNull Patch patch) {
+    return this.callSync(() -> this.patchSync(id, patch));
+  }
+
+  default @NotNull CompletableFuture<@Nullable ModelType> compute(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.callSync(() -> this.computeSync(id, function));
+  }
+
+  default @NotNull CompletableFuture<@Nullable ModelType> update(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<ModelType> function
+  ) {
+    return this.compute(id, model -> model == null ? null : function.apply(model));
+  }
+
   @NotNull CompletableFuture<@NotNull Boolean> delete(final @NotNull ModelType model);
 
   @NotNull CompletableFuture<@NotNull Boolean> delete(final @NotNull String id);
+
+  default @NotNull CompletableFuture<@NotNull Boolean> deleteMany(final @NotNull Collection<String> ids) {
+    final var futures = new ArrayList<CompletableFuture<Boolean>>(ids.size());
+    for (final var id : ids) {
+      futures.add(this.delete(id));
+    }
+    return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+             .thenApply(ignored -> {
+               var deleted = false;
+               for (final var future : futures) {
+                 deleted |= future.join();
+               }
+               return deleted;
+             });
+  }
+
+  /**
+   * Runs the given call on the calling thread, for the operations whose default has no async
+   * counterpart to build on.
+   *
+   * @param call the call
+   * @param <R>  the result type
+   * @return the completed future of the result, or the future failed with its exception
+   */
+  private <R> @NotNull CompletableFuture<R> callSync(final @NotNull Supplier<R> call) {
+    try {
+      return CompletableFuture.completedFuture(call.get());
+    } catch (final RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
 }
@@ -2,28 +2,93 @@ package org.fenixteam.storage.repository;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.cache.CircuitBreaker;
+import org.fenixteam.storage.repository.cache.CircuitOpenException;
+import org.fenixteam.storage.repository.cache.InvalidationBus;
+import org.fenixteam.storage.repository.cache.NegativeCache;
+import org.fenixteam.storage.repository.cache.RefreshAheadPolicy;
+import org.fenixteam.storage.repository.cache.SingleFlight;
+import org.fenixteam.storage.repository.cache.WriteBehindQueue;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.fenixteam.storage.repository.metrics.RepositoryMetrics;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 @SuppressWarnings("unused")
-public class CachedModelRepository<ModelType extends Model> extends AbstractAsyncModelRepository<ModelType> {
+public class CachedModelRepository<ModelType extends Model> extends AbstractAsyncModelRepository<ModelType>
+  implements AutoCloseable {
   protected final ModelRepository<ModelType> cacheModelRepository;
   protected final ModelRepository<ModelType> persistModelRepository;
+  protected final @Nullable WriteBehindQueue<ModelType> writeBehindQueue;
+  protected final @Nullable NegativeCache negativeCache;
+  protected final @Nullable RefreshAheadPolicy refreshAheadPolicy;
+  protected final @Nullable InvalidationBus invalidationBus;
+  protected final @Nullable RepositoryMetrics metrics;
+  protected final @Nullable CircuitBreaker circuitBreaker;
+  protected final @Nullable WriteBehindQueue<ModelType> outageQueue;
+  /**
+   * The write-behind queue, or else the queue of the writes made while the circuit breaker is open.
+   */
+  protected final @Nullable WriteBehindQueue<ModelType> pendingWrites;
+  protected final SingleFlight<ModelType> loads;
 
   public CachedModelRepository(
     final @NotNull Executor executor,
     final @NotNull ModelRepository<ModelType> cacheModelRepository,
     final @NotNull ModelRepository<ModelType> persistModelRepository
+  ) {
+    this(executor, cacheModelRepository, persistModelRepository, null, null, null, null, null, null, null);
+  }
+
+  protected CachedModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<ModelType> cacheModelRepository,
+    final @NotNull ModelRepository<ModelType> persistModelRepository,
+    final @Nullable WriteBehindQueue<ModelType> writeBehindQueue,
+    final @Nullable NegativeCache negativeCache,
+    final @Nullable RefreshAheadPolicy refreshAheadPolicy,
+    final @Nullable InvalidationBus invalidationBus,
+    final @Nullable RepositoryMetrics metrics,
+    final @Nullable CircuitBreaker circuitBreaker,
+    final @Nullable WriteBehindQueue<ModelType> outageQueue
   ) {
     super(executor);
+    this.metrics = metrics;
+    this.circuitBreaker = circuitBreaker;
+    this.outageQueue = outageQueue;
+    this.pendingWrites = writeBehindQueue == null ? outageQueue : writeBehindQueue;
     this.cacheModelRepository = cacheModelRepository;
     this.persistModelRepository = persistModelRepository;
+    this.writeBehindQueue = writeBehindQueue;
+    this.negativeCache = negativeCache;
+    this.refreshAheadPolicy = refreshAheadPolicy;
+    this.invalidationBus = invalidationBus;
+    this.loads = SingleFlight.create();
+    if (invalidationBus != null) {
+      invalidationBus.subscribe(ids -> executor.execute(() -> this.evictSync(ids)));
+      if (this.pendingWrites != null) {
+        this.pendingWrites.onFlush(invalidationBus::publish);
+      }
+    }
+  }
+
+  @Contract(" -> new")
+  public static <T extends Model> @NotNull CachedModelRepositoryBuilder<T> builder() {
+    return new CachedModelRepositoryBuilder<>();
   }
 
   public @NotNull ModelRepository<ModelType> cacheModelRepository() {
@@ -34,13 +99,32 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
     return this.persistModelRepository;
   }
 
+  public @Nullable WriteBehindQueue<ModelType> writeBehindQueue() {
+    return this.writeBehindQueue;
+  }
+
+  public @Nullable NegativeCache negativeCache() {
+    return this.negativeCache;
+  }
+
+  public @Nullable RefreshAheadPolicy refreshAheadPolicy() {
+    return this.refreshAheadPolicy;
+  }
+
+  public @Nullable InvalidationBus invalidationBus() {
+    return this.invalidationBus;
+  }
+
+  public @Nullable RepositoryMetrics metrics() {
+    return this.metrics;
+  }
+
+  public @Nullable CircuitBreaker circuitBreaker() {
+    return this.circuitBreaker;
+  }
+
   public @Nullable ModelType findAndCacheSync(final @NotNull String id) {
-    final var model = this.findSync(id);
-    if (model == null) {
-      return null;
-    }
-    this.cacheModelRepository.saveSync(model);
-    return model;
+    return this.loads.load(id, () -> this.loadAndCacheSync(id));
   }
 
   public @Nullable ModelType findInCacheSync(final @NotNull String id) {
@@ -50,22 +134,70 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
   public @Nullable ModelType findInBothSync(final @NotNull String id) {
     final var model = this.findInCacheSync(id);
     if (model != null) {
+      this.recordCacheHit();
       return model;
     }
-    return this.findSync(id);
+    return this.recordPersistLookup(this.findSync(id));
   }
 
   public @Nullable ModelType findInBothAndCacheSync(final @NotNull String id) {
     final var cachedModel = this.findInCacheSync(id);
-    if (cachedModel != null) {
+    if (cachedModel == null) {
+      return this.recordPersistLookup(this.findAndCacheSync(id));
+    }
+    if (this.refreshAheadPolicy == null) {
+      this.recordCacheHit();
       return cachedModel;
     }
-    final var foundModel = this.findSync(id);
-    if (foundModel == null) {
-      return null;
+    final var loadTime = this.refreshAheadPolicy.loadTime(id);
+    return switch (this.refreshAheadPolicy.freshness(loadTime)) {
+      case FRESH -> {
+        this.recordCacheHit();
+        yield cachedModel;
+      }
+      case STALE -> {
+        this.recordCacheHit();
+        if (!this.isCircuitOpen()) {
+          this.loads.loadAsync(id, () -> this.refreshSync(id, loadTime), super.executor);
+        }
+        yield cachedModel;
+      }
+      case EXPIRED -> {
+        if (this.isCircuitOpen()) {
+          // stale, but better than no answer while the persistent repository is down
+          this.recordCacheHit();
+          yield cachedModel;
+        }
+        yield this.recordPersistLookup(this.loads.load(id, () -> this.refreshSync(id, loadTime)));
+      }
+    };
+  }
+
+  public <C extends Collection<ModelType>> @NotNull C findManyInBothAndCacheSync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var uniqueIds = new LinkedHashSet<>(ids);
+    final var foundModels = this.cacheModelRepository.findManySync(uniqueIds, factory);
+    if (foundModels.size() == uniqueIds.size()) {
+      return foundModels;
+    }
+    final var missingIds = new HashSet<>(uniqueIds);
+    for (final var model : foundModels) {
+      missingIds.remove(model.id());
+    }
+    final var persistedModels = this.findManySync(missingIds, ArrayList::new);
+    if (this.metrics != null) {
+      this.metrics.recordCacheHits(foundModels.size());
+      this.metrics.recordPersistHits(persistedModels.size());
+      this.metrics.recordMisses(missingIds.size() - persistedModels.size());
     }
-    this.cacheModelRepository.saveSync(foundModel);
-    return foundModel;
+    this.cacheModelRepository.saveManySync(persistedModels);
+    for (final var model : persistedModels) {
+      this.recordLoad(model.id());
+    }
+    foundModels.addAll(persistedModels);
+    return foundModels;
   }
 
   public @Nullable Collection<String> findAllCachedIdsSync() {
@@ -93,6 +225,7 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
     }
     for (final var model : models) {
       this.cacheModelRepository.saveSync(model);
+      this.recordLoad(model.id());
     }
     return models;
   }
@@ -100,7 +233,8 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
   @Contract("_ -> param1")
   public @NotNull ModelType uploadSync(final @NotNull ModelType model) {
     this.cacheModelRepository.deleteSync(model);
-    this.persistModelRepository.saveSync(model);
+    this.forgetLoad(model.id());
+    this.persistLater(model);
     return model;
   }
 
@@ -109,7 +243,8 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
       model -> {
         preUploadAction.accept(model);
         this.cacheModelRepository.deleteSync(model);
-        this.persistModelRepository.saveSync(model);
+        this.forgetLoad(model.id());
+        this.persistLater(model);
       },
       ArrayList::new);
   }
@@ -119,47 +254,135 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
   }
 
   public boolean existsInCacheOrPersistentSync(final @NotNull String id) {
-    return this.existsInCacheSync(id) || this.persistModelRepository.existsSync(id);
+    return this.existsInCacheSync(id) || this.existsSync(id);
   }
 
   public boolean existsInBothSync(final @NotNull String id) {
-    return this.existsInCacheSync(id) && this.persistModelRepository.existsSync(id);
+    return this.existsInCacheSync(id) && this.existsSync(id);
   }
 
   @Contract("_ -> param1")
   public @NotNull ModelType saveInCacheSync(final @NotNull ModelType model) {
     this.cacheModelRepository.saveSync(model);
+    this.recordLoad(model.id());
     return model;
   }
 
   @Contract("_ -> param1")
   public @NotNull ModelType saveInBothSync(final @NotNull ModelType model) {
     this.cacheModelRepository.saveSync(model);
-    this.persistModelRepository.saveSync(model);
+    this.recordLoad(model.id());
+    this.persistLater(model);
     return model;
   }
 
   public boolean deleteInCacheSync(final @NotNull String id) {
+    this.forgetLoad(id);
     return this.cacheModelRepository.deleteSync(id);
   }
 
   public boolean deleteInBothSync(final @NotNull String id) {
+    this.forgetLoad(id);
     return this.cacheModelRepository.deleteSync(id) &&
-           this.persistModelRepository.deleteSync(id);
+           this.deleteSync(id);
+  }
+
+  /**
+   * Evicts the given ids from the cache tier only, as reported changed by the {@link InvalidationBus}.
+   *
+   * @param ids the ids to evict
+   */
+  public void evictSync(final @NotNull Collection<String> ids) {
+    this.cacheModelRepository.deleteManySync(ids);
+    for (final var id : ids) {
+      this.forgetLoad(id);
+    }
+    if (this.negativeCache != null) {
+      this.negativeCache.invalidateAll(ids);
+    }
   }
 
+  /**
+   * Persists every cached model, skipping the unchanged ones if the persistent repository tracks
+   * dirty fields.
+   *
+   * @param preSaveAction the action run on every model before it is persisted
+   */
   public void saveAllSync(final @NotNull Consumer<ModelType> preSaveAction) {
     this.cacheModelRepository.findAllSync(
       model -> {
         preSaveAction.accept(model);
-        this.persistModelRepository.saveSync(model);
+        this.persistLater(model);
       },
       ArrayList::new);
   }
 
+  /**
+   * Finds the model in the persistent repository, or in the cache tier while the circuit breaker is
+   * open.
+   *
+   * @param id the model id
+   * @return the found model, or {@code null} if it doesn't exist
+   */
   @Override
   public @Nullable ModelType findSync(final @NotNull String id) {
-    return this.persistModelRepository.findSync(id);
+    try {
+      return this.findPersistedSync(id);
+    } catch (final CircuitOpenException e) {
+      final var cachedModel = this.findInCacheSync(id);
+      if (cachedModel == null) {
+        throw e;
+      }
+      return cachedModel;
+    }
+  }
+
+  protected @Nullable ModelType findPersistedSync(final @NotNull String id) {
+    if (this.pendingWrites != null) {
+      final var pendingModel = this.pendingWrites.pending(id);
+      if (pendingModel != null) {
+        return pendingModel;
+      }
+    }
+    if (this.negativeCache == null) {
+      return this.persistModelRepository.findSync(id);
+    }
+    if (this.negativeCache.contains(id)) {
+      return null;
+    }
+    final var stamp = this.negativeCache.stamp();
+    final var model = this.persistModelRepository.findSync(id);
+    if (model == null) {
+      this.negativeCache.markAbsent(id, stamp);
+    }
+    return model;
+  }
+
+  /**
+   * Finds the model in the cache, or loads the given fields of it from the persistent repository.
+   * Partially loaded models are never cached.
+   *
+   * @param id     the model id
+   * @param fields the serialized names of the fields to load
+   * @return the cached model, the partially loaded model, or {@code null} if it doesn't exist
+   */
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    final var cachedModel = this.findInCacheSync(id);
+    if (cachedModel != null) {
+      this.recordCacheHit();
+      return cachedModel;
+    }
+    if (this.pendingWrites != null) {
+      final var pendingModel = this.pendingWrites.pending(id);
+      if (pendingModel != null) {
+        return this.recordPersistLookup(pendingModel);
+      }
+    }
+    if (this.negativeCache != null && this.negativeCache.contains(id)) {
+      return this.recordPersistLookup(null);
+    }
+    return this.recordPersistLookup(this.persistModelRepository.findSync(id, fields));
   }
 
   @Override
@@ -171,6 +394,48 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
     return this.persistModelRepository.findSync(field, value, factory);
   }
 
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    if (this.pendingWrites == null) {
+      return this.persistModelRepository.findManySync(ids, factory);
+    }
+    final var foundModels = factory.apply(ids.size());
+    final var missingIds = new ArrayList<String>(ids.size());
+    for (final var id : ids) {
+      final var pendingModel = this.pendingWrites.pending(id);
+      if (pendingModel == null) {
+        missingIds.add(id);
+      } else {
+        foundModels.add(pendingModel);
+      }
+    }
+    if (!missingIds.isEmpty()) {
+      foundModels.addAll(this.persistModelRepository.findManySync(missingIds, ArrayList::new));
+    }
+    return foundModels;
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    return this.persistModelRepository.findPageSync(continuationToken, limit);
+  }
+
+  @Override
+  public boolean supportsQuery(final @NotNull Query query) {
+    return this.persistModelRepository.supportsQuery(query);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.persistModelRepository.querySync(query, factory);
+  }
+
   @Override
   public @Nullable Collection<String> findIdsSync() {
     return this.persistModelRepository.findIdsSync();
@@ -184,65 +449,438 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
     return this.persistModelRepository.findAllSync(postLoadAction, factory);
   }
 
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    return this.persistModelRepository.streamIdsSync(batchSize);
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    return this.persistModelRepository.streamAllSync(batchSize);
+  }
+
   @Override
   public boolean existsSync(final @NotNull String id) {
-    return this.persistModelRepository.existsSync(id);
+    if (this.pendingWrites != null && this.pendingWrites.pending(id) != null) {
+      return true;
+    }
+    if (this.negativeCache == null) {
+      return this.persistModelRepository.existsSync(id);
+    }
+    if (this.negativeCache.contains(id)) {
+      return false;
+    }
+    final var stamp = this.negativeCache.stamp();
+    final var exists = this.persistModelRepository.existsSync(id);
+    if (!exists) {
+      this.negativeCache.markAbsent(id, stamp);
+    }
+    return exists;
   }
 
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    if (this.pendingWrites == null && this.negativeCache == null) {
+      return this.persistModelRepository.existsManySync(ids);
+    }
+    final var existingIds = new ArrayList<String>(ids.size());
+    final var unknownIds = new ArrayList<String>(ids.size());
+    for (final var id : ids) {
+      if (this.pendingWrites != null && this.pendingWrites.pending(id) != null) {
+        existingIds.add(id);
+      } else if (this.negativeCache == null || !this.negativeCache.contains(id)) {
+        unknownIds.add(id);
+      }
+    }
+    if (unknownIds.isEmpty()) {
+      return existingIds;
+    }
+    final var stamp = this.negativeCache == null ? 0L : this.negativeCache.stamp();
+    final var persistedIds = new HashSet<>(this.persistModelRepository.existsManySync(unknownIds));
+    existingIds.addAll(persistedIds);
+    if (this.negativeCache != null) {
+      for (final var id : unknownIds) {
+        if (!persistedIds.contains(id)) {
+          this.negativeCache.markAbsent(id, stamp);
+        }
+      }
+    }
+    return existingIds;
+  }
+
+  /**
+   * Saves the model in the persistent repository, or queues it while the circuit breaker is open.
+   *
+   * @param model the model
+   * @return the saved model
+   */
   @Override
   public @NotNull ModelType saveSync(final @NotNull ModelType model) {
-    return this.persistModelRepository.saveSync(model);
+    if (this.negativeCache != null) {
+      this.negativeCache.invalidate(model.id());
+    }
+    return this.persistNow(model);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    final var ids = new ArrayList<String>(models.size());
+    for (final var model : models) {
+      ids.add(model.id());
+    }
+    if (this.negativeCache != null) {
+      this.negativeCache.invalidateAll(ids);
+    }
+    final C savedModels;
+    try {
+      final var writeQueue = this.writeQueue();
+      savedModels = writeQueue == null
+        ? this.persistModelRepository.saveManySync(models)
+        : writeQueue.writeThrough(ids, () -> this.persistModelRepository.saveManySync(models));
+    } catch (final CircuitOpenException e) {
+      if (this.pendingWrites == null) {
+        throw e;
+      }
+      for (final var model : models) {
+        this.pendingWrites.enqueue(model);
+      }
+      return models;
+    }
+    this.publishInvalidation(ids);
+    return savedModels;
   }
 
   @Override
   public boolean deleteSync(final @NotNull String id) {
-    return this.persistModelRepository.deleteSync(id);
+    this.checkCircuit();
+    final var writeQueue = this.writeQueue();
+    final var deleted = writeQueue == null
+      ? this.persistModelRepository.deleteSync(id)
+      : writeQueue.writeThrough(id, () -> this.persistModelRepository.deleteSync(id));
+    this.publishInvalidation(id);
+    return deleted;
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    this.checkCircuit();
+    final var writeQueue = this.writeQueue();
+    final var deleted = writeQueue == null
+      ? this.persistModelRepository.deleteManySync(ids)
+      : writeQueue.writeThrough(ids, () -> this.persistModelRepository.deleteManySync(ids));
+    this.publishInvalidation(ids);
+    return deleted;
+  }
+
+  @Override
+  public boolean supportsPatch(final @NotNull Patch patch) {
+    return this.persistModelRepository.supportsPatch(patch);
+  }
+
+  /**
+   * Applies the patch to the persistent repository, after flushing the pending write-behind model of
+   * the id if any, and evicts the id from the cache tier.
+   *
+   * @param id    the model id
+   * @param patch the patch
+   * @return whether a model was patched or inserted
+   */
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    this.checkCircuit();
+    final var writeQueue = this.writeQueue();
+    final var patched = writeQueue == null
+      ? this.persistModelRepository.patchSync(id, patch)
+      : writeQueue.writeAfter(id, () -> this.persistModelRepository.patchSync(id, patch));
+    this.evictAfterWrite(id);
+    return patched;
+  }
+
+  /**
+   * Computes the model in the persistent repository, after flushing its pending write if any, and
+   * evicts it from the cache tier.
+   *
+   * @param id       the model id
+   * @param function the function computing the new model
+   * @return the stored model, or {@code null} if there is none
+   */
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    this.checkCircuit();
+    final var writeQueue = this.writeQueue();
+    final var model = writeQueue == null
+      ? this.persistModelRepository.computeSync(id, function)
+      : writeQueue.writeAfter(id, () -> this.persistModelRepository.computeSync(id, function));
+    this.evictAfterWrite(id);
+    return model;
+  }
+
+  /**
+   * Stops the write-behind and outage queues, flushing their pending writes.
+   */
+  @Override
+  public void close() {
+    if (this.writeBehindQueue != null) {
+      this.writeBehindQueue.close();
+    }
+    if (this.outageQueue != null) {
+      this.outageQueue.close();
+    }
+  }
+
+  /**
+   * Loads the model from the persistent repository and caches it, once for concurrent misses.
+   *
+   * @param id the model id
+   * @return the loaded model, or null if it does not exist
+   */
+  protected @Nullable ModelType loadAndCacheSync(final @NotNull String id) {
+    final var model = this.findPersistedSync(id);
+    if (model == null) {
+      return null;
+    }
+    this.cacheModelRepository.saveSync(model);
+    this.recordLoad(model.id());
+    return model;
+  }
+
+  /**
+   * Reloads a cached model from the persistent repository, caching it only if nobody re-cached it
+   * since {@code loadTime}.
+   *
+   * @param id       the model id
+   * @param loadTime the load time of the cached model, or null if unknown
+   * @return the reloaded model, or null if it no longer exists
+   */
+  protected @Nullable ModelType refreshSync(final @NotNull String id, final @Nullable Long loadTime) {
+    final var model = this.findPersistedSync(id);
+    if (this.refreshAheadPolicy == null || !this.refreshAheadPolicy.isCurrent(id, loadTime)) {
+      return model;
+    }
+    if (model == null) {
+      this.cacheModelRepository.deleteSync(id);
+      this.refreshAheadPolicy.forget(id);
+    } else {
+      this.cacheModelRepository.saveSync(model);
+      this.refreshAheadPolicy.record(id);
+    }
+    return model;
+  }
+
+  protected void recordLoad(final @NotNull String id) {
+    if (this.refreshAheadPolicy != null) {
+      this.refreshAheadPolicy.record(id);
+    }
+  }
+
+  protected void forgetLoad(final @NotNull String id) {
+    if (this.refreshAheadPolicy != null) {
+      this.refreshAheadPolicy.forget(id);
+    }
+  }
+
+  protected void persistLater(final @NotNull ModelType model) {
+    if (this.negativeCache != null) {
+      this.negativeCache.invalidate(model.id());
+    }
+    if (this.writeBehindQueue == null) {
+      this.persistNow(model);
+    } else {
+      // published once flushed, see the constructor
+      this.writeBehindQueue.enqueue(model);
+    }
+  }
+
+  /**
+   * Writes the model to the persistent repository, or queues it if the circuit breaker is open.
+   *
+   * @param model the model
+   * @return the saved model
+   */
+  protected @NotNull ModelType persistNow(final @NotNull ModelType model) {
+    final ModelType savedModel;
+    try {
+      final var writeQueue = this.writeQueue();
+      savedModel = writeQueue == null
+        ? this.persistModelRepository.saveSync(model)
+        : writeQueue.writeThrough(model.id(), () -> this.persistModelRepository.saveSync(model));
+    } catch (final CircuitOpenException e) {
+      if (this.pendingWrites == null) {
+        throw e;
+      }
+      // published once flushed, see the constructor
+      this.pendingWrites.enqueue(model);
+      return model;
+    }
+    this.publishInvalidation(model.id());
+    return savedModel;
+  }
+
+  /**
+   * Returns the queue the direct writes go through: the write-behind queue, or the outage queue while
+   * it holds writes.
+   *
+   * @return the queue, or {@code null} to write directly
+   */
+  protected @Nullable WriteBehindQueue<ModelType> writeQueue() {
+    if (this.writeBehindQueue != null) {
+      return this.writeBehindQueue;
+    }
+    if (this.outageQueue != null && this.outageQueue.pendingCount() > 0) {
+      return this.outageQueue;
+    }
+    return null;
+  }
+
+  protected boolean isCircuitOpen() {
+    return this.circuitBreaker != null && this.circuitBreaker.isOpen();
+  }
+
+  /**
+   * Rejects the writes which can't be queued, such as deletes and patches, while the breaker is open.
+   */
+  protected void checkCircuit() {
+    if (this.isCircuitOpen()) {
+      throw new CircuitOpenException("circuit open, the write can't be queued");
+    }
+  }
+
+  /**
+   * Evicts a model written directly to the persistent repository from the cache tier.
+   *
+   * @param id the model id
+   */
+  protected void evictAfterWrite(final @NotNull String id) {
+    this.cacheModelRepository.deleteSync(id);
+    this.forgetLoad(id);
+    if (this.negativeCache != null) {
+      this.negativeCache.invalidate(id);
+    }
+    this.publishInvalidation(id);
+  }
+
+  protected void recordCacheHit() {
+    if (this.metrics != null) {
+      this.metrics.recordCacheHits(1);
+    }
+  }
+
+  /**
+   * Records a lookup answered by the persistent repository as a hit or a miss.
+   *
+   * @param model the found model, or null if it doesn't exist
+   * @return the given model
+   */
+  protected @Nullable ModelType recordPersistLookup(final @Nullable ModelType model) {
+    if (this.metrics != null) {
+      if (model == null) {
+        this.metrics.recordMisses(1);
+      } else {
+        this.metrics.recordPersistHits(1);
+      }
+    }
+    return model;
+  }
+
+  protected void publishInvalidation(final @NotNull String id) {
+    if (this.invalidationBus != null) {
+      this.invalidationBus.publish(id);
+    }
+  }
+
+  protected void publishInvalidation(final @NotNull Collection<String> ids) {
+    if (this.invalidationBus != null) {
+      this.invalidationBus.publish(ids);
+    }
   }
 
   public @NotNull CompletableFuture<@Nullable ModelType> findAndCache(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.findAndCacheSync(id), super.executor);
+    return this.loads.loadAsync(id, Deadline.propagate(() -> this.loadAndCacheSync(id)), super.executor);
   }
 
   public @NotNull CompletableFuture<@Nullable ModelType> findInCache(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.findInCacheSync(id), super.executor);
+    return super.supplyAsync(() -> this.findInCacheSync(id));
   }
 
   public @NotNull CompletableFuture<@Nullable ModelType> findInBoth(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.findInBothSync(id), super.executor);
+    return super.supplyAsync(() -> this.findInBothSync(id));
   }
 
   public @NotNull CompletableFuture<@Nullable ModelType> findInBothAndCache(
     final @NotNull String id
   ) {
-    return CompletableFuture.supplyAsync(() -> this.findInBothAndCacheSync(id), super.executor);
+    return this.findInCache(id)
+      .thenCompose(Deadline.propagate(cachedModel -> {
+        if (cachedModel == null) {
+          return this.findAndCache(id)
+                   .thenApply(this::recordPersistLookup);
+        }
+        if (this.refreshAheadPolicy == null) {
+          this.recordCacheHit();
+          return CompletableFuture.completedFuture(cachedModel);
+        }
+        final var loadTime = this.refreshAheadPolicy.loadTime(id);
+        return switch (this.refreshAheadPolicy.freshness(loadTime)) {
+          case FRESH -> {
+            this.recordCacheHit();
+            yield CompletableFuture.completedFuture(cachedModel);
+          }
+          case STALE -> {
+            this.recordCacheHit();
+            if (!this.isCircuitOpen()) {
+              this.loads.loadAsync(id, () -> this.refreshSync(id, loadTime), super.executor);
+            }
+            yield CompletableFuture.completedFuture(cachedModel);
+          }
+          case EXPIRED -> {
+            if (this.isCircuitOpen()) {
+              this.recordCacheHit();
+              yield CompletableFuture.completedFuture(cachedModel);
+            }
+            final var refresh = Deadline.propagate(() -> this.refreshSync(id, loadTime));
+            yield this.loads.loadAsync(id, refresh, super.executor)
+                    .thenApply(this::recordPersistLookup);
+          }
+        };
+      }));
+  }
+
+  public @NotNull <C extends Collection<ModelType>> CompletableFuture<@NotNull C> findManyInBothAndCache(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return super.supplyAsync(() -> this.findManyInBothAndCacheSync(ids, factory));
   }
 
   public @NotNull CompletableFuture<@Nullable Collection<String>> findAllCachedIds() {
-    return CompletableFuture.supplyAsync(this::findAllCachedIdsSync, super.executor);
+    return super.supplyAsync(this::findAllCachedIdsSync);
   }
 
   public @NotNull <C extends Collection<ModelType>> CompletableFuture<@Nullable C> findAllCached(
     final @NotNull Function<Integer, C> factory
   ) {
-    return CompletableFuture.supplyAsync(() -> this.findAllCachedSync(factory), super.executor);
+    return super.supplyAsync(() -> this.findAllCachedSync(factory));
   }
 
   public @NotNull <C extends Collection<ModelType>> CompletableFuture<@Nullable C> findAllCached(
     final @NotNull Consumer<ModelType> postLoadAction,
     final @NotNull Function<Integer, C> factory
   ) {
-    return CompletableFuture.supplyAsync(() -> this.findAllCachedSync(postLoadAction, factory), super.executor);
+    return super.supplyAsync(() -> this.findAllCachedSync(postLoadAction, factory));
   }
 
   public @NotNull <C extends Collection<ModelType>> CompletableFuture<@Nullable C> loadAll(
     final @NotNull Consumer<ModelType> postLoadAction,
     final @NotNull Function<Integer, C> factory
   ) {
-    return CompletableFuture.supplyAsync(() -> this.loadAllSync(postLoadAction, factory), super.executor);
+    return super.supplyAsync(() -> this.loadAllSync(postLoadAction, factory));
   }
 
   public @NotNull CompletableFuture<@NotNull ModelType> upload(final @NotNull ModelType model) {
-    return CompletableFuture.supplyAsync(() -> this.uploadSync(model), super.executor);
+    return super.supplyAsync(() -> this.uploadSync(model));
   }
 
   public @NotNull CompletableFuture<Void> uploadAll() {
@@ -250,37 +888,37 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
   }
 
   public @NotNull CompletableFuture<Void> uploadAll(final @NotNull Consumer<ModelType> preUploadAction) {
-    return CompletableFuture.runAsync(() -> this.uploadAllSync(preUploadAction), super.executor);
+    return super.runAsync(() -> this.uploadAllSync(preUploadAction));
   }
 
   public @NotNull CompletableFuture<@NotNull Boolean> existsInCache(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.existsInCacheSync(id), super.executor);
+    return super.supplyAsync(() -> this.existsInCacheSync(id));
   }
 
   public @NotNull CompletableFuture<@NotNull Boolean> existsInCacheOrPersistent(
     final @NotNull String id
   ) {
-    return CompletableFuture.supplyAsync(() -> this.existsInCacheOrPersistentSync(id), super.executor);
+    return super.supplyAsync(() -> this.existsInCacheOrPersistentSync(id));
   }
 
   public @NotNull CompletableFuture<@NotNull Boolean> existsInBoth(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.existsInBothSync(id), super.executor);
+    return super.supplyAsync(() -> this.existsInBothSync(id));
   }
 
   public @NotNull CompletableFuture<@NotNull ModelType> saveInCache(final @NotNull ModelType model) {
-    return CompletableFuture.supplyAsync(() -> this.saveInCacheSync(model), super.executor);
+    return super.supplyAsync(() -> this.saveInCacheSync(model));
   }
 
   public @NotNull CompletableFuture<@NotNull ModelType> saveInBoth(final @NotNull ModelType model) {
-    return CompletableFuture.supplyAsync(() -> this.saveInBothSync(model), super.executor);
+    return super.supplyAsync(() -> this.saveInBothSync(model));
   }
 
   public @NotNull CompletableFuture<Boolean> deleteInCache(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.deleteInCacheSync(id), super.executor);
+    return super.supplyAsync(() -> this.deleteInCacheSync(id));
   }
 
   public @NotNull CompletableFuture<Boolean> deleteInBoth(final @NotNull String id) {
-    return CompletableFuture.supplyAsync(() -> this.deleteInBothSync(id), super.executor);
+    return super.supplyAsync(() -> this.deleteInBothSync(id));
   }
 
   public @NotNull CompletableFuture<Void> saveAll() {
@@ -288,6 +926,6 @@ public class CachedModelRepository<ModelType extends Model> extends AbstractAsyn
   }
 
   public @NotNull CompletableFuture<Void> saveAll(final @NotNull Consumer<ModelType> preSaveAction) {
-    return CompletableFuture.runAsync(() -> this.saveAllSync(preSaveAction), super.executor);
+    return super.runAsync(() -> this.saveAllSync(preSaveAction));
   }
 }
@@ -0,0 +1,239 @@
+package org.fenixteam.storage.repository;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.cache.CircuitBreaker;
+import org.fenixteam.storage.repository.cache.CircuitBreakerModelRepository;
+import org.fenixteam.storage.repository.cache.CircuitOpenException;
+import org.fenixteam.storage.repository.cache.InvalidationBus;
+import org.fenixteam.storage.repository.cache.NegativeCache;
+import org.fenixteam.storage.repository.cache.RefreshAheadPolicy;
+import org.fenixteam.storage.repository.cache.WriteBehindQueue;
+import org.fenixteam.storage.repository.metrics.RepositoryMetrics;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+@SuppressWarnings("unused")
+public final class CachedModelRepositoryBuilder<ModelType extends Model> {
+  private ModelRepository<ModelType> cacheModelRepository;
+  private ModelRepository<ModelType> persistModelRepository;
+  private ScheduledExecutorService scheduler;
+  private Duration writeBehindInterval;
+  private int writeBehindBatchSize = 500;
+  private Duration writeBehindShutdownTimeout = Duration.ofSeconds(30);
+  private Consumer<RuntimeException> writeBehindFailureHandler = exception -> {
+    final var thread = Thread.currentThread();
+    thread.getUncaughtExceptionHandler()
+      .uncaughtException(thread, exception);
+  };
+  private Duration negativeCacheTimeToLive;
+  private int negativeCacheMaxSize;
+  private Duration refreshSoftAge;
+  private Duration refreshHardAge;
+  private InvalidationBus invalidationBus;
+  private RepositoryMetrics metrics;
+  private CircuitBreaker circuitBreaker;
+
+  CachedModelRepositoryBuilder() {
+  }
+
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> cacheModelRepository(
+    final @NotNull ModelRepository<ModelType> cacheModelRepository
+  ) {
+    this.cacheModelRepository = cacheModelRepository;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> persistModelRepository(
+    final @NotNull ModelRepository<ModelType> persistModelRepository
+  ) {
+    this.persistModelRepository = persistModelRepository;
+    return this;
+  }
+
+  /**
+   * Sets the scheduler of the background tasks, otherwise each of them creates its own daemon thread.
+   *
+   * @param scheduler the scheduler
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> scheduler(final @NotNull ScheduledExecutorService scheduler) {
+    this.scheduler = scheduler;
+    return this;
+  }
+
+  /**
+   * Enables write-behind: the models saved through {@code saveInBoth}, {@code upload},
+   * {@code uploadAll} and {@code saveAll} are flushed to the persistent repository in batches.
+   *
+   * @param flushInterval the delay between two flushes
+   * @param maxBatchSize  the maximum amount of models written at once
+   * @return this builder
+   */
+  @Contract("_, _ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> writeBehind(
+    final @NotNull Duration flushInterval,
+    final int maxBatchSize
+  ) {
+    this.writeBehindInterval = flushInterval;
+    this.writeBehindBatchSize = maxBatchSize;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> writeBehindShutdownTimeout(
+    final @NotNull Duration shutdownTimeout
+  ) {
+    this.writeBehindShutdownTimeout = shutdownTimeout;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> writeBehindFailureHandler(
+    final @NotNull Consumer<RuntimeException> failureHandler
+  ) {
+    this.writeBehindFailureHandler = failureHandler;
+    return this;
+  }
+
+  /**
+   * Enables negative caching: ids reported as missing by the persistent repository are remembered
+   * for {@code timeToLive}, or until they are saved through the cached repository.
+   *
+   * @param timeToLive how long an id is remembered as missing
+   * @param maxSize    the maximum amount of ids remembered at once
+   * @return this builder
+   */
+  @Contract("_, _ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> negativeCache(
+    final @NotNull Duration timeToLive,
+    final int maxSize
+  ) {
+    this.negativeCacheTimeToLive = timeToLive;
+    this.negativeCacheMaxSize = maxSize;
+    return this;
+  }
+
+  /**
+   * Enables refresh-ahead reads in {@code findInBothAndCache}: a cached model older than
+   * {@code softAge} is returned while it is reloaded in the background, and one older than
+   * {@code hardAge} is reloaded before being returned.
+   *
+   * @param softAge the age from which cached models are refreshed in the background
+   * @param hardAge the age from which cached models are no longer served
+   * @return this builder
+   */
+  @Contract("_, _ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> refreshAhead(
+    final @NotNull Duration softAge,
+    final @NotNull Duration hardAge
+  ) {
+    this.refreshSoftAge = softAge;
+    this.refreshHardAge = hardAge;
+    return this;
+  }
+
+  /**
+   * Publishes the ids saved or deleted through the repository on the given bus, and evicts the ids
+   * published by the other processes from the cache tier.
+   *
+   * @param invalidationBus the bus
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> invalidationBus(
+    final @NotNull InvalidationBus invalidationBus
+  ) {
+    this.invalidationBus = invalidationBus;
+    return this;
+  }
+
+  /**
+   * Counts the lookups of the {@code findInBoth*} methods by the tier which answered them.
+   *
+   * @param metrics the metrics
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> metrics(final @NotNull RepositoryMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  /**
+   * Guards the calls to the persistent repository with the given circuit breaker. While it is open,
+   * single id reads are served from the cache tier, saves are queued and the other writes fail.
+   *
+   * @param circuitBreaker the circuit breaker
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull CachedModelRepositoryBuilder<ModelType> circuitBreaker(final @NotNull CircuitBreaker circuitBreaker) {
+    this.circuitBreaker = circuitBreaker;
+    return this;
+  }
+
+  @Contract("_ -> new")
+  public @NotNull CachedModelRepository<ModelType> build(final @NotNull Executor executor) {
+    var persistModelRepository = this.persistModelRepository;
+    var failureHandler = this.writeBehindFailureHandler;
+    if (this.circuitBreaker != null) {
+      persistModelRepository = CircuitBreakerModelRepository.wrap(
+        executor,
+        persistModelRepository,
+        this.circuitBreaker);
+      final var configuredHandler = failureHandler;
+      failureHandler = exception -> {
+        // the models are kept queued until the breaker lets the flush through
+        if (!(exception instanceof CircuitOpenException)) {
+          configuredHandler.accept(exception);
+        }
+      };
+    }
+    WriteBehindQueue<ModelType> writeBehindQueue = null;
+    if (this.writeBehindInterval != null) {
+      writeBehindQueue = WriteBehindQueue.create(
+        persistModelRepository,
+        this.scheduler,
+        this.writeBehindInterval,
+        this.writeBehindBatchSize,
+        this.writeBehindShutdownTimeout,
+        failureHandler);
+    }
+    WriteBehindQueue<ModelType> outageQueue = null;
+    if (this.circuitBreaker != null && writeBehindQueue == null) {
+      outageQueue = WriteBehindQueue.create(
+        persistModelRepository,
+        this.scheduler,
+        this.circuitBreaker.openDuration(),
+        this.writeBehindBatchSize,
+        this.writeBehindShutdownTimeout,
+        failureHandler);
+    }
+    NegativeCache negativeCache = null;
+    if (this.negativeCacheTimeToLive != null) {
+      negativeCache = NegativeCache.create(this.negativeCacheTimeToLive, this.negativeCacheMaxSize);
+    }
+    RefreshAheadPolicy refreshAheadPolicy = null;
+    if (this.refreshSoftAge != null) {
+      refreshAheadPolicy = RefreshAheadPolicy.create(this.refreshSoftAge, this.refreshHardAge);
+    }
+    return new CachedModelRepository<>(
+      executor,
+      this.cacheModelRepository,
+      persistModelRepository,
+      writeBehindQueue,
+      negativeCache,
+      refreshAheadPolicy,
+      this.invalidationBus,
+      this.metrics,
+      this.circuitBreaker,
+      outageQueue);
+  }
+}
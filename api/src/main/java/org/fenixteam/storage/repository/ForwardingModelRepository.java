@@ -0,0 +1,152 @@
+package org.fenixteam.storage.repository;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base of the repository decorators, forwarding every call to the decorated repository so that
+ * subclasses only override the calls they change.
+ */
+public abstract class ForwardingModelRepository<ModelType extends Model>
+  extends AbstractAsyncModelRepository<ModelType> {
+  protected final ModelRepository<ModelType> delegate;
+
+  protected ForwardingModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<ModelType> delegate
+  ) {
+    super(executor);
+    this.delegate = delegate;
+  }
+
+  public @NotNull ModelRepository<ModelType> delegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    return this.delegate.findSync(id);
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    return this.delegate.findSync(id, fields);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.delegate.findSync(field, value, factory);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.delegate.findManySync(ids, factory);
+  }
+
+  @Override
+  public boolean supportsQuery(final @NotNull Query query) {
+    return this.delegate.supportsQuery(query);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.delegate.querySync(query, factory);
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    return this.delegate.findIdsSync();
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findAllSync(
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.delegate.findAllSync(postLoadAction, factory);
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    return this.delegate.findPageSync(continuationToken, limit);
+  }
+
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    return this.delegate.streamIdsSync(batchSize);
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    return this.delegate.streamAllSync(batchSize);
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    return this.delegate.existsSync(id);
+  }
+
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    return this.delegate.existsManySync(ids);
+  }
+
+  @Override
+  public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    return this.delegate.saveSync(model);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    return this.delegate.saveManySync(models);
+  }
+
+  @Override
+  public boolean supportsPatch(final @NotNull Patch patch) {
+    return this.delegate.supportsPatch(patch);
+  }
+
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    return this.delegate.patchSync(id, patch);
+  }
+
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.delegate.computeSync(id, function);
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    return this.delegate.deleteSync(id);
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    return this.delegate.deleteManySync(ids);
+  }
+}
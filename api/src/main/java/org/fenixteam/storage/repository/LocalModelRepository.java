@@ -1,12 +1,26 @@
 package org.fenixteam.storage.repository;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.index.IndexQueryExecutor;
+import org.fenixteam.storage.repository.index.ModelIndex;
+import org.fenixteam.storage.repository.index.ModelIndexes;
+import org.fenixteam.storage.repository.index.SortedModelIndex;
+import org.fenixteam.storage.repository.page.KeysetPages;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.query.Query;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -14,15 +28,34 @@ import org.jetbrains.annotations.Nullable;
 @SuppressWarnings("unused")
 public final class LocalModelRepository<ModelType extends Model> implements ModelRepository<ModelType> {
   private final Map<String, ModelType> cache;
+  private final ModelIndexes<ModelType> indexes;
+  private final IndexQueryExecutor<ModelType> queryExecutor;
 
-  private LocalModelRepository(final @NotNull Map<String, ModelType> cache) {
+  private LocalModelRepository(
+    final @NotNull Map<String, ModelType> cache,
+    final @NotNull ModelIndexes<ModelType> indexes
+  ) {
     this.cache = cache;
+    this.indexes = indexes;
+    this.queryExecutor = new IndexQueryExecutor<>(indexes);
+    for (final var entry : cache.entrySet()) {
+      indexes.update(entry.getKey(), entry.getValue());
+    }
   }
 
+  /**
+   * Returns the backing map. Writing to it directly bypasses the secondary indexes.
+   *
+   * @return the backing map
+   */
   public @NotNull Map<String, ModelType> cache() {
     return this.cache;
   }
 
+  public @NotNull ModelIndexes<ModelType> indexes() {
+    return this.indexes;
+  }
+
   @Override
   public @Nullable ModelType findSync(final @NotNull String id) {
     return this.cache.get(id);
@@ -34,7 +67,106 @@ public final class LocalModelRepository<ModelType extends Model> implements Mode
     final @NotNull String value,
     final @NotNull Function<Integer, C> factory
   ) {
-    throw new UnsupportedOperationException("Local repository does not support findSync(String, String, Function)");
+    final var index = this.indexes.get(field);
+    if (index != null) {
+      final var key = index.parseKey(value);
+      return this.indexes.resolve(index.findEqual(key), this.cache::get, model -> index.matches(model, key), factory);
+    }
+    if (field.equals(ID_FIELD)) {
+      return this.indexes.resolve(List.of(value), this.cache::get, factory);
+    }
+    throw new UnsupportedOperationException("No index registered for field '" + field + "'");
+  }
+
+  /**
+   * Finds the models whose value for the given sorted indexed field is between the given bounds.
+   *
+   * @param field         the indexed field
+   * @param from          the lower bound, or {@code null} for no lower bound
+   * @param fromInclusive whether the lower bound is inclusive
+   * @param to            the upper bound, or {@code null} for no upper bound
+   * @param toInclusive   whether the upper bound is inclusive
+   * @param factory       the collection factory
+   * @param <K>           the indexed value type
+   * @param <C>           the collection type
+   * @return the found models sorted by value, or {@code null} if none was found
+   */
+  public <K extends Comparable<? super K>, C extends Collection<ModelType>> @Nullable C findRangeSync(
+    final @NotNull String field,
+    final @Nullable K from,
+    final boolean fromInclusive,
+    final @Nullable K to,
+    final boolean toInclusive,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var index = this.<K>sortedIndex(field);
+    return this.indexes.resolve(
+      index.findRange(from, fromInclusive, to, toInclusive),
+      this.cache::get,
+      model -> index.matchesRange(model, from, fromInclusive, to, toInclusive),
+      factory);
+  }
+
+  public <C extends Collection<ModelType>> @Nullable C findPrefixSync(
+    final @NotNull String field,
+    final @NotNull String prefix,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var index = this.<String>sortedIndex(field);
+    return this.indexes.resolve(
+      index.findPrefix(prefix),
+      this.cache::get,
+      model -> index.matchesPrefix(model, prefix),
+      factory);
+  }
+
+  /**
+   * Finds a page of models sorted by id, walking the keys directly if the map is sorted.
+   *
+   * @param continuationToken the last id of the previous page, or {@code null} for the first page
+   * @param limit             the maximum amount of models of the page
+   * @return the page
+   */
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    KeysetPages.checkLimit(limit);
+    if (!(this.cache instanceof NavigableMap<String, ModelType> sortedCache)) {
+      final var keys = this.cache.keySet()
+                         .iterator();
+      final var pageIds = KeysetPages.firstAfter(keys, continuationToken, limit);
+      return KeysetPages.load(pageIds, limit, ids -> this.findManySync(ids, ArrayList::new));
+    }
+    final var tail = continuationToken == null ? sortedCache : sortedCache.tailMap(continuationToken, false);
+    final var models = new ArrayList<ModelType>(limit);
+    for (final var model : tail.values()) {
+      if (models.size() >= limit) {
+        break;
+      }
+      models.add(model);
+    }
+    return KeysetPages.of(models, limit);
+  }
+
+  @Override
+  public boolean supportsQuery(final @NotNull Query query) {
+    return this.queryExecutor.supports(query);
+  }
+
+  /**
+   * Runs the given query through the secondary indexes, every filtered and sorted field must be
+   * indexed. The projection is ignored.
+   *
+   * @param query   the query
+   * @param factory the collection factory
+   * @param <C>     the collection type
+   * @return the found models
+   */
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.queryExecutor.execute(query, this.cache::get, this.cache::keySet, factory);
   }
 
   @Override
@@ -56,6 +188,20 @@ public final class LocalModelRepository<ModelType extends Model> implements Mode
     return collection;
   }
 
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    return this.cache.keySet()
+             .stream();
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    return this.cache.values()
+             .stream();
+  }
+
   @Override
   public boolean existsSync(final @NotNull String id) {
     return this.cache.containsKey(id);
@@ -63,13 +209,61 @@ public final class LocalModelRepository<ModelType extends Model> implements Mode
 
   @Override
   public @NotNull ModelType saveSync(final @NotNull ModelType model) {
-    this.cache.put(model.id(), model);
+    if (this.indexes.isEmpty()) {
+      this.cache.put(model.id(), model);
+      return model;
+    }
+    // compute locks only the id's bin of a concurrent map, which serializes the index updates per id
+    this.cache.compute(model.id(), (id, oldModel) -> {
+      this.indexes.update(id, model);
+      return model;
+    });
     return model;
   }
 
+  /**
+   * Applies the function under the lock of the id's bin if the map is concurrent. The function must
+   * return a new model instead of modifying the given one.
+   *
+   * @param id       the model id
+   * @param function the function computing the new model
+   * @return the stored model, or {@code null} if there is none
+   */
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.cache.compute(id, (key, oldModel) -> {
+      final var newModel = function.apply(oldModel);
+      this.indexes.update(key, newModel);
+      return newModel;
+    });
+  }
+
   @Override
   public boolean deleteSync(final @NotNull String id) {
-    return this.cache.remove(id) != null;
+    if (this.indexes.isEmpty()) {
+      return this.cache.remove(id) != null;
+    }
+    final var deleted = new AtomicBoolean();
+    this.cache.computeIfPresent(id, (key, oldModel) -> {
+      this.indexes.update(key, null);
+      deleted.set(true);
+      return null;
+    });
+    return deleted.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <K extends Comparable<? super K>> @NotNull SortedModelIndex<ModelType, K> sortedIndex(
+    final @NotNull String field
+  ) {
+    final var index = this.indexes.require(field);
+    if (!(index instanceof SortedModelIndex<ModelType, ?> sortedIndex)) {
+      throw new UnsupportedOperationException("Index of field '" + field + "' is not sorted");
+    }
+    return (SortedModelIndex<ModelType, K>) sortedIndex;
   }
 
   @Contract(" -> new")
@@ -77,13 +271,63 @@ public final class LocalModelRepository<ModelType extends Model> implements Mode
     return LocalModelRepository.create(new HashMap<>());
   }
 
+  @SafeVarargs
+  @Contract("_ -> new")
+  public static <T extends Model> @NotNull LocalModelRepository<T> hashMap(final @NotNull ModelIndex<T>... indexes) {
+    final var indexList = new ArrayList<ModelIndex<T>>(indexes.length);
+    for (final var index : indexes) {
+      indexList.add(index);
+    }
+    return LocalModelRepository.create(new HashMap<>(), indexList);
+  }
+
+  /**
+   * Creates a thread-safe repository whose models are kept sorted by id, which makes
+   * {@link #findPageSync(String, int)} logarithmic instead of linear.
+   *
+   * @param <T> the model type
+   * @return the created repository
+   */
+  @Contract(" -> new")
+  public static <T extends Model> @NotNull LocalModelRepository<T> sorted() {
+    return LocalModelRepository.create(new ConcurrentSkipListMap<>());
+  }
+
   @Contract(" -> new")
   public static <T extends Model> @NotNull LocalModelRepository<T> concurrent() {
     return LocalModelRepository.create(new ConcurrentHashMap<>());
   }
 
+  @SafeVarargs
+  @Contract("_ -> new")
+  public static <T extends Model> @NotNull LocalModelRepository<T> concurrent(
+    final @NotNull ModelIndex<T>... indexes
+  ) {
+    final var indexList = new ArrayList<ModelIndex<T>>(indexes.length);
+    for (final var index : indexes) {
+      indexList.add(index);
+    }
+    return LocalModelRepository.create(new ConcurrentHashMap<>(), indexList);
+  }
+
   @Contract("_ -> new")
   public static <T extends Model> @NotNull LocalModelRepository<T> create(final @NotNull Map<String, T> cache) {
-    return new LocalModelRepository<>(cache);
+    return LocalModelRepository.create(cache, List.of());
+  }
+
+  /**
+   * Creates a repository over the given map, indexing its models with the given secondary indexes.
+   *
+   * @param cache   the backing map
+   * @param indexes the secondary indexes, at most one per field
+   * @param <T>     the model type
+   * @return the created repository
+   */
+  @Contract("_, _ -> new")
+  public static <T extends Model> @NotNull LocalModelRepository<T> create(
+    final @NotNull Map<String, T> cache,
+    final @NotNull Collection<ModelIndex<T>> indexes
+  ) {
+    return new LocalModelRepository<>(cache, ModelIndexes.of(indexes));
   }
 }
@@ -1,24 +1,88 @@
 package org.fenixteam.storage.repository;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.page.KeysetPages;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.fenixteam.storage.repository.query.UnsupportedQueryException;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public interface ModelRepository<ModelType extends Model> {
   String ID_FIELD = "id";
+  int DEFAULT_BATCH_SIZE = 100;
 
   @Nullable ModelType findSync(final @NotNull String id);
 
+  /**
+   * Finds the model with the given id, loading only the given fields where supported, so the
+   * deserializer must tolerate the missing ones.
+   *
+   * @param id     the model id
+   * @param fields the serialized names of the fields to load
+   * @return the partially loaded model, or {@code null} if it doesn't exist
+   */
+  default @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    return this.findSync(id);
+  }
+
   <C extends Collection<ModelType>> @Nullable C findSync(
     final @NotNull String field,
     final @NotNull String value,
     final @NotNull Function<Integer, C> factory
   );
 
+  default <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var foundModels = factory.apply(ids.size());
+    for (final var id : ids) {
+      final var model = this.findSync(id);
+      if (model != null) {
+        foundModels.add(model);
+      }
+    }
+    return foundModels;
+  }
+
+  /**
+   * Returns whether {@link #querySync(Query, Function)} can run the given query.
+   *
+   * @param query the query
+   * @return whether the query is supported
+   */
+  default boolean supportsQuery(final @NotNull Query query) {
+    return false;
+  }
+
+  /**
+   * Finds the models matching the given query.
+   *
+   * @param query   the query
+   * @param factory the collection factory
+   * @param <C>     the collection type
+   * @return the found models, in the query order
+   * @throws UnsupportedQueryException if the query isn't supported, see {@link #supportsQuery(Query)}
+   */
+  default <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    throw new UnsupportedQueryException(this.getClass()
+                                          .getSimpleName() + " does not support queries");
+  }
+
   @Nullable Collection<String> findIdsSync();
 
   default <C extends Collection<ModelType>> @Nullable C findAllSync(
@@ -32,14 +96,182 @@ public interface ModelRepository<ModelType extends Model> {
     final @NotNull Function<Integer, C> factory
   );
 
+  /**
+   * Finds a page of at most {@code limit} models, sorted by id unless the repository documents
+   * otherwise. Pass the continuation token of the returned page to get the next one.
+   *
+   * @param continuationToken the token of the previous page, or {@code null} for the first page
+   * @param limit             the maximum amount of models of the page
+   * @return the page
+   */
+  default @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    KeysetPages.checkLimit(limit);
+    final List<String> pageIds;
+    try (final var ids = this.streamIdsSync()) {
+      pageIds = KeysetPages.firstAfter(ids.iterator(), continuationToken, limit);
+    }
+    return KeysetPages.load(pageIds, limit, ids -> this.findManySync(ids, ArrayList::new));
+  }
+
+  default @NotNull Stream<String> streamIdsSync() {
+    return this.streamIdsSync(DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Lazily streams the ids of every stored model, fetched in batches where supported. The stream
+   * must be closed.
+   *
+   * @param batchSize the amount of ids to fetch from the backend at once
+   * @return a stream of every stored id
+   */
+  default @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    final var ids = this.findIdsSync();
+    if (ids == null) {
+      return Stream.empty();
+    }
+    return ids.stream();
+  }
+
+  default @NotNull Stream<ModelType> streamAllSync() {
+    return this.streamAllSync(DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Lazily streams every stored model, fetched in batches where supported. The stream must be closed.
+   *
+   * @param batchSize the amount of models to fetch from the backend at once
+   * @return a stream of every stored model
+   */
+  default @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    final var models = this.findAllSync(ArrayList::new);
+    if (models == null) {
+      return Stream.empty();
+    }
+    return models.stream();
+  }
+
+  default void forEachBatchSync(final int batchSize, final @NotNull Consumer<List<ModelType>> batchAction) {
+    ModelRepository.checkBatchSize(batchSize);
+    try (final var stream = this.streamAllSync(batchSize)) {
+      final var iterator = stream.iterator();
+      var batch = new ArrayList<ModelType>(batchSize);
+      while (iterator.hasNext()) {
+        batch.add(iterator.next());
+        if (batch.size() >= batchSize) {
+          batchAction.accept(batch);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        batchAction.accept(batch);
+      }
+    }
+  }
+
   boolean existsSync(final @NotNull String id);
 
+  default @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    final var existingIds = new ArrayList<String>(ids.size());
+    for (final var id : ids) {
+      if (this.existsSync(id)) {
+        existingIds.add(id);
+      }
+    }
+    return existingIds;
+  }
+
   @Contract("_ -> param1")
   @NotNull ModelType saveSync(final @NotNull ModelType model);
 
+  @Contract("_ -> param1")
+  default <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    for (final var model : models) {
+      this.saveSync(model);
+    }
+    return models;
+  }
+
+  /**
+   * Returns whether {@link #patchSync(String, Patch)} can apply the given patch.
+   *
+   * @param patch the patch
+   * @return whether the patch is supported
+   */
+  default boolean supportsPatch(final @NotNull Patch patch) {
+    return false;
+  }
+
+  /**
+   * Applies the given field-level updates to the stored model, atomically where the backend allows
+   * it.
+   *
+   * @param id    the model id
+   * @param patch the patch
+   * @return whether a model was updated or, for upserts, inserted
+   * @throws UnsupportedOperationException if the patch isn't supported, see {@link #supportsPatch(Patch)}
+   */
+  default boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    throw new UnsupportedOperationException(this.getClass()
+                                              .getSimpleName() + " does not support patches");
+  }
+
+  /**
+   * Atomically replaces the stored model, or {@code null}, with the result of the given function,
+   * deleting it if the result is {@code null}. Remote backends may call the function several times.
+   *
+   * @param id       the model id
+   * @param function the function computing the new model
+   * @return the stored model, or {@code null} if there is none
+   * @throws UnsupportedOperationException if the repository can't update models atomically
+   * @throws IllegalStateException         if the retries were exhausted by concurrent modifications
+   */
+  default @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    throw new UnsupportedOperationException(this.getClass()
+                                              .getSimpleName() + " does not support atomic updates");
+  }
+
+  /**
+   * Same as {@link #computeSync(String, UnaryOperator)}, but the function is only applied if the
+   * model exists.
+   *
+   * @param id       the model id
+   * @param function the function computing the new model, or {@code null} to delete it
+   * @return the stored model, or {@code null} if there is none
+   */
+  default @Nullable ModelType updateSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<ModelType> function
+  ) {
+    return this.computeSync(id, model -> model == null ? null : function.apply(model));
+  }
+
   default boolean deleteSync(final @NotNull ModelType model) {
     return this.deleteSync(model.id());
   }
 
   boolean deleteSync(final @NotNull String id);
+
+  default boolean deleteManySync(final @NotNull Collection<String> ids) {
+    var deleted = false;
+    for (final var id : ids) {
+      deleted |= this.deleteSync(id);
+    }
+    return deleted;
+  }
+
+  /**
+   * Rejects a batch size below one, which would otherwise emit every model in its own batch.
+   *
+   * @param batchSize the requested batch size
+   */
+  static void checkBatchSize(final int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+  }
 }
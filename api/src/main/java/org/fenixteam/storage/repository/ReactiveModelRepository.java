@@ -0,0 +1,36 @@
+package org.fenixteam.storage.repository;
+
+import java.util.concurrent.Flow;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.publisher.StreamPublisher;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a repository which can emit its models through a {@link Flow.Publisher}, decoding
+ * them on demand.
+ */
+@SuppressWarnings("unused")
+public interface ReactiveModelRepository<ModelType extends Model> extends ModelRepository<ModelType> {
+  default @NotNull Flow.Publisher<ModelType> publishAll() {
+    return this.publishAll(DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Publishes the models of {@link #streamAllSync(int)}, pulling them on the thread requesting
+   * them unless overridden.
+   *
+   * @param batchSize the amount of models fetched per round trip
+   * @return the publisher
+   */
+  default @NotNull Flow.Publisher<ModelType> publishAll(final int batchSize) {
+    return StreamPublisher.create(() -> this.streamAllSync(batchSize), Runnable::run);
+  }
+
+  default @NotNull Flow.Publisher<String> publishIds() {
+    return this.publishIds(DEFAULT_BATCH_SIZE);
+  }
+
+  default @NotNull Flow.Publisher<String> publishIds(final int batchSize) {
+    return StreamPublisher.create(() -> this.streamIdsSync(batchSize), Runnable::run);
+  }
+}
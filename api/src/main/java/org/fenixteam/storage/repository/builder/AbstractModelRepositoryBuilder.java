@@ -5,6 +5,7 @@ import org.fenixteam.storage.model.Model;
 import org.fenixteam.storage.repository.AsyncModelRepository;
 import org.fenixteam.storage.repository.CachedModelRepository;
 import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.executor.VirtualThreads;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
@@ -20,4 +21,31 @@ public abstract class AbstractModelRepositoryBuilder<ModelType extends Model> {
   ) {
     return new CachedModelRepository<>(executor, cacheModelRepository, this.build(executor));
   }
+
+  /**
+   * Builds the repository running every async call on its own virtual thread.
+   *
+   * @return the built repository
+   * @throws UnsupportedOperationException if the runtime doesn't support virtual threads
+   * @see VirtualThreads
+   */
+  @Contract(" -> new")
+  public @NotNull AsyncModelRepository<ModelType> buildVirtual() {
+    return this.build(VirtualThreads.executor());
+  }
+
+  /**
+   * Builds a cached repository running every async call on its own virtual thread.
+   *
+   * @param cacheModelRepository the repository to use as cache tier
+   * @return the built repository
+   * @throws UnsupportedOperationException if the runtime doesn't support virtual threads
+   * @see VirtualThreads
+   */
+  @Contract("_ -> new")
+  public @NotNull CachedModelRepository<ModelType> buildCachedVirtual(
+    final @NotNull ModelRepository<ModelType> cacheModelRepository
+  ) {
+    return this.buildCached(VirtualThreads.executor(), cacheModelRepository);
+  }
 }
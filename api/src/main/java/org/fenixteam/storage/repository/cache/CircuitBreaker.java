@@ -0,0 +1,218 @@
+package org.fenixteam.storage.repository.cache;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stops the calls to a failing or slow repository for a while, so they fail right away with a
+ * {@link CircuitOpenException}. It opens once the failure rate of the recent calls reaches the
+ * threshold, and closes again once a few probe calls succeeded after the open duration.
+ */
+@SuppressWarnings("unused")
+public final class CircuitBreaker {
+  private static final int HALF_OPEN_PROBES = 3;
+
+  private final int windowSize;
+  private final double failureRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final ReentrantLock lock;
+  private final boolean[] window;
+  private final LongAdder rejectedCalls;
+  private int windowIndex;
+  private int windowCount;
+  private int windowFailures;
+  private int probesStarted;
+  private int probesSucceeded;
+  private volatile State state;
+  private volatile long openedAt;
+
+  private CircuitBreaker(
+    final int windowSize,
+    final double failureRateThreshold,
+    final long slowCallNanos,
+    final long openNanos
+  ) {
+    this.windowSize = windowSize;
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallNanos = slowCallNanos;
+    this.openNanos = openNanos;
+    this.lock = new ReentrantLock();
+    this.window = new boolean[windowSize];
+    this.rejectedCalls = new LongAdder();
+    this.state = State.CLOSED;
+  }
+
+  /**
+   * Creates a closed circuit breaker.
+   *
+   * @param windowSize           the amount of recent calls the failure rate is computed over
+   * @param failureRateThreshold the failure rate from which the breaker opens, between 0 and 1
+   * @param slowCallThreshold    the latency from which a call counts as failed
+   * @param openDuration         how long the breaker stays open before probing the repository
+   * @return the created circuit breaker
+   */
+  @Contract("_, _, _, _ -> new")
+  public static @NotNull CircuitBreaker create(
+    final int windowSize,
+    final double failureRateThreshold,
+    final @NotNull Duration slowCallThreshold,
+    final @NotNull Duration openDuration
+  ) {
+    if (windowSize < 2) {
+      throw new IllegalArgumentException("windowSize must be at least 2");
+    }
+    if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+      throw new IllegalArgumentException("failureRateThreshold must be greater than 0 and at most 1");
+    }
+    if (slowCallThreshold.isNegative() || slowCallThreshold.isZero()) {
+      throw new IllegalArgumentException("slowCallThreshold must be positive");
+    }
+    if (openDuration.isNegative() || openDuration.isZero()) {
+      throw new IllegalArgumentException("openDuration must be positive");
+    }
+    return new CircuitBreaker(windowSize, failureRateThreshold, slowCallThreshold.toNanos(), openDuration.toNanos());
+  }
+
+  public @NotNull State state() {
+    return this.state;
+  }
+
+  public @NotNull Duration openDuration() {
+    return Duration.ofNanos(this.openNanos);
+  }
+
+  /**
+   * Returns whether the calls are currently rejected without probing.
+   *
+   * @return whether the breaker is open and not yet due for probing
+   */
+  public boolean isOpen() {
+    return this.state == State.OPEN && System.nanoTime() - this.openedAt < this.openNanos;
+  }
+
+  public long rejectedCalls() {
+    return this.rejectedCalls.sum();
+  }
+
+  /**
+   * Runs the call unless the breaker is open, and records its outcome.
+   *
+   * @param call the call
+   * @param <R>  the result type
+   * @return the result of the call
+   * @throws CircuitOpenException if the breaker is open
+   */
+  public <R> R call(final @NotNull Supplier<R> call) {
+    if (!this.tryAcquire()) {
+      this.rejectedCalls.increment();
+      final var retryNanos = Math.max(0, this.openNanos - (System.nanoTime() - this.openedAt));
+      throw new CircuitOpenException("circuit open, the repository is probed again in at most "
+                                       + TimeUnit.NANOSECONDS.toMillis(retryNanos) + "ms");
+    }
+    final var start = System.nanoTime();
+    var outcome = Outcome.IGNORED;
+    try {
+      final var result = call.get();
+      outcome = System.nanoTime() - start >= this.slowCallNanos ? Outcome.FAILED : Outcome.SUCCEEDED;
+      return result;
+    } catch (final IllegalArgumentException | UnsupportedOperationException e) {
+      throw e;
+    } catch (final RuntimeException e) {
+      outcome = Outcome.FAILED;
+      throw e;
+    } finally {
+      this.record(outcome);
+    }
+  }
+
+  private boolean tryAcquire() {
+    if (this.state == State.CLOSED) {
+      return true;
+    }
+    this.lock.lock();
+    try {
+      if (this.state == State.OPEN) {
+        if (System.nanoTime() - this.openedAt < this.openNanos) {
+          return false;
+        }
+        this.state = State.HALF_OPEN;
+        this.probesStarted = 0;
+        this.probesSucceeded = 0;
+      }
+      if (this.state == State.HALF_OPEN) {
+        if (this.probesStarted >= HALF_OPEN_PROBES) {
+          return false;
+        }
+        this.probesStarted++;
+      }
+      return true;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void record(final @NotNull Outcome outcome) {
+    this.lock.lock();
+    try {
+      if (this.state == State.HALF_OPEN) {
+        if (outcome == Outcome.IGNORED) {
+          this.probesStarted = Math.max(0, this.probesStarted - 1);
+        } else if (outcome == Outcome.FAILED) {
+          this.trip();
+        } else if (++this.probesSucceeded >= HALF_OPEN_PROBES) {
+          this.state = State.CLOSED;
+        }
+        return;
+      }
+      if (this.state == State.OPEN || outcome == Outcome.IGNORED) {
+        // started before the breaker opened
+        return;
+      }
+      if (this.windowCount == this.windowSize) {
+        if (this.window[this.windowIndex]) {
+          this.windowFailures--;
+        }
+      } else {
+        this.windowCount++;
+      }
+      final var failed = outcome == Outcome.FAILED;
+      this.window[this.windowIndex] = failed;
+      if (failed) {
+        this.windowFailures++;
+      }
+      this.windowIndex = (this.windowIndex + 1) % this.windowSize;
+      if (this.windowCount * 2 >= this.windowSize
+          && this.windowFailures >= this.failureRateThreshold * this.windowCount) {
+        this.trip();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void trip() {
+    this.openedAt = System.nanoTime();
+    this.state = State.OPEN;
+    this.windowIndex = 0;
+    this.windowCount = 0;
+    this.windowFailures = 0;
+  }
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private enum Outcome {
+    SUCCEEDED,
+    FAILED,
+    IGNORED
+  }
+}
@@ -0,0 +1,146 @@
+package org.fenixteam.storage.repository.cache;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ForwardingModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decorates a repository running every call through a {@link CircuitBreaker}. Streams aren't
+ * guarded since they are consumed lazily.
+ *
+ * @param <ModelType> the model type
+ */
+@SuppressWarnings("unused")
+public class CircuitBreakerModelRepository<ModelType extends Model> extends ForwardingModelRepository<ModelType> {
+  protected final CircuitBreaker circuitBreaker;
+
+  protected CircuitBreakerModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<ModelType> delegate,
+    final @NotNull CircuitBreaker circuitBreaker
+  ) {
+    super(executor, delegate);
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Contract("_, _, _ -> new")
+  public static <T extends Model> @NotNull CircuitBreakerModelRepository<T> wrap(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<T> delegate,
+    final @NotNull CircuitBreaker circuitBreaker
+  ) {
+    return new CircuitBreakerModelRepository<>(executor, delegate, circuitBreaker);
+  }
+
+  public @NotNull CircuitBreaker circuitBreaker() {
+    return this.circuitBreaker;
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    return this.circuitBreaker.call(() -> this.delegate.findSync(id));
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    return this.circuitBreaker.call(() -> this.delegate.findSync(id, fields));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.circuitBreaker.call(() -> this.delegate.findSync(field, value, factory));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.circuitBreaker.call(() -> this.delegate.findManySync(ids, factory));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.circuitBreaker.call(() -> this.delegate.querySync(query, factory));
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    return this.circuitBreaker.call(this.delegate::findIdsSync);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findAllSync(
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.circuitBreaker.call(() -> this.delegate.findAllSync(postLoadAction, factory));
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    return this.circuitBreaker.call(() -> this.delegate.findPageSync(continuationToken, limit));
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    return this.circuitBreaker.call(() -> this.delegate.existsSync(id));
+  }
+
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    return this.circuitBreaker.call(() -> this.delegate.existsManySync(ids));
+  }
+
+  @Override
+  public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    return this.circuitBreaker.call(() -> this.delegate.saveSync(model));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    return this.circuitBreaker.call(() -> this.delegate.saveManySync(models));
+  }
+
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    return this.circuitBreaker.call(() -> this.delegate.patchSync(id, patch));
+  }
+
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.circuitBreaker.call(() -> this.delegate.computeSync(id, function));
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    return this.circuitBreaker.call(() -> this.delegate.deleteSync(id));
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    return this.circuitBreaker.call(() -> this.delegate.deleteManySync(ids));
+  }
+}
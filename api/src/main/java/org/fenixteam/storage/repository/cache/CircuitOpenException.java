@@ -0,0 +1,15 @@
+package org.fenixteam.storage.repository.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when a call is rejected by an open {@link CircuitBreaker}. The call didn't reach the
+ * repository.
+ */
+public class CircuitOpenException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public CircuitOpenException(final @NotNull String message) {
+    super(message);
+  }
+}
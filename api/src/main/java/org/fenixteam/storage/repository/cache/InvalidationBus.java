@@ -0,0 +1,20 @@
+package org.fenixteam.storage.repository.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Broadcasts the ids of changed models to the other processes sharing the same persistent
+ * repository, so they can evict them from their own cache tier.
+ */
+public interface InvalidationBus {
+  void publish(final @NotNull Collection<String> ids);
+
+  default void publish(final @NotNull String id) {
+    this.publish(List.of(id));
+  }
+
+  void subscribe(final @NotNull Consumer<Collection<String>> listener);
+}
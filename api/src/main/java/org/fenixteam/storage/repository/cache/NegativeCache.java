@@ -0,0 +1,116 @@
+package org.fenixteam.storage.repository.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Bounded set of ids known to be absent from a repository, each one expiring after a fixed time to
+ * live. A lookup marking an id as absent must take a {@link #stamp()} before querying, so a racing
+ * invalidation drops the mark.
+ */
+@SuppressWarnings("unused")
+public final class NegativeCache {
+  private final Map<String, Long> expirations;
+  private final AtomicLong generation;
+  private final long timeToLiveNanos;
+  private final int maxSize;
+  private final int evictedSize;
+  private final AtomicBoolean evicting;
+
+  private NegativeCache(final long timeToLiveNanos, final int maxSize) {
+    this.expirations = new ConcurrentHashMap<>();
+    this.generation = new AtomicLong();
+    this.timeToLiveNanos = timeToLiveNanos;
+    this.maxSize = maxSize;
+    // evicting a tenth of the ids at once keeps the scans of the map rare under miss storms
+    this.evictedSize = maxSize - Math.max(1, maxSize / 10);
+    this.evicting = new AtomicBoolean();
+  }
+
+  @Contract("_, _ -> new")
+  public static @NotNull NegativeCache create(final @NotNull Duration timeToLive, final int maxSize) {
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("timeToLive must be positive");
+    }
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    return new NegativeCache(timeToLive.toNanos(), maxSize);
+  }
+
+  public boolean contains(final @NotNull String id) {
+    final var expiration = this.expirations.get(id);
+    if (expiration == null) {
+      return false;
+    }
+    if (System.nanoTime() - expiration >= 0) {
+      this.expirations.remove(id, expiration);
+      return false;
+    }
+    return true;
+  }
+
+  public long stamp() {
+    return this.generation.get();
+  }
+
+  public void markAbsent(final @NotNull String id, final long stamp) {
+    if (this.generation.get() != stamp) {
+      return;
+    }
+    if (this.expirations.size() >= this.maxSize) {
+      this.evict();
+    }
+    this.expirations.put(id, System.nanoTime() + this.timeToLiveNanos);
+    if (this.generation.get() != stamp) {
+      this.expirations.remove(id);
+    }
+  }
+
+  public void invalidate(final @NotNull String id) {
+    this.generation.incrementAndGet();
+    this.expirations.remove(id);
+  }
+
+  public void invalidateAll(final @NotNull Collection<String> ids) {
+    this.generation.incrementAndGet();
+    for (final var id : ids) {
+      this.expirations.remove(id);
+    }
+  }
+
+  public void clear() {
+    this.generation.incrementAndGet();
+    this.expirations.clear();
+  }
+
+  public int size() {
+    return this.expirations.size();
+  }
+
+  private void evict() {
+    if (!this.evicting.compareAndSet(false, true)) {
+      // another thread is already making room
+      return;
+    }
+    try {
+      final var now = System.nanoTime();
+      this.expirations.values()
+        .removeIf(expiration -> now - expiration >= 0);
+      final var iterator = this.expirations.keySet()
+        .iterator();
+      while (this.expirations.size() > this.evictedSize && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    } finally {
+      this.evicting.set(false);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package org.fenixteam.storage.repository.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Tracks when every cached model was loaded, to decide whether it is served as is, served while it
+ * is refreshed, or reloaded first. Models with an unknown load time are expired.
+ */
+@SuppressWarnings("unused")
+public final class RefreshAheadPolicy {
+  private static final int SWEEP_INTERVAL = 1024;
+  private final Map<String, Long> loadTimes;
+  private final AtomicInteger recordsSinceSweep;
+  private final long softAgeNanos;
+  private final long hardAgeNanos;
+
+  private RefreshAheadPolicy(final long softAgeNanos, final long hardAgeNanos) {
+    this.loadTimes = new ConcurrentHashMap<>();
+    this.recordsSinceSweep = new AtomicInteger();
+    this.softAgeNanos = softAgeNanos;
+    this.hardAgeNanos = hardAgeNanos;
+  }
+
+  @Contract("_, _ -> new")
+  public static @NotNull RefreshAheadPolicy create(final @NotNull Duration softAge, final @NotNull Duration hardAge) {
+    if (softAge.isNegative() || softAge.isZero() || softAge.compareTo(hardAge) >= 0) {
+      throw new IllegalArgumentException("softAge must be positive and lower than hardAge");
+    }
+    return new RefreshAheadPolicy(softAge.toNanos(), hardAge.toNanos());
+  }
+
+  public @Nullable Long loadTime(final @NotNull String id) {
+    return this.loadTimes.get(id);
+  }
+
+  public @NotNull Freshness freshness(final @Nullable Long loadTime) {
+    if (loadTime == null) {
+      return Freshness.EXPIRED;
+    }
+    final var age = System.nanoTime() - loadTime;
+    if (age >= this.hardAgeNanos) {
+      return Freshness.EXPIRED;
+    }
+    return age >= this.softAgeNanos ? Freshness.STALE : Freshness.FRESH;
+  }
+
+  public void record(final @NotNull String id) {
+    this.loadTimes.put(id, System.nanoTime());
+    if (this.recordsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+      this.recordsSinceSweep.set(0);
+      this.sweep();
+    }
+  }
+
+  public boolean isCurrent(final @NotNull String id, final @Nullable Long loadTime) {
+    return Objects.equals(this.loadTimes.get(id), loadTime);
+  }
+
+  public void forget(final @NotNull String id) {
+    this.loadTimes.remove(id);
+  }
+
+  public int size() {
+    return this.loadTimes.size();
+  }
+
+  /**
+   * Drops the load times past the hard age, so the ids evicted behind our back don't pile up.
+   */
+  private void sweep() {
+    final var now = System.nanoTime();
+    this.loadTimes.values()
+      .removeIf(loadTime -> now - loadTime >= this.hardAgeNanos);
+  }
+
+  public enum Freshness {
+    FRESH,
+    STALE,
+    EXPIRED
+  }
+}
@@ -0,0 +1,90 @@
+package org.fenixteam.storage.repository.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Deduplicates concurrent loads of the same key: while a load is in flight every other caller for
+ * that key waits for its result instead of starting a new one.
+ */
+@SuppressWarnings("unused")
+public final class SingleFlight<ValueType> {
+  private final Map<String, CompletableFuture<ValueType>> inFlight;
+
+  private SingleFlight() {
+    this.inFlight = new ConcurrentHashMap<>();
+  }
+
+  @Contract(" -> new")
+  public static <T> @NotNull SingleFlight<T> create() {
+    return new SingleFlight<>();
+  }
+
+  public ValueType load(final @NotNull String key, final @NotNull Supplier<ValueType> loader) {
+    final var future = new CompletableFuture<ValueType>();
+    final var existing = this.inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      return this.await(existing);
+    }
+    this.run(key, future, loader);
+    return this.await(future);
+  }
+
+  public @NotNull CompletableFuture<ValueType> loadAsync(
+    final @NotNull String key,
+    final @NotNull Supplier<ValueType> loader,
+    final @NotNull Executor executor
+  ) {
+    final var future = new CompletableFuture<ValueType>();
+    final var existing = this.inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      return existing.copy();
+    }
+    try {
+      executor.execute(() -> this.run(key, future, loader));
+    } catch (final RuntimeException e) {
+      this.inFlight.remove(key, future);
+      future.completeExceptionally(e);
+    }
+    return future.copy();
+  }
+
+  public int inFlightCount() {
+    return this.inFlight.size();
+  }
+
+  private void run(
+    final @NotNull String key,
+    final @NotNull CompletableFuture<ValueType> future,
+    final @NotNull Supplier<ValueType> loader
+  ) {
+    try {
+      future.complete(loader.get());
+    } catch (final Throwable e) {
+      future.completeExceptionally(e);
+    } finally {
+      this.inFlight.remove(key, future);
+    }
+  }
+
+  private ValueType await(final @NotNull CompletableFuture<ValueType> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,324 @@
+package org.fenixteam.storage.repository.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Buffers writes to a persistent repository and flushes them periodically in batches. Only the
+ * latest model enqueued for an id is kept, so repeated saves of the same id between two flushes
+ * collapse into a single write.
+ */
+@SuppressWarnings("unused")
+public final class WriteBehindQueue<ModelType extends Model> {
+  private final ModelRepository<ModelType> persistModelRepository;
+  private final Map<String, ModelType> dirtyModels;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+  private final int maxBatchSize;
+  private final Duration shutdownTimeout;
+  private final Consumer<RuntimeException> failureHandler;
+  private final Map<String, CompletableFuture<Void>> claims;
+  private final ReentrantLock flushLock;
+  private final AtomicBoolean flushRequested;
+  private final ScheduledFuture<?> flushTask;
+  private volatile @Nullable Consumer<Collection<String>> flushListener;
+
+  private WriteBehindQueue(
+    final @NotNull ModelRepository<ModelType> persistModelRepository,
+    final @Nullable ScheduledExecutorService scheduler,
+    final @NotNull Duration flushInterval,
+    final int maxBatchSize,
+    final @NotNull Duration shutdownTimeout,
+    final @NotNull Consumer<RuntimeException> failureHandler
+  ) {
+    this.persistModelRepository = persistModelRepository;
+    this.dirtyModels = new ConcurrentHashMap<>();
+    this.ownsScheduler = scheduler == null;
+    this.scheduler = scheduler == null ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final var thread = new Thread(runnable, "storage-write-behind");
+      thread.setDaemon(true);
+      return thread;
+    }) : scheduler;
+    this.maxBatchSize = maxBatchSize;
+    this.shutdownTimeout = shutdownTimeout;
+    this.failureHandler = failureHandler;
+    this.claims = new ConcurrentHashMap<>();
+    this.flushLock = new ReentrantLock();
+    this.flushRequested = new AtomicBoolean();
+    final var intervalMillis = flushInterval.toMillis();
+    this.flushTask = this.scheduler.scheduleWithFixedDelay(
+      this::scheduledFlush,
+      intervalMillis,
+      intervalMillis,
+      TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates a new write-behind queue for the given repository.
+   *
+   * @param persistModelRepository the repository where the models are flushed to
+   * @param scheduler              the scheduler which runs the flushes, or {@code null} for an owned
+   *                               daemon thread
+   * @param flushInterval          the delay between two consecutive flushes
+   * @param maxBatchSize           the maximum amount of models written per batch
+   * @param shutdownTimeout        the maximum time {@link #close()} waits for the final flush
+   * @param failureHandler         the handler for flushes which failed
+   * @param <T>                    the model type
+   * @return the created queue
+   */
+  @Contract("_, _, _, _, _, _ -> new")
+  public static <T extends Model> @NotNull WriteBehindQueue<T> create(
+    final @NotNull ModelRepository<T> persistModelRepository,
+    final @Nullable ScheduledExecutorService scheduler,
+    final @NotNull Duration flushInterval,
+    final int maxBatchSize,
+    final @NotNull Duration shutdownTimeout,
+    final @NotNull Consumer<RuntimeException> failureHandler
+  ) {
+    if (flushInterval.isNegative() || flushInterval.isZero()) {
+      throw new IllegalArgumentException("Flush interval must be positive");
+    }
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Max batch size must be positive");
+    }
+    return new WriteBehindQueue<>(
+      persistModelRepository,
+      scheduler,
+      flushInterval,
+      maxBatchSize,
+      shutdownTimeout,
+      failureHandler);
+  }
+
+  public void enqueue(final @NotNull ModelType model) {
+    this.dirtyModels.put(model.id(), model);
+    if (this.dirtyModels.size() >= this.maxBatchSize && this.flushRequested.compareAndSet(false, true)) {
+      this.scheduler.execute(this::scheduledFlush);
+    }
+  }
+
+  public @Nullable ModelType pending(final @NotNull String id) {
+    return this.dirtyModels.get(id);
+  }
+
+  public int pendingCount() {
+    return this.dirtyModels.size();
+  }
+
+  /**
+   * Sets the listener notified with the ids of every batch once it has been written.
+   *
+   * @param flushListener the listener, or {@code null} to remove it
+   */
+  public void onFlush(final @Nullable Consumer<Collection<String>> flushListener) {
+    this.flushListener = flushListener;
+  }
+
+  /**
+   * Discards the pending model of the id and runs the write while no flush writes the id. If the
+   * write fails, the discarded model is pending again.
+   *
+   * @param id    the id of the model which is written
+   * @param write the write to run
+   * @param <R>   the write result type
+   * @return the write result
+   */
+  public <R> R writeThrough(final @NotNull String id, final @NotNull Supplier<R> write) {
+    final var claim = this.claim(id);
+    try {
+      final var discardedModel = this.dirtyModels.remove(id);
+      try {
+        return write.get();
+      } catch (final RuntimeException e) {
+        if (discardedModel != null) {
+          this.dirtyModels.putIfAbsent(id, discardedModel);
+        }
+        throw e;
+      }
+    } finally {
+      this.release(id, claim);
+    }
+  }
+
+  /**
+   * Writes the pending model of the given id, if any, then runs the given write while no flush
+   * writes the id.
+   *
+   * @param id    the id of the model which is written
+   * @param write the write to run
+   * @param <R>   the write result type
+   * @return the write result
+   */
+  public <R> R writeAfter(final @NotNull String id, final @NotNull Supplier<R> write) {
+    final var claim = this.claim(id);
+    try {
+      final var pendingModel = this.dirtyModels.get(id);
+      if (pendingModel != null) {
+        this.persistModelRepository.saveSync(pendingModel);
+        this.dirtyModels.remove(id, pendingModel);
+      }
+      return write.get();
+    } finally {
+      this.release(id, claim);
+    }
+  }
+
+  public <R> R writeThrough(final @NotNull Collection<String> ids, final @NotNull Supplier<R> write) {
+    // claimed in order, so two writes of overlapping ids can't wait for each other
+    final var claimed = new LinkedHashMap<String, CompletableFuture<Void>>();
+    try {
+      for (final var id : new TreeSet<>(ids)) {
+        claimed.put(id, this.claim(id));
+      }
+      final var discardedModels = new LinkedHashMap<String, ModelType>();
+      for (final var id : claimed.keySet()) {
+        final var discardedModel = this.dirtyModels.remove(id);
+        if (discardedModel != null) {
+          discardedModels.put(id, discardedModel);
+        }
+      }
+      try {
+        return write.get();
+      } catch (final RuntimeException e) {
+        for (final var entry : discardedModels.entrySet()) {
+          this.dirtyModels.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        throw e;
+      }
+    } finally {
+      this.releaseAll(claimed);
+    }
+  }
+
+  /**
+   * Writes the pending models in batches. The models stay pending, and visible to {@link #pending},
+   * until their batch is written; the ids claimed by a direct write are left for the next flush.
+   */
+  public void flush() {
+    this.flushLock.lock();
+    try {
+      this.flushRequested.set(false);
+      final var claimed = new LinkedHashMap<String, CompletableFuture<Void>>();
+      final var batch = new LinkedHashMap<String, ModelType>();
+      try {
+        for (final var id : this.dirtyModels.keySet()) {
+          final var claim = new CompletableFuture<Void>();
+          if (this.claims.putIfAbsent(id, claim) != null) {
+            continue;
+          }
+          claimed.put(id, claim);
+          final var model = this.dirtyModels.get(id);
+          if (model != null) {
+            batch.put(id, model);
+          }
+          if (batch.size() >= this.maxBatchSize) {
+            this.write(batch);
+            batch.clear();
+            this.releaseAll(claimed);
+          }
+        }
+        if (!batch.isEmpty()) {
+          this.write(batch);
+        }
+      } finally {
+        this.releaseAll(claimed);
+      }
+    } finally {
+      this.flushLock.unlock();
+    }
+  }
+
+  /**
+   * Stops the periodic flushes and writes every pending model, waiting at most the configured
+   * shutdown timeout.
+   *
+   * @return {@code true} if every pending model was written
+   */
+  public boolean close() {
+    this.flushTask.cancel(false);
+    final var finalFlush = this.scheduler.submit(this::flush);
+    if (this.ownsScheduler) {
+      this.scheduler.shutdown();
+    }
+    try {
+      finalFlush.get(this.shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread()
+        .interrupt();
+      return false;
+    } catch (final ExecutionException | TimeoutException e) {
+      return false;
+    }
+    return this.dirtyModels.isEmpty();
+  }
+
+  private void write(final @NotNull Map<String, ModelType> batch) {
+    this.persistModelRepository.saveManySync(new ArrayList<>(batch.values()));
+    for (final var entry : batch.entrySet()) {
+      this.dirtyModels.remove(entry.getKey(), entry.getValue());
+    }
+    final var listener = this.flushListener;
+    if (listener != null) {
+      listener.accept(new ArrayList<>(batch.keySet()));
+    }
+  }
+
+  /**
+   * Waits until no flush nor other write holds the given id, and claims it.
+   *
+   * @param id the id
+   * @return the claim, completed once released
+   */
+  private @NotNull CompletableFuture<Void> claim(final @NotNull String id) {
+    final var claim = new CompletableFuture<Void>();
+    while (true) {
+      final var heldClaim = this.claims.putIfAbsent(id, claim);
+      if (heldClaim == null) {
+        return claim;
+      }
+      heldClaim.join();
+    }
+  }
+
+  private void release(final @NotNull String id, final @NotNull CompletableFuture<Void> claim) {
+    this.claims.remove(id, claim);
+    claim.complete(null);
+  }
+
+  private void releaseAll(final @NotNull Map<String, CompletableFuture<Void>> claimed) {
+    for (final var entry : claimed.entrySet()) {
+      this.release(entry.getKey(), entry.getValue());
+    }
+    claimed.clear();
+  }
+
+  private void scheduledFlush() {
+    try {
+      this.flush();
+    } catch (final RuntimeException e) {
+      // the periodic task would be cancelled if the exception escaped
+      this.failureHandler.accept(e);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package org.fenixteam.storage.repository.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A point in time by which a repository call must be done. The deadline of the current thread is
+ * carried to the executor by the asynchronous methods, and the drivers bound their waits by it.
+ */
+@SuppressWarnings("unused")
+public final class Deadline {
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+  private final long deadlineNanos;
+
+  private Deadline(final long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Creates a deadline the given timeout from now.
+   *
+   * @param timeout the timeout
+   * @return the created deadline
+   */
+  @Contract("_ -> new")
+  public static @NotNull Deadline after(final @NotNull Duration timeout) {
+    if (timeout.isNegative()) {
+      throw new IllegalArgumentException("timeout must not be negative");
+    }
+    return new Deadline(System.nanoTime() + timeout.toNanos());
+  }
+
+  /**
+   * Returns the deadline of the calls made by the current thread.
+   *
+   * @return the current deadline, or {@code null} if the calls have none
+   */
+  public static @Nullable Deadline current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Checks the deadline of the current thread, if any.
+   *
+   * @throws DeadlineExceededException if it expired
+   */
+  public static void checkCurrent() {
+    final var deadline = CURRENT.get();
+    if (deadline != null) {
+      deadline.check();
+    }
+  }
+
+  /**
+   * Wraps the given call so it runs under the current deadline on another thread, failing without
+   * running if it expired meanwhile.
+   *
+   * @param call the call
+   * @param <R>  the result type
+   * @return the wrapped call, or the same call if the current thread has no deadline
+   */
+  public static <R> @NotNull Supplier<R> propagate(final @NotNull Supplier<R> call) {
+    final var deadline = CURRENT.get();
+    if (deadline == null) {
+      return call;
+    }
+    return () -> deadline.call(() -> {
+      deadline.check();
+      return call.get();
+    });
+  }
+
+  /**
+   * Wraps the given function so it runs under the deadline the current thread has now, for the
+   * continuations of asynchronous calls, see {@link #propagate(Supplier)}.
+   *
+   * @param function the function
+   * @param <T>      the argument type
+   * @param <R>      the result type
+   * @return the wrapped function, or the same function if the current thread has no deadline
+   */
+  public static <T, R> @NotNull Function<T, R> propagate(final @NotNull Function<T, R> function) {
+    final var deadline = CURRENT.get();
+    if (deadline == null) {
+      return function;
+    }
+    return argument -> deadline.call(() -> {
+      deadline.check();
+      return function.apply(argument);
+    });
+  }
+
+  public long remainingNanos() {
+    return this.deadlineNanos - System.nanoTime();
+  }
+
+  /**
+   * Returns the remaining time rounded up to milliseconds, at least 1 since drivers often read 0 as
+   * no timeout.
+   *
+   * @return the remaining milliseconds, at least 1
+   */
+  public long remainingMillis() {
+    final var remainingNanos = this.remainingNanos();
+    if (remainingNanos <= 0) {
+      return 1;
+    }
+    return TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+  }
+
+  public boolean isExpired() {
+    return this.remainingNanos() <= 0;
+  }
+
+  /**
+   * Checks the deadline.
+   *
+   * @throws DeadlineExceededException if it expired
+   */
+  public void check() {
+    final var remainingNanos = this.remainingNanos();
+    if (remainingNanos <= 0) {
+      throw new DeadlineExceededException("deadline exceeded by "
+                                            + TimeUnit.NANOSECONDS.toMillis(-remainingNanos) + "ms");
+    }
+  }
+
+  /**
+   * Returns the earliest of this deadline and the given one.
+   *
+   * @param other the other deadline
+   * @return the earliest deadline
+   */
+  public @NotNull Deadline min(final @Nullable Deadline other) {
+    return other == null || this.deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+  }
+
+  /**
+   * Runs the given call with this deadline as the deadline of the current thread. If the thread
+   * already has an earlier deadline, that one is kept.
+   *
+   * @param call the call
+   * @param <R>  the result type
+   * @return the result of the call
+   */
+  public <R> R call(final @NotNull Supplier<R> call) {
+    final var previous = CURRENT.get();
+    CURRENT.set(this.min(previous));
+    try {
+      return call.get();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Runs the given action with this deadline as the deadline of the current thread, see
+   * {@link #call(Supplier)}.
+   *
+   * @param action the action
+   */
+  public void run(final @NotNull Runnable action) {
+    this.call(() -> {
+      action.run();
+      return null;
+    });
+  }
+}
@@ -0,0 +1,19 @@
+package org.fenixteam.storage.repository.deadline;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thrown when a repository call doesn't start or doesn't finish before its {@link Deadline}.
+ */
+public class DeadlineExceededException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public DeadlineExceededException(final @NotNull String message) {
+    super(message);
+  }
+
+  public DeadlineExceededException(final @NotNull String message, final @Nullable Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,262 @@
+package org.fenixteam.storage.repository.deadline;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ForwardingModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decorates a repository running every call under a {@link Deadline} the given timeout after the
+ * call starts, or under the earlier deadline of the caller. Reads may also be interrupted at the
+ * deadline, writes never are.
+ *
+ * @param <ModelType> the model type
+ */
+@SuppressWarnings("unused")
+public class DeadlineModelRepository<ModelType extends Model> extends ForwardingModelRepository<ModelType> {
+  private static final int RUNNING = 0;
+  private static final int INTERRUPTING = 1;
+  private static final int INTERRUPTED = 2;
+  private static final int CLEARED = 3;
+  private static final int FINISHED = 4;
+
+  protected final Duration timeout;
+  protected final boolean interruptReads;
+
+  protected DeadlineModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<ModelType> delegate,
+    final @NotNull Duration timeout,
+    final boolean interruptReads
+  ) {
+    super(executor, delegate);
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("timeout must be positive");
+    }
+    this.timeout = timeout;
+    this.interruptReads = interruptReads;
+  }
+
+  @Contract("_, _, _ -> new")
+  public static <T extends Model> @NotNull DeadlineModelRepository<T> wrap(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<T> delegate,
+    final @NotNull Duration timeout
+  ) {
+    return new DeadlineModelRepository<>(executor, delegate, timeout, false);
+  }
+
+  /**
+   * Wraps the given repository, see {@link DeadlineModelRepository}.
+   *
+   * @param executor       the executor of the asynchronous methods
+   * @param delegate       the repository
+   * @param timeout        the timeout of every call
+   * @param interruptReads whether the thread running a read is interrupted at the deadline
+   * @param <T>            the model type
+   * @return the wrapped repository
+   */
+  @Contract("_, _, _, _ -> new")
+  public static <T extends Model> @NotNull DeadlineModelRepository<T> wrap(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<T> delegate,
+    final @NotNull Duration timeout,
+    final boolean interruptReads
+  ) {
+    return new DeadlineModelRepository<>(executor, delegate, timeout, interruptReads);
+  }
+
+  public @NotNull Duration timeout() {
+    return this.timeout;
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    return this.read(() -> this.delegate.findSync(id));
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    return this.read(() -> this.delegate.findSync(id, fields));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.read(() -> this.delegate.findSync(field, value, factory));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.read(() -> this.delegate.findManySync(ids, factory));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.read(() -> this.delegate.querySync(query, factory));
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    return this.read(this.delegate::findIdsSync);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findAllSync(
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.read(() -> this.delegate.findAllSync(postLoadAction, factory));
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    return this.read(() -> this.delegate.findPageSync(continuationToken, limit));
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    return this.read(() -> this.delegate.existsSync(id));
+  }
+
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    return this.read(() -> this.delegate.existsManySync(ids));
+  }
+
+  @Override
+  public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    return this.write(() -> this.delegate.saveSync(model));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    return this.write(() -> this.delegate.saveManySync(models));
+  }
+
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    return this.write(() -> this.delegate.patchSync(id, patch));
+  }
+
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.write(() -> this.delegate.computeSync(id, function));
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    return this.write(() -> this.delegate.deleteSync(id));
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    return this.write(() -> this.delegate.deleteManySync(ids));
+  }
+
+  protected <R> R read(final @NotNull Supplier<R> call) {
+    final var deadline = Deadline.after(this.timeout)
+                           .min(Deadline.current());
+    return deadline.call(() -> {
+      deadline.check();
+      return this.interruptReads ? this.interruptibly(deadline, call) : call.get();
+    });
+  }
+
+  protected <R> R write(final @NotNull Supplier<R> call) {
+    final var deadline = Deadline.after(this.timeout)
+                           .min(Deadline.current());
+    return deadline.call(() -> {
+      deadline.check();
+      return call.get();
+    });
+  }
+
+  /**
+   * Runs the call interrupting the current thread if it is still running at the deadline, clearing
+   * the interrupted flag before returning.
+   *
+   * @param deadline the deadline
+   * @param call     the call
+   * @param <R>      the result type
+   * @return the result of the call
+   */
+  private <R> R interruptibly(final @NotNull Deadline deadline, final @NotNull Supplier<R> call) {
+    final var thread = Thread.currentThread();
+    final var state = new AtomicInteger(RUNNING);
+    final var interruption = Interrupter.SCHEDULER.schedule(() -> {
+      if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+        thread.interrupt();
+        state.set(INTERRUPTED);
+      }
+    }, deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+    try {
+      return call.get();
+    } catch (final RuntimeException e) {
+      if (this.finish(state)) {
+        throw new DeadlineExceededException("call interrupted at its deadline", e);
+      }
+      throw e;
+    } finally {
+      interruption.cancel(false);
+      this.finish(state);
+    }
+  }
+
+  private boolean finish(final @NotNull AtomicInteger state) {
+    if (state.compareAndSet(RUNNING, FINISHED)) {
+      return false;
+    }
+    while (state.get() == INTERRUPTING) {
+      Thread.onSpinWait();
+    }
+    if (state.compareAndSet(INTERRUPTED, CLEARED)) {
+      Thread.interrupted();
+    }
+    return state.get() == CLEARED;
+  }
+
+  private static final class Interrupter {
+    private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+    private static @NotNull ScheduledExecutorService createScheduler() {
+      final var scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final var thread = new Thread(runnable, "storage-deadline");
+        thread.setDaemon(true);
+        return thread;
+      });
+      // most interruptions are cancelled long before they are due
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+}
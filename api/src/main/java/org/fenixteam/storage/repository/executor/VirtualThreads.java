@@ -0,0 +1,48 @@
+package org.fenixteam.storage.repository.executor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs repository calls on virtual threads. This version is loaded on Java 17 to 20 and reports
+ * them as unsupported, the Java 21 version of the multi-release jar creates them.
+ *
+ * <p>Every async repository method blocks on its {@code *Sync} counterpart, so a virtual thread
+ * only frees its carrier if the backend blocks without pinning it. Caffeine and local
+ * repositories never block. Gson repositories block on file I/O, which pins the carrier but is
+ * compensated by the scheduler. Jedis and the Mongo sync driver block on socket I/O and their
+ * connection pools; size those pools for the expected concurrency and check the
+ * {@code jdk.tracePinnedThreads} output of the driver versions in use, since carriers pinned
+ * inside {@code synchronized} blocks limit throughput to the carrier count.</p>
+ */
+public final class VirtualThreads {
+  private VirtualThreads() {
+  }
+
+  public static boolean supported() {
+    return false;
+  }
+
+  /**
+   * Returns a shared executor starting a virtual thread per task, which is never shut down.
+   *
+   * @return the shared executor
+   */
+  public static @NotNull Executor executor() {
+    throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, running on "
+                                              + Runtime.version());
+  }
+
+  /**
+   * Creates a virtual-thread-per-task executor, which the caller must shut down.
+   *
+   * @return the created executor
+   */
+  @Contract(" -> new")
+  public static @NotNull ExecutorService newThreadPerTaskExecutor() {
+    throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, running on "
+                                              + Runtime.version());
+  }
+}
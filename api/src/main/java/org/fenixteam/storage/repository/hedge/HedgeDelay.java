@@ -0,0 +1,65 @@
+package org.fenixteam.storage.repository.hedge;
+
+import java.time.Duration;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decides how long a {@link HedgedModelRepository} waits for the primary repository before sending
+ * the same read to the secondary one.
+ */
+public interface HedgeDelay {
+  /**
+   * Creates a delay which never changes.
+   *
+   * @param delay the delay
+   * @return the created delay
+   */
+  @Contract("_ -> new")
+  static @NotNull HedgeDelay fixed(final @NotNull Duration delay) {
+    if (delay.isNegative()) {
+      throw new IllegalArgumentException("delay must not be negative");
+    }
+    final var delayNanos = delay.toNanos();
+    return () -> delayNanos;
+  }
+
+  /**
+   * Creates a delay following the given percentile of the primary latencies over the last window,
+   * kept between the given bounds.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @param window     how long the latencies are collected before the delay is updated
+   * @param minDelay   the minimum delay
+   * @param maxDelay   the maximum delay
+   * @return the created delay
+   */
+  @Contract("_, _, _, _ -> new")
+  static @NotNull HedgeDelay percentile(
+    final double percentile,
+    final @NotNull Duration window,
+    final @NotNull Duration minDelay,
+    final @NotNull Duration maxDelay
+  ) {
+    if (percentile <= 0 || percentile >= 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100, both excluded");
+    }
+    if (window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("window must be positive");
+    }
+    if (minDelay.isNegative() || minDelay.compareTo(maxDelay) > 0) {
+      throw new IllegalArgumentException("minDelay must not be negative nor greater than maxDelay");
+    }
+    return new PercentileHedgeDelay(percentile, window.toNanos(), minDelay.toNanos(), maxDelay.toNanos());
+  }
+
+  long delayNanos();
+
+  /**
+   * Records the latency of a successful read of the primary repository.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  default void record(final long nanos) {
+  }
+}
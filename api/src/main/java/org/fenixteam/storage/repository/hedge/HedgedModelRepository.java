@@ -0,0 +1,276 @@
+package org.fenixteam.storage.repository.hedge;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ForwardingModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Sends the single-model reads and {@code findIds} to a primary repository and, if it didn't answer
+ * within the {@link HedgeDelay} or failed, to a secondary repository holding a possibly lagging
+ * replica of the models. Every other operation goes to the primary repository only.
+ *
+ * @param <ModelType> the model type
+ */
+@SuppressWarnings("unused")
+public class HedgedModelRepository<ModelType extends Model> extends ForwardingModelRepository<ModelType>
+  implements AutoCloseable {
+  protected final ModelRepository<ModelType> secondaryModelRepository;
+  protected final HedgeDelay hedgeDelay;
+  protected final ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+  private final LongAdder reads;
+  private final LongAdder hedgedReads;
+  private final LongAdder secondaryWins;
+
+  protected HedgedModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<ModelType> primaryModelRepository,
+    final @NotNull ModelRepository<ModelType> secondaryModelRepository,
+    final @NotNull HedgeDelay hedgeDelay,
+    final @Nullable ScheduledExecutorService scheduler
+  ) {
+    super(executor, primaryModelRepository);
+    this.secondaryModelRepository = secondaryModelRepository;
+    this.hedgeDelay = hedgeDelay;
+    this.ownsScheduler = scheduler == null;
+    this.scheduler = scheduler == null ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final var thread = new Thread(runnable, "storage-hedge");
+      thread.setDaemon(true);
+      return thread;
+    }) : scheduler;
+    this.reads = new LongAdder();
+    this.hedgedReads = new LongAdder();
+    this.secondaryWins = new LongAdder();
+  }
+
+  @Contract(" -> new")
+  public static <T extends Model> @NotNull HedgedModelRepositoryBuilder<T> builder() {
+    return new HedgedModelRepositoryBuilder<>();
+  }
+
+  public @NotNull ModelRepository<ModelType> primaryModelRepository() {
+    return this.delegate;
+  }
+
+  public @NotNull ModelRepository<ModelType> secondaryModelRepository() {
+    return this.secondaryModelRepository;
+  }
+
+  public @NotNull HedgeDelay hedgeDelay() {
+    return this.hedgeDelay;
+  }
+
+  public long reads() {
+    return this.reads.sum();
+  }
+
+  /**
+   * Returns the amount of reads sent to the secondary repository.
+   *
+   * @return the amount of hedged reads
+   */
+  public long hedgedReads() {
+    return this.hedgedReads.sum();
+  }
+
+  public long secondaryWins() {
+    return this.secondaryWins.sum();
+  }
+
+  /**
+   * Stops the scheduler of the hedged reads if the repository created it. The repositories aren't
+   * closed.
+   */
+  @Override
+  public void close() {
+    if (this.ownsScheduler) {
+      this.scheduler.shutdownNow();
+    }
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable ModelType> find(final @NotNull String id) {
+    return this.hedge(repository -> repository.findSync(id));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable ModelType> find(
+    final @NotNull String id,
+    final @NotNull Set<String> fields
+  ) {
+    return this.hedge(repository -> repository.findSync(id, fields));
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@Nullable Collection<String>> findIds() {
+    return this.hedge(ModelRepository::findIdsSync);
+  }
+
+  @Override
+  public @NotNull CompletableFuture<@NotNull Boolean> exists(final @NotNull String id) {
+    return this.hedge(repository -> repository.existsSync(id));
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    return this.hedgeSync(repository -> repository.findSync(id));
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    return this.hedgeSync(repository -> repository.findSync(id, fields));
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    return this.hedgeSync(ModelRepository::findIdsSync);
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    return this.hedgeSync(repository -> repository.existsSync(id));
+  }
+
+  /**
+   * Runs the given read on the primary repository, and on the secondary one if the primary one
+   * didn't answer within the delay or failed.
+   *
+   * @param read the read to run
+   * @param <R>  the result type
+   * @return the first successful result, or the last failure if both repositories failed
+   */
+  protected <R> @NotNull CompletableFuture<R> hedge(
+    final @NotNull Function<ModelRepository<ModelType>, R> read
+  ) {
+    this.reads.increment();
+    final var hedgedRead = new HedgedRead<>(read);
+    hedgedRead.runPrimary(this.executor);
+    final var delayNanos = this.hedgeDelay.delayNanos();
+    if (!hedgedRead.result.isDone()) {
+      final var backup = this.scheduler.schedule(hedgedRead::runSecondary, delayNanos, TimeUnit.NANOSECONDS);
+      hedgedRead.result.whenComplete((result, error) -> backup.cancel(false));
+    }
+    return hedgedRead.result;
+  }
+
+  /**
+   * Same as {@link #hedge(Function)}, but the primary read runs on the calling thread, so the
+   * secondary read only gets a head start in case the primary one fails.
+   *
+   * @param read the read to run
+   * @param <R>  the result type
+   * @return the first successful result
+   */
+  protected <R> R hedgeSync(final @NotNull Function<ModelRepository<ModelType>, R> read) {
+    this.reads.increment();
+    final var hedgedRead = new HedgedRead<>(read);
+    final var backup = this.scheduler.schedule(
+      hedgedRead::runSecondary,
+      this.hedgeDelay.delayNanos(),
+      TimeUnit.NANOSECONDS);
+    hedgedRead.result.whenComplete((result, error) -> backup.cancel(false));
+    hedgedRead.runPrimary(Runnable::run);
+    return this.await(hedgedRead.result);
+  }
+
+  private <R> R await(final @NotNull CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  private final class HedgedRead<R> {
+    private final Function<ModelRepository<ModelType>, R> read;
+    private final CompletableFuture<R> result;
+    private final AtomicBoolean secondaryStarted;
+    private final AtomicBoolean answered;
+    private final AtomicInteger pendingReads;
+    private final AtomicReference<Throwable> failure;
+
+    private HedgedRead(final @NotNull Function<ModelRepository<ModelType>, R> read) {
+      // the secondary read is started from the scheduler, so it takes the deadline of the caller here
+      this.read = Deadline.propagate(read);
+      this.result = new CompletableFuture<>();
+      this.secondaryStarted = new AtomicBoolean();
+      this.answered = new AtomicBoolean();
+      this.pendingReads = new AtomicInteger(1);
+      this.failure = new AtomicReference<>();
+    }
+
+    private void runPrimary(final @NotNull Executor executor) {
+      final var start = System.nanoTime();
+      CompletableFuture.supplyAsync(() -> this.read.apply(HedgedModelRepository.this.delegate), executor)
+        .whenComplete((value, error) -> {
+          if (error == null) {
+            HedgedModelRepository.this.hedgeDelay.record(System.nanoTime() - start);
+            if (this.answered.compareAndSet(false, true)) {
+              this.result.complete(value);
+            }
+          } else {
+            this.fail(error);
+          }
+        });
+    }
+
+    private void runSecondary() {
+      if (this.result.isDone() || !this.secondaryStarted.compareAndSet(false, true)) {
+        return;
+      }
+      this.pendingReads.incrementAndGet();
+      HedgedModelRepository.this.hedgedReads.increment();
+      CompletableFuture.supplyAsync(
+          () -> this.read.apply(HedgedModelRepository.this.secondaryModelRepository),
+          HedgedModelRepository.this.executor)
+        .whenComplete((value, error) -> {
+          if (error != null) {
+            this.fail(error);
+          } else if (this.answered.compareAndSet(false, true)) {
+            // counted before completing, so the caller sees the win once it has the result
+            HedgedModelRepository.this.secondaryWins.increment();
+            this.result.complete(value);
+          }
+        });
+    }
+
+    private void fail(final @NotNull Throwable error) {
+      final var cause = error instanceof CompletionException && error.getCause() != null
+                          ? error.getCause()
+                          : error;
+      if (!this.failure.compareAndSet(null, cause) && this.failure.get() != cause) {
+        this.failure.get()
+          .addSuppressed(cause);
+      }
+      // a failed primary read is retried on the secondary repository without waiting for the delay
+      this.runSecondary();
+      if (this.pendingReads.decrementAndGet() == 0) {
+        this.result.completeExceptionally(this.failure.get());
+      }
+    }
+  }
+}
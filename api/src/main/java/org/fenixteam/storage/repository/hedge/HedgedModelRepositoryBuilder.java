@@ -0,0 +1,77 @@
+package org.fenixteam.storage.repository.hedge;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+@SuppressWarnings("unused")
+public final class HedgedModelRepositoryBuilder<ModelType extends Model> {
+  private ModelRepository<ModelType> primaryModelRepository;
+  private ModelRepository<ModelType> secondaryModelRepository;
+  private HedgeDelay hedgeDelay;
+  private ScheduledExecutorService scheduler;
+
+  HedgedModelRepositoryBuilder() {
+  }
+
+  @Contract("_ -> this")
+  public @NotNull HedgedModelRepositoryBuilder<ModelType> primaryModelRepository(
+    final @NotNull ModelRepository<ModelType> primaryModelRepository
+  ) {
+    this.primaryModelRepository = primaryModelRepository;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull HedgedModelRepositoryBuilder<ModelType> secondaryModelRepository(
+    final @NotNull ModelRepository<ModelType> secondaryModelRepository
+  ) {
+    this.secondaryModelRepository = secondaryModelRepository;
+    return this;
+  }
+
+  /**
+   * Sets how long the primary repository is waited for before hedging a read, by default the 95th
+   * percentile of its latencies between 1 and 100 milliseconds.
+   *
+   * @param hedgeDelay the delay
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull HedgedModelRepositoryBuilder<ModelType> hedgeDelay(final @NotNull HedgeDelay hedgeDelay) {
+    this.hedgeDelay = hedgeDelay;
+    return this;
+  }
+
+  /**
+   * Sets the scheduler of the delayed reads, otherwise the repository creates its own daemon thread.
+   *
+   * @param scheduler the scheduler
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull HedgedModelRepositoryBuilder<ModelType> scheduler(final @NotNull ScheduledExecutorService scheduler) {
+    this.scheduler = scheduler;
+    return this;
+  }
+
+  @Contract("_ -> new")
+  public @NotNull HedgedModelRepository<ModelType> build(final @NotNull Executor executor) {
+    if (this.primaryModelRepository == null || this.secondaryModelRepository == null) {
+      throw new IllegalStateException("Both the primary and the secondary repositories are required");
+    }
+    if (this.hedgeDelay == null) {
+      this.hedgeDelay = HedgeDelay.percentile(95, Duration.ofSeconds(10), Duration.ofMillis(1), Duration.ofMillis(100));
+    }
+    return new HedgedModelRepository<>(
+      executor,
+      this.primaryModelRepository,
+      this.secondaryModelRepository,
+      this.hedgeDelay,
+      this.scheduler);
+  }
+}
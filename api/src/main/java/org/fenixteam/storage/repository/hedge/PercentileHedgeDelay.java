@@ -0,0 +1,58 @@
+package org.fenixteam.storage.repository.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.fenixteam.storage.repository.metrics.LatencyHistogram;
+
+final class PercentileHedgeDelay implements HedgeDelay {
+  // the percentile of fewer reads would be mostly noise
+  private static final int MIN_SAMPLES = 100;
+
+  private final double percentile;
+  private final long windowNanos;
+  private final long minDelayNanos;
+  private final long maxDelayNanos;
+  private final AtomicLong windowStart;
+  private volatile LatencyHistogram window;
+  private volatile long delayNanos;
+
+  PercentileHedgeDelay(
+    final double percentile,
+    final long windowNanos,
+    final long minDelayNanos,
+    final long maxDelayNanos
+  ) {
+    this.percentile = percentile;
+    this.windowNanos = windowNanos;
+    this.minDelayNanos = minDelayNanos;
+    this.maxDelayNanos = maxDelayNanos;
+    this.windowStart = new AtomicLong(System.nanoTime());
+    this.window = LatencyHistogram.create();
+    this.delayNanos = maxDelayNanos;
+  }
+
+  @Override
+  public long delayNanos() {
+    return this.delayNanos;
+  }
+
+  @Override
+  public void record(final long nanos) {
+    this.window.record(nanos);
+    final var now = System.nanoTime();
+    final var start = this.windowStart.get();
+    if (now - start >= this.windowNanos && this.windowStart.compareAndSet(start, now)) {
+      this.rotate();
+    }
+  }
+
+  private void rotate() {
+    final var snapshot = this.window.snapshot();
+    if (snapshot.count() < MIN_SAMPLES) {
+      // keeps collecting, so a repository with few reads still adapts, just less often
+      return;
+    }
+    this.window = LatencyHistogram.create();
+    final var percentileNanos = snapshot.percentileNanos(this.percentile);
+    this.delayNanos = Math.max(this.minDelayNanos, Math.min(this.maxDelayNanos, percentileNanos));
+  }
+}
@@ -0,0 +1,85 @@
+package org.fenixteam.storage.repository.index;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.fenixteam.storage.model.Model;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index answering equality lookups in constant time.
+ */
+@SuppressWarnings("unused")
+public final class HashModelIndex<ModelType extends Model> implements ModelIndex<ModelType> {
+  private final String field;
+  private final Function<ModelType, ?> extractor;
+  private final Function<String, ?> keyParser;
+  private final Map<Object, Set<String>> entries;
+  private final Map<String, Object> indexedValues;
+
+  HashModelIndex(
+    final @NotNull String field,
+    final @NotNull Function<ModelType, ?> extractor,
+    final @NotNull Function<String, ?> keyParser
+  ) {
+    this.field = field;
+    this.extractor = extractor;
+    this.keyParser = keyParser;
+    this.entries = new ConcurrentHashMap<>();
+    this.indexedValues = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public @NotNull String field() {
+    return this.field;
+  }
+
+  @Override
+  public @Nullable Object valueOf(final @NotNull ModelType model) {
+    return this.extractor.apply(model);
+  }
+
+  @Override
+  public @NotNull Object parseKey(final @NotNull String value) {
+    return this.keyParser.apply(value);
+  }
+
+  @Override
+  public void update(final @NotNull String id, final @Nullable ModelType newModel) {
+    final var newValue = newModel == null ? null : this.extractor.apply(newModel);
+    final var oldValue = newValue == null ? this.indexedValues.remove(id) : this.indexedValues.put(id, newValue);
+    if (Objects.equals(oldValue, newValue)) {
+      return;
+    }
+    if (oldValue != null) {
+      this.entries.computeIfPresent(oldValue, (value, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+    if (newValue != null) {
+      this.entries.compute(newValue, (value, ids) -> {
+        final var newIds = ids == null ? ConcurrentHashMap.<String>newKeySet() : ids;
+        newIds.add(id);
+        return newIds;
+      });
+    }
+  }
+
+  @Override
+  public @NotNull Collection<String> findEqual(final @NotNull Object value) {
+    final var ids = this.entries.get(value);
+    return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+  }
+
+  @Override
+  public void clear() {
+    this.entries.clear();
+    this.indexedValues.clear();
+  }
+}
@@ -0,0 +1,233 @@
+package org.fenixteam.storage.repository.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.query.Filter;
+import org.fenixteam.storage.repository.query.Query;
+import org.fenixteam.storage.repository.query.Sort;
+import org.fenixteam.storage.repository.query.UnsupportedQueryException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs queries over in-memory models using their secondary indexes, which must cover every filtered
+ * and sorted field.
+ */
+@SuppressWarnings({"unused", "rawtypes", "unchecked"})
+public final class IndexQueryExecutor<ModelType extends Model> {
+  private final ModelIndexes<ModelType> indexes;
+
+  public IndexQueryExecutor(final @NotNull ModelIndexes<ModelType> indexes) {
+    this.indexes = indexes;
+  }
+
+  public boolean supports(final @NotNull Query query) {
+    return this.unsupportedReason(query) == null;
+  }
+
+  /**
+   * Runs the given query.
+   *
+   * @param query   the query
+   * @param lookup  the function returning the stored model of an id
+   * @param allIds  the supplier of every stored id, used when the query has no filter
+   * @param factory the collection factory
+   * @param <C>     the collection type
+   * @return the found models
+   * @throws UnsupportedQueryException if the query uses fields without a suitable index
+   */
+  public <C extends Collection<ModelType>> @NotNull C execute(
+    final @NotNull Query query,
+    final @NotNull Function<String, ModelType> lookup,
+    final @NotNull Supplier<Collection<String>> allIds,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var reason = this.unsupportedReason(query);
+    if (reason != null) {
+      throw new UnsupportedQueryException(reason);
+    }
+    final var filter = query.filter();
+    final var ids = filter == null ? allIds.get() : this.candidates(filter);
+    final var models = new ArrayList<ModelType>(ids.size());
+    for (final var id : ids) {
+      final var model = lookup.apply(id);
+      if (model != null && (filter == null || this.matches(filter, model))) {
+        models.add(model);
+      }
+    }
+    if (!query.sorts()
+           .isEmpty()) {
+      models.sort(this.comparator(query));
+    }
+    final var from = Math.min(query.skip(), models.size());
+    final var to = query.limit() == 0 ? models.size() : (int) Math.min((long) from + query.limit(), models.size());
+    final var foundModels = factory.apply(to - from);
+    foundModels.addAll(models.subList(from, to));
+    return foundModels;
+  }
+
+  private @Nullable String unsupportedReason(final @NotNull Query query) {
+    final var filter = query.filter();
+    if (filter != null) {
+      final var reason = this.unsupportedReason(filter);
+      if (reason != null) {
+        return reason;
+      }
+    }
+    for (final var sort : query.sorts()) {
+      if (!sort.field()
+             .equals(ModelRepository.ID_FIELD) && this.indexes.get(sort.field()) == null) {
+        return "No index registered for sort field '" + sort.field() + "'";
+      }
+    }
+    return null;
+  }
+
+  private @Nullable String unsupportedReason(final @NotNull Filter filter) {
+    if (filter instanceof Filter.And and) {
+      return this.unsupportedReason(and.filters());
+    }
+    if (filter instanceof Filter.Or or) {
+      return this.unsupportedReason(or.filters());
+    }
+    if (filter instanceof Filter.Range range) {
+      if (!(this.indexes.get(range.field()) instanceof SortedModelIndex)) {
+        return "No sorted index registered for range field '" + range.field() + "'";
+      }
+      return null;
+    }
+    final var field = filter instanceof Filter.Eq eq ? eq.field() : ((Filter.In) filter).field();
+    if (!field.equals(ModelRepository.ID_FIELD) && this.indexes.get(field) == null) {
+      return "No index registered for field '" + field + "'";
+    }
+    return null;
+  }
+
+  private @Nullable String unsupportedReason(final @NotNull Collection<Filter> filters) {
+    for (final var filter : filters) {
+      final var reason = this.unsupportedReason(filter);
+      if (reason != null) {
+        return reason;
+      }
+    }
+    return null;
+  }
+
+  private @NotNull Set<String> candidates(final @NotNull Filter filter) {
+    if (filter instanceof Filter.Eq eq) {
+      return this.equalCandidates(eq.field(), eq.value());
+    }
+    if (filter instanceof Filter.In in) {
+      final var ids = new HashSet<String>();
+      for (final var value : in.values()) {
+        ids.addAll(this.equalCandidates(in.field(), value));
+      }
+      return ids;
+    }
+    if (filter instanceof Filter.Range range) {
+      final var index = (SortedModelIndex) this.indexes.require(range.field());
+      return new HashSet<>(index.findRange(
+        (Comparable) range.from(),
+        range.fromInclusive(),
+        (Comparable) range.to(),
+        range.toInclusive()));
+    }
+    if (filter instanceof Filter.And and) {
+      Set<String> smallest = null;
+      for (final var child : and.filters()) {
+        final var ids = this.candidates(child);
+        if (smallest == null || ids.size() < smallest.size()) {
+          smallest = ids;
+        }
+      }
+      // the other children are checked by matches once the candidates are resolved
+      return smallest == null ? new HashSet<>() : smallest;
+    }
+    final var ids = new HashSet<String>();
+    for (final var child : ((Filter.Or) filter).filters()) {
+      ids.addAll(this.candidates(child));
+    }
+    return ids;
+  }
+
+  private @NotNull Set<String> equalCandidates(final @NotNull String field, final @NotNull Object value) {
+    final var index = this.indexes.get(field);
+    if (index == null) {
+      return value instanceof String id ? new HashSet<>(Set.of(id)) : new HashSet<>();
+    }
+    return new HashSet<>(index.findEqual(value));
+  }
+
+  private boolean matches(final @NotNull Filter filter, final @NotNull ModelType model) {
+    if (filter instanceof Filter.Eq eq) {
+      return Objects.equals(this.valueOf(eq.field(), model), eq.value());
+    }
+    if (filter instanceof Filter.In in) {
+      return in.values()
+               .contains(this.valueOf(in.field(), model));
+    }
+    if (filter instanceof Filter.Range range) {
+      final var value = (Comparable) this.valueOf(range.field(), model);
+      if (value == null) {
+        return false;
+      }
+      if (range.from() != null) {
+        final var comparison = value.compareTo(range.from());
+        if (comparison < 0 || comparison == 0 && !range.fromInclusive()) {
+          return false;
+        }
+      }
+      if (range.to() != null) {
+        final var comparison = value.compareTo(range.to());
+        return comparison < 0 || comparison == 0 && range.toInclusive();
+      }
+      return true;
+    }
+    if (filter instanceof Filter.And and) {
+      for (final var child : and.filters()) {
+        if (!this.matches(child, model)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (final var child : ((Filter.Or) filter).filters()) {
+      if (this.matches(child, model)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private @NotNull Comparator<ModelType> comparator(final @NotNull Query query) {
+    Comparator<ModelType> comparator = null;
+    for (final var sort : query.sorts()) {
+      final var next = this.comparator(sort);
+      comparator = comparator == null ? next : comparator.thenComparing(next);
+    }
+    return comparator;
+  }
+
+  private @NotNull Comparator<ModelType> comparator(final @NotNull Sort sort) {
+    final Comparator<Comparable> order = sort.ascending()
+      ? Comparator.nullsLast(Comparator.naturalOrder())
+      : Comparator.nullsLast(Comparator.reverseOrder());
+    return Comparator.comparing(model -> (Comparable) this.valueOf(sort.field(), model), order);
+  }
+
+  private @Nullable Object valueOf(final @NotNull String field, final @NotNull ModelType model) {
+    final var index = this.indexes.get(field);
+    if (index == null) {
+      return model.id();
+    }
+    return index.valueOf(model);
+  }
+}
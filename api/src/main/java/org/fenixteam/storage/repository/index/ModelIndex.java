@@ -0,0 +1,109 @@
+package org.fenixteam.storage.repository.index;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+import org.fenixteam.storage.model.Model;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Secondary index of the models of a repository by the value of one of their fields. Updates of the
+ * same id must not run concurrently.
+ *
+ * @param <ModelType> the model type
+ */
+public interface ModelIndex<ModelType extends Model> {
+  @Contract("_, _ -> new")
+  static <T extends Model> @NotNull HashModelIndex<T> hash(
+    final @NotNull String field,
+    final @NotNull Function<T, String> extractor
+  ) {
+    return new HashModelIndex<>(field, extractor, Function.identity());
+  }
+
+  /**
+   * Creates a hash index whose values aren't strings.
+   *
+   * @param field     the indexed field
+   * @param extractor the function returning the indexed value of a model
+   * @param keyParser the function converting a value looked up by string to the indexed type
+   * @param <T>       the model type
+   * @param <K>       the indexed value type
+   * @return the created index
+   */
+  @Contract("_, _, _ -> new")
+  static <T extends Model, K> @NotNull HashModelIndex<T> hash(
+    final @NotNull String field,
+    final @NotNull Function<T, K> extractor,
+    final @NotNull Function<String, K> keyParser
+  ) {
+    return new HashModelIndex<>(field, extractor, keyParser);
+  }
+
+  @Contract("_, _ -> new")
+  static <T extends Model> @NotNull SortedModelIndex<T, String> sorted(
+    final @NotNull String field,
+    final @NotNull Function<T, String> extractor
+  ) {
+    return new SortedModelIndex<>(field, extractor, Function.identity());
+  }
+
+  /**
+   * Creates a sorted index whose values aren't strings.
+   *
+   * @param field     the indexed field
+   * @param extractor the function returning the indexed value of a model
+   * @param keyParser the function converting a value looked up by string to the indexed type
+   * @param <T>       the model type
+   * @param <K>       the indexed value type
+   * @return the created index
+   */
+  @Contract("_, _, _ -> new")
+  static <T extends Model, K extends Comparable<? super K>> @NotNull SortedModelIndex<T, K> sorted(
+    final @NotNull String field,
+    final @NotNull Function<T, K> extractor,
+    final @NotNull Function<String, K> keyParser
+  ) {
+    return new SortedModelIndex<>(field, extractor, keyParser);
+  }
+
+  @NotNull String field();
+
+  @Nullable Object valueOf(final @NotNull ModelType model);
+
+  /**
+   * Converts a value looked up by string, as by {@code findSync(field, value, factory)}, to the
+   * type of the indexed values.
+   *
+   * @param value the looked up value
+   * @return the converted value
+   */
+  @NotNull Object parseKey(final @NotNull String value);
+
+  /**
+   * Moves the given id from the value it was last indexed under to the value of the new model. The
+   * index remembers that value, so a model modified in place and saved again is moved too.
+   *
+   * @param id       the model id
+   * @param newModel the newly stored model, or {@code null} if it was removed
+   */
+  void update(final @NotNull String id, final @Nullable ModelType newModel);
+
+  /**
+   * Returns whether the given model is indexed under the given value, which a found model may no
+   * longer be if it was modified in place after being saved.
+   *
+   * @param model the model
+   * @param value the looked up value
+   * @return whether the current value of the model equals the given one
+   */
+  default boolean matches(final @NotNull ModelType model, final @NotNull Object value) {
+    return Objects.equals(this.valueOf(model), value);
+  }
+
+  @NotNull Collection<String> findEqual(final @NotNull Object value);
+
+  void clear();
+}
@@ -0,0 +1,98 @@
+package org.fenixteam.storage.repository.index;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.fenixteam.storage.model.Model;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The secondary indexes of a repository, by field.
+ */
+@SuppressWarnings("unused")
+public final class ModelIndexes<ModelType extends Model> {
+  private final List<ModelIndex<ModelType>> indexes;
+  private final Map<String, ModelIndex<ModelType>> indexesByField;
+
+  private ModelIndexes(final @NotNull List<ModelIndex<ModelType>> indexes) {
+    this.indexes = indexes;
+    this.indexesByField = indexes.stream()
+                            .collect(Collectors.toUnmodifiableMap(ModelIndex::field, Function.identity()));
+  }
+
+  @Contract("_ -> new")
+  public static <T extends Model> @NotNull ModelIndexes<T> of(final @NotNull Collection<ModelIndex<T>> indexes) {
+    return new ModelIndexes<>(List.copyOf(indexes));
+  }
+
+  public boolean isEmpty() {
+    return this.indexes.isEmpty();
+  }
+
+  public @Nullable ModelIndex<ModelType> get(final @NotNull String field) {
+    return this.indexesByField.get(field);
+  }
+
+  public @NotNull ModelIndex<ModelType> require(final @NotNull String field) {
+    final var index = this.indexesByField.get(field);
+    if (index == null) {
+      throw new UnsupportedOperationException("No index registered for field '" + field + "'");
+    }
+    return index;
+  }
+
+  public void update(final @NotNull String id, final @Nullable ModelType newModel) {
+    for (final var index : this.indexes) {
+      index.update(id, newModel);
+    }
+  }
+
+  public void clear() {
+    for (final var index : this.indexes) {
+      index.clear();
+    }
+  }
+
+  public <C extends Collection<ModelType>> @Nullable C resolve(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<String, ModelType> lookup,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.resolve(ids, lookup, model -> true, factory);
+  }
+
+  /**
+   * Resolves the given ids to their models, skipping the ones which were removed meanwhile or no
+   * longer match the lookup.
+   *
+   * @param ids     the ids
+   * @param lookup  the function returning the stored model of an id
+   * @param matcher the predicate checking a found model still matches the lookup
+   * @param factory the collection factory
+   * @param <C>     the collection type
+   * @return the found models, or {@code null} if none was found
+   */
+  public <C extends Collection<ModelType>> @Nullable C resolve(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<String, ModelType> lookup,
+    final @NotNull Predicate<ModelType> matcher,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    if (ids.isEmpty()) {
+      return null;
+    }
+    final var foundModels = factory.apply(ids.size());
+    for (final var id : ids) {
+      final var model = lookup.apply(id);
+      if (model != null && matcher.test(model)) {
+        foundModels.add(model);
+      }
+    }
+    return foundModels.isEmpty() ? null : foundModels;
+  }
+}
@@ -0,0 +1,203 @@
+package org.fenixteam.storage.repository.index;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.fenixteam.storage.model.Model;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index answering equality, range and prefix lookups in logarithmic time.
+ */
+@SuppressWarnings("unused")
+public final class SortedModelIndex<ModelType extends Model, KeyType extends Comparable<? super KeyType>>
+  implements ModelIndex<ModelType> {
+  private final String field;
+  private final Function<ModelType, KeyType> extractor;
+  private final Function<String, KeyType> keyParser;
+  private final NavigableSet<Entry<KeyType>> entries;
+  private final Map<String, KeyType> indexedValues;
+
+  SortedModelIndex(
+    final @NotNull String field,
+    final @NotNull Function<ModelType, KeyType> extractor,
+    final @NotNull Function<String, KeyType> keyParser
+  ) {
+    this.field = field;
+    this.extractor = extractor;
+    this.keyParser = keyParser;
+    this.entries = new ConcurrentSkipListSet<>(Entry.comparator());
+    this.indexedValues = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public @NotNull String field() {
+    return this.field;
+  }
+
+  @Override
+  public @Nullable KeyType valueOf(final @NotNull ModelType model) {
+    return this.extractor.apply(model);
+  }
+
+  @Override
+  public @NotNull KeyType parseKey(final @NotNull String value) {
+    return this.keyParser.apply(value);
+  }
+
+  @Override
+  public void update(final @NotNull String id, final @Nullable ModelType newModel) {
+    final var newValue = newModel == null ? null : this.extractor.apply(newModel);
+    final var oldValue = newValue == null ? this.indexedValues.remove(id) : this.indexedValues.put(id, newValue);
+    if (Objects.equals(oldValue, newValue)) {
+      return;
+    }
+    if (oldValue != null) {
+      this.entries.remove(new Entry<>(oldValue, id, 0));
+    }
+    if (newValue != null) {
+      this.entries.add(new Entry<>(newValue, id, 0));
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public @NotNull Collection<String> findEqual(final @NotNull Object value) {
+    final var key = (KeyType) value;
+    return this.findRange(key, true, key, true);
+  }
+
+  /**
+   * Finds the ids whose value is between the given bounds.
+   *
+   * @param from          the lower bound, or {@code null} for no lower bound
+   * @param fromInclusive whether the lower bound is inclusive
+   * @param to            the upper bound, or {@code null} for no upper bound
+   * @param toInclusive   whether the upper bound is inclusive
+   * @return the matching ids, sorted by value
+   */
+  public @NotNull Collection<String> findRange(
+    final @Nullable KeyType from,
+    final boolean fromInclusive,
+    final @Nullable KeyType to,
+    final boolean toInclusive
+  ) {
+    return this.findRange(from, fromInclusive, to, toInclusive, Long.MAX_VALUE);
+  }
+
+  /**
+   * Finds the first {@code limit} ids whose value is between the given bounds.
+   *
+   * @param from          the lower bound, or {@code null} for no lower bound
+   * @param fromInclusive whether the lower bound is inclusive
+   * @param to            the upper bound, or {@code null} for no upper bound
+   * @param toInclusive   whether the upper bound is inclusive
+   * @param limit         the maximum amount of ids
+   * @return the matching ids, sorted by value
+   */
+  public @NotNull List<String> findRange(
+    final @Nullable KeyType from,
+    final boolean fromInclusive,
+    final @Nullable KeyType to,
+    final boolean toInclusive,
+    final long limit
+  ) {
+    var range = this.entries;
+    if (from != null) {
+      range = range.tailSet(new Entry<>(from, null, fromInclusive ? -1 : 1), false);
+    }
+    if (to != null) {
+      range = range.headSet(new Entry<>(to, null, toInclusive ? 1 : -1), false);
+    }
+    return range.stream()
+             .limit(limit)
+             .map(Entry::id)
+             .collect(Collectors.toList());
+  }
+
+  /**
+   * Finds the ids whose value starts with the given prefix, the index values must be strings.
+   *
+   * @param prefix the prefix
+   * @return the matching ids, sorted by value
+   */
+  @SuppressWarnings("unchecked")
+  public @NotNull Collection<String> findPrefix(final @NotNull String prefix) {
+    return this.entries.tailSet(new Entry<>((KeyType) prefix, null, -1), false)
+             .stream()
+             .takeWhile(entry -> ((String) entry.value()).startsWith(prefix))
+             .map(Entry::id)
+             .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns whether the current value of the given model is between the given bounds.
+   *
+   * @param model         the model
+   * @param from          the lower bound, or {@code null} for no lower bound
+   * @param fromInclusive whether the lower bound is inclusive
+   * @param to            the upper bound, or {@code null} for no upper bound
+   * @param toInclusive   whether the upper bound is inclusive
+   * @return whether the model is in the range
+   */
+  public boolean matchesRange(
+    final @NotNull ModelType model,
+    final @Nullable KeyType from,
+    final boolean fromInclusive,
+    final @Nullable KeyType to,
+    final boolean toInclusive
+  ) {
+    final var value = this.extractor.apply(model);
+    if (value == null) {
+      return false;
+    }
+    if (from != null) {
+      final var comparison = value.compareTo(from);
+      if (comparison < 0 || comparison == 0 && !fromInclusive) {
+        return false;
+      }
+    }
+    if (to != null) {
+      final var comparison = value.compareTo(to);
+      return comparison < 0 || comparison == 0 && toInclusive;
+    }
+    return true;
+  }
+
+  public boolean matchesPrefix(final @NotNull ModelType model, final @NotNull String prefix) {
+    return this.extractor.apply(model) instanceof String value && value.startsWith(prefix);
+  }
+
+  @Override
+  public void clear() {
+    this.entries.clear();
+    this.indexedValues.clear();
+  }
+
+  /**
+   * An indexed pair, or a bound placed right before ({@code bias = -1}) or right after
+   * ({@code bias = 1}) every pair with the same value.
+   */
+  private record Entry<K extends Comparable<? super K>>(@NotNull K value, @Nullable String id, int bias) {
+    static <K extends Comparable<? super K>> @NotNull Comparator<Entry<K>> comparator() {
+      return (first, second) -> {
+        final var valueComparison = first.value.compareTo(second.value);
+        if (valueComparison != 0) {
+          return valueComparison;
+        }
+        if (first.bias != 0 || second.bias != 0) {
+          return Integer.compare(first.bias, second.bias);
+        }
+        return first.id.compareTo(second.id);
+      };
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package org.fenixteam.storage.repository.limit;
+
+final class AimdConcurrencyLimit implements ConcurrencyLimit {
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private double limit;
+
+  AimdConcurrencyLimit(
+    final int initialLimit,
+    final int minLimit,
+    final int maxLimit,
+    final long latencyThresholdNanos
+  ) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThresholdNanos;
+    this.limit = initialLimit;
+  }
+
+  @Override
+  public int limit() {
+    return (int) this.limit;
+  }
+
+  @Override
+  public void record(final long latencyNanos, final int inFlight, final boolean dropped) {
+    if (dropped || latencyNanos > this.latencyThresholdNanos) {
+      this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+    } else if (inFlight * 2 >= this.limit) {
+      // one more call per round of calls, the limit isn't raised while most of it is unused
+      this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.fenixteam.storage.repository.limit;
+
+import java.time.Duration;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decides how many calls a {@link ConcurrencyLimiter} lets run at once, from the latency of the
+ * completed calls. Implementations don't need to be thread-safe.
+ */
+public interface ConcurrencyLimit {
+  /**
+   * Creates a limit growing by one call per {@code limit} completed calls while at least half used,
+   * and shrinking by 10% for every call slower than the threshold or failed.
+   *
+   * @param initialLimit     the starting limit
+   * @param minLimit         the minimum limit
+   * @param maxLimit         the maximum limit
+   * @param latencyThreshold the latency from which a call is considered too slow
+   * @return the created limit
+   */
+  @Contract("_, _, _, _ -> new")
+  static @NotNull ConcurrencyLimit aimd(
+    final int initialLimit,
+    final int minLimit,
+    final int maxLimit,
+    final @NotNull Duration latencyThreshold
+  ) {
+    checkBounds(initialLimit, minLimit, maxLimit);
+    if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+      throw new IllegalArgumentException("latencyThreshold must be positive");
+    }
+    return new AimdConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos());
+  }
+
+  /**
+   * Creates a limit following the gradient between the long-term and the short-term average
+   * latencies, so it shrinks as soon as the calls get slower than usual.
+   *
+   * @param initialLimit the starting limit
+   * @param minLimit     the minimum limit
+   * @param maxLimit     the maximum limit
+   * @return the created limit
+   */
+  @Contract("_, _, _ -> new")
+  static @NotNull ConcurrencyLimit gradient(final int initialLimit, final int minLimit, final int maxLimit) {
+    checkBounds(initialLimit, minLimit, maxLimit);
+    return new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit);
+  }
+
+  private static void checkBounds(final int initialLimit, final int minLimit, final int maxLimit) {
+    if (minLimit < 1 || minLimit > maxLimit) {
+      throw new IllegalArgumentException("minLimit must be positive and not greater than maxLimit");
+    }
+    if (initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+    }
+  }
+
+  int limit();
+
+  /**
+   * Records a completed or failed call, unless it failed because the repository was misused.
+   *
+   * @param latencyNanos the latency of the call
+   * @param inFlight     the amount of calls running when it completed, itself included
+   * @param dropped      whether the call failed, for instance by running over its deadline
+   */
+  void record(long latencyNanos, int inFlight, boolean dropped);
+}
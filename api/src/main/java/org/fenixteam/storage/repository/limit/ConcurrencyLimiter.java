@@ -0,0 +1,295 @@
+package org.fenixteam.storage.repository.limit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Caps the calls running at once at the current value of a {@link ConcurrencyLimit}, queueing the
+ * calls over it for a bounded time. A call made while the thread already holds a slot doesn't take
+ * a second one.
+ */
+@SuppressWarnings("unused")
+public final class ConcurrencyLimiter {
+  private final ConcurrencyLimit limit;
+  private final int maxQueued;
+  private final long maxQueueWaitNanos;
+  private final ReentrantLock lock;
+  private final ArrayDeque<CompletableFuture<Void>> waiters;
+  private final ThreadLocal<Boolean> holding;
+  private final LongAdder rejected;
+  private int inFlight;
+
+  private ConcurrencyLimiter(
+    final @NotNull ConcurrencyLimit limit,
+    final int maxQueued,
+    final long maxQueueWaitNanos
+  ) {
+    this.limit = limit;
+    this.maxQueued = maxQueued;
+    this.maxQueueWaitNanos = maxQueueWaitNanos;
+    this.lock = new ReentrantLock();
+    this.waiters = new ArrayDeque<>();
+    this.holding = new ThreadLocal<>();
+    this.rejected = new LongAdder();
+  }
+
+  /**
+   * Creates a limiter.
+   *
+   * @param limit        the limit of the calls running at once
+   * @param maxQueued    the maximum amount of calls waiting for a slot, zero to reject them right away
+   * @param maxQueueWait the maximum time a call waits for a slot
+   * @return the created limiter
+   */
+  @Contract("_, _, _ -> new")
+  public static @NotNull ConcurrencyLimiter create(
+    final @NotNull ConcurrencyLimit limit,
+    final int maxQueued,
+    final @NotNull Duration maxQueueWait
+  ) {
+    if (maxQueued < 0) {
+      throw new IllegalArgumentException("maxQueued must not be negative");
+    }
+    if (maxQueueWait.isNegative()) {
+      throw new IllegalArgumentException("maxQueueWait must not be negative");
+    }
+    return new ConcurrencyLimiter(limit, maxQueued, maxQueueWait.toNanos());
+  }
+
+  public int limit() {
+    this.lock.lock();
+    try {
+      return this.limit.limit();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public int inFlight() {
+    this.lock.lock();
+    try {
+      return this.inFlight;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public int queued() {
+    this.lock.lock();
+    try {
+      return this.waiters.size();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public long rejected() {
+    return this.rejected.sum();
+  }
+
+  /**
+   * Runs the call on the current thread once it gets a slot.
+   *
+   * @param call the call
+   * @param <R>  the result type
+   * @return the result of the call
+   * @throws LimitExceededException if the call was rejected
+   */
+  public <R> R call(final @NotNull Supplier<R> call) {
+    if (this.holding.get() != null) {
+      return call.get();
+    }
+    final var waitNanos = this.queueWaitNanos();
+    final var waiter = this.acquire(waitNanos);
+    if (waiter != null) {
+      this.await(waiter, waitNanos);
+    }
+    return this.run(call);
+  }
+
+  /**
+   * Runs the call on the executor once it gets a slot, without taking a thread until then.
+   *
+   * @param call     the call
+   * @param executor the executor running the call
+   * @param <R>      the result type
+   * @return the future of the result, failed with a {@link LimitExceededException} if the call was
+   *   rejected
+   */
+  public <R> @NotNull CompletableFuture<R> submit(final @NotNull Supplier<R> call, final @NotNull Executor executor) {
+    final var waitNanos = this.queueWaitNanos();
+    final CompletableFuture<Void> waiter;
+    try {
+      waiter = this.acquire(waitNanos);
+    } catch (final LimitExceededException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    final var result = new CompletableFuture<R>();
+    if (waiter == null) {
+      this.execute(call, executor, result);
+      return result;
+    }
+    waiter.orTimeout(waitNanos, TimeUnit.NANOSECONDS)
+      .whenComplete((granted, error) -> {
+        if (error == null) {
+          this.execute(call, executor, result);
+        } else {
+          this.reject(waiter);
+          result.completeExceptionally(new LimitExceededException("no slot freed up within the queue wait"));
+        }
+      });
+    return result;
+  }
+
+  private long queueWaitNanos() {
+    final var deadline = Deadline.current();
+    if (deadline == null) {
+      return this.maxQueueWaitNanos;
+    }
+    return Math.min(this.maxQueueWaitNanos, deadline.remainingNanos());
+  }
+
+  /**
+   * Takes a slot, or queues a waiter for one.
+   *
+   * @param waitNanos how long the call can wait for a slot
+   * @return {@code null} if a slot was taken, or the waiter completed once a slot is handed to it
+   */
+  private @Nullable CompletableFuture<Void> acquire(final long waitNanos) {
+    this.lock.lock();
+    try {
+      // the queued calls come first, otherwise a steady flow of new calls could starve them
+      if (this.waiters.isEmpty() && this.inFlight < this.limit.limit()) {
+        this.inFlight++;
+        return null;
+      }
+      if (this.waiters.size() >= this.maxQueued || waitNanos <= 0) {
+        this.rejected.increment();
+        throw new LimitExceededException("concurrency limit of " + this.limit.limit() + " reached and "
+                                           + this.waiters.size() + " calls already queued");
+      }
+      final var waiter = new CompletableFuture<Void>();
+      this.waiters.add(waiter);
+      return waiter;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void await(final @NotNull CompletableFuture<Void> waiter, final long waitNanos) {
+    InterruptedException interruption = null;
+    try {
+      waiter.get(waitNanos, TimeUnit.NANOSECONDS);
+      return;
+    } catch (final TimeoutException | ExecutionException e) {
+      // given up below
+    } catch (final InterruptedException e) {
+      Thread.currentThread()
+        .interrupt();
+      interruption = e;
+    }
+    if (!waiter.completeExceptionally(new TimeoutException())) {
+      // the slot was handed over meanwhile
+      return;
+    }
+    this.reject(waiter);
+    if (interruption != null) {
+      throw new RuntimeException(interruption);
+    }
+    throw new LimitExceededException("no slot freed up within the queue wait");
+  }
+
+  private void reject(final @NotNull CompletableFuture<Void> waiter) {
+    this.rejected.increment();
+    this.lock.lock();
+    try {
+      this.waiters.remove(waiter);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private <R> void execute(
+    final @NotNull Supplier<R> call,
+    final @NotNull Executor executor,
+    final @NotNull CompletableFuture<R> result
+  ) {
+    try {
+      executor.execute(() -> {
+        try {
+          result.complete(this.run(call));
+        } catch (final Throwable e) {
+          result.completeExceptionally(e);
+        }
+      });
+    } catch (final RuntimeException e) {
+      this.release(0, false, false);
+      result.completeExceptionally(e);
+    }
+  }
+
+  private <R> R run(final @NotNull Supplier<R> call) {
+    this.holding.set(Boolean.TRUE);
+    final var start = System.nanoTime();
+    var completed = false;
+    var dropped = false;
+    try {
+      final var result = call.get();
+      completed = true;
+      return result;
+    } catch (final IllegalArgumentException | UnsupportedOperationException e) {
+      // a misused repository says nothing about the load of the backend
+      throw e;
+    } catch (final RuntimeException e) {
+      dropped = true;
+      throw e;
+    } finally {
+      this.holding.remove();
+      this.release(System.nanoTime() - start, completed || dropped, dropped);
+    }
+  }
+
+  private void release(final long latencyNanos, final boolean record, final boolean dropped) {
+    List<CompletableFuture<Void>> granted = null;
+    this.lock.lock();
+    try {
+      if (record) {
+        this.limit.record(latencyNanos, this.inFlight, dropped);
+      }
+      this.inFlight--;
+      while (!this.waiters.isEmpty() && this.inFlight < this.limit.limit()) {
+        if (granted == null) {
+          granted = new ArrayList<>();
+        }
+        granted.add(this.waiters.poll());
+        this.inFlight++;
+      }
+    } finally {
+      this.lock.unlock();
+    }
+    if (granted == null) {
+      return;
+    }
+    // completed outside the lock since the asynchronous waiters submit their call right away
+    for (final var waiter : granted) {
+      if (!waiter.complete(null)) {
+        // it gave up meanwhile, the slot goes to the next one
+        this.release(0, false, false);
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package org.fenixteam.storage.repository.limit;
+
+final class GradientConcurrencyLimit implements ConcurrencyLimit {
+  private static final double SHORT_WINDOW = 10;
+  private static final double LONG_WINDOW = 600;
+  private static final double TOLERANCE = 1.5;
+  private static final double SMOOTHING = 0.2;
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private double limit;
+  private double shortLatency;
+  private double longLatency;
+
+  GradientConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = initialLimit;
+  }
+
+  @Override
+  public int limit() {
+    return (int) this.limit;
+  }
+
+  @Override
+  public void record(final long latencyNanos, final int inFlight, final boolean dropped) {
+    if (dropped) {
+      this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+      return;
+    }
+    if (this.longLatency == 0) {
+      this.shortLatency = latencyNanos;
+      this.longLatency = latencyNanos;
+      return;
+    }
+    this.shortLatency += (latencyNanos - this.shortLatency) / SHORT_WINDOW;
+    this.longLatency += (latencyNanos - this.longLatency) / LONG_WINDOW;
+    if (this.longLatency > 2 * this.shortLatency) {
+      // the latency dropped for good, the long-term average catches up faster
+      this.longLatency *= 0.95;
+    }
+    final var gradient = Math.max(0.5, Math.min(1, TOLERANCE * this.longLatency / this.shortLatency));
+    final var newLimit = this.limit * gradient + Math.sqrt(this.limit);
+    if (newLimit > this.limit && inFlight * 2 < this.limit) {
+      // most of the limit is unused, the latency says nothing about a higher one
+      return;
+    }
+    final var smoothedLimit = this.limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, smoothedLimit));
+  }
+}
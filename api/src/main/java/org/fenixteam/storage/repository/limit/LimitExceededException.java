@@ -0,0 +1,15 @@
+package org.fenixteam.storage.repository.limit;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when a {@link ConcurrencyLimiter} rejects a call, because its queue is full or because the
+ * call waited too long in it. The call didn't reach the repository, so it can be retried.
+ */
+public class LimitExceededException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public LimitExceededException(final @NotNull String message) {
+    super(message);
+  }
+}
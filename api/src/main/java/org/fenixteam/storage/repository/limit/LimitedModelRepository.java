@@ -0,0 +1,154 @@
+package org.fenixteam.storage.repository.limit;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ForwardingModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decorates a repository running every call through a {@link ConcurrencyLimiter}, so a slow backend
+ * gets fewer calls at once. Streams aren't limited since they are consumed lazily.
+ *
+ * @param <ModelType> the model type
+ */
+@SuppressWarnings("unused")
+public class LimitedModelRepository<ModelType extends Model> extends ForwardingModelRepository<ModelType> {
+  protected final ConcurrencyLimiter limiter;
+
+  protected LimitedModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<ModelType> delegate,
+    final @NotNull ConcurrencyLimiter limiter
+  ) {
+    super(executor, delegate);
+    this.limiter = limiter;
+  }
+
+  @Contract("_, _, _ -> new")
+  public static <T extends Model> @NotNull LimitedModelRepository<T> wrap(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<T> delegate,
+    final @NotNull ConcurrencyLimiter limiter
+  ) {
+    return new LimitedModelRepository<>(executor, delegate, limiter);
+  }
+
+  public @NotNull ConcurrencyLimiter limiter() {
+    return this.limiter;
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    return this.limiter.call(() -> this.delegate.findSync(id));
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    return this.limiter.call(() -> this.delegate.findSync(id, fields));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.limiter.call(() -> this.delegate.findSync(field, value, factory));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.limiter.call(() -> this.delegate.findManySync(ids, factory));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.limiter.call(() -> this.delegate.querySync(query, factory));
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    return this.limiter.call(this.delegate::findIdsSync);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findAllSync(
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.limiter.call(() -> this.delegate.findAllSync(postLoadAction, factory));
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    return this.limiter.call(() -> this.delegate.findPageSync(continuationToken, limit));
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    return this.limiter.call(() -> this.delegate.existsSync(id));
+  }
+
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    return this.limiter.call(() -> this.delegate.existsManySync(ids));
+  }
+
+  @Override
+  public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    return this.limiter.call(() -> this.delegate.saveSync(model));
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    return this.limiter.call(() -> this.delegate.saveManySync(models));
+  }
+
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    return this.limiter.call(() -> this.delegate.patchSync(id, patch));
+  }
+
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.limiter.call(() -> this.delegate.computeSync(id, function));
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    return this.limiter.call(() -> this.delegate.deleteSync(id));
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    return this.limiter.call(() -> this.delegate.deleteManySync(ids));
+  }
+
+  @Override
+  protected <R> @NotNull CompletableFuture<R> supplyAsync(final @NotNull Supplier<R> call) {
+    return this.limiter.submit(Deadline.propagate(call), this.executor);
+  }
+}
@@ -0,0 +1,272 @@
+package org.fenixteam.storage.repository.metrics;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ForwardingModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decorates a repository recording the count, errors and latency of every call into a
+ * {@link RepositoryMetrics}. Streams aren't measured since they are consumed lazily.
+ */
+@SuppressWarnings("unused")
+public class InstrumentedModelRepository<ModelType extends Model> extends ForwardingModelRepository<ModelType> {
+  protected final RepositoryMetrics metrics;
+
+  protected InstrumentedModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<ModelType> delegate,
+    final @NotNull RepositoryMetrics metrics
+  ) {
+    super(executor, delegate);
+    this.metrics = metrics;
+  }
+
+  @Contract("_, _, _ -> new")
+  public static <T extends Model> @NotNull InstrumentedModelRepository<T> wrap(
+    final @NotNull Executor executor,
+    final @NotNull ModelRepository<T> delegate,
+    final @NotNull RepositoryMetrics metrics
+  ) {
+    return new InstrumentedModelRepository<>(executor, delegate, metrics);
+  }
+
+  public @NotNull RepositoryMetrics metrics() {
+    return this.metrics;
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var model = this.delegate.findSync(id);
+      failed = false;
+      return model;
+    } finally {
+      this.metrics.record(RepositoryOperation.FIND, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var model = this.delegate.findSync(id, fields);
+      failed = false;
+      return model;
+    } finally {
+      this.metrics.record(RepositoryOperation.FIND, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var models = this.delegate.findSync(field, value, factory);
+      failed = false;
+      return models;
+    } finally {
+      this.metrics.record(RepositoryOperation.QUERY, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var models = this.delegate.findManySync(ids, factory);
+      failed = false;
+      return models;
+    } finally {
+      this.metrics.record(RepositoryOperation.FIND_MANY, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var models = this.delegate.querySync(query, factory);
+      failed = false;
+      return models;
+    } finally {
+      this.metrics.record(RepositoryOperation.QUERY, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var ids = this.delegate.findIdsSync();
+      failed = false;
+      return ids;
+    } finally {
+      this.metrics.record(RepositoryOperation.FIND_IDS, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findAllSync(
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var models = this.delegate.findAllSync(postLoadAction, factory);
+      failed = false;
+      return models;
+    } finally {
+      this.metrics.record(RepositoryOperation.FIND_ALL, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var page = this.delegate.findPageSync(continuationToken, limit);
+      failed = false;
+      return page;
+    } finally {
+      this.metrics.record(RepositoryOperation.FIND_PAGE, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var exists = this.delegate.existsSync(id);
+      failed = false;
+      return exists;
+    } finally {
+      this.metrics.record(RepositoryOperation.EXISTS, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var existingIds = this.delegate.existsManySync(ids);
+      failed = false;
+      return existingIds;
+    } finally {
+      this.metrics.record(RepositoryOperation.EXISTS, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var savedModel = this.delegate.saveSync(model);
+      failed = false;
+      return savedModel;
+    } finally {
+      this.metrics.record(RepositoryOperation.SAVE, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var savedModels = this.delegate.saveManySync(models);
+      failed = false;
+      return savedModels;
+    } finally {
+      this.metrics.record(RepositoryOperation.SAVE_MANY, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var patched = this.delegate.patchSync(id, patch);
+      failed = false;
+      return patched;
+    } finally {
+      this.metrics.record(RepositoryOperation.PATCH, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var model = this.delegate.computeSync(id, function);
+      failed = false;
+      return model;
+    } finally {
+      this.metrics.record(RepositoryOperation.COMPUTE, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var deleted = this.delegate.deleteSync(id);
+      failed = false;
+      return deleted;
+    } finally {
+      this.metrics.record(RepositoryOperation.DELETE, System.nanoTime() - start, failed);
+    }
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    final var start = System.nanoTime();
+    var failed = true;
+    try {
+      final var deleted = this.delegate.deleteManySync(ids);
+      failed = false;
+      return deleted;
+    } finally {
+      this.metrics.record(RepositoryOperation.DELETE_MANY, System.nanoTime() - start, failed);
+    }
+  }
+}
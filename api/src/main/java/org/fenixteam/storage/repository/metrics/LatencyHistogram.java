@@ -0,0 +1,73 @@
+package org.fenixteam.storage.repository.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, whose percentiles are at most 12.5% above the
+ * recorded values.
+ */
+@SuppressWarnings("unused")
+public final class LatencyHistogram {
+  static final int SUB_BUCKET_BITS = 3;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets;
+  private final LongAdder totalNanos;
+  private final AtomicLong maxNanos;
+
+  private LatencyHistogram() {
+    this.buckets = new AtomicLongArray(BUCKETS);
+    this.totalNanos = new LongAdder();
+    this.maxNanos = new AtomicLong();
+  }
+
+  @Contract(" -> new")
+  public static @NotNull LatencyHistogram create() {
+    return new LatencyHistogram();
+  }
+
+  public void record(final long nanos) {
+    final var value = Math.max(nanos, 0);
+    this.buckets.incrementAndGet(bucketOf(value));
+    this.totalNanos.add(value);
+    if (value > this.maxNanos.get()) {
+      this.maxNanos.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  /**
+   * Copies the current state of the histogram. The copy isn't atomic, values recorded meanwhile
+   * may be partially included.
+   *
+   * @return the snapshot
+   */
+  public @NotNull LatencySnapshot snapshot() {
+    final var counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets.get(i);
+    }
+    return new LatencySnapshot(counts, this.totalNanos.sum(), this.maxNanos.get());
+  }
+
+  static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long lowerBoundOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final var exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+  }
+}
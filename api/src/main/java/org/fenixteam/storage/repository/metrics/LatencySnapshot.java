@@ -0,0 +1,81 @@
+package org.fenixteam.storage.repository.metrics;
+
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable copy of a {@link LatencyHistogram}.
+ */
+@SuppressWarnings("unused")
+public final class LatencySnapshot {
+  private final long[] buckets;
+  private final long count;
+  private final long totalNanos;
+  private final long maxNanos;
+
+  LatencySnapshot(final long @NotNull [] buckets, final long totalNanos, final long maxNanos) {
+    this.buckets = buckets;
+    var count = 0L;
+    for (final var bucket : buckets) {
+      count += bucket;
+    }
+    this.count = count;
+    this.totalNanos = totalNanos;
+    this.maxNanos = maxNanos;
+  }
+
+  public long count() {
+    return this.count;
+  }
+
+  public long totalNanos() {
+    return this.totalNanos;
+  }
+
+  public long maxNanos() {
+    return this.maxNanos;
+  }
+
+  public double meanNanos() {
+    return this.count == 0 ? 0 : (double) this.totalNanos / this.count;
+  }
+
+  /**
+   * Returns an upper bound of the latency below which the given percentage of the recorded
+   * latencies are.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency in nanoseconds, or 0 if nothing was recorded
+   */
+  public long percentileNanos(final double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    if (this.count == 0) {
+      return 0;
+    }
+    final var rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+    var seen = 0L;
+    for (int i = 0; i < this.buckets.length; i++) {
+      seen += this.buckets[i];
+      if (seen >= rank) {
+        final var upperBound = i + 1 < this.buckets.length ? LatencyHistogram.lowerBoundOf(i + 1) - 1 : Long.MAX_VALUE;
+        return Math.min(upperBound, this.maxNanos);
+      }
+    }
+    return this.maxNanos;
+  }
+
+  public double percentile(final double percentile, final @NotNull TimeUnit unit) {
+    return (double) this.percentileNanos(percentile) / unit.toNanos(1);
+  }
+
+  @Override
+  public @NotNull String toString() {
+    return "LatencySnapshot{count=" + this.count
+             + ", meanNanos=" + (long) this.meanNanos()
+             + ", p50Nanos=" + this.percentileNanos(50)
+             + ", p99Nanos=" + this.percentileNanos(99)
+             + ", maxNanos=" + this.maxNanos + "}";
+  }
+}
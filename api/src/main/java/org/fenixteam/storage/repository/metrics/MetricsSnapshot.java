@@ -0,0 +1,67 @@
+package org.fenixteam.storage.repository.metrics;
+
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable copy of the {@link RepositoryMetrics} of a repository.
+ *
+ * @param name       the name of the measured repository
+ * @param operations the metrics of every operation
+ * @param tiers      the lookups per tier, only counted by cached repositories
+ */
+public record MetricsSnapshot(
+  @NotNull String name,
+  @NotNull Map<RepositoryOperation, OperationSnapshot> operations,
+  @NotNull TierSnapshot tiers
+) {
+  public @Nullable OperationSnapshot operation(final @NotNull RepositoryOperation operation) {
+    return this.operations.get(operation);
+  }
+
+  /**
+   * The metrics of a single operation.
+   *
+   * @param errors  the amount of calls which threw
+   * @param latency the latencies of every call, including the ones which threw
+   */
+  public record OperationSnapshot(long errors, @NotNull LatencySnapshot latency) {
+    public long count() {
+      return this.latency.count();
+    }
+
+    public double errorRatio() {
+      final var count = this.count();
+      return count == 0 ? 0 : (double) this.errors / count;
+    }
+  }
+
+  /**
+   * The lookups of a cached repository by the tier which answered them.
+   *
+   * @param cacheHits   the lookups answered by the cache tier
+   * @param persistHits the lookups answered by the persistent tier
+   * @param misses      the lookups of models which exist in neither tier
+   */
+  public record TierSnapshot(long cacheHits, long persistHits, long misses) {
+    public long lookups() {
+      return this.cacheHits + this.persistHits + this.misses;
+    }
+
+    public double cacheHitRatio() {
+      final var lookups = this.lookups();
+      return lookups == 0 ? 0 : (double) this.cacheHits / lookups;
+    }
+
+    public double persistHitRatio() {
+      final var lookups = this.lookups();
+      return lookups == 0 ? 0 : (double) this.persistHits / lookups;
+    }
+
+    public double missRatio() {
+      final var lookups = this.lookups();
+      return lookups == 0 ? 0 : (double) this.misses / lookups;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package org.fenixteam.storage.repository.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects the per-operation counts, errors and latencies of a repository, and the per-tier lookups
+ * of a cached repository.
+ */
+@SuppressWarnings("unused")
+public final class RepositoryMetrics {
+  private static final RepositoryOperation[] OPERATIONS = RepositoryOperation.values();
+
+  private final String name;
+  private final LatencyHistogram[] latencies;
+  private final LongAdder[] errors;
+  private final LongAdder cacheHits;
+  private final LongAdder persistHits;
+  private final LongAdder misses;
+
+  private RepositoryMetrics(final @NotNull String name) {
+    this.name = name;
+    this.latencies = new LatencyHistogram[OPERATIONS.length];
+    this.errors = new LongAdder[OPERATIONS.length];
+    for (int i = 0; i < OPERATIONS.length; i++) {
+      this.latencies[i] = LatencyHistogram.create();
+      this.errors[i] = new LongAdder();
+    }
+    this.cacheHits = new LongAdder();
+    this.persistHits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * Creates the metrics of a repository.
+   *
+   * @param name the name of the repository, used to tell the snapshots apart
+   * @return the created metrics
+   */
+  @Contract("_ -> new")
+  public static @NotNull RepositoryMetrics create(final @NotNull String name) {
+    return new RepositoryMetrics(name);
+  }
+
+  public @NotNull String name() {
+    return this.name;
+  }
+
+  public void record(final @NotNull RepositoryOperation operation, final long nanos, final boolean failed) {
+    this.latencies[operation.ordinal()].record(nanos);
+    if (failed) {
+      this.errors[operation.ordinal()].increment();
+    }
+  }
+
+  public void recordCacheHits(final int count) {
+    this.cacheHits.add(count);
+  }
+
+  public void recordPersistHits(final int count) {
+    this.persistHits.add(count);
+  }
+
+  public void recordMisses(final int count) {
+    this.misses.add(count);
+  }
+
+  /**
+   * Copies the current metrics, the operations which were never called are left out.
+   *
+   * @return the snapshot
+   */
+  public @NotNull MetricsSnapshot snapshot() {
+    final var operations = new EnumMap<RepositoryOperation, MetricsSnapshot.OperationSnapshot>(
+      RepositoryOperation.class);
+    for (final var operation : OPERATIONS) {
+      final var latency = this.latencies[operation.ordinal()].snapshot();
+      if (latency.count() > 0) {
+        operations.put(operation, new MetricsSnapshot.OperationSnapshot(
+          this.errors[operation.ordinal()].sum(),
+          latency));
+      }
+    }
+    return new MetricsSnapshot(
+      this.name,
+      Collections.unmodifiableMap(operations),
+      new MetricsSnapshot.TierSnapshot(this.cacheHits.sum(), this.persistHits.sum(), this.misses.sum()));
+  }
+}
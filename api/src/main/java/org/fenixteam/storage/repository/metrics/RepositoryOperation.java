@@ -0,0 +1,20 @@
+package org.fenixteam.storage.repository.metrics;
+
+/**
+ * The repository operations measured by {@link RepositoryMetrics}.
+ */
+public enum RepositoryOperation {
+  FIND,
+  FIND_MANY,
+  FIND_ALL,
+  FIND_IDS,
+  FIND_PAGE,
+  QUERY,
+  EXISTS,
+  SAVE,
+  SAVE_MANY,
+  PATCH,
+  COMPUTE,
+  DELETE,
+  DELETE_MANY
+}
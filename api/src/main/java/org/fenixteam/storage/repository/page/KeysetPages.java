@@ -0,0 +1,97 @@
+package org.fenixteam.storage.repository.page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
+import org.fenixteam.storage.model.Model;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Helpers for repositories paging by id order, where the continuation token is the last id of the
+ * previous page.
+ */
+public final class KeysetPages {
+  private KeysetPages() {
+  }
+
+  public static void checkLimit(final int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+  }
+
+  /**
+   * Selects the {@code limit} lowest ids greater than {@code afterId} out of unordered ids, keeping
+   * at most {@code limit} of them in memory.
+   *
+   * @param ids     the ids, in any order
+   * @param afterId the last id of the previous page, or {@code null} for the first page
+   * @param limit   the page size
+   * @return the selected ids, sorted
+   */
+  public static @NotNull List<String> firstAfter(
+    final @NotNull Iterator<String> ids,
+    final @Nullable String afterId,
+    final int limit
+  ) {
+    final var selectedIds = new TreeSet<String>();
+    while (ids.hasNext()) {
+      final var id = ids.next();
+      if (afterId != null && id.compareTo(afterId) <= 0) {
+        continue;
+      }
+      if (selectedIds.size() < limit) {
+        selectedIds.add(id);
+      } else if (id.compareTo(selectedIds.last()) < 0 && selectedIds.add(id)) {
+        selectedIds.pollLast();
+      }
+    }
+    return new ArrayList<>(selectedIds);
+  }
+
+  /**
+   * Creates the page of the given ids, loading their models at once and keeping the ids order.
+   *
+   * @param pageIds the sorted ids of the page
+   * @param limit   the page size
+   * @param loader  the function loading the models of some ids, in any order
+   * @param <T>     the model type
+   * @return the page
+   */
+  public static <T extends Model> @NotNull Page<T> load(
+    final @NotNull List<String> pageIds,
+    final int limit,
+    final @NotNull Function<Collection<String>, Collection<T>> loader
+  ) {
+    final var modelsById = new HashMap<String, T>(pageIds.size());
+    for (final var model : loader.apply(pageIds)) {
+      modelsById.put(model.id(), model);
+    }
+    final var models = new ArrayList<T>(pageIds.size());
+    for (final var id : pageIds) {
+      final var model = modelsById.get(id);
+      if (model != null) {
+        models.add(model);
+      }
+    }
+    return new Page<>(models, pageIds.size() < limit ? null : pageIds.get(pageIds.size() - 1));
+  }
+
+  /**
+   * Creates the page of models already sorted by id.
+   *
+   * @param models the sorted models of the page
+   * @param limit  the page size
+   * @param <T>    the model type
+   * @return the page
+   */
+  public static <T extends Model> @NotNull Page<T> of(final @NotNull List<T> models, final int limit) {
+    return new Page<>(models, models.size() < limit ? null : models.get(models.size() - 1)
+                                                           .id());
+  }
+}
@@ -0,0 +1,19 @@
+package org.fenixteam.storage.repository.page;
+
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A page of models and the token to pass to get the next one, {@code null} once there are no more
+ * pages. The token format depends on the repository and must be treated as opaque.
+ *
+ * @param models            the models of this page
+ * @param continuationToken the token of the next page, or {@code null} if this is the last one
+ * @param <ModelType>       the model type
+ */
+public record Page<ModelType>(@NotNull List<ModelType> models, @Nullable String continuationToken) {
+  public boolean hasNext() {
+    return this.continuationToken != null;
+  }
+}
@@ -0,0 +1,107 @@
+package org.fenixteam.storage.repository.patch;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable list of field-level updates applied to the stored form of a model. Field names are
+ * the serialized ones.
+ */
+@SuppressWarnings("unused")
+public final class Patch {
+  private static final Patch EMPTY = new Patch(List.of(), false);
+  private final List<Operation> operations;
+  private final boolean upsert;
+
+  private Patch(final @NotNull List<Operation> operations, final boolean upsert) {
+    this.operations = operations;
+    this.upsert = upsert;
+  }
+
+  public static @NotNull Patch create() {
+    return EMPTY;
+  }
+
+  @Contract("_, _ -> new")
+  public @NotNull Patch set(final @NotNull String field, final @NotNull Object value) {
+    return this.with(new Operation.Set(field, value));
+  }
+
+  @Contract("_ -> new")
+  public @NotNull Patch unset(final @NotNull String field) {
+    return this.with(new Operation.Unset(field));
+  }
+
+  @Contract("_, _ -> new")
+  public @NotNull Patch inc(final @NotNull String field, final @NotNull Number amount) {
+    return this.with(new Operation.Increment(field, amount));
+  }
+
+  @Contract("_, _ -> new")
+  public @NotNull Patch push(final @NotNull String field, final @NotNull Object value) {
+    return this.with(new Operation.Push(field, value));
+  }
+
+  @Contract("_, _ -> new")
+  public @NotNull Patch pull(final @NotNull String field, final @NotNull Object value) {
+    return this.with(new Operation.Pull(field, value));
+  }
+
+  @Contract("_, _ -> new")
+  public @NotNull Patch setOnInsert(final @NotNull String field, final @NotNull Object value) {
+    return this.with(new Operation.SetOnInsert(field, value));
+  }
+
+  @Contract(" -> new")
+  public @NotNull Patch upsert() {
+    return new Patch(this.operations, true);
+  }
+
+  public @NotNull List<Operation> operations() {
+    return this.operations;
+  }
+
+  public boolean isUpsert() {
+    return this.upsert;
+  }
+
+  public boolean isEmpty() {
+    return this.operations.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "Patch{operations=" + this.operations + ", upsert=" + this.upsert + "}";
+  }
+
+  private @NotNull Patch with(final @NotNull Operation operation) {
+    final var operations = new ArrayList<Operation>(this.operations.size() + 1);
+    operations.addAll(this.operations);
+    operations.add(operation);
+    return new Patch(List.copyOf(operations), this.upsert);
+  }
+
+  public sealed interface Operation {
+    @NotNull String field();
+
+    record Set(@NotNull String field, @NotNull Object value) implements Operation {
+    }
+
+    record Unset(@NotNull String field) implements Operation {
+    }
+
+    record Increment(@NotNull String field, @NotNull Number amount) implements Operation {
+    }
+
+    record Push(@NotNull String field, @NotNull Object value) implements Operation {
+    }
+
+    record Pull(@NotNull String field, @NotNull Object value) implements Operation {
+    }
+
+    record SetOnInsert(@NotNull String field, @NotNull Object value) implements Operation {
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package org.fenixteam.storage.repository.publisher;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A cold {@link Flow.Publisher} which opens a new stream for every subscriber and only pulls as
+ * many elements from it as the subscriber requested.
+ */
+@SuppressWarnings("unused")
+public final class StreamPublisher<T> implements Flow.Publisher<T> {
+  private final Supplier<Stream<T>> streamSupplier;
+  private final Executor executor;
+
+  private StreamPublisher(final @NotNull Supplier<Stream<T>> streamSupplier, final @NotNull Executor executor) {
+    this.streamSupplier = streamSupplier;
+    this.executor = executor;
+  }
+
+  @Contract("_, _ -> new")
+  public static <T> @NotNull StreamPublisher<T> create(
+    final @NotNull Supplier<Stream<T>> streamSupplier,
+    final @NotNull Executor executor
+  ) {
+    return new StreamPublisher<>(streamSupplier, executor);
+  }
+
+  @Override
+  public void subscribe(final @NotNull Flow.Subscriber<? super T> subscriber) {
+    final var subscription = new StreamSubscription<>(subscriber, this.streamSupplier, this.executor);
+    subscriber.onSubscribe(subscription);
+  }
+
+  private static final class StreamSubscription<T> implements Flow.Subscription {
+    private final Flow.Subscriber<? super T> subscriber;
+    private final Supplier<Stream<T>> streamSupplier;
+    private final Executor executor;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+    private Stream<T> stream;
+    private Iterator<T> iterator;
+    private boolean done;
+
+    private StreamSubscription(
+      final @NotNull Flow.Subscriber<? super T> subscriber,
+      final @NotNull Supplier<Stream<T>> streamSupplier,
+      final @NotNull Executor executor
+    ) {
+      this.subscriber = subscriber;
+      this.streamSupplier = streamSupplier;
+      this.executor = executor;
+    }
+
+    @Override
+    public void request(final long n) {
+      if (n <= 0) {
+        this.invalidRequest = new IllegalArgumentException("Requested amount must be positive, got " + n);
+        this.scheduleDrain();
+        return;
+      }
+      this.demand.getAndAccumulate(n, (current, added) -> {
+        final var sum = current + added;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+      });
+      this.scheduleDrain();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      this.scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+      if (this.pendingDrains.getAndIncrement() == 0) {
+        this.executor.execute(this::drain);
+      }
+    }
+
+    // only one thread at a time runs this method, guarded by pendingDrains
+    private void drain() {
+      var missed = 1;
+      do {
+        if (!this.done) {
+          this.drainOnce();
+        }
+        missed = this.pendingDrains.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void drainOnce() {
+      if (this.invalidRequest != null) {
+        this.close();
+        this.subscriber.onError(this.invalidRequest);
+      } else if (this.cancelled) {
+        this.close();
+      } else {
+        this.emit();
+      }
+    }
+
+    private void emit() {
+      try {
+        if (this.iterator == null) {
+          this.stream = this.streamSupplier.get();
+          this.iterator = this.stream.iterator();
+        }
+        while (this.demand.get() > 0 && !this.cancelled && this.invalidRequest == null) {
+          if (!this.iterator.hasNext()) {
+            this.close();
+            this.subscriber.onComplete();
+            return;
+          }
+          this.subscriber.onNext(this.iterator.next());
+          if (this.demand.get() != Long.MAX_VALUE) {
+            this.demand.decrementAndGet();
+          }
+        }
+      } catch (final RuntimeException e) {
+        this.close();
+        this.subscriber.onError(e);
+      }
+    }
+
+    private void close() {
+      this.done = true;
+      this.iterator = null;
+      if (this.stream != null) {
+        final var stream = this.stream;
+        this.stream = null;
+        stream.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package org.fenixteam.storage.repository.query;
+
+import java.util.Collection;
+import java.util.List;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A condition over the fields of a model. Field names are the serialized ones, and the
+ * {@link org.fenixteam.storage.repository.ModelRepository#ID_FIELD id field} refers to the model id
+ * on every backend.
+ */
+public sealed interface Filter {
+  @Contract("_, _ -> new")
+  static @NotNull Filter eq(final @NotNull String field, final @NotNull Object value) {
+    return new Eq(field, value);
+  }
+
+  @Contract("_, _ -> new")
+  static @NotNull Filter in(final @NotNull String field, final @NotNull Collection<?> values) {
+    return new In(field, List.copyOf(values));
+  }
+
+  @Contract("_, _ -> new")
+  static @NotNull Filter gt(final @NotNull String field, final @NotNull Comparable<?> value) {
+    return new Range(field, value, false, null, false);
+  }
+
+  @Contract("_, _ -> new")
+  static @NotNull Filter gte(final @NotNull String field, final @NotNull Comparable<?> value) {
+    return new Range(field, value, true, null, false);
+  }
+
+  @Contract("_, _ -> new")
+  static @NotNull Filter lt(final @NotNull String field, final @NotNull Comparable<?> value) {
+    return new Range(field, null, false, value, false);
+  }
+
+  @Contract("_, _ -> new")
+  static @NotNull Filter lte(final @NotNull String field, final @NotNull Comparable<?> value) {
+    return new Range(field, null, false, value, true);
+  }
+
+  /**
+   * Matches the values between {@code from} inclusive and {@code to} exclusive.
+   *
+   * @param field the field
+   * @param from  the inclusive lower bound
+   * @param to    the exclusive upper bound
+   * @return the filter
+   */
+  @Contract("_, _, _ -> new")
+  static @NotNull Filter between(
+    final @NotNull String field,
+    final @NotNull Comparable<?> from,
+    final @NotNull Comparable<?> to
+  ) {
+    return new Range(field, from, true, to, false);
+  }
+
+  @Contract("_ -> new")
+  static @NotNull Filter and(final @NotNull Filter... filters) {
+    return new And(List.of(filters));
+  }
+
+  @Contract("_ -> new")
+  static @NotNull Filter or(final @NotNull Filter... filters) {
+    return new Or(List.of(filters));
+  }
+
+  record Eq(@NotNull String field, @NotNull Object value) implements Filter {
+  }
+
+  record In(@NotNull String field, @NotNull List<?> values) implements Filter {
+  }
+
+  record Range(
+    @NotNull String field,
+    @Nullable Comparable<?> from,
+    boolean fromInclusive,
+    @Nullable Comparable<?> to,
+    boolean toInclusive
+  ) implements Filter {
+  }
+
+  record And(@NotNull List<Filter> filters) implements Filter {
+    public And {
+      if (filters.isEmpty()) {
+        throw new IllegalArgumentException("An AND filter needs at least one filter");
+      }
+    }
+  }
+
+  record Or(@NotNull List<Filter> filters) implements Filter {
+    public Or {
+      if (filters.isEmpty()) {
+        throw new IllegalArgumentException("An OR filter needs at least one filter");
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package org.fenixteam.storage.repository.query;
+
+import java.util.List;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable query: an optional filter, the sort order, the amount of results to skip and return,
+ * and the fields to load where supported.
+ */
+@SuppressWarnings("unused")
+public final class Query {
+  private static final Query ALL = new Query(null, List.of(), 0, 0, List.of());
+  private final @Nullable Filter filter;
+  private final List<Sort> sorts;
+  private final int skip;
+  private final int limit;
+  private final List<String> projection;
+
+  private Query(
+    final @Nullable Filter filter,
+    final @NotNull List<Sort> sorts,
+    final int skip,
+    final int limit,
+    final @NotNull List<String> projection
+  ) {
+    this.filter = filter;
+    this.sorts = sorts;
+    this.skip = skip;
+    this.limit = limit;
+    this.projection = projection;
+  }
+
+  public static @NotNull Query all() {
+    return ALL;
+  }
+
+  @Contract("_ -> new")
+  public static @NotNull Query where(final @NotNull Filter filter) {
+    return new Query(filter, List.of(), 0, 0, List.of());
+  }
+
+  @Contract("_ -> new")
+  public @NotNull Query sort(final @NotNull Sort... sorts) {
+    return new Query(this.filter, List.of(sorts), this.skip, this.limit, this.projection);
+  }
+
+  @Contract("_ -> new")
+  public @NotNull Query skip(final int skip) {
+    if (skip < 0) {
+      throw new IllegalArgumentException("skip must not be negative");
+    }
+    return new Query(this.filter, this.sorts, skip, this.limit, this.projection);
+  }
+
+  /**
+   * Returns a copy of this query returning at most {@code limit} models, zero meaning no limit.
+   *
+   * @param limit the maximum amount of models
+   * @return the new query
+   */
+  @Contract("_ -> new")
+  public @NotNull Query limit(final int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must not be negative");
+    }
+    return new Query(this.filter, this.sorts, this.skip, limit, this.projection);
+  }
+
+  @Contract("_ -> new")
+  public @NotNull Query project(final @NotNull String... fields) {
+    return new Query(this.filter, this.sorts, this.skip, this.limit, List.of(fields));
+  }
+
+  public @Nullable Filter filter() {
+    return this.filter;
+  }
+
+  public @NotNull List<Sort> sorts() {
+    return this.sorts;
+  }
+
+  public int skip() {
+    return this.skip;
+  }
+
+  public int limit() {
+    return this.limit;
+  }
+
+  public @NotNull List<String> projection() {
+    return this.projection;
+  }
+
+  @Override
+  public String toString() {
+    return "Query{filter=" + this.filter +
+           ", sorts=" + this.sorts +
+           ", skip=" + this.skip +
+           ", limit=" + this.limit +
+           ", projection=" + this.projection + "}";
+  }
+}
@@ -0,0 +1,16 @@
+package org.fenixteam.storage.repository.query;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+public record Sort(@NotNull String field, boolean ascending) {
+  @Contract("_ -> new")
+  public static @NotNull Sort asc(final @NotNull String field) {
+    return new Sort(field, true);
+  }
+
+  @Contract("_ -> new")
+  public static @NotNull Sort desc(final @NotNull String field) {
+    return new Sort(field, false);
+  }
+}
@@ -0,0 +1,15 @@
+package org.fenixteam.storage.repository.query;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when a repository can't run a query, use
+ * {@link org.fenixteam.storage.repository.ModelRepository#supportsQuery(Query)} to check it first.
+ */
+public class UnsupportedQueryException extends UnsupportedOperationException {
+  private static final long serialVersionUID = 1L;
+
+  public UnsupportedQueryException(final @NotNull String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,120 @@
+package org.fenixteam.storage.repository.shard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable hash ring where every node owns the keys hashing between its points and the
+ * previous ones.
+ *
+ * @param <NodeType> the node type
+ */
+@SuppressWarnings("unused")
+public final class ConsistentHashRing<NodeType> {
+  private final List<NodeType> nodes;
+  private final long[] points;
+  private final NodeType[] owners;
+
+  private ConsistentHashRing(
+    final @NotNull List<NodeType> nodes,
+    final long @NotNull [] points,
+    final NodeType @NotNull [] owners
+  ) {
+    this.nodes = nodes;
+    this.points = points;
+    this.owners = owners;
+  }
+
+  /**
+   * Creates a ring of the given nodes, placed by their names only.
+   *
+   * @param nodes        the nodes
+   * @param nameFunction the function returning the unique name of a node
+   * @param virtualNodes the amount of points of every node
+   * @param <T>          the node type
+   * @return the created ring
+   */
+  @SuppressWarnings("unchecked")
+  @Contract("_, _, _ -> new")
+  public static <T> @NotNull ConsistentHashRing<T> create(
+    final @NotNull List<T> nodes,
+    final @NotNull Function<T, String> nameFunction,
+    final int virtualNodes
+  ) {
+    if (nodes.isEmpty()) {
+      throw new IllegalArgumentException("A ring needs at least one node");
+    }
+    if (virtualNodes <= 0) {
+      throw new IllegalArgumentException("virtualNodes must be positive");
+    }
+    final var names = new HashSet<String>(nodes.size());
+    final var ringPoints = new ArrayList<RingPoint<T>>(nodes.size() * virtualNodes);
+    for (final var node : nodes) {
+      final var name = nameFunction.apply(node);
+      if (!names.add(name)) {
+        throw new IllegalArgumentException("Duplicated node name " + name);
+      }
+      for (int i = 0; i < virtualNodes; i++) {
+        ringPoints.add(new RingPoint<>(hash(name + '#' + i), name, node));
+      }
+    }
+    // colliding points are ordered by name, so the owner of a key doesn't depend on the nodes order
+    ringPoints.sort(Comparator.comparingLong(RingPoint<T>::point)
+                      .thenComparing(RingPoint::name));
+    final var points = new long[ringPoints.size()];
+    final var owners = (T[]) new Object[ringPoints.size()];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = ringPoints.get(i)
+                    .point();
+      owners[i] = ringPoints.get(i)
+                    .node();
+    }
+    return new ConsistentHashRing<>(List.copyOf(nodes), points, owners);
+  }
+
+  /**
+   * Hashes the given key into 64 bits, FNV-1a over its characters followed by the MurmurHash3
+   * finalizer to spread close keys over the whole ring.
+   *
+   * @param key the key
+   * @return the hash
+   */
+  public static long hash(final @NotNull String key) {
+    var hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb93e53f5a9d5L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  public @NotNull List<NodeType> nodes() {
+    return this.nodes;
+  }
+
+  public @NotNull NodeType nodeOf(final @NotNull String key) {
+    final var hash = hash(key);
+    var index = Arrays.binarySearch(this.points, hash);
+    if (index < 0) {
+      index = -index - 1;
+      if (index == this.points.length) {
+        index = 0;
+      }
+    }
+    return this.owners[index];
+  }
+
+  private record RingPoint<T>(long point, @NotNull String name, @NotNull T node) {
+  }
+}
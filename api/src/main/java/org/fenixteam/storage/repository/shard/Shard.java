@@ -0,0 +1,15 @@
+package org.fenixteam.storage.repository.shard;
+
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A repository holding part of the models of a {@link ShardedModelRepository}.
+ *
+ * @param name        the unique name of the shard, which decides the ids it owns
+ * @param repository  the repository storing the models of the shard
+ * @param <ModelType> the model type
+ */
+public record Shard<ModelType extends Model>(@NotNull String name, @NotNull ModelRepository<ModelType> repository) {
+}
@@ -0,0 +1,879 @@
+package org.fenixteam.storage.repository.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.AbstractAsyncModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.fenixteam.storage.repository.query.UnsupportedQueryException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Spreads the models over several repositories by the consistent hash of their ids. Single-id
+ * operations go to the owning shard, the others run on every shard in parallel on the executor,
+ * which must not be a small bounded pool also running the callers. Shards can be added and removed
+ * while the repository is in use.
+ *
+ * @param <ModelType> the model type
+ */
+@SuppressWarnings("unused")
+public class ShardedModelRepository<ModelType extends Model> extends AbstractAsyncModelRepository<ModelType> {
+  private static final int LOCK_STRIPES = 64;
+
+  protected final int virtualNodes;
+  protected final int rebalanceBatchSize;
+  private final ReentrantReadWriteLock[] locks;
+  private final ReentrantLock rebalanceLock;
+  private volatile Routing<ModelType> routing;
+
+  protected ShardedModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull List<Shard<ModelType>> shards,
+    final int virtualNodes,
+    final int rebalanceBatchSize
+  ) {
+    super(executor);
+    this.virtualNodes = virtualNodes;
+    this.rebalanceBatchSize = rebalanceBatchSize;
+    this.locks = new ReentrantReadWriteLock[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      this.locks[i] = new ReentrantReadWriteLock();
+    }
+    this.rebalanceLock = new ReentrantLock();
+    this.routing = new Routing<>(this.ring(shards), null);
+  }
+
+  @Contract(" -> new")
+  public static <T extends Model> @NotNull ShardedModelRepositoryBuilder<T> builder() {
+    return new ShardedModelRepositoryBuilder<>();
+  }
+
+  public @NotNull List<Shard<ModelType>> shards() {
+    return this.routing.ring()
+             .nodes();
+  }
+
+  public @NotNull Shard<ModelType> shardOf(final @NotNull String id) {
+    return this.routing.ring()
+             .nodeOf(id);
+  }
+
+  /**
+   * Returns whether a rebalance is running, or failed and must be resumed.
+   *
+   * @return whether a rebalance is unfinished
+   */
+  public boolean rebalancing() {
+    return this.routing.previousRing() != null;
+  }
+
+  /**
+   * Adds a shard and moves to it the models it now owns, around {@code 1 / shards} of them.
+   *
+   * @param name       the unique name of the shard
+   * @param repository the repository of the shard
+   * @return the amount of moved models
+   * @throws IllegalArgumentException if there is already a shard with the given name
+   * @throws IllegalStateException    if a previous rebalance didn't finish
+   */
+  public int addShardSync(final @NotNull String name, final @NotNull ModelRepository<ModelType> repository) {
+    this.rebalanceLock.lock();
+    try {
+      this.checkRebalanceFinished();
+      final var shards = new ArrayList<>(this.shards());
+      for (final var shard : shards) {
+        if (shard.name()
+              .equals(name)) {
+          throw new IllegalArgumentException("There is already a shard named " + name);
+        }
+      }
+      shards.add(new Shard<>(name, repository));
+      this.routing = new Routing<>(this.ring(shards), this.routing.ring());
+      return this.rebalance();
+    } finally {
+      this.rebalanceLock.unlock();
+    }
+  }
+
+  /**
+   * Removes a shard after moving its models to the remaining ones. The repository of the shard isn't
+   * closed.
+   *
+   * @param name the name of the shard
+   * @return the amount of moved models
+   * @throws IllegalArgumentException if there is no shard with the given name
+   * @throws IllegalStateException    if it's the last shard or a previous rebalance didn't finish
+   */
+  public int removeShardSync(final @NotNull String name) {
+    this.rebalanceLock.lock();
+    try {
+      this.checkRebalanceFinished();
+      final var shards = new ArrayList<>(this.shards());
+      if (!shards.removeIf(shard -> shard.name()
+                                      .equals(name))) {
+        throw new IllegalArgumentException("There is no shard named " + name);
+      }
+      if (shards.isEmpty()) {
+        throw new IllegalStateException("The last shard can't be removed");
+      }
+      this.routing = new Routing<>(this.ring(shards), this.routing.ring());
+      return this.rebalance();
+    } finally {
+      this.rebalanceLock.unlock();
+    }
+  }
+
+  /**
+   * Moves the remaining models of a rebalance which failed, reads keep finding them meanwhile.
+   *
+   * @return the amount of moved models, 0 if there was no unfinished rebalance
+   */
+  public int resumeRebalanceSync() {
+    this.rebalanceLock.lock();
+    try {
+      if (!this.rebalancing()) {
+        return 0;
+      }
+      return this.rebalance();
+    } finally {
+      this.rebalanceLock.unlock();
+    }
+  }
+
+  public @NotNull CompletableFuture<Integer> addShard(
+    final @NotNull String name,
+    final @NotNull ModelRepository<ModelType> repository
+  ) {
+    return this.supplyAsync(() -> this.addShardSync(name, repository));
+  }
+
+  public @NotNull CompletableFuture<Integer> removeShard(final @NotNull String name) {
+    return this.supplyAsync(() -> this.removeShardSync(name));
+  }
+
+  public @NotNull CompletableFuture<Integer> resumeRebalance() {
+    return this.supplyAsync(this::resumeRebalanceSync);
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    final var routing = this.routing;
+    final var owner = routing.ring()
+                        .nodeOf(id);
+    final var previousOwner = routing.previousOwnerOf(id, owner);
+    if (previousOwner != null) {
+      final var model = previousOwner.repository()
+                          .findSync(id);
+      if (model != null) {
+        return model;
+      }
+    }
+    return owner.repository()
+             .findSync(id);
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    final var routing = this.routing;
+    final var owner = routing.ring()
+                        .nodeOf(id);
+    final var previousOwner = routing.previousOwnerOf(id, owner);
+    if (previousOwner != null) {
+      final var model = previousOwner.repository()
+                          .findSync(id, fields);
+      if (model != null) {
+        return model;
+      }
+    }
+    return owner.repository()
+             .findSync(id, fields);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var routing = this.routing;
+    final var results = this.scatter(
+      routing.shards(),
+      shard -> shard.repository()
+                 .findSync(field, value, ArrayList::new));
+    return this.mergeModels(routing, results, modelType -> { }, factory);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var routing = this.routing;
+    final var foundModels = factory.apply(ids.size());
+    var remainingIds = ids;
+    final var previousRing = routing.previousRing();
+    if (previousRing != null) {
+      final var movingIds = new ArrayList<String>();
+      for (final var id : ids) {
+        if (routing.previousOwnerOf(id, routing.ring()
+                                          .nodeOf(id)) != null) {
+          movingIds.add(id);
+        }
+      }
+      if (!movingIds.isEmpty()) {
+        final var foundIds = new HashSet<String>();
+        for (final var model : this.findGroupedSync(previousRing, movingIds)) {
+          foundModels.add(model);
+          foundIds.add(model.id());
+        }
+        remainingIds = new ArrayList<>(ids.size() - foundIds.size());
+        for (final var id : ids) {
+          if (!foundIds.contains(id)) {
+            remainingIds.add(id);
+          }
+        }
+      }
+    }
+    foundModels.addAll(this.findGroupedSync(routing.ring(), remainingIds));
+    return foundModels;
+  }
+
+  @Override
+  public boolean supportsQuery(final @NotNull Query query) {
+    if (!query.sorts()
+           .isEmpty() || query.skip() > 0) {
+      return false;
+    }
+    for (final var shard : this.routing.shards()) {
+      if (!shard.repository()
+             .supportsQuery(query)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    if (!this.supportsQuery(query)) {
+      throw new UnsupportedQueryException("The shards can't run " + query);
+    }
+    final var routing = this.routing;
+    final var results = this.scatter(
+      routing.shards(),
+      shard -> shard.repository()
+                 .querySync(query, ArrayList::new));
+    final var models = this.mergeModels(routing, results, modelType -> { }, ArrayList::new);
+    final var limit = query.limit() == 0 ? models.size() : Math.min(query.limit(), models.size());
+    final var limitedModels = factory.apply(limit);
+    limitedModels.addAll(models.subList(0, limit));
+    return limitedModels;
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    final var routing = this.routing;
+    final var results = this.scatter(
+      routing.shards(),
+      shard -> shard.repository()
+                 .findIdsSync());
+    var size = 0;
+    for (final var ids : results) {
+      if (ids != null) {
+        size += ids.size();
+      }
+    }
+    // during a rebalance a model may be found both at its previous and its new owner
+    final Collection<String> foundIds = routing.previousRing() == null
+                                          ? new ArrayList<>(size)
+                                          : new LinkedHashSet<>(size);
+    for (final var ids : results) {
+      if (ids != null) {
+        foundIds.addAll(ids);
+      }
+    }
+    return foundIds;
+  }
+
+  /**
+   * Finds the models of every shard in parallel, running the post-load action on the calling thread.
+   *
+   * @param postLoadAction the action to run with every found model
+   * @param factory        the factory of the returned collection
+   * @param <C>            the collection type
+   * @return the found models
+   */
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findAllSync(
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var routing = this.routing;
+    final var results = this.scatter(
+      routing.shards(),
+      shard -> shard.repository()
+                 .findAllSync(ArrayList::new));
+    return this.mergeModels(routing, results, postLoadAction, factory);
+  }
+
+  /**
+   * Streams the ids of every shard, those losing models to a rebalance first.
+   *
+   * @param batchSize the amount of ids fetched at once
+   * @return the ids
+   */
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    final var routing = this.routing;
+    final var ids = routing.shards()
+                      .stream()
+                      .flatMap(shard -> shard.repository()
+                                          .streamIdsSync(batchSize));
+    return routing.previousRing() == null ? ids : ids.distinct();
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    final var routing = this.routing;
+    final var models = routing.shards()
+                         .stream()
+                         .flatMap(shard -> shard.repository()
+                                             .streamAllSync(batchSize));
+    if (routing.previousRing() == null) {
+      return models;
+    }
+    final var seenIds = new HashSet<String>();
+    return models.filter(model -> seenIds.add(model.id()));
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    final var routing = this.routing;
+    final var owner = routing.ring()
+                        .nodeOf(id);
+    final var previousOwner = routing.previousOwnerOf(id, owner);
+    if (previousOwner != null && previousOwner.repository()
+                                   .existsSync(id)) {
+      return true;
+    }
+    return owner.repository()
+             .existsSync(id);
+  }
+
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    final var routing = this.routing;
+    final var existingIds = new HashSet<String>(ids.size());
+    for (final var idsByShard : this.scatter(
+      this.groupByOwner(routing.ring(), ids).entrySet(),
+      entry -> entry.getKey()
+                 .repository()
+                 .existsManySync(entry.getValue()))) {
+      existingIds.addAll(idsByShard);
+    }
+    final var previousRing = routing.previousRing();
+    if (previousRing != null) {
+      final var missingIds = new ArrayList<String>();
+      for (final var id : ids) {
+        if (!existingIds.contains(id) && routing.previousOwnerOf(id, routing.ring()
+                                                                      .nodeOf(id)) != null) {
+          missingIds.add(id);
+        }
+      }
+      for (final var idsByShard : this.scatter(
+        this.groupByOwner(previousRing, missingIds).entrySet(),
+        entry -> entry.getKey()
+                   .repository()
+                   .existsManySync(entry.getValue()))) {
+        existingIds.addAll(idsByShard);
+      }
+    }
+    final var orderedIds = new ArrayList<String>(existingIds.size());
+    for (final var id : ids) {
+      if (existingIds.contains(id)) {
+        orderedIds.add(id);
+      }
+    }
+    return orderedIds;
+  }
+
+  @Override
+  public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    final var id = model.id();
+    final var lock = this.lock(id)
+                       .readLock();
+    lock.lock();
+    try {
+      final var routing = this.routing;
+      final var owner = routing.ring()
+                          .nodeOf(id);
+      owner.repository()
+        .saveSync(model);
+      final var previousOwner = routing.previousOwnerOf(id, owner);
+      if (previousOwner != null) {
+        previousOwner.repository()
+          .deleteSync(id);
+      }
+      return model;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    final var modelsById = new LinkedHashMap<String, ModelType>(models.size());
+    for (final var model : models) {
+      modelsById.put(model.id(), model);
+    }
+    final var stripes = this.lockAll(modelsById.keySet());
+    try {
+      final var routing = this.routing;
+      final var modelsByShard = new HashMap<Shard<ModelType>, List<ModelType>>();
+      for (final var model : modelsById.values()) {
+        modelsByShard.computeIfAbsent(routing.ring()
+                                        .nodeOf(model.id()), shard -> new ArrayList<>())
+          .add(model);
+      }
+      this.scatter(
+        modelsByShard.entrySet(),
+        entry -> entry.getKey()
+                   .repository()
+                   .saveManySync(entry.getValue()));
+      this.deleteFromPreviousOwners(routing, modelsById.keySet());
+      return models;
+    } finally {
+      this.unlockAll(stripes);
+    }
+  }
+
+  @Override
+  public boolean supportsPatch(final @NotNull Patch patch) {
+    for (final var shard : this.routing.shards()) {
+      if (!shard.repository()
+             .supportsPatch(patch)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    return this.writeInPlace(id, repository -> repository.patchSync(id, patch));
+  }
+
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.writeInPlace(id, repository -> repository.computeSync(id, function));
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    final var lock = this.lock(id)
+                       .readLock();
+    lock.lock();
+    try {
+      final var routing = this.routing;
+      final var owner = routing.ring()
+                          .nodeOf(id);
+      var deleted = owner.repository()
+                      .deleteSync(id);
+      final var previousOwner = routing.previousOwnerOf(id, owner);
+      if (previousOwner != null) {
+        deleted = previousOwner.repository()
+                    .deleteSync(id) || deleted;
+      }
+      return deleted;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    final var stripes = this.lockAll(ids);
+    try {
+      final var routing = this.routing;
+      var deleted = false;
+      for (final var shardDeleted : this.scatter(
+        this.groupByOwner(routing.ring(), ids).entrySet(),
+        entry -> entry.getKey()
+                   .repository()
+                   .deleteManySync(entry.getValue()))) {
+        deleted |= shardDeleted;
+      }
+      return this.deleteFromPreviousOwners(routing, ids) || deleted;
+    } finally {
+      this.unlockAll(stripes);
+    }
+  }
+
+  /**
+   * Runs a write which reads the stored model at the owner of the id. During a rebalance the model is
+   * moved to its new owner first, holding the lock of the id exclusively.
+   *
+   * @param id    the model id
+   * @param write the write to run on the owner of the id
+   * @param <R>   the result type
+   * @return the result of the write
+   */
+  protected <R> R writeInPlace(
+    final @NotNull String id,
+    final @NotNull Function<ModelRepository<ModelType>, R> write
+  ) {
+    final var lock = this.lock(id);
+    lock.readLock()
+      .lock();
+    try {
+      final var routing = this.routing;
+      if (routing.previousRing() == null) {
+        return write.apply(routing.ring()
+                             .nodeOf(id)
+                             .repository());
+      }
+    } finally {
+      lock.readLock()
+        .unlock();
+    }
+    lock.writeLock()
+      .lock();
+    try {
+      final var routing = this.routing;
+      final var owner = routing.ring()
+                          .nodeOf(id);
+      final var previousOwner = routing.previousOwnerOf(id, owner);
+      if (previousOwner != null) {
+        this.moveSync(id, previousOwner, owner);
+      }
+      return write.apply(owner.repository());
+    } finally {
+      lock.writeLock()
+        .unlock();
+    }
+  }
+
+  /**
+   * Moves the models whose owner changed, the routing must already hold the new and the previous
+   * ring.
+   *
+   * @return the amount of moved models
+   */
+  private int rebalance() {
+    final var routing = this.routing;
+    final var ring = routing.ring();
+    final var previousRing = routing.previousRing();
+    // writers which read the routing before it changed may still be writing to the previous owners
+    this.awaitWriters();
+    var moved = 0;
+    for (final var shard : previousRing.nodes()) {
+      final var movingIds = new ArrayList<String>();
+      try (final var ids = shard.repository()
+                             .streamIdsSync(this.rebalanceBatchSize)) {
+        ids.forEach(id -> {
+          if (!ring.nodeOf(id)
+                 .equals(shard)) {
+            movingIds.add(id);
+          }
+        });
+      }
+      for (final var id : movingIds) {
+        final var lock = this.lock(id)
+                           .writeLock();
+        lock.lock();
+        try {
+          if (this.moveSync(id, shard, ring.nodeOf(id))) {
+            moved++;
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+    this.routing = new Routing<>(ring, null);
+    return moved;
+  }
+
+  /**
+   * Moves a model between shards, keeping a newer copy already at the target. The lock of its id
+   * must be held exclusively.
+   *
+   * @param id   the model id
+   * @param from the previous owner
+   * @param to   the new owner
+   * @return whether the model was found at the previous owner
+   */
+  private boolean moveSync(
+    final @NotNull String id,
+    final @NotNull Shard<ModelType> from,
+    final @NotNull Shard<ModelType> to
+  ) {
+    final var model = from.repository()
+                        .findSync(id);
+    if (model == null) {
+      return false;
+    }
+    if (!to.repository()
+           .existsSync(id)) {
+      to.repository()
+        .saveSync(model);
+    }
+    from.repository()
+      .deleteSync(id);
+    return true;
+  }
+
+  private void checkRebalanceFinished() {
+    if (this.rebalancing()) {
+      throw new IllegalStateException("A previous rebalance didn't finish, resume it first");
+    }
+  }
+
+  private void awaitWriters() {
+    for (final var lock : this.locks) {
+      lock.writeLock()
+        .lock();
+      lock.writeLock()
+        .unlock();
+    }
+  }
+
+  private boolean deleteFromPreviousOwners(
+    final @NotNull Routing<ModelType> routing,
+    final @NotNull Collection<String> ids
+  ) {
+    final var previousRing = routing.previousRing();
+    if (previousRing == null) {
+      return false;
+    }
+    final var movingIds = new ArrayList<String>();
+    for (final var id : ids) {
+      if (routing.previousOwnerOf(id, routing.ring()
+                                        .nodeOf(id)) != null) {
+        movingIds.add(id);
+      }
+    }
+    var deleted = false;
+    for (final var shardDeleted : this.scatter(
+      this.groupByOwner(previousRing, movingIds).entrySet(),
+      entry -> entry.getKey()
+                 .repository()
+                 .deleteManySync(entry.getValue()))) {
+      deleted |= shardDeleted;
+    }
+    return deleted;
+  }
+
+  private @NotNull List<ModelType> findGroupedSync(
+    final @NotNull ConsistentHashRing<Shard<ModelType>> ring,
+    final @NotNull Collection<String> ids
+  ) {
+    final var foundModels = new ArrayList<ModelType>(ids.size());
+    for (final var models : this.scatter(
+      this.groupByOwner(ring, ids).entrySet(),
+      entry -> entry.getKey()
+                 .repository()
+                 .findManySync(entry.getValue(), ArrayList::new))) {
+      foundModels.addAll(models);
+    }
+    return foundModels;
+  }
+
+  private @NotNull Map<Shard<ModelType>, List<String>> groupByOwner(
+    final @NotNull ConsistentHashRing<Shard<ModelType>> ring,
+    final @NotNull Collection<String> ids
+  ) {
+    final var idsByShard = new HashMap<Shard<ModelType>, List<String>>();
+    for (final var id : ids) {
+      idsByShard.computeIfAbsent(ring.nodeOf(id), shard -> new ArrayList<>())
+        .add(id);
+    }
+    return idsByShard;
+  }
+
+  private <C extends Collection<ModelType>> @NotNull C mergeModels(
+    final @NotNull Routing<ModelType> routing,
+    final @NotNull List<? extends @Nullable Collection<ModelType>> results,
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    var size = 0;
+    for (final var models : results) {
+      if (models != null) {
+        size += models.size();
+      }
+    }
+    final var mergedModels = factory.apply(size);
+    // during a rebalance a model may be found both at its previous and its new owner
+    final var seenIds = routing.previousRing() == null ? null : new HashSet<String>(size);
+    for (final var models : results) {
+      if (models == null) {
+        continue;
+      }
+      for (final var model : models) {
+        if (seenIds == null || seenIds.add(model.id())) {
+          postLoadAction.accept(model);
+          mergedModels.add(model);
+        }
+      }
+    }
+    return mergedModels;
+  }
+
+  /**
+   * Runs the given call for every target in parallel on the executor, the last one on the calling
+   * thread.
+   *
+   * @param targets the targets
+   * @param call    the call to run for every target
+   * @param <T>     the target type
+   * @param <R>     the result type
+   * @return the results, in the targets order
+   */
+  private <T, R> @NotNull List<R> scatter(
+    final @NotNull Collection<T> targets,
+    final @NotNull Function<T, R> call
+  ) {
+    final var futures = new ArrayList<CompletableFuture<R>>(targets.size());
+    final var iterator = targets.iterator();
+    R lastResult = null;
+    while (iterator.hasNext()) {
+      final var target = iterator.next();
+      if (iterator.hasNext()) {
+        futures.add(this.supplyAsync(() -> call.apply(target)));
+      } else {
+        lastResult = call.apply(target);
+      }
+    }
+    final var results = new ArrayList<R>(targets.size());
+    for (final var future : futures) {
+      results.add(this.await(future));
+    }
+    if (!targets.isEmpty()) {
+      results.add(lastResult);
+    }
+    return results;
+  }
+
+  private <R> R await(final @NotNull CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  private boolean @NotNull [] lockAll(final @NotNull Collection<String> ids) {
+    final var stripes = new boolean[LOCK_STRIPES];
+    for (final var id : ids) {
+      stripes[this.stripe(id)] = true;
+    }
+    // locked in ascending order so that a rebalance waiting for the writers can't deadlock with them
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      if (stripes[i]) {
+        this.locks[i].readLock()
+          .lock();
+      }
+    }
+    return stripes;
+  }
+
+  private void unlockAll(final boolean @NotNull [] stripes) {
+    for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+      if (stripes[i]) {
+        this.locks[i].readLock()
+          .unlock();
+      }
+    }
+  }
+
+  private @NotNull ReentrantReadWriteLock lock(final @NotNull String id) {
+    return this.locks[this.stripe(id)];
+  }
+
+  private int stripe(final @NotNull String id) {
+    return Math.floorMod(id.hashCode(), LOCK_STRIPES);
+  }
+
+  private @NotNull ConsistentHashRing<Shard<ModelType>> ring(final @NotNull List<Shard<ModelType>> shards) {
+    return ConsistentHashRing.create(shards, Shard::name, this.virtualNodes);
+  }
+
+  /**
+   * The ring routing the ids and, during a rebalance, the ring routing them before it.
+   *
+   * @param ring         the current ring
+   * @param previousRing the ring before the running rebalance, or {@code null} if there is none
+   * @param <T>          the model type
+   */
+  private record Routing<T extends Model>(
+    @NotNull ConsistentHashRing<Shard<T>> ring,
+    @Nullable ConsistentHashRing<Shard<T>> previousRing
+  ) {
+    @Nullable Shard<T> previousOwnerOf(final @NotNull String id, final @NotNull Shard<T> owner) {
+      if (this.previousRing == null) {
+        return null;
+      }
+      final var previousOwner = this.previousRing.nodeOf(id);
+      return previousOwner.equals(owner) ? null : previousOwner;
+    }
+
+    /**
+     * Returns the shards of both rings, the ones which lose models during a rebalance first.
+     *
+     * @return the shards
+     */
+    @NotNull List<Shard<T>> shards() {
+      if (this.previousRing == null) {
+        return this.ring.nodes();
+      }
+      final var shards = new LinkedHashSet<Shard<T>>(this.previousRing.nodes());
+      shards.addAll(this.ring.nodes());
+      final var removedShards = new ArrayList<>(shards);
+      removedShards.removeAll(this.ring.nodes());
+      final var orderedShards = new ArrayList<Shard<T>>(shards.size());
+      orderedShards.addAll(removedShards);
+      for (final var shard : shards) {
+        if (!removedShards.contains(shard)) {
+          orderedShards.add(shard);
+        }
+      }
+      return orderedShards;
+    }
+  }
+}
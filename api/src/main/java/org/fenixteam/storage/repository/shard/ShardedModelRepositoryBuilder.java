@@ -0,0 +1,69 @@
+package org.fenixteam.storage.repository.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+@SuppressWarnings("unused")
+public final class ShardedModelRepositoryBuilder<ModelType extends Model> {
+  private final List<Shard<ModelType>> shards = new ArrayList<>();
+  private int virtualNodes = 128;
+  private int rebalanceBatchSize = ModelRepository.DEFAULT_BATCH_SIZE;
+
+  ShardedModelRepositoryBuilder() {
+  }
+
+  /**
+   * Adds a shard. Its name decides the ids it owns, so it must stay the same across restarts.
+   *
+   * @param name       the unique name of the shard
+   * @param repository the repository of the shard
+   * @return this builder
+   */
+  @Contract("_, _ -> this")
+  public @NotNull ShardedModelRepositoryBuilder<ModelType> shard(
+    final @NotNull String name,
+    final @NotNull ModelRepository<ModelType> repository
+  ) {
+    this.shards.add(new Shard<>(name, repository));
+    return this;
+  }
+
+  /**
+   * Sets the amount of points of every shard in the hash ring, 128 by default. It must stay the same
+   * across restarts.
+   *
+   * @param virtualNodes the amount of points of every shard
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull ShardedModelRepositoryBuilder<ModelType> virtualNodes(final int virtualNodes) {
+    this.virtualNodes = virtualNodes;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull ShardedModelRepositoryBuilder<ModelType> rebalanceBatchSize(final int rebalanceBatchSize) {
+    this.rebalanceBatchSize = rebalanceBatchSize;
+    return this;
+  }
+
+  @Contract("_ -> new")
+  public @NotNull ShardedModelRepository<ModelType> build(final @NotNull Executor executor) {
+    if (this.shards.isEmpty()) {
+      throw new IllegalStateException("At least one shard is required");
+    }
+    if (this.rebalanceBatchSize <= 0) {
+      this.rebalanceBatchSize = ModelRepository.DEFAULT_BATCH_SIZE;
+    }
+    return new ShardedModelRepository<>(
+      executor,
+      List.copyOf(this.shards),
+      this.virtualNodes,
+      this.rebalanceBatchSize);
+  }
+}
@@ -0,0 +1,24 @@
+package org.fenixteam.storage.repository.tier;
+
+import java.time.Duration;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A level of a {@link TieredModelRepository}.
+ *
+ * @param name         the unique name of the tier
+ * @param repository   the repository storing the models of the tier
+ * @param writeThrough whether saved models are written to the tier, otherwise their ids are evicted
+ * @param idleTimeout  how long an idle model stays in the tier, or {@code null} to keep it
+ * @param <ModelType>  the model type
+ */
+public record Tier<ModelType extends Model>(
+  @NotNull String name,
+  @NotNull ModelRepository<ModelType> repository,
+  boolean writeThrough,
+  @Nullable Duration idleTimeout
+) {
+}
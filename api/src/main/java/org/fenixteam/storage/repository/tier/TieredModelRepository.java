@@ -0,0 +1,653 @@
+package org.fenixteam.storage.repository.tier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.AbstractAsyncModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Query;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores the models in an ordered list of tiers, the last of which holds every model. Reads check
+ * the tiers in order and promote the found models into the faster ones, writes go to the last tier
+ * first, and the models idle for longer than the timeout of a tier are demoted out of it.
+ *
+ * @param <ModelType> the model type
+ */
+@SuppressWarnings("unused")
+public class TieredModelRepository<ModelType extends Model> extends AbstractAsyncModelRepository<ModelType>
+  implements AutoCloseable {
+  private static final int LOCK_STRIPES = 64;
+
+  protected final List<Tier<ModelType>> tiers;
+  protected final ModelRepository<ModelType> lastModelRepository;
+  protected final @Nullable ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+  private final List<TierState<ModelType>> states;
+  private final Stripe[] stripes;
+  private final Consumer<RuntimeException> demotionFailureHandler;
+  private final @Nullable ScheduledFuture<?> demotionTask;
+  private final LongAdder misses;
+
+  protected TieredModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull List<Tier<ModelType>> tiers,
+    final @Nullable ScheduledExecutorService scheduler,
+    final long demotionIntervalMillis,
+    final @NotNull Consumer<RuntimeException> demotionFailureHandler
+  ) {
+    super(executor);
+    this.tiers = tiers;
+    this.lastModelRepository = tiers.get(tiers.size() - 1)
+                                 .repository();
+    this.states = new ArrayList<>(tiers.size());
+    var demoting = false;
+    for (final var tier : tiers) {
+      this.states.add(new TierState<>(tier));
+      demoting |= tier.idleTimeout() != null;
+    }
+    this.stripes = new Stripe[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      this.stripes[i] = new Stripe();
+    }
+    this.demotionFailureHandler = demotionFailureHandler;
+    this.misses = new LongAdder();
+    this.ownsScheduler = demoting && scheduler == null;
+    this.scheduler = this.ownsScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final var thread = new Thread(runnable, "storage-demotion");
+      thread.setDaemon(true);
+      return thread;
+    }) : scheduler;
+    this.demotionTask = demoting ? this.scheduler.scheduleWithFixedDelay(
+      this::demoteSync,
+      demotionIntervalMillis,
+      demotionIntervalMillis,
+      TimeUnit.MILLISECONDS) : null;
+  }
+
+  @Contract(" -> new")
+  public static <T extends Model> @NotNull TieredModelRepositoryBuilder<T> builder() {
+    return new TieredModelRepositoryBuilder<>();
+  }
+
+  public @NotNull List<Tier<ModelType>> tiers() {
+    return this.tiers;
+  }
+
+  /**
+   * Returns the amount of single-id lookups answered by the given tier.
+   *
+   * @param tierName the name of the tier
+   * @return the amount of hits of the tier
+   * @throws IllegalArgumentException if there is no tier with the given name
+   */
+  public long hits(final @NotNull String tierName) {
+    return this.state(tierName).hits.sum();
+  }
+
+  /**
+   * Returns the amount of single-id lookups which no tier, the last one included, could answer.
+   *
+   * @return the amount of misses
+   */
+  public long misses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Returns the amount of models demoted out of the given tier.
+   *
+   * @param tierName the name of the tier
+   * @return the amount of demoted models
+   * @throws IllegalArgumentException if there is no tier with the given name
+   */
+  public long demotions(final @NotNull String tierName) {
+    return this.state(tierName).demotions.sum();
+  }
+
+  /**
+   * Demotes the models idle for longer than the idle timeout of their tier.
+   */
+  public void demoteSync() {
+    final var now = System.nanoTime();
+    for (final var state : this.states) {
+      if (state.lastAccesses == null) {
+        continue;
+      }
+      final var idleIds = new ArrayList<String>();
+      for (final var entry : state.lastAccesses.entrySet()) {
+        if (now - entry.getValue() >= state.idleNanos
+            && state.lastAccesses.remove(entry.getKey(), entry.getValue())) {
+          idleIds.add(entry.getKey());
+          if (idleIds.size() >= ModelRepository.DEFAULT_BATCH_SIZE) {
+            this.demote(state, idleIds);
+            idleIds.clear();
+          }
+        }
+      }
+      if (!idleIds.isEmpty()) {
+        this.demote(state, idleIds);
+      }
+    }
+  }
+
+  /**
+   * Stops the background demotion, and the scheduler if the repository created it. The tiers aren't
+   * closed.
+   */
+  @Override
+  public void close() {
+    if (this.demotionTask != null) {
+      this.demotionTask.cancel(false);
+    }
+    if (this.ownsScheduler) {
+      this.scheduler.shutdownNow();
+    }
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id) {
+    final var token = this.stripe(id)
+                        .readToken();
+    for (int i = 0; i < this.states.size(); i++) {
+      final var state = this.states.get(i);
+      final var model = state.repository.findSync(id);
+      if (model != null) {
+        state.hits.increment();
+        this.promote(i, List.of(model), Map.of(id, token));
+        return model;
+      }
+    }
+    this.misses.increment();
+    return null;
+  }
+
+  /**
+   * Finds the whole model in the faster tiers, and only the given fields in the last tier.
+   *
+   * @param id     the model id
+   * @param fields the serialized names of the fields to load
+   * @return the found model, or {@code null} if it doesn't exist
+   */
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    final var last = this.states.size() - 1;
+    for (int i = 0; i < last; i++) {
+      final var state = this.states.get(i);
+      final var model = state.repository.findSync(id);
+      if (model != null) {
+        state.hits.increment();
+        this.touch(id);
+        return model;
+      }
+    }
+    return this.lastModelRepository.findSync(id, fields);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.lastModelRepository.findSync(field, value, factory);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var tokens = new HashMap<String, Long>(ids.size());
+    for (final var id : ids) {
+      tokens.put(id, this.stripe(id)
+                       .readToken());
+    }
+    final var foundModels = new HashMap<String, ModelType>(ids.size());
+    final var missingIds = new LinkedHashSet<>(ids);
+    for (int i = 0; i < this.states.size() && !missingIds.isEmpty(); i++) {
+      final var state = this.states.get(i);
+      final var models = state.repository.findManySync(missingIds, ArrayList::new);
+      if (models.isEmpty()) {
+        continue;
+      }
+      for (final var model : models) {
+        foundModels.put(model.id(), model);
+        missingIds.remove(model.id());
+      }
+      state.hits.add(models.size());
+      this.promote(i, models, tokens);
+    }
+    this.misses.add(missingIds.size());
+    final var orderedModels = factory.apply(foundModels.size());
+    for (final var id : ids) {
+      final var model = foundModels.get(id);
+      if (model != null) {
+        orderedModels.add(model);
+      }
+    }
+    return orderedModels;
+  }
+
+  @Override
+  public boolean supportsQuery(final @NotNull Query query) {
+    return this.lastModelRepository.supportsQuery(query);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.lastModelRepository.querySync(query, factory);
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    return this.lastModelRepository.findIdsSync();
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @Nullable C findAllSync(
+    final @NotNull Consumer<ModelType> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.lastModelRepository.findAllSync(postLoadAction, factory);
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    return this.lastModelRepository.findPageSync(continuationToken, limit);
+  }
+
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    return this.lastModelRepository.streamIdsSync(batchSize);
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    return this.lastModelRepository.streamAllSync(batchSize);
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    for (final var state : this.states) {
+      if (state.repository.existsSync(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    final var existingIds = new ArrayList<String>(ids.size());
+    final var missingIds = new LinkedHashSet<>(ids);
+    for (int i = 0; i < this.states.size() && !missingIds.isEmpty(); i++) {
+      for (final var id : this.states.get(i).repository.existsManySync(missingIds)) {
+        if (missingIds.remove(id)) {
+          existingIds.add(id);
+        }
+      }
+    }
+    return existingIds;
+  }
+
+  @Override
+  public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    final var stripe = this.stripe(model.id());
+    stripe.beginWrite();
+    try {
+      this.lastModelRepository.saveSync(model);
+      for (int i = this.states.size() - 2; i >= 0; i--) {
+        final var state = this.states.get(i);
+        if (state.tier.writeThrough()) {
+          state.repository.saveSync(model);
+        } else {
+          state.repository.deleteSync(model.id());
+        }
+      }
+      this.touch(model.id());
+      return model;
+    } finally {
+      stripe.endWrite();
+    }
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    final var modelsById = new LinkedHashMap<String, ModelType>(models.size());
+    for (final var model : models) {
+      modelsById.put(model.id(), model);
+    }
+    final var ids = modelsById.keySet();
+    final var stripes = this.beginWrites(ids);
+    try {
+      this.lastModelRepository.saveManySync(models);
+      final var latestModels = new ArrayList<>(modelsById.values());
+      for (int i = this.states.size() - 2; i >= 0; i--) {
+        final var state = this.states.get(i);
+        if (state.tier.writeThrough()) {
+          state.repository.saveManySync(latestModels);
+        } else {
+          state.repository.deleteManySync(ids);
+        }
+      }
+      for (final var id : ids) {
+        this.touch(id);
+      }
+      return models;
+    } finally {
+      this.endWrites(stripes);
+    }
+  }
+
+  @Override
+  public boolean supportsPatch(final @NotNull Patch patch) {
+    return this.lastModelRepository.supportsPatch(patch);
+  }
+
+  /**
+   * Applies the patch in the last tier, and evicts the id from the faster tiers, so the patched model
+   * is promoted again on its next read.
+   *
+   * @param id    the model id
+   * @param patch the patch
+   * @return whether a model was updated or, for upserts, inserted
+   */
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    final var stripe = this.stripe(id);
+    stripe.beginWrite();
+    try {
+      final var patched = this.lastModelRepository.patchSync(id, patch);
+      this.evictSync(id);
+      return patched;
+    } finally {
+      stripe.endWrite();
+    }
+  }
+
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    final var stripe = this.stripe(id);
+    stripe.beginWrite();
+    try {
+      final var model = this.lastModelRepository.computeSync(id, function);
+      if (model == null) {
+        this.evictSync(id);
+        return null;
+      }
+      for (int i = this.states.size() - 2; i >= 0; i--) {
+        final var state = this.states.get(i);
+        if (state.tier.writeThrough()) {
+          state.repository.saveSync(model);
+        } else {
+          state.repository.deleteSync(id);
+        }
+      }
+      this.touch(id);
+      return model;
+    } finally {
+      stripe.endWrite();
+    }
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    final var stripe = this.stripe(id);
+    stripe.beginWrite();
+    try {
+      final var deleted = this.lastModelRepository.deleteSync(id);
+      this.evictSync(id);
+      return deleted;
+    } finally {
+      stripe.endWrite();
+    }
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    final var stripes = this.beginWrites(ids);
+    try {
+      final var deleted = this.lastModelRepository.deleteManySync(ids);
+      for (int i = this.states.size() - 2; i >= 0; i--) {
+        this.states.get(i).repository.deleteManySync(ids);
+      }
+      for (final var id : ids) {
+        this.forget(id);
+      }
+      return deleted;
+    } finally {
+      this.endWrites(stripes);
+    }
+  }
+
+  /**
+   * Evicts the id from every tier but the last one.
+   *
+   * @param id the model id
+   */
+  protected void evictSync(final @NotNull String id) {
+    for (int i = this.states.size() - 2; i >= 0; i--) {
+      this.states.get(i).repository.deleteSync(id);
+    }
+    this.forget(id);
+  }
+
+  /**
+   * Saves the found models into the faster tiers, then evicts the ids written meanwhile from them.
+   *
+   * @param tierIndex the index of the tier the models were found in
+   * @param models    the found models
+   * @param tokens    the read tokens of the ids, taken before reading the first tier
+   */
+  private void promote(
+    final int tierIndex,
+    final @NotNull Collection<ModelType> models,
+    final @NotNull Map<String, Long> tokens
+  ) {
+    if (tierIndex == 0) {
+      for (final var model : models) {
+        this.touch(model.id());
+      }
+      return;
+    }
+    final var promotedModels = new ArrayList<ModelType>(models.size());
+    for (final var model : models) {
+      if (this.stripe(model.id())
+            .unchangedSince(tokens.get(model.id()))) {
+        promotedModels.add(model);
+      }
+    }
+    if (promotedModels.isEmpty()) {
+      return;
+    }
+    for (int i = tierIndex - 1; i >= 0; i--) {
+      if (promotedModels.size() == 1) {
+        this.states.get(i).repository.saveSync(promotedModels.get(0));
+      } else {
+        this.states.get(i).repository.saveManySync(promotedModels);
+      }
+    }
+    final var changedIds = new ArrayList<String>();
+    for (final var model : promotedModels) {
+      if (this.stripe(model.id())
+            .unchangedSince(tokens.get(model.id()))) {
+        this.touch(model.id());
+      } else {
+        changedIds.add(model.id());
+      }
+    }
+    if (changedIds.isEmpty()) {
+      return;
+    }
+    // a racing write may have reached the faster tiers before the promoted model
+    for (int i = tierIndex - 1; i >= 0; i--) {
+      this.states.get(i).repository.deleteManySync(changedIds);
+    }
+  }
+
+  private void demote(final @NotNull TierState<ModelType> state, final @NotNull List<String> ids) {
+    try {
+      state.repository.deleteManySync(ids);
+      state.demotions.add(ids.size());
+    } catch (final RuntimeException e) {
+      // retried on the next sweep, unless they were accessed meanwhile
+      final var idleSince = System.nanoTime() - state.idleNanos;
+      for (final var id : ids) {
+        state.lastAccesses.putIfAbsent(id, idleSince);
+      }
+      this.demotionFailureHandler.accept(e);
+    }
+  }
+
+  private void touch(final @NotNull String id) {
+    final var now = System.nanoTime();
+    for (final var state : this.states) {
+      if (state.lastAccesses != null) {
+        state.lastAccesses.put(id, now);
+      }
+    }
+  }
+
+  private void forget(final @NotNull String id) {
+    for (final var state : this.states) {
+      if (state.lastAccesses != null) {
+        state.lastAccesses.remove(id);
+      }
+    }
+  }
+
+  private boolean @NotNull [] beginWrites(final @NotNull Collection<String> ids) {
+    final var stripes = new boolean[LOCK_STRIPES];
+    for (final var id : ids) {
+      stripes[this.stripeIndex(id)] = true;
+    }
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      if (stripes[i]) {
+        this.stripes[i].beginWrite();
+      }
+    }
+    return stripes;
+  }
+
+  private void endWrites(final boolean @NotNull [] stripes) {
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      if (stripes[i]) {
+        this.stripes[i].endWrite();
+      }
+    }
+  }
+
+  private @NotNull TierState<ModelType> state(final @NotNull String tierName) {
+    for (final var state : this.states) {
+      if (state.tier.name()
+            .equals(tierName)) {
+        return state;
+      }
+    }
+    throw new IllegalArgumentException("There is no tier named " + tierName);
+  }
+
+  private @NotNull Stripe stripe(final @NotNull String id) {
+    return this.stripes[this.stripeIndex(id)];
+  }
+
+  private int stripeIndex(final @NotNull String id) {
+    return Math.floorMod(id.hashCode(), LOCK_STRIPES);
+  }
+
+  private static final class TierState<ModelType extends Model> {
+    private final Tier<ModelType> tier;
+    private final ModelRepository<ModelType> repository;
+    private final long idleNanos;
+    private final @Nullable Map<String, Long> lastAccesses;
+    private final LongAdder hits;
+    private final LongAdder demotions;
+
+    private TierState(final @NotNull Tier<ModelType> tier) {
+      this.tier = tier;
+      this.repository = tier.repository();
+      final var idleTimeout = tier.idleTimeout();
+      this.idleNanos = idleTimeout == null ? 0 : idleTimeout.toNanos();
+      this.lastAccesses = idleTimeout == null ? null : new ConcurrentHashMap<>();
+      this.hits = new LongAdder();
+      this.demotions = new LongAdder();
+    }
+  }
+
+  /**
+   * Tracks the writes of the ids of a stripe, so a read doesn't promote a model written meanwhile.
+   */
+  private static final class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private long generation;
+    private int writes;
+
+    private long readToken() {
+      this.lock.lock();
+      try {
+        return this.writes > 0 ? -1 : this.generation;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    private boolean unchangedSince(final long token) {
+      this.lock.lock();
+      try {
+        return token >= 0 && this.writes == 0 && this.generation == token;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    private void beginWrite() {
+      this.lock.lock();
+      try {
+        this.writes++;
+        this.generation++;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    private void endWrite() {
+      this.lock.lock();
+      try {
+        this.writes--;
+        this.generation++;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+  }
+}
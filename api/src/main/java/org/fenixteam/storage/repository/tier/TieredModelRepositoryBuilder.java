@@ -0,0 +1,149 @@
+package org.fenixteam.storage.repository.tier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+@SuppressWarnings("unused")
+public final class TieredModelRepositoryBuilder<ModelType extends Model> {
+  private final List<Tier<ModelType>> tiers = new ArrayList<>();
+  private ScheduledExecutorService scheduler;
+  private Duration demotionInterval;
+  private Consumer<RuntimeException> demotionFailureHandler = exception -> {
+    final var thread = Thread.currentThread();
+    thread.getUncaughtExceptionHandler()
+      .uncaughtException(thread, exception);
+  };
+
+  TieredModelRepositoryBuilder() {
+  }
+
+  /**
+   * Adds a write-through tier after the previously added ones, which keeps its models until they
+   * are deleted. The last added tier must hold every model.
+   *
+   * @param name       the unique name of the tier
+   * @param repository the repository of the tier
+   * @return this builder
+   */
+  @Contract("_, _ -> this")
+  public @NotNull TieredModelRepositoryBuilder<ModelType> tier(
+    final @NotNull String name,
+    final @NotNull ModelRepository<ModelType> repository
+  ) {
+    return this.tier(new Tier<>(name, repository, true, null));
+  }
+
+  /**
+   * Adds a write-through tier after the previously added ones, demoting the models idle for longer
+   * than {@code idleTimeout}.
+   *
+   * @param name        the unique name of the tier
+   * @param repository  the repository of the tier
+   * @param idleTimeout how long a model stays in the tier without being accessed
+   * @return this builder
+   */
+  @Contract("_, _, _ -> this")
+  public @NotNull TieredModelRepositoryBuilder<ModelType> tier(
+    final @NotNull String name,
+    final @NotNull ModelRepository<ModelType> repository,
+    final @NotNull Duration idleTimeout
+  ) {
+    return this.tier(new Tier<>(name, repository, true, idleTimeout));
+  }
+
+  @Contract("_ -> this")
+  public @NotNull TieredModelRepositoryBuilder<ModelType> tier(final @NotNull Tier<ModelType> tier) {
+    this.tiers.add(tier);
+    return this;
+  }
+
+  /**
+   * Sets the scheduler which runs the demotion sweeps. If it isn't set and a tier has an idle
+   * timeout, the repository creates its own daemon thread.
+   *
+   * @param scheduler the scheduler
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull TieredModelRepositoryBuilder<ModelType> scheduler(final @NotNull ScheduledExecutorService scheduler) {
+    this.scheduler = scheduler;
+    return this;
+  }
+
+  /**
+   * Sets the delay between two demotion sweeps, half the shortest idle timeout by default.
+   *
+   * @param demotionInterval the delay between two sweeps, at least 1ms
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull TieredModelRepositoryBuilder<ModelType> demotionInterval(final @NotNull Duration demotionInterval) {
+    this.demotionInterval = demotionInterval;
+    return this;
+  }
+
+  @Contract("_ -> this")
+  public @NotNull TieredModelRepositoryBuilder<ModelType> demotionFailureHandler(
+    final @NotNull Consumer<RuntimeException> failureHandler
+  ) {
+    this.demotionFailureHandler = failureHandler;
+    return this;
+  }
+
+  @Contract("_ -> new")
+  public @NotNull TieredModelRepository<ModelType> build(final @NotNull Executor executor) {
+    if (this.tiers.size() < 2) {
+      throw new IllegalStateException("At least two tiers are required");
+    }
+    final var names = new HashSet<String>();
+    Duration shortestIdleTimeout = null;
+    for (final var tier : this.tiers) {
+      if (!names.add(tier.name())) {
+        throw new IllegalStateException("There are several tiers named " + tier.name());
+      }
+      final var idleTimeout = tier.idleTimeout();
+      if (idleTimeout == null) {
+        continue;
+      }
+      if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+        throw new IllegalStateException("The idle timeout of the tier " + tier.name() + " must be positive");
+      }
+      if (shortestIdleTimeout == null || idleTimeout.compareTo(shortestIdleTimeout) < 0) {
+        shortestIdleTimeout = idleTimeout;
+      }
+    }
+    final var lastTier = this.tiers.get(this.tiers.size() - 1);
+    if (!lastTier.writeThrough() || lastTier.idleTimeout() != null) {
+      throw new IllegalStateException("The last tier holds every model, it must be write-through and never demote");
+    }
+    return new TieredModelRepository<>(
+      executor,
+      List.copyOf(this.tiers),
+      this.scheduler,
+      this.demotionIntervalMillis(shortestIdleTimeout),
+      this.demotionFailureHandler);
+  }
+
+  private long demotionIntervalMillis(final @Nullable Duration shortestIdleTimeout) {
+    if (this.demotionInterval != null) {
+      if (this.demotionInterval.toMillis() < 1) {
+        throw new IllegalStateException("The demotion interval must be at least 1ms");
+      }
+      return this.demotionInterval.toMillis();
+    }
+    if (shortestIdleTimeout == null) {
+      return 0;
+    }
+    return Math.max(1, shortestIdleTimeout.toMillis() / 2);
+  }
+}
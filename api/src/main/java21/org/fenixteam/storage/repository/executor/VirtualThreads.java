@@ -0,0 +1,29 @@
+package org.fenixteam.storage.repository.executor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+public final class VirtualThreads {
+  private static final Executor EXECUTOR = runnable -> Thread.ofVirtual()
+                                                        .name("storage-virtual")
+                                                        .start(runnable);
+
+  private VirtualThreads() {
+  }
+
+  public static boolean supported() {
+    return true;
+  }
+
+  public static @NotNull Executor executor() {
+    return EXECUTOR;
+  }
+
+  @Contract(" -> new")
+  public static @NotNull ExecutorService newThreadPerTaskExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
+}
@@ -0,0 +1,152 @@
+package org.fenixteam.storage.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+class AsyncModelRepositoryTest {
+  private final PlainAsyncModelRepository repository = new PlainAsyncModelRepository();
+
+  @Test
+  void bulkCallsDefaultToTheSingleIdCalls() throws Exception {
+    this.repository.saveMany(List.of(new TestModel("a", 1), new TestModel("b", 1)))
+      .get();
+
+    assertEquals(
+      Set.of(new TestModel("a", 1), new TestModel("b", 1)),
+      Set.copyOf(this.repository.findMany(List.of("a", "b", "c"), ArrayList::new)
+                   .get()));
+    assertEquals(List.of("a"), this.repository.existsMany(List.of("a", "c"))
+                                 .get());
+    assertTrue(this.repository.deleteMany(List.of("a", "c"))
+                 .get());
+    assertFalse(this.repository.exists("a")
+                  .get());
+  }
+
+  @Test
+  void unsupportedCallFailsTheFuture() {
+    final var future = this.repository.compute("a", model -> model);
+
+    final var exception = assertThrows(ExecutionException.class, future::get);
+    assertInstanceOf(UnsupportedOperationException.class, exception.getCause());
+  }
+
+  /**
+   * Implements only the methods which were abstract before the bulk, paging, query and update
+   * calls were added.
+   */
+  private static final class PlainAsyncModelRepository implements AsyncModelRepository<TestModel> {
+    private final LocalModelRepository<TestModel> models = LocalModelRepository.concurrent();
+
+    @Override
+    public @Nullable TestModel findSync(final @NotNull String id) {
+      return this.models.findSync(id);
+    }
+
+    @Override
+    public <C extends Collection<TestModel>> @Nullable C findSync(
+      final @NotNull String field,
+      final @NotNull String value,
+      final @NotNull Function<Integer, C> factory
+    ) {
+      return this.models.findSync(field, value, factory);
+    }
+
+    @Override
+    public @Nullable Collection<String> findIdsSync() {
+      return this.models.findIdsSync();
+    }
+
+    @Override
+    public <C extends Collection<TestModel>> @Nullable C findAllSync(
+      final @NotNull Consumer<TestModel> postLoadAction,
+      final @NotNull Function<Integer, C> factory
+    ) {
+      return this.models.findAllSync(postLoadAction, factory);
+    }
+
+    @Override
+    public boolean existsSync(final @NotNull String id) {
+      return this.models.existsSync(id);
+    }
+
+    @Override
+    public @NotNull TestModel saveSync(final @NotNull TestModel model) {
+      return this.models.saveSync(model);
+    }
+
+    @Override
+    public boolean deleteSync(final @NotNull String id) {
+      return this.models.deleteSync(id);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@Nullable TestModel> find(final @NotNull String id) {
+      return CompletableFuture.supplyAsync(() -> this.findSync(id));
+    }
+
+    @Override
+    public <C extends Collection<TestModel>> @NotNull CompletableFuture<@Nullable C> find(
+      final @NotNull String field,
+      final @NotNull String value,
+      final @NotNull Function<Integer, C> factory
+    ) {
+      return CompletableFuture.supplyAsync(() -> this.findSync(field, value, factory));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@Nullable Collection<String>> findIds() {
+      return CompletableFuture.supplyAsync(this::findIdsSync);
+    }
+
+    @Override
+    public <C extends Collection<TestModel>> @NotNull CompletableFuture<@Nullable C> findAll(
+      final @NotNull Function<Integer, C> factory
+    ) {
+      return CompletableFuture.supplyAsync(() -> this.findAllSync(factory));
+    }
+
+    @Override
+    public <C extends Collection<TestModel>> @NotNull CompletableFuture<@Nullable C> findAll(
+      final @NotNull Consumer<TestModel> postLoadAction,
+      final @NotNull Function<Integer, C> factory
+    ) {
+      return CompletableFuture.supplyAsync(() -> this.findAllSync(postLoadAction, factory));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull Boolean> exists(final @NotNull String id) {
+      return CompletableFuture.supplyAsync(() -> this.existsSync(id));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull TestModel> save(final @NotNull TestModel model) {
+      return CompletableFuture.supplyAsync(() -> this.saveSync(model));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull Boolean> delete(final @NotNull TestModel model) {
+      return CompletableFuture.supplyAsync(() -> this.deleteSync(model));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull Boolean> delete(final @NotNull String id) {
+      return CompletableFuture.supplyAsync(() -> this.deleteSync(id));
+    }
+  }
+}
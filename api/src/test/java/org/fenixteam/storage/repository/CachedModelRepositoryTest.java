@@ -0,0 +1,339 @@
+package org.fenixteam.storage.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.fenixteam.storage.repository.cache.CircuitBreaker;
+import org.fenixteam.storage.repository.cache.CircuitBreakerModelRepository;
+import org.fenixteam.storage.repository.cache.CircuitOpenException;
+import org.fenixteam.storage.repository.cache.InvalidationBus;
+import org.fenixteam.storage.repository.cache.NegativeCache;
+import org.fenixteam.storage.repository.cache.WriteBehindQueue;
+import org.fenixteam.storage.repository.metrics.MetricsSnapshot;
+import org.fenixteam.storage.repository.metrics.RepositoryMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CachedModelRepositoryTest {
+  private final Executor executor = Runnable::run;
+  private final FakeModelRepository persistModelRepository = new FakeModelRepository();
+  private final CircuitBreaker circuitBreaker = CircuitBreaker.create(
+    4,
+    0.5,
+    Duration.ofSeconds(5),
+    Duration.ofMillis(100));
+  private final ModelRepository<TestModel> guardedModelRepository = CircuitBreakerModelRepository.wrap(
+    this.executor,
+    this.persistModelRepository,
+    this.circuitBreaker);
+  private final WriteBehindQueue<TestModel> outageQueue = WriteBehindQueue.create(
+    this.guardedModelRepository,
+    null,
+    Duration.ofHours(1),
+    100,
+    Duration.ofSeconds(5),
+    exception -> { });
+  private final CachedModelRepository<TestModel> repository = new CachedModelRepository<>(
+    this.executor,
+    LocalModelRepository.concurrent(),
+    this.guardedModelRepository,
+    null,
+    null,
+    null,
+    null,
+    null,
+    this.circuitBreaker,
+    this.outageQueue);
+
+  @AfterEach
+  void close() {
+    this.repository.close();
+  }
+
+  @Test
+  void healthySaveIsWrittenDirectly() {
+    final var model = new TestModel("a", 1);
+
+    assertEquals(model, this.repository.saveSync(model));
+    assertEquals(model, this.persistModelRepository.stored("a"));
+    assertEquals(0, this.outageQueue.pendingCount());
+  }
+
+  @Test
+  void saveIsQueuedWhileTheBreakerIsOpen() {
+    this.trip();
+    final var model = new TestModel("a", 1);
+
+    assertEquals(model, this.repository.saveSync(model));
+    assertNull(this.persistModelRepository.stored("a"));
+    assertEquals(model, this.repository.findSync("a"));
+    assertThrows(CircuitOpenException.class, () -> this.repository.deleteSync("a"));
+  }
+
+  @Test
+  void rejectedDeleteWhileHalfOpenKeepsTheQueuedSave() throws Exception {
+    this.trip();
+    final var model = new TestModel("a", 1);
+    this.repository.saveSync(model);
+    Thread.sleep(150);
+    final var probesStarted = new CountDownLatch(3);
+    final var probesReleased = new CountDownLatch(1);
+    final var probes = new ArrayList<CompletableFuture<Object>>();
+    final var probeExecutor = Executors.newFixedThreadPool(3);
+    for (var i = 0; i < 3; i++) {
+      probes.add(CompletableFuture.supplyAsync(() -> this.circuitBreaker.call(() -> {
+        probesStarted.countDown();
+        try {
+          probesReleased.await();
+        } catch (final InterruptedException e) {
+          Thread.currentThread()
+            .interrupt();
+        }
+        return null;
+      }), probeExecutor));
+    }
+    probesStarted.await(5, TimeUnit.SECONDS);
+
+    assertFalse(this.circuitBreaker.isOpen());
+    assertThrows(CircuitOpenException.class, () -> this.repository.deleteSync("a"));
+    assertEquals(model, this.outageQueue.pending("a"));
+
+    probesReleased.countDown();
+    for (final var probe : probes) {
+      probe.get(5, TimeUnit.SECONDS);
+    }
+    probeExecutor.shutdown();
+    assertEquals(CircuitBreaker.State.CLOSED, this.circuitBreaker.state());
+    this.outageQueue.flush();
+    assertEquals(model, this.persistModelRepository.stored("a"));
+  }
+
+  @Test
+  void existsManySeesPendingWritesAndRemembersAbsentIds() {
+    final var writeBehindQueue = WriteBehindQueue.create(
+      this.persistModelRepository,
+      null,
+      Duration.ofHours(1),
+      100,
+      Duration.ofSeconds(5),
+      exception -> { });
+    final var repository = new CachedModelRepository<>(
+      this.executor,
+      LocalModelRepository.concurrent(),
+      this.persistModelRepository,
+      writeBehindQueue,
+      NegativeCache.create(Duration.ofHours(1), 100),
+      null,
+      null,
+      null,
+      null,
+      null);
+    this.persistModelRepository.saveSync(new TestModel("a", 1));
+    repository.saveSync(new TestModel("b", 1));
+
+    assertEquals(Set.of("a", "b"), Set.copyOf(repository.existsManySync(List.of("a", "b", "c"))));
+    final var calls = this.persistModelRepository.calls();
+    assertEquals(List.of(), repository.existsManySync(List.of("c")));
+    assertEquals(calls, this.persistModelRepository.calls());
+    repository.close();
+  }
+
+  @Test
+  void missingIdIsLookedUpOnceUntilSaved() {
+    final var repository = CachedModelRepository.<TestModel>builder()
+                             .cacheModelRepository(LocalModelRepository.concurrent())
+                             .persistModelRepository(this.persistModelRepository)
+                             .negativeCache(Duration.ofHours(1), 100)
+                             .build(this.executor);
+
+    assertNull(repository.findSync("a"));
+    final var calls = this.persistModelRepository.calls();
+    assertNull(repository.findSync("a"));
+    assertFalse(repository.existsSync("a"));
+    assertEquals(calls, this.persistModelRepository.calls());
+
+    repository.saveSync(new TestModel("a", 1));
+    assertEquals(new TestModel("a", 1), repository.findSync("a"));
+  }
+
+  @Test
+  void projectionPrefersTheCacheAndNeverCachesThePartialModel() {
+    final var repository = new CachedModelRepository<>(
+      this.executor,
+      LocalModelRepository.<TestModel>concurrent(),
+      this.persistModelRepository);
+    this.persistModelRepository.saveSync(new TestModel("a", 1));
+    this.persistModelRepository.saveSync(new TestModel("b", 2));
+    repository.saveInCacheSync(new TestModel("b", 1));
+
+    assertEquals(new TestModel("a", 1), repository.findSync("a", Set.of("version")));
+    assertNull(repository.findInCacheSync("a"));
+    assertEquals(new TestModel("b", 1), repository.findSync("b", Set.of("version")));
+  }
+
+  @Test
+  void lookupsAreCountedByTheTierWhichAnsweredThem() {
+    final var metrics = RepositoryMetrics.create("cached");
+    final var repository = CachedModelRepository.<TestModel>builder()
+                             .cacheModelRepository(LocalModelRepository.concurrent())
+                             .persistModelRepository(this.persistModelRepository)
+                             .metrics(metrics)
+                             .build(this.executor);
+    this.persistModelRepository.saveSync(new TestModel("a", 1));
+
+    repository.findInBothAndCacheSync("a");
+    repository.findInBothAndCacheSync("a");
+    repository.findInBothAndCacheSync("b");
+
+    assertEquals(new MetricsSnapshot.TierSnapshot(1, 1, 1), metrics.snapshot()
+                                                              .tiers());
+  }
+
+  @Test
+  void writeEvictsTheModelFromTheCacheOfTheOtherProcesses() {
+    final var bus = new LocalInvalidationBus();
+    final var writer = this.sharing(bus);
+    final var reader = this.sharing(bus);
+    this.persistModelRepository.saveSync(new TestModel("a", 1));
+    this.persistModelRepository.saveSync(new TestModel("b", 1));
+    reader.findInBothAndCacheSync("a");
+    reader.findInBothAndCacheSync("b");
+
+    writer.saveSync(new TestModel("a", 2));
+    writer.deleteSync("b");
+
+    assertEquals(List.of(List.of("a"), List.of("b")), bus.published);
+    assertNull(reader.findInCacheSync("a"));
+    assertNull(reader.findInCacheSync("b"));
+    assertEquals(new TestModel("a", 2), reader.findInBothAndCacheSync("a"));
+    assertNull(reader.findInBothAndCacheSync("b"));
+  }
+
+  @Test
+  void invalidationDropsTheAbsentMarkOfTheOtherProcesses() {
+    final var bus = new LocalInvalidationBus();
+    final var writer = this.sharing(bus);
+    final var reader = this.sharing(bus);
+    assertNull(reader.findSync("a"));
+
+    writer.saveSync(new TestModel("a", 1));
+
+    assertEquals(new TestModel("a", 1), reader.findSync("a"));
+  }
+
+  @Test
+  void freshModelIsServedFromTheCache() {
+    final var repository = this.refreshingAhead(Duration.ofHours(1), Duration.ofHours(2));
+    this.persistModelRepository.saveSync(new TestModel("a", 1));
+    repository.findInBothAndCacheSync("a");
+    this.persistModelRepository.saveSync(new TestModel("a", 2));
+    final var calls = this.persistModelRepository.calls();
+
+    assertEquals(new TestModel("a", 1), repository.findInBothAndCacheSync("a"));
+    assertEquals(calls, this.persistModelRepository.calls());
+  }
+
+  @Test
+  void staleModelIsServedWhileItIsRefreshed() throws Exception {
+    final var repository = this.refreshingAhead(Duration.ofMillis(50), Duration.ofHours(1));
+    this.persistModelRepository.saveSync(new TestModel("a", 1));
+    repository.findInBothAndCacheSync("a");
+    this.persistModelRepository.saveSync(new TestModel("a", 2));
+    Thread.sleep(100);
+
+    assertEquals(new TestModel("a", 1), repository.findInBothAndCacheSync("a"));
+    assertEquals(new TestModel("a", 2), repository.findInCacheSync("a"));
+    assertEquals(new TestModel("a", 2), repository.findInBothAndCacheSync("a"));
+  }
+
+  @Test
+  void expiredModelIsReloadedBeforeBeingServed() throws Exception {
+    final var repository = this.refreshingAhead(Duration.ofMillis(10), Duration.ofMillis(50));
+    this.persistModelRepository.saveSync(new TestModel("a", 1));
+    this.persistModelRepository.saveSync(new TestModel("b", 1));
+    repository.findInBothAndCacheSync("a");
+    repository.findInBothAndCacheSync("b");
+    this.persistModelRepository.saveSync(new TestModel("a", 2));
+    this.persistModelRepository.deleteSync("b");
+    Thread.sleep(100);
+
+    assertEquals(new TestModel("a", 2), repository.findInBothAndCacheSync("a"));
+    assertNull(repository.findInBothAndCacheSync("b"));
+    assertNull(repository.findInCacheSync("b"));
+  }
+
+  @Test
+  void modelCachedWithoutLoadTimeIsReloaded() {
+    final var repository = this.refreshingAhead(Duration.ofHours(1), Duration.ofHours(2));
+    this.persistModelRepository.saveSync(new TestModel("a", 2));
+    repository.cacheModelRepository()
+      .saveSync(new TestModel("a", 1));
+
+    assertEquals(new TestModel("a", 2), repository.findInBothAndCacheSync("a"));
+  }
+
+  private void trip() {
+    for (var i = 0; i < 2; i++) {
+      assertThrows(IllegalStateException.class, () -> this.circuitBreaker.call(() -> {
+        throw new IllegalStateException("down");
+      }));
+    }
+  }
+
+  private @NotNull CachedModelRepository<TestModel> sharing(final @NotNull InvalidationBus bus) {
+    return CachedModelRepository.<TestModel>builder()
+             .cacheModelRepository(LocalModelRepository.concurrent())
+             .persistModelRepository(this.persistModelRepository)
+             .negativeCache(Duration.ofHours(1), 100)
+             .invalidationBus(bus)
+             .build(this.executor);
+  }
+
+  private @NotNull CachedModelRepository<TestModel> refreshingAhead(
+    final @NotNull Duration softAge,
+    final @NotNull Duration hardAge
+  ) {
+    return CachedModelRepository.<TestModel>builder()
+             .cacheModelRepository(LocalModelRepository.concurrent())
+             .persistModelRepository(this.persistModelRepository)
+             .refreshAhead(softAge, hardAge)
+             .build(this.executor);
+  }
+
+  /**
+   * Delivers the published ids to every subscriber right away, as if every repository ran in its
+   * own process.
+   */
+  private static final class LocalInvalidationBus implements InvalidationBus {
+    private final List<Consumer<Collection<String>>> listeners = new CopyOnWriteArrayList<>();
+    private final List<List<String>> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(final @NotNull Collection<String> ids) {
+      this.published.add(List.copyOf(ids));
+      for (final var listener : this.listeners) {
+        listener.accept(ids);
+      }
+    }
+
+    @Override
+    public void subscribe(final @NotNull Consumer<Collection<String>> listener) {
+      this.listeners.add(listener);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package org.fenixteam.storage.repository;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An in-memory repository whose calls can be made to fail, and whose writes can be held until the
+ * test releases them.
+ */
+public class FakeModelRepository implements ModelRepository<TestModel> {
+  private final LocalModelRepository<TestModel> models = LocalModelRepository.concurrent();
+  private final AtomicInteger calls = new AtomicInteger();
+  private volatile CountDownLatch writeGate;
+  private volatile CountDownLatch blockedWrite;
+  private volatile RuntimeException failure;
+
+  public int calls() {
+    return this.calls.get();
+  }
+
+  public @Nullable TestModel stored(final @NotNull String id) {
+    return this.models.findSync(id);
+  }
+
+  public void failWith(final @Nullable RuntimeException failure) {
+    this.failure = failure;
+  }
+
+  public void holdWrites() {
+    this.blockedWrite = new CountDownLatch(1);
+    this.writeGate = new CountDownLatch(1);
+  }
+
+  public void awaitHeldWrite() throws InterruptedException {
+    if (!this.blockedWrite.await(5, TimeUnit.SECONDS)) {
+      throw new AssertionError("no write was held");
+    }
+  }
+
+  public void releaseWrites() {
+    final var gate = this.writeGate;
+    this.writeGate = null;
+    gate.countDown();
+  }
+
+  @Override
+  public @Nullable TestModel findSync(final @NotNull String id) {
+    this.call();
+    return this.models.findSync(id);
+  }
+
+  @Override
+  public <C extends Collection<TestModel>> @Nullable C findSync(
+    final @NotNull String field,
+    final @NotNull String value,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    this.call();
+    return this.models.findSync(field, value, factory);
+  }
+
+  @Override
+  public @Nullable Collection<String> findIdsSync() {
+    this.call();
+    return this.models.findIdsSync();
+  }
+
+  @Override
+  public <C extends Collection<TestModel>> @Nullable C findAllSync(
+    final @NotNull Consumer<TestModel> postLoadAction,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    this.call();
+    return this.models.findAllSync(postLoadAction, factory);
+  }
+
+  @Override
+  public boolean existsSync(final @NotNull String id) {
+    this.call();
+    return this.models.existsSync(id);
+  }
+
+  @Override
+  public @NotNull TestModel saveSync(final @NotNull TestModel model) {
+    this.write();
+    return this.models.saveSync(model);
+  }
+
+  @Override
+  public <C extends Collection<TestModel>> @NotNull C saveManySync(final @NotNull C models) {
+    this.write();
+    return this.models.saveManySync(models);
+  }
+
+  @Override
+  public boolean deleteSync(final @NotNull String id) {
+    this.write();
+    return this.models.deleteSync(id);
+  }
+
+  private void call() {
+    this.calls.incrementAndGet();
+    final var failure = this.failure;
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void write() {
+    final var gate = this.writeGate;
+    if (gate != null) {
+      this.blockedWrite.countDown();
+      try {
+        gate.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread()
+          .interrupt();
+      }
+    }
+    this.call();
+  }
+}
@@ -0,0 +1,36 @@
+package org.fenixteam.storage.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ModelRepositoryTest {
+  private final LocalModelRepository<TestModel> repository = LocalModelRepository.concurrent();
+
+  @Test
+  void forEachBatchSplitsIntoBatchesOfTheGivenSize() {
+    this.repository.saveSync(new TestModel("a", 1));
+    this.repository.saveSync(new TestModel("b", 1));
+    this.repository.saveSync(new TestModel("c", 1));
+
+    final var sizes = new ArrayList<Integer>();
+    this.repository.forEachBatchSync(2, batch -> sizes.add(batch.size()));
+
+    assertEquals(List.of(2, 1), sizes);
+  }
+
+  @Test
+  void nonPositiveBatchSizeIsRejected() {
+    this.repository.saveSync(new TestModel("a", 1));
+
+    assertThrows(IllegalArgumentException.class, () -> this.repository.forEachBatchSync(0, batch -> {
+    }));
+    assertThrows(IllegalArgumentException.class, () -> this.repository.forEachBatchSync(-1, batch -> {
+    }));
+    assertThrows(IllegalArgumentException.class, () -> this.repository.streamIdsSync(0));
+    assertThrows(IllegalArgumentException.class, () -> this.repository.streamAllSync(0));
+  }
+}
@@ -0,0 +1,7 @@
+package org.fenixteam.storage.repository;
+
+import org.fenixteam.storage.model.Model;
+import org.jetbrains.annotations.NotNull;
+
+public record TestModel(@NotNull String id, int version) implements Model {
+}
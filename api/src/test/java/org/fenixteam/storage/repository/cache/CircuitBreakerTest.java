@@ -0,0 +1,72 @@
+package org.fenixteam.storage.repository.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+  private final CircuitBreaker circuitBreaker = CircuitBreaker.create(
+    4,
+    0.5,
+    Duration.ofSeconds(5),
+    Duration.ofMillis(100));
+
+  @Test
+  void opensOnceTheFailureRateIsReached() {
+    this.fail();
+    assertEquals(CircuitBreaker.State.CLOSED, this.circuitBreaker.state());
+    this.fail();
+
+    assertEquals(CircuitBreaker.State.OPEN, this.circuitBreaker.state());
+    assertTrue(this.circuitBreaker.isOpen());
+    assertThrows(CircuitOpenException.class, () -> this.circuitBreaker.call(() -> "a"));
+    assertEquals(1, this.circuitBreaker.rejectedCalls());
+  }
+
+  @Test
+  void succeededProbesCloseTheBreaker() throws Exception {
+    this.fail();
+    this.fail();
+    Thread.sleep(150);
+
+    assertFalse(this.circuitBreaker.isOpen());
+    assertEquals("a", this.circuitBreaker.call(() -> "a"));
+    assertEquals(CircuitBreaker.State.HALF_OPEN, this.circuitBreaker.state());
+    this.circuitBreaker.call(() -> "a");
+    this.circuitBreaker.call(() -> "a");
+    assertEquals(CircuitBreaker.State.CLOSED, this.circuitBreaker.state());
+  }
+
+  @Test
+  void failedProbeOpensTheBreakerAgain() throws Exception {
+    this.fail();
+    this.fail();
+    Thread.sleep(150);
+    this.circuitBreaker.call(() -> "a");
+    this.fail();
+
+    assertEquals(CircuitBreaker.State.OPEN, this.circuitBreaker.state());
+    assertTrue(this.circuitBreaker.isOpen());
+  }
+
+  @Test
+  void misuseIsNotCountedAsFailure() {
+    for (var i = 0; i < 4; i++) {
+      assertThrows(IllegalArgumentException.class, () -> this.circuitBreaker.call(() -> {
+        throw new IllegalArgumentException("unsupported");
+      }));
+    }
+
+    assertEquals(CircuitBreaker.State.CLOSED, this.circuitBreaker.state());
+  }
+
+  private void fail() {
+    assertThrows(IllegalStateException.class, () -> this.circuitBreaker.call(() -> {
+      throw new IllegalStateException("down");
+    }));
+  }
+}
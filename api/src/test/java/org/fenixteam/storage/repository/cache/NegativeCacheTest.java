@@ -0,0 +1,58 @@
+package org.fenixteam.storage.repository.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NegativeCacheTest {
+  private final NegativeCache cache = NegativeCache.create(Duration.ofHours(1), 10);
+
+  @Test
+  void markedIdIsContainedUntilInvalidated() {
+    this.cache.markAbsent("a", this.cache.stamp());
+    this.cache.markAbsent("b", this.cache.stamp());
+    assertTrue(this.cache.contains("a"));
+
+    this.cache.invalidate("a");
+    assertFalse(this.cache.contains("a"));
+    assertTrue(this.cache.contains("b"));
+
+    this.cache.invalidateAll(List.of("b"));
+    assertFalse(this.cache.contains("b"));
+  }
+
+  @Test
+  void markedIdExpiresAfterTheTimeToLive() throws Exception {
+    final var cache = NegativeCache.create(Duration.ofMillis(50), 10);
+    cache.markAbsent("a", cache.stamp());
+
+    Thread.sleep(100);
+
+    assertFalse(cache.contains("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void markTakenBeforeAnInvalidationIsDropped() {
+    final var stamp = this.cache.stamp();
+    this.cache.invalidate("a");
+
+    this.cache.markAbsent("a", stamp);
+
+    assertFalse(this.cache.contains("a"));
+  }
+
+  @Test
+  void sizeStaysBounded() {
+    for (var i = 0; i < 100; i++) {
+      this.cache.markAbsent("id" + i, this.cache.stamp());
+    }
+
+    assertTrue(this.cache.size() <= 10, "size was " + this.cache.size());
+    assertTrue(this.cache.contains("id99"));
+  }
+}
@@ -0,0 +1,110 @@
+package org.fenixteam.storage.repository.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final SingleFlight<String> loads = SingleFlight.create();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void close() {
+    this.release.countDown();
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentLoadsOfTheSameKeyShareOneCall() throws Exception {
+    final var first = this.loads.loadAsync("a", this.heldLoader(() -> "value"), this.executor);
+    this.started.await(5, TimeUnit.SECONDS);
+    final var second = this.loads.loadAsync("a", () -> "other", this.executor);
+
+    this.release.countDown();
+
+    assertEquals("value", first.get(5, TimeUnit.SECONDS));
+    assertEquals("value", second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, this.calls.get());
+  }
+
+  @Test
+  void failureIsSharedByTheWaitingCallers() throws Exception {
+    final var failure = new IllegalStateException("down");
+    final var first = this.loads.loadAsync("a", this.heldLoader(() -> {
+      throw failure;
+    }), this.executor);
+    this.started.await(5, TimeUnit.SECONDS);
+    final var second = this.loads.loadAsync("a", () -> "other", this.executor);
+
+    this.release.countDown();
+
+    assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+    assertSame(failure, assertThrows(ExecutionException.class, second::get).getCause());
+  }
+
+  @Test
+  void syncLoadRethrowsTheFailureUnwrapped() {
+    final var failure = new IllegalStateException("down");
+
+    assertSame(failure, assertThrows(IllegalStateException.class, () -> this.loads.load("a", () -> {
+      throw failure;
+    })));
+  }
+
+  @Test
+  void finishedLoadIsNotReused() {
+    assertEquals("first", this.loads.load("a", () -> "first"));
+    assertEquals("second", this.loads.load("a", () -> "second"));
+  }
+
+  @Test
+  void differentKeysLoadSeparately() throws Exception {
+    final var first = this.loads.loadAsync("a", this.heldLoader(() -> "a"), this.executor);
+    this.started.await(5, TimeUnit.SECONDS);
+
+    assertEquals("b", this.loads.load("b", () -> "b"));
+    assertEquals(1, this.loads.inFlightCount());
+
+    this.release.countDown();
+    assertEquals("a", first.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void rejectedAsyncLoadIsNotLeftInFlight() {
+    final var future = this.loads.loadAsync("a", () -> "a", command -> {
+      throw new IllegalStateException("rejected");
+    });
+
+    assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, future::get).getCause());
+    assertEquals(0, this.loads.inFlightCount());
+  }
+
+  private @NotNull Supplier<String> heldLoader(final @NotNull Supplier<String> loader) {
+    return () -> {
+      this.calls.incrementAndGet();
+      this.started.countDown();
+      try {
+        this.release.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread()
+          .interrupt();
+      }
+      return loader.get();
+    };
+  }
+}
@@ -0,0 +1,130 @@
+package org.fenixteam.storage.repository.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.fenixteam.storage.repository.FakeModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindQueueTest {
+  private final FakeModelRepository persistModelRepository = new FakeModelRepository();
+  private final WriteBehindQueue<TestModel> queue = WriteBehindQueue.create(
+    this.persistModelRepository,
+    null,
+    Duration.ofHours(1),
+    100,
+    Duration.ofSeconds(5),
+    exception -> { });
+
+  @AfterEach
+  void close() {
+    this.queue.close();
+  }
+
+  @Test
+  void modelStaysPendingWhileItsBatchIsWritten() throws Exception {
+    final var model = new TestModel("a", 1);
+    this.queue.enqueue(model);
+    this.persistModelRepository.holdWrites();
+    final var flush = CompletableFuture.runAsync(this.queue::flush);
+    this.persistModelRepository.awaitHeldWrite();
+
+    assertEquals(model, this.queue.pending("a"));
+
+    this.persistModelRepository.releaseWrites();
+    flush.get(5, TimeUnit.SECONDS);
+    assertNull(this.queue.pending("a"));
+    assertEquals(model, this.persistModelRepository.stored("a"));
+  }
+
+  @Test
+  void modelEnqueuedDuringFlushIsKeptForTheNextOne() throws Exception {
+    this.queue.enqueue(new TestModel("a", 1));
+    this.persistModelRepository.holdWrites();
+    final var flush = CompletableFuture.runAsync(this.queue::flush);
+    this.persistModelRepository.awaitHeldWrite();
+    final var newerModel = new TestModel("a", 2);
+    this.queue.enqueue(newerModel);
+    this.persistModelRepository.releaseWrites();
+    flush.get(5, TimeUnit.SECONDS);
+
+    assertEquals(newerModel, this.queue.pending("a"));
+    this.queue.flush();
+    assertEquals(newerModel, this.persistModelRepository.stored("a"));
+  }
+
+  @Test
+  void directWriteOfFlushedIdLandsAfterTheBatch() throws Exception {
+    this.queue.enqueue(new TestModel("a", 1));
+    this.persistModelRepository.holdWrites();
+    final var flush = CompletableFuture.runAsync(this.queue::flush);
+    this.persistModelRepository.awaitHeldWrite();
+    final var newerModel = new TestModel("a", 2);
+    final var write = CompletableFuture.runAsync(() -> this.queue.writeThrough(
+      "a",
+      () -> this.persistModelRepository.saveSync(newerModel)));
+    Thread.sleep(100);
+
+    assertFalse(write.isDone());
+
+    this.persistModelRepository.releaseWrites();
+    flush.get(5, TimeUnit.SECONDS);
+    write.get(5, TimeUnit.SECONDS);
+    assertEquals(newerModel, this.persistModelRepository.stored("a"));
+    assertNull(this.queue.pending("a"));
+  }
+
+  @Test
+  void directWriteOfOtherIdDoesNotWaitForTheFlush() throws Exception {
+    this.queue.enqueue(new TestModel("a", 1));
+    this.persistModelRepository.holdWrites();
+    final var flush = CompletableFuture.runAsync(this.queue::flush);
+    this.persistModelRepository.awaitHeldWrite();
+
+    final var deleted = CompletableFuture.supplyAsync(() -> this.queue.writeThrough("b", () -> true));
+    assertEquals(true, deleted.get(5, TimeUnit.SECONDS));
+
+    this.persistModelRepository.releaseWrites();
+    flush.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void failedFlushKeepsTheModelsPending() {
+    final var model = new TestModel("a", 1);
+    this.queue.enqueue(model);
+    this.persistModelRepository.failWith(new IllegalStateException("down"));
+
+    assertThrows(IllegalStateException.class, this.queue::flush);
+    assertEquals(model, this.queue.pending("a"));
+
+    this.persistModelRepository.failWith(null);
+    this.queue.flush();
+    assertEquals(model, this.persistModelRepository.stored("a"));
+  }
+
+  @Test
+  void failedDirectWriteKeepsTheDiscardedModelPending() {
+    final var model = new TestModel("a", 1);
+    this.queue.enqueue(model);
+    this.queue.enqueue(new TestModel("b", 1));
+    this.persistModelRepository.failWith(new CircuitOpenException("open"));
+
+    assertThrows(CircuitOpenException.class, () -> this.queue.writeThrough(
+      "a",
+      () -> this.persistModelRepository.deleteSync("a")));
+    assertThrows(CircuitOpenException.class, () -> this.queue.writeThrough(
+      List.of("a", "b"),
+      () -> this.persistModelRepository.deleteManySync(List.of("a", "b"))));
+
+    assertEquals(model, this.queue.pending("a"));
+    assertEquals(2, this.queue.pendingCount());
+  }
+}
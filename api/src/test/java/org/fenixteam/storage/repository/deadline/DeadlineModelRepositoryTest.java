@@ -0,0 +1,96 @@
+package org.fenixteam.storage.repository.deadline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import org.fenixteam.storage.repository.FakeModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineModelRepositoryTest {
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final AtomicReference<Deadline> readDeadline = new AtomicReference<>();
+  private final FakeModelRepository delegate = new FakeModelRepository() {
+    @Override
+    public TestModel findSync(final String id) {
+      DeadlineModelRepositoryTest.this.readDeadline.set(Deadline.current());
+      if (id.equals("slow")) {
+        try {
+          Thread.sleep(5_000);
+        } catch (final InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      return super.findSync(id);
+    }
+  };
+
+  @AfterEach
+  void close() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void callRunsUnderTheTimeout() {
+    final var repository = DeadlineModelRepository.wrap(this.executor, this.delegate, Duration.ofSeconds(10));
+
+    repository.findSync("a");
+
+    final var remaining = this.readDeadline.get()
+                            .remainingNanos();
+    assertTrue(remaining > 0 && remaining <= Duration.ofSeconds(10)
+                                               .toNanos());
+  }
+
+  @Test
+  void earlierCallerDeadlineIsKept() {
+    final var repository = DeadlineModelRepository.wrap(this.executor, this.delegate, Duration.ofHours(1));
+    final var deadline = Deadline.after(Duration.ofSeconds(10));
+
+    deadline.call(() -> repository.findSync("a"));
+
+    assertSame(deadline, this.readDeadline.get());
+  }
+
+  @Test
+  void asyncCallCarriesTheCallerDeadline() throws Exception {
+    final var repository = DeadlineModelRepository.wrap(this.executor, this.delegate, Duration.ofHours(1));
+    final var deadline = Deadline.after(Duration.ofSeconds(10));
+
+    deadline.call(() -> repository.find("a"))
+      .get();
+
+    assertSame(deadline, this.readDeadline.get());
+  }
+
+  @Test
+  void expiredCallerDeadlineFailsBeforeReachingTheDelegate() {
+    final var repository = DeadlineModelRepository.wrap(this.executor, this.delegate, Duration.ofHours(1));
+    final var deadline = Deadline.after(Duration.ZERO);
+
+    assertThrows(DeadlineExceededException.class, () -> deadline.call(() -> repository.findSync("a")));
+    assertThrows(
+      DeadlineExceededException.class,
+      () -> deadline.call(() -> repository.saveSync(new TestModel("a", 1))));
+    assertEquals(0, this.delegate.calls());
+    assertNull(this.delegate.stored("a"));
+  }
+
+  @Test
+  void readIsInterruptedAtTheDeadline() {
+    final var repository = DeadlineModelRepository.wrap(this.executor, this.delegate, Duration.ofMillis(50), true);
+
+    assertThrows(DeadlineExceededException.class, () -> repository.findSync("slow"));
+    assertFalse(Thread.interrupted());
+    assertNull(repository.findSync("a"));
+  }
+}
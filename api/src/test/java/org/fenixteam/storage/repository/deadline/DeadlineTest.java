@@ -0,0 +1,66 @@
+package org.fenixteam.storage.repository.deadline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineTest {
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @AfterEach
+  void close() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void nestedCallKeepsTheEarlierDeadline() {
+    final var outer = Deadline.after(Duration.ofSeconds(10));
+    final var inner = Deadline.after(Duration.ofHours(1));
+
+    assertSame(outer, outer.call(() -> inner.call(Deadline::current)));
+    assertNull(Deadline.current());
+  }
+
+  @Test
+  void propagatedCallRunsUnderTheCallerDeadline() throws Exception {
+    final var deadline = Deadline.after(Duration.ofSeconds(10));
+
+    final var call = deadline.call(() -> Deadline.propagate(Deadline::current));
+
+    assertSame(deadline, CompletableFuture.supplyAsync(call, this.executor)
+                           .get());
+  }
+
+  @Test
+  void propagatedCallFailsWithoutRunningOnceExpired() {
+    final var ran = new AtomicBoolean();
+    final var call = Deadline.after(Duration.ZERO)
+                       .call(() -> Deadline.propagate(() -> ran.getAndSet(true)));
+
+    final var future = CompletableFuture.supplyAsync(call, this.executor);
+
+    final var exception = assertThrows(ExecutionException.class, future::get);
+    assertInstanceOf(DeadlineExceededException.class, exception.getCause());
+    assertFalse(ran.get());
+  }
+
+  @Test
+  void expiredDeadlineStillLeavesOneMillisecondToTheDrivers() {
+    final var deadline = Deadline.after(Duration.ZERO);
+
+    assertEquals(1, deadline.remainingMillis());
+    assertThrows(DeadlineExceededException.class, deadline::check);
+  }
+}
@@ -0,0 +1,57 @@
+package org.fenixteam.storage.repository.hedge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import org.fenixteam.storage.repository.FakeModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class HedgedModelRepositoryTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final AtomicReference<Thread> primaryThread = new AtomicReference<>();
+  private final FakeModelRepository primaryModelRepository = new FakeModelRepository() {
+    @Override
+    public TestModel findSync(final String id) {
+      HedgedModelRepositoryTest.this.primaryThread.set(Thread.currentThread());
+      return super.findSync(id);
+    }
+  };
+  private final FakeModelRepository secondaryModelRepository = new FakeModelRepository();
+  private final HedgedModelRepository<TestModel> repository = HedgedModelRepository.<TestModel>builder()
+                                                                .primaryModelRepository(this.primaryModelRepository)
+                                                                .secondaryModelRepository(this.secondaryModelRepository)
+                                                                .hedgeDelay(HedgeDelay.fixed(Duration.ofSeconds(1)))
+                                                                .build(this.executor);
+
+  @AfterEach
+  void close() {
+    this.repository.close();
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void syncReadRunsPrimaryOnCallingThread() {
+    this.primaryModelRepository.saveSync(new TestModel("a", 1));
+
+    assertEquals(new TestModel("a", 1), this.repository.findSync("a"));
+    assertSame(Thread.currentThread(), this.primaryThread.get());
+    assertEquals(0, this.repository.hedgedReads());
+  }
+
+  @Test
+  void failedPrimaryReadFallsBackToSecondary() {
+    this.secondaryModelRepository.saveSync(new TestModel("a", 1));
+    this.primaryModelRepository.failWith(new IllegalStateException("down"));
+
+    assertEquals(new TestModel("a", 1), this.repository.findSync("a"));
+    assertEquals(1, this.repository.secondaryWins());
+    assertNull(this.repository.findSync("b"));
+  }
+}
@@ -0,0 +1,110 @@
+package org.fenixteam.storage.repository.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.LocalModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+class ModelIndexTest {
+  @Test
+  void sortedIndexParsesLookedUpValue() {
+    final var repository = LocalModelRepository.concurrent(
+      ModelIndex.<TestModel, Integer>sorted("version", TestModel::version, Integer::valueOf));
+    repository.saveSync(new TestModel("a", 1));
+    repository.saveSync(new TestModel("b", 2));
+
+    assertEquals(List.of(new TestModel("b", 2)), repository.findSync("version", "2", ArrayList::new));
+  }
+
+  @Test
+  void hashIndexParsesLookedUpValue() {
+    final var repository = LocalModelRepository.concurrent(
+      ModelIndex.<TestModel, Integer>hash("version", TestModel::version, Integer::valueOf));
+    repository.saveSync(new TestModel("a", 1));
+    repository.saveSync(new TestModel("b", 2));
+
+    assertEquals(List.of(new TestModel("a", 1)), repository.findSync("version", "1", ArrayList::new));
+  }
+
+  @Test
+  void stringIndexLooksUpValueAsIs() {
+    final var repository = LocalModelRepository.concurrent(ModelIndex.<TestModel>sorted("id", TestModel::id));
+    repository.saveSync(new TestModel("a", 1));
+
+    assertEquals(List.of(new TestModel("a", 1)), repository.findSync("id", "a", ArrayList::new));
+  }
+
+  @Test
+  void hashIndexMovesResavedMutatedInstance() {
+    final var repository = LocalModelRepository.concurrent(ModelIndex.<MutableModel>hash("name", MutableModel::name));
+    final var model = new MutableModel("1", "steve");
+    repository.saveSync(model);
+    model.name = "alex";
+    repository.saveSync(model);
+
+    assertNull(repository.findSync("name", "steve", ArrayList::new));
+    assertEquals(List.of(model), repository.findSync("name", "alex", ArrayList::new));
+  }
+
+  @Test
+  void sortedIndexMovesResavedMutatedInstance() {
+    final var repository = LocalModelRepository.concurrent(
+      ModelIndex.<MutableModel>sorted("name", MutableModel::name));
+    final var model = new MutableModel("1", "steve");
+    repository.saveSync(model);
+    model.name = "alex";
+    repository.saveSync(model);
+
+    assertNull(repository.findPrefixSync("name", "st", ArrayList::new));
+    assertEquals(List.of(model), repository.findPrefixSync("name", "al", ArrayList::new));
+  }
+
+  @Test
+  void unsavedMutationIsNotFoundUnderTheOldValue() {
+    final var repository = LocalModelRepository.concurrent(ModelIndex.<MutableModel>hash("name", MutableModel::name));
+    final var model = new MutableModel("1", "steve");
+    repository.saveSync(model);
+    model.name = "alex";
+
+    assertNull(repository.findSync("name", "steve", ArrayList::new));
+  }
+
+  @Test
+  void deletedModelIsRemovedFromTheIndex() {
+    final var repository = LocalModelRepository.concurrent(ModelIndex.<MutableModel>hash("name", MutableModel::name));
+    final var model = new MutableModel("1", "steve");
+    repository.saveSync(model);
+    model.name = "alex";
+    repository.deleteSync("1");
+
+    assertEquals(0, repository.indexes()
+                      .require("name")
+                      .findEqual("steve")
+                      .size());
+  }
+
+  private static final class MutableModel implements Model {
+    private final String id;
+    private String name;
+
+    private MutableModel(final @NotNull String id, final @NotNull String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    @Override
+    public @NotNull String id() {
+      return this.id;
+    }
+
+    public @NotNull String name() {
+      return this.name;
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package org.fenixteam.storage.repository.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final ConcurrencyLimiter limiter = ConcurrencyLimiter.create(
+    ConcurrencyLimit.aimd(10, 1, 20, Duration.ofSeconds(5)),
+    0,
+    Duration.ZERO);
+
+  @AfterEach
+  void close() {
+    this.release.countDown();
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void failedCallShrinksTheLimit() {
+    assertThrows(IllegalStateException.class, () -> this.limiter.call(() -> {
+      throw new IllegalStateException("down");
+    }));
+
+    assertEquals(9, this.limiter.limit());
+    assertEquals(0, this.limiter.inFlight());
+  }
+
+  @Test
+  void misuseDoesNotShrinkTheLimit() {
+    assertThrows(UnsupportedOperationException.class, () -> this.limiter.call(() -> {
+      throw new UnsupportedOperationException("unsupported");
+    }));
+
+    assertEquals(10, this.limiter.limit());
+    assertEquals(0, this.limiter.inFlight());
+  }
+
+  @Test
+  void callOverTheLimitIsRejectedWithoutQueue() throws Exception {
+    final var limiter = this.singleSlotLimiter(0, Duration.ofSeconds(5));
+    final var holder = this.holdSlot(limiter);
+
+    assertThrows(LimitExceededException.class, () -> limiter.call(() -> "b"));
+    assertEquals(1, limiter.rejected());
+
+    this.release.countDown();
+    assertEquals("a", holder.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void queuedCallGivesUpAfterTheQueueWait() throws Exception {
+    final var limiter = this.singleSlotLimiter(1, Duration.ofMillis(50));
+    final var holder = this.holdSlot(limiter);
+
+    assertThrows(LimitExceededException.class, () -> limiter.call(() -> "b"));
+    assertEquals(1, limiter.rejected());
+    assertEquals(0, limiter.queued());
+
+    this.release.countDown();
+    assertEquals("a", holder.get(5, TimeUnit.SECONDS));
+    assertEquals(0, limiter.inFlight());
+  }
+
+  @Test
+  void freedSlotIsHandedToTheQueuedCall() throws Exception {
+    final var limiter = this.singleSlotLimiter(1, Duration.ofSeconds(5));
+    final var holder = this.holdSlot(limiter);
+
+    final var queued = limiter.submit(() -> "b", Runnable::run);
+    assertFalse(queued.isDone());
+    assertEquals(1, limiter.queued());
+
+    this.release.countDown();
+    assertEquals("b", queued.get(5, TimeUnit.SECONDS));
+    assertEquals("a", holder.get(5, TimeUnit.SECONDS));
+    assertEquals(0, limiter.queued());
+    assertEquals(0, limiter.inFlight());
+  }
+
+  @Test
+  void blockedCallRunsOnceTheSlotIsFreed() throws Exception {
+    final var limiter = this.singleSlotLimiter(1, Duration.ofSeconds(5));
+    final var holder = this.holdSlot(limiter);
+    this.executor.execute(() -> {
+      await(() -> limiter.queued() == 1);
+      this.release.countDown();
+    });
+
+    assertEquals("b", limiter.call(() -> "b"));
+    assertEquals("a", holder.get(5, TimeUnit.SECONDS));
+    assertEquals(0, limiter.rejected());
+  }
+
+  @Test
+  void aimdLimitGrowsByOnePerRoundOfCalls() {
+    final var limit = ConcurrencyLimit.aimd(2, 1, 10, Duration.ofSeconds(1));
+
+    limit.record(1_000, 2, false);
+    limit.record(1_000, 2, false);
+    assertEquals(2, limit.limit());
+    limit.record(1_000, 2, false);
+    assertEquals(3, limit.limit());
+  }
+
+  @Test
+  void aimdLimitIsNotRaisedWhileMostlyUnused() {
+    final var limit = ConcurrencyLimit.aimd(4, 1, 10, Duration.ofSeconds(1));
+
+    for (var i = 0; i < 10; i++) {
+      limit.record(1_000, 1, false);
+    }
+    assertEquals(4, limit.limit());
+  }
+
+  @Test
+  void aimdLimitBacksOffOnSlowCallsDownToTheMinimum() {
+    final var limit = ConcurrencyLimit.aimd(4, 2, 10, Duration.ofSeconds(1));
+
+    limit.record(Duration.ofSeconds(2)
+                   .toNanos(), 4, false);
+    assertEquals(3, limit.limit());
+    for (var i = 0; i < 10; i++) {
+      limit.record(1_000, 1, true);
+    }
+    assertEquals(2, limit.limit());
+  }
+
+  @Test
+  void gradientLimitGrowsWhileTheLatencyHolds() {
+    final var limit = ConcurrencyLimit.gradient(10, 1, 100);
+
+    for (var i = 0; i < 20; i++) {
+      limit.record(1_000_000, limit.limit(), false);
+    }
+    assertTrue(limit.limit() > 10, "limit was " + limit.limit());
+  }
+
+  @Test
+  void gradientLimitShrinksOnceTheCallsGetSlower() {
+    final var limit = ConcurrencyLimit.gradient(50, 1, 100);
+    for (var i = 0; i < 5; i++) {
+      limit.record(1_000_000, limit.limit(), false);
+    }
+    final var steadyLimit = limit.limit();
+
+    for (var i = 0; i < 20; i++) {
+      limit.record(20_000_000, limit.limit(), false);
+    }
+    assertTrue(limit.limit() < steadyLimit, "limit was " + limit.limit() + ", from " + steadyLimit);
+  }
+
+  private @NotNull ConcurrencyLimiter singleSlotLimiter(final int maxQueued, final @NotNull Duration maxQueueWait) {
+    return ConcurrencyLimiter.create(ConcurrencyLimit.aimd(1, 1, 1, Duration.ofSeconds(5)), maxQueued, maxQueueWait);
+  }
+
+  private @NotNull CompletableFuture<String> holdSlot(final @NotNull ConcurrencyLimiter limiter) {
+    final var holder = limiter.submit(() -> {
+      try {
+        this.release.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread()
+          .interrupt();
+      }
+      return "a";
+    }, this.executor);
+    assertEquals(1, limiter.inFlight());
+    return holder;
+  }
+
+  private static void await(final @NotNull BooleanSupplier condition) {
+    while (!condition.getAsBoolean()) {
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package org.fenixteam.storage.repository.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.fenixteam.storage.repository.FakeModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.junit.jupiter.api.Test;
+
+class InstrumentedModelRepositoryTest {
+  private final FakeModelRepository delegate = new FakeModelRepository();
+  private final InstrumentedModelRepository<TestModel> repository = InstrumentedModelRepository.wrap(
+    Runnable::run,
+    this.delegate,
+    RepositoryMetrics.create("test"));
+
+  @Test
+  void callsAndErrorsAreRecordedPerOperation() {
+    this.repository.saveSync(new TestModel("a", 1));
+    this.repository.findSync("a");
+    this.repository.findSync("b");
+    this.delegate.failWith(new IllegalStateException("down"));
+    assertThrows(IllegalStateException.class, () -> this.repository.findSync("a"));
+
+    final var snapshot = this.repository.metrics()
+                           .snapshot();
+
+    assertEquals("test", snapshot.name());
+    final var find = snapshot.operation(RepositoryOperation.FIND);
+    assertEquals(3, find.count());
+    assertEquals(1, find.errors());
+    assertEquals(1, snapshot.operation(RepositoryOperation.SAVE)
+                      .count());
+    assertEquals(0, snapshot.operation(RepositoryOperation.SAVE)
+                      .errors());
+    assertNull(snapshot.operation(RepositoryOperation.DELETE));
+  }
+
+  @Test
+  void asyncCallsAreRecordedOnce() throws Exception {
+    this.repository.save(new TestModel("a", 1))
+      .get();
+    this.repository.find("a")
+      .get();
+
+    final var snapshot = this.repository.metrics()
+                           .snapshot();
+    assertEquals(1, snapshot.operation(RepositoryOperation.FIND)
+                      .count());
+    assertEquals(1, snapshot.operation(RepositoryOperation.SAVE)
+                      .count());
+  }
+}
@@ -0,0 +1,64 @@
+package org.fenixteam.storage.repository.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+  @Test
+  void bucketBoundsStayWithinTheRelativeError() {
+    for (var value = 0L; value < 1_000_000_000L; value = value * 5 / 4 + 1) {
+      final var bucket = LatencyHistogram.bucketOf(value);
+      final var lowerBound = LatencyHistogram.lowerBoundOf(bucket);
+      final var upperBound = LatencyHistogram.lowerBoundOf(bucket + 1) - 1;
+
+      assertTrue(lowerBound <= value && value <= upperBound, value + " is outside of its bucket");
+      assertTrue(upperBound <= lowerBound * 1.125, "bucket of " + value + " is too wide");
+    }
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  void percentilesAreUpperBoundsOfTheRecordedLatencies() {
+    final var histogram = LatencyHistogram.create();
+    for (var i = 1; i <= 1000; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+    }
+
+    final var snapshot = histogram.snapshot();
+
+    assertEquals(1000, snapshot.count());
+    assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), snapshot.maxNanos());
+    assertEquals(TimeUnit.MICROSECONDS.toNanos(500) + 500, snapshot.meanNanos(), 0.001);
+    this.assertWithinError(TimeUnit.MICROSECONDS.toNanos(500), snapshot.percentileNanos(50));
+    this.assertWithinError(TimeUnit.MICROSECONDS.toNanos(990), snapshot.percentileNanos(99));
+    assertEquals(snapshot.maxNanos(), snapshot.percentileNanos(100));
+  }
+
+  @Test
+  void emptyHistogramReportsZero() {
+    final var snapshot = LatencyHistogram.create()
+                           .snapshot();
+
+    assertEquals(0, snapshot.count());
+    assertEquals(0, snapshot.percentileNanos(99));
+    assertEquals(0, snapshot.meanNanos(), 0);
+  }
+
+  @Test
+  void negativeLatencyIsRecordedAsZero() {
+    final var histogram = LatencyHistogram.create();
+    histogram.record(-5);
+
+    final var snapshot = histogram.snapshot();
+    assertEquals(1, snapshot.count());
+    assertEquals(0, snapshot.totalNanos());
+    assertEquals(0, snapshot.percentileNanos(100));
+  }
+
+  private void assertWithinError(final long expected, final long actual) {
+    assertTrue(actual >= expected && actual <= expected * 1.125, actual + " is not close above " + expected);
+  }
+}
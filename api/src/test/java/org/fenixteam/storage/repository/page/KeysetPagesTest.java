@@ -0,0 +1,87 @@
+package org.fenixteam.storage.repository.page;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.fenixteam.storage.repository.FakeModelRepository;
+import org.fenixteam.storage.repository.LocalModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+class KeysetPagesTest {
+  private static final List<String> IDS = List.of("e", "b", "g", "a", "d", "c", "f");
+  private static final List<String> SORTED_IDS = List.of("a", "b", "c", "d", "e", "f", "g");
+
+  @Test
+  void firstAfterSelectsTheLowestIdsAfterTheToken() {
+    assertEquals(List.of("a", "b", "c"), KeysetPages.firstAfter(IDS.iterator(), null, 3));
+    assertEquals(List.of("d", "e", "f"), KeysetPages.firstAfter(IDS.iterator(), "c", 3));
+    assertEquals(List.of("g"), KeysetPages.firstAfter(IDS.iterator(), "f", 3));
+  }
+
+  @Test
+  void loadKeepsTheIdOrderAndSkipsTheVanishedIds() {
+    final var page = KeysetPages.load(
+      List.of("a", "b", "c"),
+      3,
+      ids -> List.of(new TestModel("c", 1), new TestModel("a", 1)));
+
+    assertEquals(List.of(new TestModel("a", 1), new TestModel("c", 1)), page.models());
+    assertEquals("c", page.continuationToken());
+  }
+
+  @Test
+  void shortPageIsTheLastOne() {
+    final var page = KeysetPages.of(List.of(new TestModel("a", 1)), 2);
+
+    assertNull(page.continuationToken());
+  }
+
+  @Test
+  void sortedRepositoryIsPagedInIdOrder() {
+    assertEquals(SORTED_IDS, this.pageThrough(this.fill(LocalModelRepository.sorted())));
+  }
+
+  @Test
+  void unsortedRepositoryIsPagedInIdOrder() {
+    assertEquals(SORTED_IDS, this.pageThrough(this.fill(LocalModelRepository.concurrent())));
+  }
+
+  @Test
+  void defaultPagingIsInIdOrder() {
+    assertEquals(SORTED_IDS, this.pageThrough(this.fill(new FakeModelRepository())));
+  }
+
+  @Test
+  void nonPositiveLimitIsRejected() {
+    final var repository = this.fill(LocalModelRepository.sorted());
+
+    assertThrows(IllegalArgumentException.class, () -> repository.findPageSync(null, 0));
+    assertThrows(IllegalArgumentException.class, () -> new FakeModelRepository().findPageSync(null, -1));
+  }
+
+  private <R extends ModelRepository<TestModel>> @NotNull R fill(final @NotNull R repository) {
+    for (final var id : IDS) {
+      repository.saveSync(new TestModel(id, 1));
+    }
+    return repository;
+  }
+
+  private @NotNull List<String> pageThrough(final @NotNull ModelRepository<TestModel> repository) {
+    final var ids = new ArrayList<String>();
+    String continuationToken = null;
+    do {
+      final var page = repository.findPageSync(continuationToken, 3);
+      for (final var model : page.models()) {
+        ids.add(model.id());
+      }
+      continuationToken = page.continuationToken();
+    } while (continuationToken != null);
+    return ids;
+  }
+}
@@ -0,0 +1,59 @@
+package org.fenixteam.storage.repository.patch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.fenixteam.storage.repository.LocalModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.junit.jupiter.api.Test;
+
+class PatchTest {
+  @Test
+  void operationsAreKeptInOrder() {
+    final var patch = Patch.create()
+                        .set("name", "alex")
+                        .inc("score", 1)
+                        .unset("nickname")
+                        .push("tags", "new")
+                        .pull("tags", "old")
+                        .setOnInsert("created", 1L);
+
+    assertEquals(List.of(
+      new Patch.Operation.Set("name", "alex"),
+      new Patch.Operation.Increment("score", 1),
+      new Patch.Operation.Unset("nickname"),
+      new Patch.Operation.Push("tags", "new"),
+      new Patch.Operation.Pull("tags", "old"),
+      new Patch.Operation.SetOnInsert("created", 1L)), patch.operations());
+    assertFalse(patch.isUpsert());
+  }
+
+  @Test
+  void builderCallsLeaveThePatchUnchanged() {
+    final var base = Patch.create()
+                       .set("name", "alex");
+
+    final var upsert = base.upsert();
+    base.inc("score", 1);
+
+    assertEquals(List.of(new Patch.Operation.Set("name", "alex")), base.operations());
+    assertFalse(base.isUpsert());
+    assertTrue(upsert.isUpsert());
+    assertEquals(base.operations(), upsert.operations());
+    assertTrue(Patch.create()
+                 .isEmpty());
+  }
+
+  @Test
+  void unsupportedPatchIsRejected() {
+    final var repository = LocalModelRepository.<TestModel>concurrent();
+    final var patch = Patch.create()
+                        .set("version", 2);
+
+    assertFalse(repository.supportsPatch(patch));
+    assertThrows(UnsupportedOperationException.class, () -> repository.patchSync("a", patch));
+  }
+}
@@ -0,0 +1,157 @@
+package org.fenixteam.storage.repository.publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+class StreamPublisherTest {
+  private final AtomicInteger opened = new AtomicInteger();
+  private final AtomicInteger pulled = new AtomicInteger();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final StreamPublisher<Integer> publisher = StreamPublisher.create(
+    () -> {
+      this.opened.incrementAndGet();
+      return Stream.of(1, 2, 3, 4, 5)
+               .peek(element -> this.pulled.incrementAndGet())
+               .onClose(() -> this.closed.set(true));
+    },
+    Runnable::run);
+
+  @Test
+  void streamIsOpenedOnTheFirstRequest() {
+    final var subscriber = this.subscribe();
+
+    assertEquals(0, this.opened.get());
+    subscriber.subscription.request(1);
+    assertEquals(1, this.opened.get());
+  }
+
+  @Test
+  void onlyTheRequestedElementsArePulled() {
+    final var subscriber = this.subscribe();
+
+    subscriber.subscription.request(2);
+    assertEquals(List.of(1, 2), subscriber.elements);
+    assertEquals(2, this.pulled.get());
+    assertFalse(subscriber.completed);
+
+    subscriber.subscription.request(10);
+    assertEquals(List.of(1, 2, 3, 4, 5), subscriber.elements);
+    assertTrue(subscriber.completed);
+    assertTrue(this.closed.get());
+  }
+
+  @Test
+  void elementsRequestedFromOnNextAreDelivered() {
+    final var subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(final Integer element) {
+        super.onNext(element);
+        this.subscription.request(1);
+      }
+    };
+    this.publisher.subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+
+    assertEquals(List.of(1, 2, 3, 4, 5), subscriber.elements);
+    assertTrue(subscriber.completed);
+  }
+
+  @Test
+  void cancelClosesTheStream() {
+    final var subscriber = this.subscribe();
+    subscriber.subscription.request(1);
+
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(5);
+
+    assertEquals(List.of(1), subscriber.elements);
+    assertTrue(this.closed.get());
+    assertFalse(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  void nonPositiveRequestFailsTheSubscription() {
+    final var subscriber = this.subscribe();
+    subscriber.subscription.request(1);
+
+    subscriber.subscription.request(0);
+
+    assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+    assertTrue(this.closed.get());
+  }
+
+  @Test
+  void failingStreamFailsTheSubscription() {
+    final var failure = new IllegalStateException("down");
+    final var subscriber = new RecordingSubscriber();
+    final StreamPublisher<Integer> publisher = StreamPublisher.create(() -> Stream.generate(() -> {
+      throw failure;
+    }), Runnable::run);
+    publisher.subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+
+    assertEquals(failure, subscriber.error);
+    assertTrue(subscriber.elements.isEmpty());
+  }
+
+  @Test
+  void everySubscriberGetsItsOwnStream() {
+    final var first = this.subscribe();
+    final var second = this.subscribe();
+
+    first.subscription.request(Long.MAX_VALUE);
+    second.subscription.request(Long.MAX_VALUE);
+
+    assertEquals(2, this.opened.get());
+    assertEquals(List.of(1, 2, 3, 4, 5), first.elements);
+    assertEquals(List.of(1, 2, 3, 4, 5), second.elements);
+  }
+
+  private @NotNull RecordingSubscriber subscribe() {
+    final var subscriber = new RecordingSubscriber();
+    this.publisher.subscribe(subscriber);
+    return subscriber;
+  }
+
+  private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+    protected final List<Integer> elements = new ArrayList<>();
+    protected Flow.Subscription subscription;
+    protected Throwable error;
+    protected boolean completed;
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(final Integer element) {
+      this.elements.add(element);
+    }
+
+    @Override
+    public void onError(final Throwable error) {
+      this.error = error;
+    }
+
+    @Override
+    public void onComplete() {
+      this.completed = true;
+    }
+  }
+}
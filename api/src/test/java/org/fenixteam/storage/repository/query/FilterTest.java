@@ -0,0 +1,17 @@
+package org.fenixteam.storage.repository.query;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class FilterTest {
+  @Test
+  void emptyAndIsRejected() {
+    assertThrows(IllegalArgumentException.class, Filter::and);
+  }
+
+  @Test
+  void emptyOrIsRejected() {
+    assertThrows(IllegalArgumentException.class, Filter::or);
+  }
+}
@@ -0,0 +1,116 @@
+package org.fenixteam.storage.repository.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import org.fenixteam.storage.repository.FakeModelRepository;
+import org.fenixteam.storage.repository.LocalModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.junit.jupiter.api.Test;
+
+class ShardedModelRepositoryTest {
+  private static final int MODELS = 300;
+
+  private final ShardedModelRepository<TestModel> repository = ShardedModelRepository.<TestModel>builder()
+                                                                  .shard("a", LocalModelRepository.concurrent())
+                                                                  .shard("b", LocalModelRepository.concurrent())
+                                                                  .shard("c", LocalModelRepository.concurrent())
+                                                                  .build(Runnable::run);
+
+  @Test
+  void addedShardReceivesOnlyTheModelsItOwns() {
+    this.saveModels();
+    final var previousOwners = new ArrayList<Shard<TestModel>>();
+    for (int i = 0; i < MODELS; i++) {
+      previousOwners.add(this.repository.shardOf("model-" + i));
+    }
+    final var added = LocalModelRepository.<TestModel>concurrent();
+
+    final var moved = this.repository.addShardSync("d", added);
+
+    assertFalse(this.repository.rebalancing());
+    assertEquals(this.count(added), moved);
+    assertTrue(moved > 0);
+    for (int i = 0; i < MODELS; i++) {
+      final var id = "model-" + i;
+      final var owner = this.repository.shardOf(id);
+      if (!owner.name()
+             .equals("d")) {
+        // consistent hashing only moves models to the added shard
+        assertEquals(previousOwners.get(i), owner);
+      }
+    }
+    this.assertEveryModelAtItsOwner();
+  }
+
+  @Test
+  void removedShardHandsItsModelsOver() {
+    this.saveModels();
+    final var removed = this.repository.shards()
+                          .get(0);
+    final var removedCount = this.count(removed.repository());
+
+    final var moved = this.repository.removeShardSync(removed.name());
+
+    assertEquals(removedCount, moved);
+    assertEquals(0, this.count(removed.repository()));
+    this.assertEveryModelAtItsOwner();
+  }
+
+  @Test
+  void failedRebalanceKeepsModelsReadableUntilResumed() {
+    this.saveModels();
+    final var added = new FakeModelRepository();
+    added.failWith(new IllegalStateException("down"));
+
+    assertThrows(IllegalStateException.class, () -> this.repository.addShardSync("d", added));
+    assertTrue(this.repository.rebalancing());
+    assertThrows(IllegalStateException.class, () -> this.repository.removeShardSync("a"));
+    for (int i = 0; i < MODELS; i++) {
+      assertEquals(new TestModel("model-" + i, i), this.repository.findSync("model-" + i));
+    }
+
+    added.failWith(null);
+    final var moved = this.repository.resumeRebalanceSync();
+
+    assertFalse(this.repository.rebalancing());
+    assertTrue(moved > 0);
+    this.assertEveryModelAtItsOwner();
+  }
+
+  private void saveModels() {
+    for (int i = 0; i < MODELS; i++) {
+      this.repository.saveSync(new TestModel("model-" + i, i));
+    }
+  }
+
+  private int count(final ModelRepository<TestModel> repository) {
+    final var ids = repository.findIdsSync();
+    return ids == null ? 0 : ids.size();
+  }
+
+  private void assertEveryModelAtItsOwner() {
+    var stored = 0;
+    for (final var shard : this.repository.shards()) {
+      stored += this.count(shard.repository());
+    }
+    assertEquals(MODELS, stored);
+    for (int i = 0; i < MODELS; i++) {
+      final var id = "model-" + i;
+      final var owner = this.repository.shardOf(id);
+      assertEquals(new TestModel(id, i), owner.repository()
+                                           .findSync(id));
+      for (final var shard : this.repository.shards()) {
+        if (!shard.equals(owner)) {
+          assertNull(shard.repository()
+                       .findSync(id));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.fenixteam.storage.repository.tier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.fenixteam.storage.repository.FakeModelRepository;
+import org.fenixteam.storage.repository.TestModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TieredModelRepositoryTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final CountDownLatch promotionStarted = new CountDownLatch(1);
+  private final CountDownLatch promotionReleased = new CountDownLatch(1);
+  private final FakeModelRepository firstModelRepository = new FakeModelRepository() {
+    @Override
+    public TestModel saveSync(final TestModel model) {
+      if (model.version() == 1) {
+        TieredModelRepositoryTest.this.promotionStarted.countDown();
+        try {
+          TieredModelRepositoryTest.this.promotionReleased.await();
+        } catch (final InterruptedException e) {
+          Thread.currentThread()
+            .interrupt();
+        }
+      }
+      return super.saveSync(model);
+    }
+  };
+  private final FakeModelRepository lastModelRepository = new FakeModelRepository();
+  private final TieredModelRepository<TestModel> repository = TieredModelRepository.<TestModel>builder()
+                                                                .tier("first", this.firstModelRepository)
+                                                                .tier("last", this.lastModelRepository)
+                                                                .build(this.executor);
+
+  @AfterEach
+  void close() {
+    this.repository.close();
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void foundModelIsPromoted() {
+    this.lastModelRepository.saveSync(new TestModel("a", 2));
+
+    assertEquals(new TestModel("a", 2), this.repository.findSync("a"));
+    assertEquals(new TestModel("a", 2), this.firstModelRepository.stored("a"));
+    assertEquals(1, this.repository.hits("last"));
+    assertEquals(new TestModel("a", 2), this.repository.findSync("a"));
+    assertEquals(1, this.repository.hits("first"));
+  }
+
+  @Test
+  void writeDuringPromotionIsNotBlockedNorOverwritten() throws Exception {
+    this.lastModelRepository.saveSync(new TestModel("a", 1));
+    final var read = CompletableFuture.supplyAsync(() -> this.repository.findSync("a"), this.executor);
+    this.promotionStarted.await(5, TimeUnit.SECONDS);
+
+    final var write = CompletableFuture.supplyAsync(
+      () -> this.repository.saveSync(new TestModel("a", 2)),
+      this.executor);
+    assertEquals(new TestModel("a", 2), write.get(5, TimeUnit.SECONDS));
+
+    this.promotionReleased.countDown();
+    assertEquals(new TestModel("a", 1), read.get(5, TimeUnit.SECONDS));
+    assertNull(this.firstModelRepository.stored("a"));
+    assertEquals(new TestModel("a", 2), this.repository.findSync("a"));
+  }
+
+  @Test
+  void subMillisecondDemotionIntervalIsRejected() {
+    final var builder = TieredModelRepository.<TestModel>builder()
+                          .tier("first", new FakeModelRepository(), Duration.ofMinutes(1))
+                          .tier("last", this.lastModelRepository)
+                          .demotionInterval(Duration.ofNanos(500_000));
+
+    assertThrows(IllegalStateException.class, () -> builder.build(this.executor));
+  }
+}
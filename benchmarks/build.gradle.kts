@@ -0,0 +1,22 @@
+plugins {
+  id("me.champeau.jmh") version "0.7.1"
+}
+
+dependencies {
+  jmh(project(":storage-caffeine-dist"))
+  jmh(project(":storage-gson-dist"))
+  jmh(project(":storage-mongo-legacy-dist"))
+  jmh("com.google.code.gson:gson:2.9.0")
+  jmhCompileOnly("org.jetbrains:annotations:24.0.0")
+}
+
+jmh {
+  jmhVersion.set("1.36")
+  // allocation rates are reported for every benchmark, so regressions on the hot paths show up
+  profilers.add("gc")
+  resultFormat.set("JSON")
+}
+
+tasks.withType<PublishToMavenRepository>().configureEach {
+  enabled = false
+}
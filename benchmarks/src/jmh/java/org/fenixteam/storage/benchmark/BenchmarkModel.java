@@ -0,0 +1,118 @@
+package org.fenixteam.storage.benchmark;
+
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.bson.Document;
+import org.fenixteam.storage.gson.codec.JsonReader;
+import org.fenixteam.storage.gson.codec.JsonWriter;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.mongo.MongoModelRepository;
+import org.fenixteam.storage.mongo.codec.DocumentReader;
+import org.fenixteam.storage.mongo.codec.DocumentWriter;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A model shaped like the usual player profile, a few scalars, a uuid and a small collection.
+ */
+public final class BenchmarkModel implements Model {
+  private final String id;
+  private final String name;
+  private final UUID owner;
+  private final int score;
+  private final List<String> tags;
+
+  public BenchmarkModel(
+    final @NotNull String id,
+    final @NotNull String name,
+    final @NotNull UUID owner,
+    final int score,
+    final @NotNull List<String> tags
+  ) {
+    this.id = id;
+    this.name = name;
+    this.owner = owner;
+    this.score = score;
+    this.tags = tags;
+  }
+
+  @Contract("_ -> new")
+  public static @NotNull BenchmarkModel create(final int index) {
+    final var tags = new ArrayList<String>(4);
+    for (int i = 0; i < 4; i++) {
+      tags.add("tag-" + (index + i) % 16);
+    }
+    return new BenchmarkModel(
+      idOf(index),
+      "name-" + index,
+      new UUID(index, ~index),
+      index,
+      tags);
+  }
+
+  public static @NotNull String idOf(final int index) {
+    return "model-" + index;
+  }
+
+  public static @NotNull JsonObject toJson(final @NotNull BenchmarkModel model) {
+    return JsonWriter.create()
+             .writeString("id", model.id)
+             .writeString("name", model.name)
+             .writeDetailedUuid("owner", model.owner)
+             .writeNumber("score", model.score)
+             .writeRawCollection("tags", model.tags)
+             .end();
+  }
+
+  public static @NotNull BenchmarkModel fromJson(final @NotNull JsonObject jsonObject) {
+    final var reader = JsonReader.create(jsonObject);
+    return new BenchmarkModel(
+      reader.readString("id"),
+      reader.readString("name"),
+      reader.readDetailedUuid("owner"),
+      reader.readInt("score"),
+      reader.readRawCollection("tags", String.class, ArrayList::new));
+  }
+
+  public static @NotNull Document toDocument(final @NotNull BenchmarkModel model) {
+    return DocumentWriter.create(model)
+             .writeString("name", model.name)
+             .writeDetailedUuid("owner", model.owner)
+             .writeNumber("score", model.score)
+             .writeRawCollection("tags", model.tags)
+             .end();
+  }
+
+  public static @NotNull BenchmarkModel fromDocument(final @NotNull Document document) {
+    final var reader = DocumentReader.create(document);
+    return new BenchmarkModel(
+      reader.readString(MongoModelRepository.ID_FIELD),
+      reader.readString("name"),
+      reader.readDetailedUuid("owner"),
+      reader.readInt("score"),
+      reader.readRawCollection("tags", String.class, ArrayList::new));
+  }
+
+  @Override
+  public @NotNull String id() {
+    return this.id;
+  }
+
+  public @NotNull String name() {
+    return this.name;
+  }
+
+  public @NotNull UUID owner() {
+    return this.owner;
+  }
+
+  public int score() {
+    return this.score;
+  }
+
+  public @NotNull List<String> tags() {
+    return this.tags;
+  }
+}
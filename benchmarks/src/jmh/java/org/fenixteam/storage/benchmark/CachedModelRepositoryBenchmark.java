@@ -0,0 +1,99 @@
+package org.fenixteam.storage.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.fenixteam.storage.repository.CachedModelRepository;
+import org.fenixteam.storage.repository.LocalModelRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overhead of the cached repository over two in-memory tiers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachedModelRepositoryBenchmark {
+  private static final int MODELS = 10_000;
+  private static final int BATCH_SIZE = 16;
+
+  @Param({"false", "true"})
+  public boolean negativeCache;
+
+  private CachedModelRepository<BenchmarkModel> cachedModelRepository;
+  private BenchmarkModel[] models;
+  private String[] missingIds;
+
+  @Setup
+  public void setup() {
+    final var builder = CachedModelRepository.<BenchmarkModel>builder()
+                          .cacheModelRepository(LocalModelRepository.concurrent())
+                          .persistModelRepository(LocalModelRepository.concurrent());
+    if (this.negativeCache) {
+      builder.negativeCache(Duration.ofMinutes(10), MODELS);
+    }
+    this.cachedModelRepository = builder.build(Runnable::run);
+    this.models = Repositories.fill(this.cachedModelRepository.persistModelRepository(), MODELS);
+    this.cachedModelRepository.cacheModelRepository().saveManySync(List.of(this.models));
+    this.missingIds = new String[MODELS];
+    for (int i = 0; i < MODELS; i++) {
+      this.missingIds[i] = BenchmarkModel.idOf(MODELS + i);
+    }
+  }
+
+  @Benchmark
+  public BenchmarkModel hit() {
+    return this.cachedModelRepository.findInBothAndCacheSync(this.randomId());
+  }
+
+  /**
+   * Looks up an id which exists in neither tier.
+   *
+   * @return the found model, always null
+   */
+  @Benchmark
+  public BenchmarkModel miss() {
+    return this.cachedModelRepository.findInBothAndCacheSync(
+      this.missingIds[ThreadLocalRandom.current().nextInt(MODELS)]);
+  }
+
+  /**
+   * Evicts a model from the cache tier and loads it again, the eviction included.
+   *
+   * @return the loaded model
+   */
+  @Benchmark
+  public BenchmarkModel load() {
+    final var id = this.randomId();
+    this.cachedModelRepository.deleteInCacheSync(id);
+    return this.cachedModelRepository.findInBothAndCacheSync(id);
+  }
+
+  @Benchmark
+  public List<BenchmarkModel> hitMany() {
+    final var ids = new ArrayList<String>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      ids.add(this.randomId());
+    }
+    return this.cachedModelRepository.findManyInBothAndCacheSync(ids, ArrayList::new);
+  }
+
+  private String randomId() {
+    return this.models[ThreadLocalRandom.current().nextInt(MODELS)].id();
+  }
+}
@@ -0,0 +1,67 @@
+package org.fenixteam.storage.benchmark;
+
+import com.google.gson.JsonObject;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization and deserialization of a model through the Gson and Mongo codecs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+  private BenchmarkModel model;
+  private JsonObject jsonObject;
+  private Document document;
+
+  @Setup
+  public void setup() {
+    this.model = BenchmarkModel.create(42);
+    this.jsonObject = BenchmarkModel.toJson(this.model);
+    this.document = BenchmarkModel.toDocument(this.model);
+  }
+
+  @Benchmark
+  public JsonObject jsonWrite() {
+    return BenchmarkModel.toJson(this.model);
+  }
+
+  @Benchmark
+  public BenchmarkModel jsonRead() {
+    return BenchmarkModel.fromJson(this.jsonObject);
+  }
+
+  @Benchmark
+  public BenchmarkModel jsonRoundTrip() {
+    return BenchmarkModel.fromJson(BenchmarkModel.toJson(this.model));
+  }
+
+  @Benchmark
+  public Document documentWrite() {
+    return BenchmarkModel.toDocument(this.model);
+  }
+
+  @Benchmark
+  public BenchmarkModel documentRead() {
+    return BenchmarkModel.fromDocument(this.document);
+  }
+
+  @Benchmark
+  public BenchmarkModel documentRoundTrip() {
+    return BenchmarkModel.fromDocument(BenchmarkModel.toDocument(this.model));
+  }
+}
@@ -0,0 +1,78 @@
+package org.fenixteam.storage.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.fenixteam.storage.gson.GsonModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * File reads and writes of the Gson repository in a temporary folder, one file per model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GsonModelRepositoryBenchmark {
+  private static final int MODELS = 1_000;
+
+  @Param({"false", "true"})
+  public boolean prettyPrinting;
+
+  private Path folderPath;
+  private ModelRepository<BenchmarkModel> modelRepository;
+  private BenchmarkModel[] models;
+
+  @Setup
+  public void setup() throws IOException {
+    this.folderPath = Files.createTempDirectory("storage-benchmark");
+    this.modelRepository = GsonModelRepository.builder(BenchmarkModel.class)
+                             .folder(this.folderPath)
+                             .prettyPrinting(this.prettyPrinting)
+                             .modelSerializer(BenchmarkModel::toJson)
+                             .modelDeserializer(BenchmarkModel::fromJson)
+                             .build(Runnable::run);
+    this.models = Repositories.fill(this.modelRepository, MODELS);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (final Stream<Path> paths = Files.walk(this.folderPath)) {
+      for (final var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Benchmark
+  public BenchmarkModel find() {
+    return this.modelRepository.findSync(this.randomModel().id());
+  }
+
+  @Benchmark
+  public BenchmarkModel save() {
+    return this.modelRepository.saveSync(this.randomModel());
+  }
+
+  private BenchmarkModel randomModel() {
+    return this.models[ThreadLocalRandom.current().nextInt(MODELS)];
+  }
+}
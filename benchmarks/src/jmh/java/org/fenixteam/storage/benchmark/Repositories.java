@@ -0,0 +1,32 @@
+package org.fenixteam.storage.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.fenixteam.storage.caffeine.CaffeineModelRepository;
+import org.fenixteam.storage.repository.LocalModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.jetbrains.annotations.NotNull;
+
+final class Repositories {
+  private Repositories() {
+  }
+
+  static @NotNull ModelRepository<BenchmarkModel> inMemory(final @NotNull String kind, final int capacity) {
+    return switch (kind) {
+      case "hashMap" -> LocalModelRepository.hashMap();
+      case "concurrent" -> LocalModelRepository.concurrent();
+      case "caffeine" -> CaffeineModelRepository.create(Caffeine.newBuilder()
+                                                          .maximumSize(capacity)
+                                                          .build());
+      default -> throw new IllegalArgumentException("Unknown repository " + kind);
+    };
+  }
+
+  static @NotNull BenchmarkModel[] fill(final @NotNull ModelRepository<BenchmarkModel> repository, final int count) {
+    final var models = new BenchmarkModel[count];
+    for (int i = 0; i < count; i++) {
+      models[i] = BenchmarkModel.create(i);
+      repository.saveSync(models[i]);
+    }
+    return models;
+  }
+}
@@ -0,0 +1,61 @@
+package org.fenixteam.storage.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the thread-safe in-memory repositories with three readers and one writer.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryContentionBenchmark {
+  private static final int MODELS = 10_000;
+
+  @Param({"concurrent", "caffeine"})
+  public String repository;
+
+  private ModelRepository<BenchmarkModel> modelRepository;
+  private BenchmarkModel[] models;
+
+  @Setup
+  public void setup() {
+    this.modelRepository = Repositories.inMemory(this.repository, MODELS);
+    this.models = Repositories.fill(this.modelRepository, MODELS);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(3)
+  public BenchmarkModel find() {
+    return this.modelRepository.findSync(this.randomModel().id());
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(1)
+  public BenchmarkModel save() {
+    return this.modelRepository.saveSync(this.randomModel());
+  }
+
+  private BenchmarkModel randomModel() {
+    return this.models[ThreadLocalRandom.current().nextInt(MODELS)];
+  }
+}
@@ -0,0 +1,53 @@
+package org.fenixteam.storage.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read throughput of the in-memory repositories with four threads looking up random ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RepositoryReadBenchmark {
+  private static final int MODELS = 10_000;
+
+  @Param({"hashMap", "concurrent", "caffeine"})
+  public String repository;
+
+  private ModelRepository<BenchmarkModel> modelRepository;
+  private BenchmarkModel[] models;
+
+  @Setup
+  public void setup() {
+    this.modelRepository = Repositories.inMemory(this.repository, MODELS);
+    this.models = Repositories.fill(this.modelRepository, MODELS);
+  }
+
+  @Benchmark
+  public BenchmarkModel find() {
+    return this.modelRepository.findSync(this.models[ThreadLocalRandom.current().nextInt(MODELS)].id());
+  }
+
+  @Benchmark
+  public boolean exists() {
+    return this.modelRepository.existsSync(this.models[ThreadLocalRandom.current().nextInt(MODELS)].id());
+  }
+}
@@ -47,6 +47,8 @@ subprojects {
 
   dependencies {
     checkstyle("ca.stellardrift:stylecheck:0.2.0")
+    "testImplementation"("org.junit.jupiter:junit-jupiter:5.9.3")
+    "testRuntimeOnly"("org.junit.platform:junit-platform-launcher:1.9.3")
   }
 
   tasks {
@@ -55,6 +57,10 @@ subprojects {
       dependsOn("checkstyleMain")
       options.compilerArgs.add("-parameters")
     }
+
+    named<Test>("test") {
+      useJUnitPlatform()
+    }
   }
 
   publishing {
@@ -1,11 +1,25 @@
 package org.fenixteam.storage.caffeine;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 import org.fenixteam.storage.model.Model;
 import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.index.IndexQueryExecutor;
+import org.fenixteam.storage.repository.index.ModelIndex;
+import org.fenixteam.storage.repository.index.ModelIndexes;
+import org.fenixteam.storage.repository.index.SortedModelIndex;
+import org.fenixteam.storage.repository.page.KeysetPages;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.query.Query;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -13,9 +27,20 @@ import org.jetbrains.annotations.Nullable;
 @SuppressWarnings("unused")
 public class CaffeineModelRepository<ModelType extends Model> implements ModelRepository<ModelType> {
   private final Cache<String, ModelType> cache;
+  private final ModelIndexes<ModelType> indexes;
+  private final IndexQueryExecutor<ModelType> queryExecutor;
 
   protected CaffeineModelRepository(final @NotNull Cache<String, ModelType> cache) {
+    this(cache, ModelIndexes.of(List.of()));
+  }
+
+  protected CaffeineModelRepository(
+    final @NotNull Cache<String, ModelType> cache,
+    final @NotNull ModelIndexes<ModelType> indexes
+  ) {
     this.cache = cache;
+    this.indexes = indexes;
+    this.queryExecutor = new IndexQueryExecutor<>(indexes);
   }
 
   @Contract(value = "_ -> new")
@@ -23,6 +48,33 @@ public class CaffeineModelRepository<ModelType extends Model> implements ModelRe
     return new CaffeineModelRepository<>(cache);
   }
 
+  /**
+   * Builds the cache from the given builder, which must not have an eviction listener nor weak or
+   * soft values, and creates a repository over it maintaining the given secondary indexes.
+   *
+   * @param caffeine the cache builder
+   * @param indexes  the secondary indexes, at most one per field
+   * @param <T>      the model type
+   * @return the created repository
+   */
+  @Contract(value = "_, _ -> new")
+  public static <T extends Model> @NotNull CaffeineModelRepository<T> create(
+    final @NotNull Caffeine<Object, Object> caffeine,
+    final @NotNull Collection<ModelIndex<T>> indexes
+  ) {
+    final var modelIndexes = ModelIndexes.of(indexes);
+    final var indexedCaffeine = caffeine.<String, T>evictionListener((id, model, cause) -> {
+      if (id != null && model != null) {
+        modelIndexes.update(id, null);
+      }
+    });
+    return new CaffeineModelRepository<>(indexedCaffeine.build(), modelIndexes);
+  }
+
+  public @NotNull ModelIndexes<ModelType> indexes() {
+    return this.indexes;
+  }
+
   @Override
   public @Nullable ModelType findSync(final @NotNull String id) {
     return this.cache.getIfPresent(id);
@@ -34,7 +86,105 @@ public class CaffeineModelRepository<ModelType extends Model> implements ModelRe
     final @NotNull String value,
     final @NotNull Function<Integer, C> factory
   ) {
-    throw new UnsupportedOperationException("Not implemented yet");
+    final var index = this.indexes.get(field);
+    if (index != null) {
+      final var key = index.parseKey(value);
+      return this.indexes.resolve(
+        index.findEqual(key),
+        this.cache::getIfPresent,
+        model -> index.matches(model, key),
+        factory);
+    }
+    if (field.equals(ID_FIELD)) {
+      return this.indexes.resolve(List.of(value), this.cache::getIfPresent, factory);
+    }
+    throw new UnsupportedOperationException("No index registered for field '" + field + "'");
+  }
+
+  public <K extends Comparable<? super K>, C extends Collection<ModelType>> @Nullable C findRangeSync(
+    final @NotNull String field,
+    final @Nullable K from,
+    final boolean fromInclusive,
+    final @Nullable K to,
+    final boolean toInclusive,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var index = this.<K>sortedIndex(field);
+    return this.indexes.resolve(
+      index.findRange(from, fromInclusive, to, toInclusive),
+      this.cache::getIfPresent,
+      model -> index.matchesRange(model, from, fromInclusive, to, toInclusive),
+      factory);
+  }
+
+  public <C extends Collection<ModelType>> @Nullable C findPrefixSync(
+    final @NotNull String field,
+    final @NotNull String prefix,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var index = this.<String>sortedIndex(field);
+    return this.indexes.resolve(
+      index.findPrefix(prefix),
+      this.cache::getIfPresent,
+      model -> index.matchesPrefix(model, prefix),
+      factory);
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var presentModels = this.cache.getAllPresent(ids);
+    final var foundModels = factory.apply(presentModels.size());
+    foundModels.addAll(presentModels.values());
+    return foundModels;
+  }
+
+  /**
+   * Finds a page of models sorted by id. It walks a sorted index of the id field if one is
+   * registered, otherwise every key is scanned per page.
+   *
+   * @param continuationToken the last id of the previous page, or {@code null} for the first page
+   * @param limit             the maximum amount of models of the page
+   * @return the page
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    KeysetPages.checkLimit(limit);
+    final List<String> pageIds;
+    if (this.indexes.get(ID_FIELD) instanceof SortedModelIndex<ModelType, ?> index) {
+      pageIds = ((SortedModelIndex<ModelType, String>) index).findRange(continuationToken, false, null, false, limit);
+    } else {
+      final var keys = this.cache.asMap()
+                         .keySet()
+                         .iterator();
+      pageIds = KeysetPages.firstAfter(keys, continuationToken, limit);
+    }
+    return KeysetPages.load(pageIds, limit, ids -> this.findManySync(ids, ArrayList::new));
+  }
+
+  @Override
+  public boolean supportsQuery(final @NotNull Query query) {
+    return this.queryExecutor.supports(query);
+  }
+
+  /**
+   * Runs the given query through the secondary indexes, every filtered and sorted field must be
+   * indexed. The projection is ignored.
+   *
+   * @param query   the query
+   * @param factory the collection factory
+   * @param <C>     the collection type
+   * @return the found models
+   */
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    return this.queryExecutor.execute(query, this.cache::getIfPresent, this.cache.asMap()::keySet, factory);
   }
 
   @Override
@@ -58,21 +208,122 @@ public class CaffeineModelRepository<ModelType extends Model> implements ModelRe
     return foundModels;
   }
 
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    return this.cache.asMap()
+             .keySet()
+             .stream();
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    return this.cache.asMap()
+             .values()
+             .stream();
+  }
+
   @Override
   public boolean existsSync(final @NotNull String id) {
     return this.cache.asMap()
              .containsKey(id);
   }
 
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    return this.cache.getAllPresent(ids)
+             .keySet();
+  }
+
   @Override
   public @NotNull ModelType saveSync(final @NotNull ModelType model) {
-    this.cache.put(model.id(), model);
+    if (this.indexes.isEmpty()) {
+      this.cache.put(model.id(), model);
+      return model;
+    }
+    this.cache.asMap()
+      .compute(model.id(), (id, oldModel) -> {
+        this.indexes.update(id, model);
+        return model;
+      });
     return model;
   }
 
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    if (!this.indexes.isEmpty()) {
+      for (final var model : models) {
+        this.saveSync(model);
+      }
+      return models;
+    }
+    final var map = new HashMap<String, ModelType>(models.size());
+    for (final var model : models) {
+      map.put(model.id(), model);
+    }
+    this.cache.putAll(map);
+    return models;
+  }
+
+  /**
+   * Applies the function under the lock of the id's bin. The function must return a new model
+   * instead of modifying the given one.
+   *
+   * @param id       the model id
+   * @param function the function computing the new model
+   * @return the stored model, or {@code null} if there is none
+   */
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    return this.cache.asMap()
+             .compute(id, (key, oldModel) -> {
+               final var newModel = function.apply(oldModel);
+               this.indexes.update(key, newModel);
+               return newModel;
+             });
+  }
+
   @Override
   public boolean deleteSync(final @NotNull String id) {
-    this.cache.invalidate(id);
+    if (this.indexes.isEmpty()) {
+      this.cache.invalidate(id);
+      return true;
+    }
+    final var deleted = new AtomicBoolean();
+    this.cache.asMap()
+      .computeIfPresent(id, (key, oldModel) -> {
+        this.indexes.update(key, null);
+        deleted.set(true);
+        return null;
+      });
+    return deleted.get();
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    if (!this.indexes.isEmpty()) {
+      var deleted = false;
+      for (final var id : ids) {
+        deleted |= this.deleteSync(id);
+      }
+      return deleted;
+    }
+    this.cache.invalidateAll(ids);
     return true;
   }
+
+  @SuppressWarnings("unchecked")
+  private <K extends Comparable<? super K>> @NotNull SortedModelIndex<ModelType, K> sortedIndex(
+    final @NotNull String field
+  ) {
+    final var index = this.indexes.require(field);
+    if (!(index instanceof SortedModelIndex<ModelType, ?> sortedIndex)) {
+      throw new UnsupportedOperationException("Index of field '" + field + "' is not sorted");
+    }
+    return (SortedModelIndex<ModelType, K>) sortedIndex;
+  }
 }
@@ -0,0 +1,103 @@
+package org.fenixteam.storage.caffeine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.index.ModelIndex;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+class CaffeineModelRepositoryTest {
+  private final AtomicLong time = new AtomicLong();
+
+  @Test
+  void sizeEvictionRemovesTheEvictedIdFromTheIndex() {
+    final var repository = this.create(Caffeine.newBuilder()
+                                         .maximumSize(1));
+    repository.saveSync(new NamedModel("1", "steve"));
+    repository.saveSync(new NamedModel("2", "alex"));
+
+    final var ids = repository.findIdsSync();
+    assertEquals(1, ids.size());
+    assertEquals(ids.contains("1") ? Set.of("1") : Set.of(), this.indexedIds(repository, "steve"));
+    assertEquals(ids.contains("2") ? Set.of("2") : Set.of(), this.indexedIds(repository, "alex"));
+  }
+
+  @Test
+  void expiredModelIsRemovedFromTheIndex() {
+    final var repository = this.create(Caffeine.newBuilder()
+                                         .expireAfterWrite(Duration.ofMinutes(1))
+                                         .ticker(this.time::get));
+    repository.saveSync(new NamedModel("1", "steve"));
+    this.time.addAndGet(Duration.ofMinutes(2)
+                          .toNanos());
+    repository.saveSync(new NamedModel("2", "alex"));
+
+    assertNull(repository.findSync("1"));
+    assertEquals(Set.of(), this.indexedIds(repository, "steve"));
+    assertEquals(Set.of("2"), this.indexedIds(repository, "alex"));
+  }
+
+  @Test
+  void deletedModelIsRemovedFromTheIndex() {
+    final var repository = this.create(Caffeine.newBuilder());
+    repository.saveSync(new NamedModel("1", "steve"));
+    repository.deleteSync("1");
+
+    assertNull(repository.findSync("name", "steve", ArrayList::new));
+    assertEquals(Set.of(), this.indexedIds(repository, "steve"));
+  }
+
+  @Test
+  void resavedMutatedInstanceIsMovedInTheIndex() {
+    final var repository = this.create(Caffeine.newBuilder());
+    final var model = new NamedModel("1", "steve");
+    repository.saveSync(model);
+    model.name = "alex";
+    repository.saveSync(model);
+
+    assertNull(repository.findSync("name", "steve", ArrayList::new));
+    assertEquals(List.of(model), repository.findSync("name", "alex", ArrayList::new));
+  }
+
+  private @NotNull CaffeineModelRepository<NamedModel> create(final @NotNull Caffeine<Object, Object> caffeine) {
+    return CaffeineModelRepository.create(
+      caffeine.executor(Runnable::run),
+      List.of(ModelIndex.<NamedModel>hash("name", NamedModel::name)));
+  }
+
+  private @NotNull Set<String> indexedIds(
+    final @NotNull CaffeineModelRepository<NamedModel> repository,
+    final @NotNull String name
+  ) {
+    return Set.copyOf(repository.indexes()
+                        .require("name")
+                        .findEqual(name));
+  }
+
+  private static final class NamedModel implements Model {
+    private final String id;
+    private String name;
+
+    private NamedModel(final @NotNull String id, final @NotNull String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    @Override
+    public @NotNull String id() {
+      return this.id;
+    }
+
+    public @NotNull String name() {
+      return this.name;
+    }
+  }
+}
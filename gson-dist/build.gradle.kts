@@ -1,4 +1,5 @@
 dependencies {
   api(project(":storage-api-codec"))
   compileOnlyApi("com.google.code.gson:gson:2.9.0")
+  testImplementation("com.google.code.gson:gson:2.9.0")
 }
\ No newline at end of file
@@ -6,19 +6,32 @@ import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.fenixteam.storage.codec.ModelDeserializer;
 import org.fenixteam.storage.codec.ModelSerializer;
 import org.fenixteam.storage.model.Model;
 import org.fenixteam.storage.repository.AbstractAsyncModelRepository;
 import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.fenixteam.storage.repository.deadline.DeadlineExceededException;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -28,6 +41,7 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
   protected final Class<ModelType> modelType;
   protected final Path folderPath;
   protected final boolean prettyPrinting;
+  protected final int parallelism;
   protected final ModelSerializer<ModelType, JsonObject> modelSerializer;
   protected final ModelDeserializer<ModelType, JsonObject> modelDeserializer;
 
@@ -36,11 +50,13 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
     final @NotNull Class<ModelType> modelType,
     final @NotNull Path folderPath,
     final boolean prettyPrinting,
+    final int parallelism,
     final @NotNull ModelSerializer<ModelType, JsonObject> modelSerializer,
     final @NotNull ModelDeserializer<ModelType, JsonObject> modelDeserializer
   ) {
     super(executor);
     this.prettyPrinting = prettyPrinting;
+    this.parallelism = parallelism;
     this.modelType = modelType;
     this.folderPath = folderPath;
     this.modelSerializer = modelSerializer;
@@ -57,6 +73,18 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
     return this.internalFind(this.resolveChild(id));
   }
 
+  /**
+   * Finds the model parsing only the id and the requested fields while streaming the file.
+   *
+   * @param id     the model id
+   * @param fields the serialized names of the fields to load
+   * @return the partially loaded model, or {@code null} if it doesn't exist
+   */
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    return this.internalFind(this.resolveChild(id), fields);
+  }
+
   @Override
   public <C extends Collection<ModelType>> @Nullable C findSync(
     final @NotNull String field,
@@ -75,6 +103,24 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
     return collection;
   }
 
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var idList = List.copyOf(ids);
+    final var models = new AtomicReferenceArray<ModelType>(idList.size());
+    this.forEachParallel(idList.size(), index -> models.set(index, this.findSync(idList.get(index))));
+    final var foundModels = factory.apply(models.length());
+    for (int i = 0; i < models.length(); i++) {
+      final var model = models.get(i);
+      if (model != null) {
+        foundModels.add(model);
+      }
+    }
+    return foundModels;
+  }
+
   @Override
   public @Nullable Collection<String> findIdsSync() {
     try (final var walk = Files.walk(this.folderPath)) {
@@ -108,6 +154,23 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
     }
   }
 
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    return this.streamFiles()
+             .map(Path::getFileName)
+             .map(Path::toString)
+             .map(fileName -> fileName.substring(0, fileName.length() - 5));
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    return this.streamFiles()
+             .map(this::internalFind)
+             .filter(Objects::nonNull);
+  }
+
   @Override
   public boolean existsSync(final @NotNull String id) {
     return Files.exists(this.resolveChild(id));
@@ -115,6 +178,7 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
 
   @Override
   public @NotNull ModelType saveSync(final @NotNull ModelType model) {
+    Deadline.checkCurrent();
     final var modelPath = this.resolveChild(model.id());
     try {
       if (Files.notExists(modelPath)) {
@@ -136,8 +200,16 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
     }
   }
 
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    final var modelList = List.copyOf(models);
+    this.forEachParallel(modelList.size(), index -> this.saveSync(modelList.get(index)));
+    return models;
+  }
+
   @Override
   public boolean deleteSync(final @NotNull String id) {
+    Deadline.checkCurrent();
     try {
       return Files.deleteIfExists(this.resolveChild(id));
     } catch (final IOException e) {
@@ -145,11 +217,97 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
     }
   }
 
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    final var idList = List.copyOf(ids);
+    final var deleted = new AtomicInteger();
+    this.forEachParallel(idList.size(), index -> {
+      if (this.deleteSync(idList.get(index))) {
+        deleted.incrementAndGet();
+      }
+    });
+    return deleted.get() > 0;
+  }
+
+  /**
+   * Runs the action for every index on the calling thread and up to {@code parallelism - 1}
+   * executor tasks, so it's safe to call from the executor itself.
+   *
+   * @param size   the amount of indexes to process
+   * @param action the action to run for every index
+   */
+  protected void forEachParallel(final int size, final @NotNull IntConsumer action) {
+    if (size == 0) {
+      return;
+    }
+    final var nextIndex = new AtomicInteger();
+    final var remaining = new CountDownLatch(size);
+    final var failure = new AtomicReference<RuntimeException>();
+    final var deadline = Deadline.current();
+    final Runnable work = () -> {
+      int index;
+      while ((index = nextIndex.getAndIncrement()) < size) {
+        try {
+          action.accept(index);
+        } catch (final RuntimeException e) {
+          failure.compareAndSet(null, e);
+        } finally {
+          remaining.countDown();
+        }
+      }
+    };
+    final Runnable worker = deadline == null ? work : () -> deadline.run(work);
+    final var helpers = Math.min(this.parallelism, size) - 1;
+    for (int i = 0; i < helpers; i++) {
+      this.executor.execute(worker);
+    }
+    worker.run();
+    try {
+      if (deadline == null) {
+        remaining.await();
+      } else if (!remaining.await(deadline.remainingNanos(), TimeUnit.NANOSECONDS)) {
+        // the tasks left behind fail on the deadline check of their next index
+        throw new DeadlineExceededException("deadline exceeded waiting for the parallel tasks");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread()
+        .interrupt();
+      throw new RuntimeException(e);
+    }
+    final var exception = failure.get();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  protected @NotNull Stream<Path> streamFiles() {
+    final DirectoryStream<Path> directoryStream;
+    try {
+      directoryStream = Files.newDirectoryStream(this.folderPath, "*.json");
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+    return StreamSupport.stream(directoryStream.spliterator(), false)
+             .filter(Files::isRegularFile)
+             .onClose(() -> {
+               try {
+                 directoryStream.close();
+               } catch (final IOException e) {
+                 throw new RuntimeException(e);
+               }
+             });
+  }
+
   protected @NotNull Path resolveChild(final @NotNull String id) {
     return this.folderPath.resolve(id + ".json");
   }
 
   protected @Nullable ModelType internalFind(final @NotNull Path file) {
+    return this.internalFind(file, null);
+  }
+
+  protected @Nullable ModelType internalFind(final @NotNull Path file, final @Nullable Set<String> fields) {
+    Deadline.checkCurrent();
     if (Files.notExists(file)) {
       return null;
     }
@@ -157,7 +315,12 @@ public class GsonModelRepository<ModelType extends Model> extends AbstractAsyncM
       final var jsonObject = new JsonObject();
       reader.beginObject();
       while (reader.hasNext()) {
-        jsonObject.add(reader.nextName(), TypeAdapters.JSON_ELEMENT.read(reader));
+        final var name = reader.nextName();
+        if (fields == null || fields.contains(name) || name.equals(ModelRepository.ID_FIELD)) {
+          jsonObject.add(name, TypeAdapters.JSON_ELEMENT.read(reader));
+        } else {
+          reader.skipValue();
+        }
       }
       reader.endObject();
       return this.modelDeserializer.deserialize(jsonObject);
@@ -19,6 +19,7 @@ public final class GsonModelRepositoryBuilder<ModelType extends Model>
   private final Class<ModelType> modelType;
   private Path folderPath;
   private boolean prettyPrinting;
+  private int parallelism = 4;
   private ModelSerializer<ModelType, JsonObject> writer;
   private ModelDeserializer<ModelType, JsonObject> reader;
 
@@ -38,6 +39,12 @@ public final class GsonModelRepositoryBuilder<ModelType extends Model>
     return this;
   }
 
+  @Contract("_ -> this")
+  public @NotNull GsonModelRepositoryBuilder<ModelType> parallelism(final int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
   @Contract("_ -> this")
   public @NotNull GsonModelRepositoryBuilder<ModelType> modelSerializer(
     final @NotNull ModelSerializer<ModelType, JsonObject> writer
@@ -63,11 +70,15 @@ public final class GsonModelRepositoryBuilder<ModelType extends Model>
         throw new RuntimeException(e);
       }
     }
+    if (this.parallelism <= 0) {
+      this.parallelism = 1;
+    }
     return new GsonModelRepository<>(
       executor,
       this.modelType,
       this.folderPath,
       this.prettyPrinting,
+      this.parallelism,
       this.writer,
       this.reader);
   }
@@ -0,0 +1,79 @@
+package org.fenixteam.storage.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.AsyncModelRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GsonModelRepositoryTest {
+  private final Path folder = createFolder();
+  private final AsyncModelRepository<Profile> repository = GsonModelRepository.builder(Profile.class)
+                                                             .folder(this.folder)
+                                                             .modelSerializer(GsonModelRepositoryTest::serialize)
+                                                             .modelDeserializer(GsonModelRepositoryTest::deserialize)
+                                                             .build(Runnable::run);
+
+  @AfterEach
+  void close() throws IOException {
+    try (final var files = Files.walk(this.folder)) {
+      for (final var file : files.sorted(Comparator.reverseOrder())
+                              .toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test
+  void projectionLoadsOnlyTheIdAndTheRequestedFields() {
+    this.repository.saveSync(new Profile("a", "steve", 10));
+
+    assertEquals(new Profile("a", "steve", 0), this.repository.findSync("a", Set.of("name")));
+    assertEquals(new Profile("a", null, 10), this.repository.findSync("a", Set.of("score")));
+    assertEquals(new Profile("a", "steve", 10), this.repository.findSync("a"));
+  }
+
+  @Test
+  void projectionOfAMissingModelIsNull() {
+    assertNull(this.repository.findSync("a", Set.of("name")));
+  }
+
+  private static @NotNull Path createFolder() {
+    try {
+      return Files.createTempDirectory("gson-repository");
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static @NotNull JsonObject serialize(final @NotNull Profile profile) {
+    final var json = new JsonObject();
+    json.addProperty("id", profile.id());
+    json.addProperty("name", profile.name());
+    json.addProperty("score", profile.score());
+    return json;
+  }
+
+  private static @NotNull Profile deserialize(final @NotNull JsonObject json) {
+    return new Profile(
+      json.get("id")
+        .getAsString(),
+      json.has("name") ? json.get("name")
+                           .getAsString() : null,
+      json.has("score") ? json.get("score")
+                            .getAsInt() : 0);
+  }
+
+  private record Profile(@NotNull String id, @Nullable String name, int score) implements Model {
+  }
+}
@@ -1,19 +1,51 @@
 package org.fenixteam.storage.mongo;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.fenixteam.storage.codec.DirtyFieldTracker;
+import org.fenixteam.storage.codec.FieldChanges;
 import org.fenixteam.storage.codec.ModelDeserializer;
 import org.fenixteam.storage.codec.ModelSerializer;
 import org.fenixteam.storage.model.Model;
 import org.fenixteam.storage.repository.AbstractAsyncModelRepository;
+import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.fenixteam.storage.repository.page.KeysetPages;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.fenixteam.storage.repository.query.Filter;
+import org.fenixteam.storage.repository.query.Query;
+import org.fenixteam.storage.repository.query.Sort;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -21,20 +53,54 @@ import org.jetbrains.annotations.Nullable;
 @SuppressWarnings("unused")
 public class MongoModelRepository<ModelType extends Model> extends AbstractAsyncModelRepository<ModelType> {
   public static final String ID_FIELD = "_id";
+  /**
+   * The field holding the version of the stored documents, incremented by every write when versioned
+   * writes are enabled.
+   */
+  public static final String VERSION_FIELD = "_version";
+  protected static final int MAX_COMPUTE_ATTEMPTS = 8;
+  private static final ReplaceOptions UPSERT_OPTIONS = new ReplaceOptions().upsert(true);
+  private static final BulkWriteOptions UNORDERED_OPTIONS = new BulkWriteOptions().ordered(false);
+  private static final UpdateOptions UPSERT_UPDATE_OPTIONS = new UpdateOptions().upsert(true);
   protected final MongoCollection<Document> mongoCollection;
   protected final ModelSerializer<ModelType, Document> modelSerializer;
   protected final ModelDeserializer<ModelType, Document> modelDeserializer;
+  protected final @Nullable DirtyFieldTracker<Object> dirtyFieldTracker;
+  protected final boolean versionedWrites;
 
   protected MongoModelRepository(
     final @NotNull Executor executor,
     final @NotNull MongoCollection<Document> mongoCollection,
     final @NotNull ModelSerializer<ModelType, Document> modelSerializer,
     final @NotNull ModelDeserializer<ModelType, Document> modelDeserializer
+  ) {
+    this(executor, mongoCollection, modelSerializer, modelDeserializer, null);
+  }
+
+  protected MongoModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull MongoCollection<Document> mongoCollection,
+    final @NotNull ModelSerializer<ModelType, Document> modelSerializer,
+    final @NotNull ModelDeserializer<ModelType, Document> modelDeserializer,
+    final @Nullable DirtyFieldTracker<Object> dirtyFieldTracker
+  ) {
+    this(executor, mongoCollection, modelSerializer, modelDeserializer, dirtyFieldTracker, false);
+  }
+
+  protected MongoModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull MongoCollection<Document> mongoCollection,
+    final @NotNull ModelSerializer<ModelType, Document> modelSerializer,
+    final @NotNull ModelDeserializer<ModelType, Document> modelDeserializer,
+    final @Nullable DirtyFieldTracker<Object> dirtyFieldTracker,
+    final boolean versionedWrites
   ) {
     super(executor);
     this.mongoCollection = mongoCollection;
     this.modelSerializer = modelSerializer;
     this.modelDeserializer = modelDeserializer;
+    this.dirtyFieldTracker = dirtyFieldTracker;
+    this.versionedWrites = versionedWrites;
   }
 
   @Contract(value = " -> new")
@@ -44,7 +110,21 @@ public class MongoModelRepository<ModelType extends Model> extends AbstractAsync
 
   @Override
   public @Nullable ModelType findSync(final @NotNull String id) {
-    final var document = this.mongoCollection.find(Filters.eq(ID_FIELD, id))
+    final var stamp = this.trackerStamp();
+    final var document = this.findDocuments(Filters.eq(ID_FIELD, id))
+                           .first();
+    if (document == null) {
+      return null;
+    }
+    return this.readModel(document, stamp);
+  }
+
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    final var document = this.findDocuments(Filters.eq(ID_FIELD, id))
+                           .projection(Projections.include(fields.stream()
+                                                             .map(this::fieldName)
+                                                             .toList()))
                            .first();
     if (document == null) {
       return null;
@@ -59,16 +139,82 @@ public class MongoModelRepository<ModelType extends Model> extends AbstractAsync
     final @NotNull Function<Integer, C> factory
   ) {
     final var foundModels = factory.apply(1);
-    for (final var document : this.mongoCollection.find(Filters.eq(field, value))) {
+    for (final var document : this.findDocuments(Filters.eq(field, value))) {
+      foundModels.add(this.modelDeserializer.deserialize(document));
+    }
+    return foundModels;
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var foundModels = factory.apply(ids.size());
+    if (ids.isEmpty()) {
+      return foundModels;
+    }
+    for (final var document : this.findDocuments(Filters.in(ID_FIELD, ids))) {
+      foundModels.add(this.modelDeserializer.deserialize(document));
+    }
+    return foundModels;
+  }
+
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    KeysetPages.checkLimit(limit);
+    final var filter = continuationToken == null ? Filters.empty() : Filters.gt(ID_FIELD, continuationToken);
+    final var documents = this.findDocuments(filter)
+                            .sort(Sorts.ascending(ID_FIELD))
+                            .limit(limit);
+    final var models = new ArrayList<ModelType>(limit);
+    for (final var document : documents) {
+      models.add(this.modelDeserializer.deserialize(document));
+    }
+    return KeysetPages.of(models, limit);
+  }
+
+  @Override
+  public boolean supportsQuery(final @NotNull Query query) {
+    return true;
+  }
+
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C querySync(
+    final @NotNull Query query,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var filter = query.filter();
+    final var documents = this.findDocuments(filter == null ? Filters.empty() : this.toBson(filter))
+                            .skip(query.skip())
+                            .limit(query.limit());
+    if (!query.sorts()
+           .isEmpty()) {
+      documents.sort(Sorts.orderBy(query.sorts()
+                                     .stream()
+                                     .map(this::toBson)
+                                     .toList()));
+    }
+    if (!query.projection()
+           .isEmpty()) {
+      documents.projection(Projections.include(query.projection()
+                                                 .stream()
+                                                 .map(this::fieldName)
+                                                 .toList()));
+    }
+    final var foundModels = factory.apply(query.limit() == 0 ? DEFAULT_BATCH_SIZE : query.limit());
+    for (final var document : documents) {
       foundModels.add(this.modelDeserializer.deserialize(document));
     }
-    return null;
+    return foundModels;
   }
 
   @Override
   public @Nullable Collection<String> findIdsSync() {
     final var ids = new ArrayList<String>();
-    for (final var document : this.mongoCollection.find(Projections.include(ID_FIELD))) {
+    final var documents = this.findDocuments(Filters.empty())
+                            .projection(Projections.include(ID_FIELD));
+    for (final var document : documents) {
       ids.add(document.getString(ID_FIELD));
     }
     return ids;
@@ -79,9 +225,9 @@ public class MongoModelRepository<ModelType extends Model> extends AbstractAsync
     final @NotNull Consumer<ModelType> postLoadAction,
     final @NotNull Function<Integer, C> factory
   ) {
-    final var documents = this.mongoCollection.find()
-                            .into(new ArrayList<>());
-    final var foundModels = factory.apply(documents.size());
+    final var documents = this.findDocuments(Filters.empty())
+                            .batchSize(DEFAULT_BATCH_SIZE);
+    final var foundModels = factory.apply(DEFAULT_BATCH_SIZE);
     for (final var document : documents) {
       final var model = this.modelDeserializer.deserialize(document);
       postLoadAction.accept(model);
@@ -90,27 +236,435 @@ public class MongoModelRepository<ModelType extends Model> extends AbstractAsync
     return foundModels;
   }
 
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    final var cursor = this.mongoCollection.find()
+                         .projection(Projections.include(ID_FIELD))
+                         .batchSize(batchSize)
+                         .cursor();
+    return this.stream(cursor)
+             .map(document -> document.getString(ID_FIELD));
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    final var cursor = this.mongoCollection.find()
+                         .batchSize(batchSize)
+                         .cursor();
+    return this.stream(cursor)
+             .map(this.modelDeserializer::deserialize);
+  }
+
   @Override
   public boolean existsSync(final @NotNull String id) {
-    return this.mongoCollection.find(Filters.and(
-        Filters.eq(ID_FIELD, id),
-        Projections.include(ID_FIELD)))
+    return this.findDocuments(Filters.eq(ID_FIELD, id))
+             .projection(Projections.include(ID_FIELD))
              .first() != null;
   }
 
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    final var existingIds = new ArrayList<String>(ids.size());
+    if (ids.isEmpty()) {
+      return existingIds;
+    }
+    final var documents = this.findDocuments(Filters.in(ID_FIELD, ids))
+                            .projection(Projections.include(ID_FIELD));
+    for (final var document : documents) {
+      existingIds.add(document.getString(ID_FIELD));
+    }
+    return existingIds;
+  }
+
+  /**
+   * Replaces the stored document, writing only the changed fields with dirty field tracking, and
+   * increments its version with versioned writes.
+   *
+   * @param model the model
+   * @return the given model
+   */
   @Override
   public @NotNull ModelType saveSync(final @NotNull ModelType model) {
-    this.mongoCollection.replaceOne(
-      Filters.eq(ID_FIELD, model.id()),
-      this.modelSerializer.serialize(model),
-      new ReplaceOptions().upsert(true)
-    );
+    Deadline.checkCurrent();
+    final var document = this.modelSerializer.serialize(model);
+    if (this.dirtyFieldTracker == null) {
+      this.replace(model.id(), document);
+      return model;
+    }
+    this.dirtyFieldTracker.write(model.id(), document, changes -> {
+      if (changes.full()) {
+        this.replace(model.id(), document);
+        return;
+      }
+      final var result = this.mongoCollection.updateOne(Filters.eq(ID_FIELD, model.id()), this.toUpdate(changes));
+      if (result.getMatchedCount() == 0) {
+        // deleted by someone else meanwhile, the update alone would lose the unchanged fields
+        this.replace(model.id(), document);
+      }
+    });
     return model;
   }
 
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    if (models.isEmpty()) {
+      return models;
+    }
+    Deadline.checkCurrent();
+    final var documents = new LinkedHashMap<String, Document>(models.size());
+    for (final var model : models) {
+      documents.put(model.id(), this.modelSerializer.serialize(model));
+    }
+    if (this.dirtyFieldTracker == null) {
+      this.replaceAll(documents, documents.keySet());
+      return models;
+    }
+    this.dirtyFieldTracker.writeAll(documents, changesById -> {
+      final var replacedIds = new ArrayList<String>();
+      final var updatedIds = new ArrayList<String>();
+      final var updates = new ArrayList<UpdateOneModel<Document>>();
+      for (final var entry : changesById.entrySet()) {
+        if (entry.getValue()
+              .full()) {
+          replacedIds.add(entry.getKey());
+        } else {
+          updatedIds.add(entry.getKey());
+          updates.add(new UpdateOneModel<>(Filters.eq(ID_FIELD, entry.getKey()), this.toUpdate(entry.getValue())));
+        }
+      }
+      if (!updates.isEmpty() && this.mongoCollection.bulkWrite(updates, UNORDERED_OPTIONS)
+                                  .getMatchedCount() < updates.size()) {
+        // some were deleted by someone else meanwhile, they can't be told apart so all are replaced
+        replacedIds.addAll(updatedIds);
+      }
+      if (!replacedIds.isEmpty()) {
+        this.replaceAll(documents, replacedIds);
+      }
+    });
+    return models;
+  }
+
+  @Override
+  public boolean supportsPatch(final @NotNull Patch patch) {
+    return true;
+  }
+
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    Deadline.checkCurrent();
+    final var updates = new ArrayList<Bson>(Math.max(patch.operations()
+                                                       .size(), 1));
+    for (final var operation : patch.operations()) {
+      updates.add(this.toBson(operation));
+    }
+    if (updates.isEmpty()) {
+      // an empty update document is rejected, this one only matters for upserts
+      updates.add(Updates.setOnInsert(ID_FIELD, id));
+    } else if (this.versionedWrites && !this.touches(patch, VERSION_FIELD)) {
+      updates.add(Updates.inc(VERSION_FIELD, 1L));
+    }
+    final var update = Updates.combine(updates);
+    final var options = patch.isUpsert() ? UPSERT_UPDATE_OPTIONS : new UpdateOptions();
+    if (this.dirtyFieldTracker == null) {
+      final var result = this.mongoCollection.updateOne(Filters.eq(ID_FIELD, id), update, options);
+      return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+    }
+    return this.dirtyFieldTracker.writeUntracked(id, () -> {
+      final var result = this.mongoCollection.updateOne(Filters.eq(ID_FIELD, id), update, options);
+      return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+    });
+  }
+
+  /**
+   * Applies the function optimistically, writing the new document only if the version read with
+   * the current one is still stored, and retrying a bounded amount of times otherwise.
+   *
+   * @param id       the model id
+   * @param function the function computing the new model
+   * @return the stored model, or {@code null} if there is none
+   * @throws UnsupportedOperationException if versioned writes aren't enabled
+   */
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    if (!this.versionedWrites) {
+      throw new UnsupportedOperationException("Atomic updates require versioned writes, enable them with "
+                                                + "MongoModelRepositoryBuilder#versionedWrites()");
+    }
+    if (this.dirtyFieldTracker == null) {
+      return this.internalCompute(id, function);
+    }
+    return this.dirtyFieldTracker.writeUntracked(id, () -> this.internalCompute(id, function));
+  }
+
+  protected @Nullable ModelType internalCompute(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    for (int attempt = 0; attempt < MAX_COMPUTE_ATTEMPTS; attempt++) {
+      Deadline.checkCurrent();
+      final var document = this.findDocuments(Filters.eq(ID_FIELD, id))
+                             .first();
+      final var model = function.apply(document == null ? null : this.modelDeserializer.deserialize(document));
+      if (document == null) {
+        if (model == null || this.insertVersioned(model)) {
+          return model;
+        }
+        continue;
+      }
+      final var version = document.get(VERSION_FIELD) instanceof Number number ? number.longValue() : null;
+      final var filter = Filters.and(
+        Filters.eq(ID_FIELD, id),
+        version == null ? Filters.exists(VERSION_FIELD, false) : Filters.eq(VERSION_FIELD, version));
+      if (model == null) {
+        if (this.mongoCollection.deleteOne(filter)
+              .getDeletedCount() > 0) {
+          return null;
+        }
+        continue;
+      }
+      final var newDocument = this.modelSerializer.serialize(model);
+      newDocument.put(VERSION_FIELD, version == null ? 0L : version + 1);
+      if (this.mongoCollection.replaceOne(filter, newDocument)
+            .getMatchedCount() > 0) {
+        return model;
+      }
+    }
+    throw new IllegalStateException("Model '" + id + "' kept changing while computing it, gave up after "
+                                      + MAX_COMPUTE_ATTEMPTS + " attempts");
+  }
+
   @Override
   public boolean deleteSync(final @NotNull String id) {
-    return this.mongoCollection.deleteOne(Filters.eq(ID_FIELD, id))
-             .wasAcknowledged();
+    Deadline.checkCurrent();
+    if (this.dirtyFieldTracker == null) {
+      return this.mongoCollection.deleteOne(Filters.eq(ID_FIELD, id))
+               .wasAcknowledged();
+    }
+    return this.dirtyFieldTracker.writeUntracked(id, () -> this.mongoCollection.deleteOne(Filters.eq(ID_FIELD, id))
+                                                             .wasAcknowledged());
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return false;
+    }
+    Deadline.checkCurrent();
+    if (this.dirtyFieldTracker == null) {
+      return this.mongoCollection.deleteMany(Filters.in(ID_FIELD, ids))
+               .getDeletedCount() > 0;
+    }
+    return this.dirtyFieldTracker.writeUntracked(ids, () -> this.mongoCollection.deleteMany(Filters.in(ID_FIELD, ids))
+                                                              .getDeletedCount() > 0);
+  }
+
+  /**
+   * Starts a find sent with the {@link Deadline} of the current thread, if any, as {@code maxTime}.
+   *
+   * @param filter the filter
+   * @return the find
+   */
+  protected @NotNull FindIterable<Document> findDocuments(final @NotNull Bson filter) {
+    final var documents = this.mongoCollection.find(filter);
+    final var deadline = Deadline.current();
+    if (deadline == null) {
+      return documents;
+    }
+    deadline.check();
+    return documents.maxTime(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  public @Nullable DirtyFieldTracker<Object> dirtyFieldTracker() {
+    return this.dirtyFieldTracker;
+  }
+
+  protected @NotNull ModelType readModel(final @NotNull Document document, final long stamp) {
+    if (this.dirtyFieldTracker != null) {
+      final var fields = MongoModelRepository.withoutVersion(document);
+      this.dirtyFieldTracker.recordLoaded(document.getString(ID_FIELD), fields, stamp);
+    }
+    return this.modelDeserializer.deserialize(document);
+  }
+
+  protected long trackerStamp() {
+    return this.dirtyFieldTracker == null ? 0 : this.dirtyFieldTracker.stamp();
+  }
+
+  private boolean insertVersioned(final @NotNull ModelType model) {
+    final var document = this.modelSerializer.serialize(model);
+    document.put(VERSION_FIELD, 0L);
+    try {
+      this.mongoCollection.insertOne(document);
+      return true;
+    } catch (final MongoWriteException e) {
+      if (ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  protected @NotNull Bson toUpdate(final @NotNull FieldChanges<Object> changes) {
+    final var updates = new ArrayList<Bson>(changes.changed()
+                                              .size() + changes.removed()
+                                                          .size());
+    for (final var entry : changes.changed()
+                             .entrySet()) {
+      updates.add(Updates.set(entry.getKey(), entry.getValue()));
+    }
+    for (final var field : changes.removed()) {
+      updates.add(Updates.unset(field));
+    }
+    if (this.versionedWrites && !changes.changed()
+                                   .containsKey(VERSION_FIELD) && !changes.removed()
+                                                                    .contains(VERSION_FIELD)) {
+      // detected by concurrent computations, see computeSync
+      updates.add(Updates.inc(VERSION_FIELD, 1L));
+    }
+    return Updates.combine(updates);
+  }
+
+  private boolean touches(final @NotNull Patch patch, final @NotNull String field) {
+    for (final var operation : patch.operations()) {
+      if (operation.field()
+            .equals(field)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void replace(final @NotNull String id, final @NotNull Document document) {
+    if (!this.versionedWrites) {
+      this.mongoCollection.replaceOne(Filters.eq(ID_FIELD, id), document, UPSERT_OPTIONS);
+      return;
+    }
+    final var update = MongoModelRepository.versionedReplacement(document);
+    this.mongoCollection.updateOne(Filters.eq(ID_FIELD, id), update, UPSERT_UPDATE_OPTIONS);
+  }
+
+  private void replaceAll(final @NotNull Map<String, Document> documents, final @NotNull Collection<String> ids) {
+    final var writes = new ArrayList<WriteModel<Document>>(ids.size());
+    for (final var id : ids) {
+      if (this.versionedWrites) {
+        writes.add(new UpdateOneModel<>(
+          Filters.eq(ID_FIELD, id),
+          MongoModelRepository.versionedReplacement(documents.get(id)),
+          UPSERT_UPDATE_OPTIONS));
+      } else {
+        writes.add(new ReplaceOneModel<>(Filters.eq(ID_FIELD, id), documents.get(id), UPSERT_OPTIONS));
+      }
+    }
+    this.mongoCollection.bulkWrite(writes, UNORDERED_OPTIONS);
+  }
+
+  /**
+   * Builds the pipeline update upserting a document and incrementing its version, which needs
+   * MongoDB 4.2.
+   *
+   * @param document the new document, without version
+   * @return the pipeline update
+   */
+  static @NotNull List<Document> versionedReplacement(final @NotNull Document document) {
+    final var storedVersion = new Document("$ifNull", List.of("$" + VERSION_FIELD, -1L));
+    final var version = new Document("$add", List.of(storedVersion, 1L));
+    // $literal keeps the string values starting with $ from being read as field paths
+    final var replacement = new Document("$mergeObjects", List.of(
+      new Document("$literal", document),
+      new Document(VERSION_FIELD, version)));
+    return List.of(new Document("$replaceWith", replacement));
+  }
+
+  /**
+   * Returns the fields of a stored document without its version.
+   *
+   * @param document the stored document
+   * @return the serialized fields
+   */
+  static @NotNull Document withoutVersion(final @NotNull Document document) {
+    if (!document.containsKey(VERSION_FIELD)) {
+      return document;
+    }
+    final var fields = new Document(document);
+    fields.remove(VERSION_FIELD);
+    return fields;
+  }
+
+  protected @NotNull Bson toBson(final @NotNull Filter filter) {
+    if (filter instanceof Filter.Eq eq) {
+      return Filters.eq(this.fieldName(eq.field()), eq.value());
+    }
+    if (filter instanceof Filter.In in) {
+      return Filters.in(this.fieldName(in.field()), in.values());
+    }
+    if (filter instanceof Filter.Range range) {
+      final var field = this.fieldName(range.field());
+      final var bounds = new ArrayList<Bson>(2);
+      if (range.from() != null) {
+        bounds.add(range.fromInclusive() ? Filters.gte(field, range.from()) : Filters.gt(field, range.from()));
+      }
+      if (range.to() != null) {
+        bounds.add(range.toInclusive() ? Filters.lte(field, range.to()) : Filters.lt(field, range.to()));
+      }
+      return bounds.size() == 1 ? bounds.get(0) : Filters.and(bounds);
+    }
+    if (filter instanceof Filter.And and) {
+      return Filters.and(this.toBson(and.filters()));
+    }
+    return Filters.or(this.toBson(((Filter.Or) filter).filters()));
+  }
+
+  protected @NotNull Bson toBson(final @NotNull Patch.Operation operation) {
+    final var field = this.fieldName(operation.field());
+    if (operation instanceof Patch.Operation.Set set) {
+      return Updates.set(field, set.value());
+    }
+    if (operation instanceof Patch.Operation.Unset) {
+      return Updates.unset(field);
+    }
+    if (operation instanceof Patch.Operation.Increment increment) {
+      return Updates.inc(field, increment.amount());
+    }
+    if (operation instanceof Patch.Operation.Push push) {
+      return Updates.push(field, push.value());
+    }
+    if (operation instanceof Patch.Operation.Pull pull) {
+      return Updates.pull(field, pull.value());
+    }
+    return Updates.setOnInsert(field, ((Patch.Operation.SetOnInsert) operation).value());
+  }
+
+  protected @NotNull Bson toBson(final @NotNull Sort sort) {
+    final var field = this.fieldName(sort.field());
+    return sort.ascending() ? Sorts.ascending(field) : Sorts.descending(field);
+  }
+
+  /**
+   * Maps the model id field to the document id field, the other fields are used as is.
+   *
+   * @param field the query field
+   * @return the document field
+   */
+  protected @NotNull String fieldName(final @NotNull String field) {
+    return field.equals(ModelRepository.ID_FIELD) ? ID_FIELD : field;
+  }
+
+  private @NotNull List<Bson> toBson(final @NotNull List<Filter> filters) {
+    return filters.stream()
+             .map(this::toBson)
+             .toList();
+  }
+
+  protected @NotNull Stream<Document> stream(final @NotNull MongoCursor<Document> cursor) {
+    final var spliterator = Spliterators.spliteratorUnknownSize(
+      cursor,
+      Spliterator.ORDERED | Spliterator.NONNULL);
+    return StreamSupport.stream(spliterator, false)
+             .onClose(cursor::close);
   }
 }
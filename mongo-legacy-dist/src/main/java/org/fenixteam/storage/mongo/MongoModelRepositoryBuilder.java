@@ -3,9 +3,11 @@ package org.fenixteam.storage.mongo;
 import com.mongodb.client.MongoDatabase;
 import java.util.concurrent.Executor;
 import org.bson.Document;
+import org.fenixteam.storage.codec.DirtyFieldTracker;
 import org.fenixteam.storage.codec.ModelDeserializer;
 import org.fenixteam.storage.codec.ModelSerializer;
 import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.mongo.codec.DocumentWriter;
 import org.fenixteam.storage.repository.AsyncModelRepository;
 import org.fenixteam.storage.repository.builder.AbstractModelRepositoryBuilder;
 import org.jetbrains.annotations.Contract;
@@ -18,6 +20,8 @@ public final class MongoModelRepositoryBuilder<ModelType extends Model>
   private String collectionName;
   private ModelSerializer<ModelType, Document> modelSerializer;
   private ModelDeserializer<ModelType, Document> modelDeserializer;
+  private int trackedModels;
+  private boolean versionedWrites;
 
   MongoModelRepositoryBuilder() {
   }
@@ -50,9 +54,55 @@ public final class MongoModelRepositoryBuilder<ModelType extends Model>
     return this;
   }
 
+  /**
+   * Enables dirty field tracking, so a save only writes the fields changed since the document was
+   * last written or read. No other process may write to the collection.
+   *
+   * @return this builder
+   */
+  @Contract(" -> this")
+  public @NotNull MongoModelRepositoryBuilder<ModelType> trackDirtyFields() {
+    return this.trackDirtyFields(DirtyFieldTracker.DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Enables dirty field tracking of at most {@code maxTrackedModels} documents, the saves of the others
+   * write every field.
+   *
+   * @param maxTrackedModels the maximum amount of remembered documents
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull MongoModelRepositoryBuilder<ModelType> trackDirtyFields(final int maxTrackedModels) {
+    if (maxTrackedModels < 1) {
+      throw new IllegalArgumentException("maxTrackedModels must be positive");
+    }
+    this.trackedModels = maxTrackedModels;
+    return this;
+  }
+
+  /**
+   * Versions every write in the {@link MongoModelRepository#VERSION_FIELD} field of the stored
+   * documents, which enables {@code computeSync} and {@code updateSync}. The documents read by other
+   * processes or deserializers then contain that field, and the saves require MongoDB 4.2 or newer.
+   *
+   * @return this builder
+   */
+  @Contract(" -> this")
+  public @NotNull MongoModelRepositoryBuilder<ModelType> versionedWrites() {
+    this.versionedWrites = true;
+    return this;
+  }
+
   @Contract("_ -> new")
   public @NotNull AsyncModelRepository<ModelType> build(final @NotNull Executor executor) {
     final var collection = this.database.getCollection(this.collectionName);
-    return new MongoModelRepository<>(executor, collection, this.modelSerializer, this.modelDeserializer);
+    return new MongoModelRepository<>(
+      executor,
+      collection,
+      this.modelSerializer,
+      this.modelDeserializer,
+      this.trackedModels > 0 ? DirtyFieldTracker.create(DocumentWriter::copyValue, this.trackedModels) : null,
+      this.versionedWrites);
   }
 }
@@ -1,6 +1,11 @@
 package org.fenixteam.storage.mongo.codec;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import org.bson.Document;
 import org.fenixteam.storage.codec.AbstractObjectModelWriter;
@@ -82,6 +87,45 @@ public class DocumentWriter extends AbstractObjectModelWriter<Document> {
     return serializedUuid;
   }
 
+  /**
+   * Deeply copies a written value, so that documents and collections shared with the model aren't
+   * affected by later changes of the model. Other values are assumed immutable.
+   *
+   * @param value the value
+   * @return the copy
+   */
+  public static @Nullable Object copyValue(final @Nullable Object value) {
+    if (value instanceof Document document) {
+      final var copy = new Document();
+      for (final var entry : document.entrySet()) {
+        copy.append(entry.getKey(), copyValue(entry.getValue()));
+      }
+      return copy;
+    }
+    if (value instanceof Map<?, ?> map) {
+      final var copy = new LinkedHashMap<Object, Object>(map.size());
+      for (final var entry : map.entrySet()) {
+        copy.put(entry.getKey(), copyValue(entry.getValue()));
+      }
+      return copy;
+    }
+    if (value instanceof Set<?> set) {
+      final var copy = new LinkedHashSet<Object>(set.size());
+      for (final var element : set) {
+        copy.add(copyValue(element));
+      }
+      return copy;
+    }
+    if (value instanceof Collection<?> collection) {
+      final var copy = new ArrayList<Object>(collection.size());
+      for (final var element : collection) {
+        copy.add(copyValue(element));
+      }
+      return copy;
+    }
+    return value;
+  }
+
   @Override
   public @NotNull Document current() {
     return this.document;
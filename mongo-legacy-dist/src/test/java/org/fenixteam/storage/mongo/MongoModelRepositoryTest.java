@@ -0,0 +1,159 @@
+package org.fenixteam.storage.mongo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.fenixteam.storage.model.Model;
+import org.fenixteam.storage.repository.patch.Patch;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+class MongoModelRepositoryTest {
+  private static final UpdateResult MATCHED = new UpdateResult() {
+    @Override
+    public boolean wasAcknowledged() {
+      return true;
+    }
+
+    @Override
+    public long getMatchedCount() {
+      return 1;
+    }
+
+    @Override
+    public long getModifiedCount() {
+      return 1;
+    }
+
+    @Override
+    public BsonValue getUpsertedId() {
+      return null;
+    }
+  };
+
+  private final List<String> calls = new ArrayList<>();
+  private Object update;
+
+  @Test
+  void unversionedSaveReplacesTheDocument() {
+    this.repository(false)
+      .saveSync(new NamedModel("a", "steve"));
+
+    assertEquals(List.of("replaceOne"), this.calls);
+  }
+
+  @Test
+  void versionedSaveUpdatesThroughThePipeline() {
+    this.repository(true)
+      .saveSync(new NamedModel("a", "steve"));
+
+    assertEquals(List.of("updateOne"), this.calls);
+  }
+
+  @Test
+  void computeRequiresVersionedWrites() {
+    final var repository = this.repository(false);
+
+    assertThrows(UnsupportedOperationException.class, () -> repository.computeSync("a", model -> model));
+    assertEquals(List.of(), this.calls);
+  }
+
+  @Test
+  void patchIsSentAsASingleUpdate() {
+    final var patched = this.repository(false)
+                          .patchSync("a", Patch.create()
+                                            .set("name", "alex")
+                                            .inc("score", 1));
+
+    assertTrue(patched);
+    assertEquals(List.of("updateOne"), this.calls);
+    assertEquals(Updates.combine(Updates.set("name", "alex"), Updates.inc("score", 1)), this.update);
+  }
+
+  @Test
+  void versionedPatchIncrementsTheVersion() {
+    this.repository(true)
+      .patchSync("a", Patch.create()
+                        .set("name", "alex"));
+
+    assertEquals(
+      Updates.combine(Updates.set("name", "alex"), Updates.inc(MongoModelRepository.VERSION_FIELD, 1L)),
+      this.update);
+  }
+
+  @Test
+  void emptyUpsertOnlyInsertsTheId() {
+    this.repository(true)
+      .patchSync("a", Patch.create()
+                        .upsert());
+
+    assertEquals(Updates.combine(Updates.setOnInsert(MongoModelRepository.ID_FIELD, "a")), this.update);
+  }
+
+  @Test
+  void replacementIncrementsStoredVersion() {
+    final var document = new Document("_id", "a").append("name", "$steve");
+    final var version = new Document("$add", List.of(new Document("$ifNull", List.of("$_version", -1L)), 1L));
+    final var expected = new Document("$replaceWith", new Document("$mergeObjects", List.of(
+      new Document("$literal", document),
+      new Document(MongoModelRepository.VERSION_FIELD, version))));
+
+    assertEquals(List.of(expected), MongoModelRepository.versionedReplacement(document));
+  }
+
+  @Test
+  void loadedVersionIsNotTracked() {
+    final var document = new Document("_id", "a").append("name", "Steve")
+                           .append(MongoModelRepository.VERSION_FIELD, 3L);
+
+    final var fields = MongoModelRepository.withoutVersion(document);
+
+    assertFalse(fields.containsKey(MongoModelRepository.VERSION_FIELD));
+    assertEquals(new Document("_id", "a").append("name", "Steve"), fields);
+    assertEquals(3L, document.get(MongoModelRepository.VERSION_FIELD));
+  }
+
+  @Test
+  void unversionedDocumentIsKept() {
+    final var document = new Document("_id", "a");
+
+    assertSame(document, MongoModelRepository.withoutVersion(document));
+  }
+
+  @SuppressWarnings("unchecked")
+  private @NotNull MongoModelRepository<NamedModel> repository(final boolean versionedWrites) {
+    final var collection = (MongoCollection<Document>) Proxy.newProxyInstance(
+      MongoCollection.class.getClassLoader(),
+      new Class<?>[] {MongoCollection.class},
+      (proxy, method, args) -> {
+        this.calls.add(method.getName());
+        if (!method.getName()
+               .equals("updateOne")) {
+          return null;
+        }
+        this.update = args[1];
+        return MATCHED;
+      });
+    return new MongoModelRepository<>(
+      Runnable::run,
+      collection,
+      model -> new Document("_id", model.id()).append("name", model.name()),
+      document -> new NamedModel(document.getString("_id"), document.getString("name")),
+      null,
+      versionedWrites);
+  }
+
+  private record NamedModel(@NotNull String id, @NotNull String name) implements Model {
+  }
+}
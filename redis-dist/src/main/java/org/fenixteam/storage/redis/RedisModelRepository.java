@@ -1,6 +1,8 @@
 package org.fenixteam.storage.redis;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
@@ -9,29 +11,54 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.fenixteam.storage.codec.DirtyFieldTracker;
+import org.fenixteam.storage.codec.FieldChanges;
 import org.fenixteam.storage.codec.ModelDeserializer;
 import org.fenixteam.storage.codec.ModelSerializer;
 import org.fenixteam.storage.model.Model;
 import org.fenixteam.storage.repository.AbstractAsyncModelRepository;
 import org.fenixteam.storage.repository.ModelRepository;
+import org.fenixteam.storage.repository.deadline.Deadline;
+import org.fenixteam.storage.repository.page.KeysetPages;
+import org.fenixteam.storage.repository.page.Page;
+import org.fenixteam.storage.repository.patch.Patch;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.ScanParams;
 
 @SuppressWarnings("unused")
 public class RedisModelRepository<ModelType extends Model> extends AbstractAsyncModelRepository<ModelType> {
+  protected static final int MAX_TRANSACTION_ATTEMPTS = 8;
   protected final ModelSerializer<ModelType, JsonObject> modelSerializer;
   protected final ModelDeserializer<ModelType, JsonObject> modelDeserializer;
   protected final JedisPool jedisPool;
   protected final String tableName;
   protected final int expireAfterSave;
   protected final int expireAfterAccess;
+  protected final @Nullable DirtyFieldTracker<String> dirtyFieldTracker;
 
   protected RedisModelRepository(
     final @NotNull Executor executor,
@@ -41,8 +68,22 @@ public class RedisModelRepository<ModelType extends Model> extends AbstractAsync
     final @NotNull String tableName,
     final int expireAfterSave,
     final int expireAfterAccess
+  ) {
+    this(executor, modelSerializer, modelDeserializer, jedisPool, tableName, expireAfterSave, expireAfterAccess, null);
+  }
+
+  protected RedisModelRepository(
+    final @NotNull Executor executor,
+    final @NotNull ModelSerializer<ModelType, JsonObject> modelSerializer,
+    final @NotNull ModelDeserializer<ModelType, JsonObject> modelDeserializer,
+    final @NotNull JedisPool jedisPool,
+    final @NotNull String tableName,
+    final int expireAfterSave,
+    final int expireAfterAccess,
+    final @Nullable DirtyFieldTracker<String> dirtyFieldTracker
   ) {
     super(executor);
+    this.dirtyFieldTracker = dirtyFieldTracker;
     this.modelSerializer = modelSerializer;
     this.modelDeserializer = modelDeserializer;
     this.jedisPool = jedisPool;
@@ -56,23 +97,31 @@ public class RedisModelRepository<ModelType extends Model> extends AbstractAsync
     return new RedisModelRepositoryBuilder<>();
   }
 
+  /**
+   * Writes the fields of the model, only the changed ones with dirty field tracking.
+   *
+   * @param model the model
+   * @return the given model
+   */
   @Override
   public @NotNull ModelType saveSync(final @NotNull ModelType model) {
-    try (final var jedis = this.jedisPool.getResource()) {
-      final var object = this.modelSerializer.serialize(model);
-      final var map = new HashMap<String, String>(object.size());
-      for (final var entry : object.entrySet()) {
-        final var stringWriter = new StringWriter();
-        try (final var writer = new JsonWriter(stringWriter)) {
-          writer.setSerializeNulls(false);
-          TypeAdapters.JSON_ELEMENT.write(writer, entry.getValue());
-        } catch (final IOException e) {
-          throw new RuntimeException(e);
+    final var key = this.tableName + ":" + model.id();
+    if (this.dirtyFieldTracker != null) {
+      this.dirtyFieldTracker.write(model.id(), this.writeModel(model), changes -> {
+        try (
+          final var connection = this.connection();
+          final var pipeline = connection.jedis()
+                                 .pipelined()
+        ) {
+          this.writeChanges(pipeline, key, changes);
+          pipeline.sync();
         }
-        map.put(entry.getKey(), stringWriter.toString());
-      }
-      final var key = this.tableName + ":" + model.id();
-      jedis.hset(key, map);
+      });
+      return model;
+    }
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
+      jedis.hset(key, this.writeModel(model));
       if (this.expireAfterSave > 0) {
         jedis.expire(key, this.expireAfterSave);
       }
@@ -80,21 +129,268 @@ public class RedisModelRepository<ModelType extends Model> extends AbstractAsync
     }
   }
 
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C saveManySync(final @NotNull C models) {
+    if (models.isEmpty()) {
+      return models;
+    }
+    if (this.dirtyFieldTracker != null) {
+      final var modelFields = new HashMap<String, Map<String, String>>(models.size());
+      for (final var model : models) {
+        modelFields.put(model.id(), this.writeModel(model));
+      }
+      this.dirtyFieldTracker.writeAll(modelFields, changesById -> {
+        try (
+          final var connection = this.connection();
+          final var pipeline = connection.jedis()
+                                 .pipelined()
+        ) {
+          for (final var entry : changesById.entrySet()) {
+            this.writeChanges(pipeline, this.tableName + ":" + entry.getKey(), entry.getValue());
+          }
+          pipeline.sync();
+        }
+      });
+      return models;
+    }
+    try (
+      final var connection = this.connection();
+      final var pipeline = connection.jedis()
+                             .pipelined()
+    ) {
+      for (final var model : models) {
+        final var key = this.tableName + ":" + model.id();
+        pipeline.hset(key, this.writeModel(model));
+        if (this.expireAfterSave > 0) {
+          pipeline.expire(key, this.expireAfterSave);
+        }
+      }
+      pipeline.sync();
+      return models;
+    }
+  }
+
+  /**
+   * Push and pull operations aren't supported, the array fields are stored as a single JSON string.
+   *
+   * @param patch the patch
+   * @return whether the patch can be applied
+   */
+  @Override
+  public boolean supportsPatch(final @NotNull Patch patch) {
+    for (final var operation : patch.operations()) {
+      if (operation instanceof Patch.Operation.Push || operation instanceof Patch.Operation.Pull) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies the patch in a {@code MULTI} transaction under {@code WATCH}, retried a bounded amount of
+   * times on concurrent modifications.
+   *
+   * @param id    the model id
+   * @param patch the patch
+   * @return whether a model was patched or inserted
+   */
+  @Override
+  public boolean patchSync(final @NotNull String id, final @NotNull Patch patch) {
+    if (!this.supportsPatch(patch)) {
+      throw new UnsupportedOperationException("Push and pull operations are not supported by Redis patches");
+    }
+    if (this.dirtyFieldTracker != null) {
+      return this.dirtyFieldTracker.writeUntracked(id, () -> this.internalPatch(id, patch));
+    }
+    return this.internalPatch(id, patch);
+  }
+
+  protected boolean internalPatch(final @NotNull String id, final @NotNull Patch patch) {
+    final var key = this.tableName + ":" + id;
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
+      for (int attempt = 0; attempt < MAX_TRANSACTION_ATTEMPTS; attempt++) {
+        jedis.watch(key);
+        final var exists = jedis.exists(key);
+        if (!exists && !patch.isUpsert()) {
+          jedis.unwatch();
+          return false;
+        }
+        try (final var transaction = jedis.multi()) {
+          if (!exists) {
+            transaction.hset(key, ModelRepository.ID_FIELD, this.writeValue(id));
+          }
+          for (final var operation : patch.operations()) {
+            final var field = operation.field();
+            if (operation instanceof Patch.Operation.Set set) {
+              transaction.hset(key, field, this.writeValue(set.value()));
+            } else if (operation instanceof Patch.Operation.Unset) {
+              transaction.hdel(key, field);
+            } else if (operation instanceof Patch.Operation.Increment increment) {
+              final var amount = increment.amount();
+              if (amount instanceof Double || amount instanceof Float) {
+                transaction.hincrByFloat(key, field, amount.doubleValue());
+              } else {
+                transaction.hincrBy(key, field, amount.longValue());
+              }
+            } else if (operation instanceof Patch.Operation.SetOnInsert setOnInsert && !exists) {
+              transaction.hset(key, field, this.writeValue(setOnInsert.value()));
+            }
+          }
+          if (this.expireAfterSave > 0) {
+            transaction.expire(key, this.expireAfterSave);
+          }
+          if (transaction.exec() != null) {
+            return true;
+          }
+        }
+      }
+    }
+    throw new IllegalStateException("Model '" + id + "' kept changing while patching it, gave up after "
+                                      + MAX_TRANSACTION_ATTEMPTS + " attempts");
+  }
+
+  /**
+   * Applies the function in a {@code MULTI} transaction under {@code WATCH}, retried a bounded amount
+   * of times on concurrent modifications.
+   *
+   * @param id       the model id
+   * @param function the function computing the new model
+   * @return the stored model, or {@code null} if there is none
+   */
+  @Override
+  public @Nullable ModelType computeSync(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    if (this.dirtyFieldTracker != null) {
+      return this.dirtyFieldTracker.writeUntracked(id, () -> this.internalCompute(id, function));
+    }
+    return this.internalCompute(id, function);
+  }
+
+  protected @Nullable ModelType internalCompute(
+    final @NotNull String id,
+    final @NotNull UnaryOperator<@Nullable ModelType> function
+  ) {
+    final var key = this.tableName + ":" + id;
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
+      for (int attempt = 0; attempt < MAX_TRANSACTION_ATTEMPTS; attempt++) {
+        jedis.watch(key);
+        final ModelType newModel;
+        final ModelType oldModel;
+        try {
+          oldModel = this.readModel(jedis.hgetAll(key));
+          newModel = function.apply(oldModel);
+        } catch (final RuntimeException e) {
+          // the connection goes back to the pool
+          jedis.unwatch();
+          throw e;
+        }
+        if (oldModel == null && newModel == null) {
+          jedis.unwatch();
+          return null;
+        }
+        try (final var transaction = jedis.multi()) {
+          transaction.del(key);
+          if (newModel != null) {
+            transaction.hset(key, this.writeModel(newModel));
+            if (this.expireAfterSave > 0) {
+              transaction.expire(key, this.expireAfterSave);
+            }
+          }
+          if (transaction.exec() != null) {
+            return newModel;
+          }
+        }
+      }
+    }
+    throw new IllegalStateException("Model '" + id + "' kept changing while computing it, gave up after "
+                                      + MAX_TRANSACTION_ATTEMPTS + " attempts");
+  }
+
   @Override
   public boolean deleteSync(final @NotNull String id) {
-    try (final var jedis = this.jedisPool.getResource()) {
-      return jedis.del(this.tableName + ":" + id) > 0;
+    if (this.dirtyFieldTracker != null) {
+      return this.dirtyFieldTracker.writeUntracked(id, () -> this.internalDelete(List.of(id)));
+    }
+    return this.internalDelete(List.of(id));
+  }
+
+  @Override
+  public boolean deleteManySync(final @NotNull Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return false;
+    }
+    if (this.dirtyFieldTracker != null) {
+      return this.dirtyFieldTracker.writeUntracked(ids, () -> this.internalDelete(ids));
+    }
+    return this.internalDelete(ids);
+  }
+
+  public @Nullable DirtyFieldTracker<String> dirtyFieldTracker() {
+    return this.dirtyFieldTracker;
+  }
+
+  protected boolean internalDelete(final @NotNull Collection<String> ids) {
+    final var keys = new String[ids.size()];
+    var index = 0;
+    for (final var id : ids) {
+      keys[index++] = this.tableName + ":" + id;
+    }
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
+      return jedis.del(keys) > 0;
     }
   }
 
   @Override
   public @Nullable ModelType findSync(final @NotNull String id) {
-    try (final var jedis = this.jedisPool.getResource()) {
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
       final var key = this.tableName + ":" + id;
       return this.readModel(jedis, key);
     }
   }
 
+  /**
+   * Finds the model with {@code HMGET}, reading the id and the requested fields only.
+   *
+   * @param id     the model id
+   * @param fields the serialized names of the fields to load
+   * @return the partially loaded model, or {@code null} if it doesn't exist
+   */
+  @Override
+  public @Nullable ModelType findSync(final @NotNull String id, final @NotNull Set<String> fields) {
+    final var requestedFields = new ArrayList<String>(fields.size() + 1);
+    requestedFields.add(ModelRepository.ID_FIELD);
+    for (final var field : fields) {
+      if (!field.equals(ModelRepository.ID_FIELD)) {
+        requestedFields.add(field);
+      }
+    }
+    final var key = this.tableName + ":" + id;
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
+      final var values = jedis.hmget(key, requestedFields.toArray(String[]::new));
+      final var map = new HashMap<String, String>(values.size());
+      for (int i = 0; i < values.size(); i++) {
+        final var value = values.get(i);
+        if (value != null) {
+          map.put(requestedFields.get(i), value);
+        }
+      }
+      if (map.isEmpty()) {
+        return null;
+      }
+      if (this.expireAfterAccess > 0) {
+        jedis.expire(key, this.expireAfterAccess);
+      }
+      return this.readModel(map);
+    }
+  }
+
   @Override
   public <C extends Collection<ModelType>> @Nullable C findSync(
     final @NotNull String field,
@@ -113,17 +409,59 @@ public class RedisModelRepository<ModelType extends Model> extends AbstractAsync
     return collection;
   }
 
+  @Override
+  public <C extends Collection<ModelType>> @NotNull C findManySync(
+    final @NotNull Collection<String> ids,
+    final @NotNull Function<Integer, C> factory
+  ) {
+    final var foundModels = factory.apply(ids.size());
+    if (ids.isEmpty()) {
+      return foundModels;
+    }
+    final var keys = new ArrayList<String>(ids.size());
+    for (final var id : ids) {
+      keys.add(this.tableName + ":" + id);
+    }
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
+      foundModels.addAll(this.readModels(jedis, keys));
+      return foundModels;
+    }
+  }
+
+  /**
+   * Finds an unsorted page of models with {@code SCAN}, whose cursor is the continuation token. A
+   * page may be slightly bigger than {@code limit}, and a model may be returned twice.
+   *
+   * @param continuationToken the cursor returned with the previous page, or {@code null} for the first page
+   * @param limit             the approximate amount of models of the page
+   * @return the page
+   */
+  @Override
+  public @NotNull Page<ModelType> findPageSync(final @Nullable String continuationToken, final int limit) {
+    KeysetPages.checkLimit(limit);
+    final var scanParams = this.scanParams(limit);
+    final var keys = new ArrayList<String>(limit);
+    var cursor = continuationToken == null ? ScanParams.SCAN_POINTER_START : continuationToken;
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
+      do {
+        final var result = jedis.scan(cursor, scanParams);
+        cursor = result.getCursor();
+        keys.addAll(result.getResult());
+      } while (keys.size() < limit && !ScanParams.SCAN_POINTER_START.equals(cursor));
+      final var models = this.readModels(jedis, keys);
+      return new Page<>(models, ScanParams.SCAN_POINTER_START.equals(cursor) ? null : cursor);
+    }
+  }
+
   @Override
   public @Nullable Collection<String> findIdsSync() {
-    try (final var jedis = this.jedisPool.getResource()) {
-      final var keys = jedis.keys(this.tableName + ":*");
-      if (keys == null || keys.isEmpty()) {
+    try (final var ids = this.streamIdsSync(DEFAULT_BATCH_SIZE)) {
+      final var result = ids.collect(Collectors.toCollection(LinkedHashSet::new));
+      if (result.isEmpty()) {
         return null;
       }
-      final var result = new ArrayList<String>(keys.size());
-      for (final var key : keys) {
-        result.add(key.substring(this.tableName.length() + 1));
-      }
       return result;
     }
   }
@@ -133,32 +471,161 @@ public class RedisModelRepository<ModelType extends Model> extends AbstractAsync
     final @NotNull Consumer<ModelType> postLoadAction,
     final @NotNull Function<Integer, C> factory
   ) {
-    try (final var jedis = this.jedisPool.getResource()) {
-      final var keys = jedis.keys(this.tableName + ":*");
-      if (keys == null || keys.isEmpty()) {
-        return null;
-      }
-      final var foundModels = factory.apply(keys.size());
-      for (final var key : keys) {
-        final var model = this.readModel(jedis, key);
-        if (model == null) {
-          continue;
+    final var seenIds = new HashSet<String>();
+    final var foundModels = factory.apply(DEFAULT_BATCH_SIZE);
+    try (final var models = this.streamAllSync(DEFAULT_BATCH_SIZE)) {
+      models.forEach(model -> {
+        if (seenIds.add(model.id())) {
+          postLoadAction.accept(model);
+          foundModels.add(model);
         }
-        postLoadAction.accept(model);
-        foundModels.add(model);
-      }
-      return foundModels;
+      });
+    }
+    if (foundModels.isEmpty()) {
+      return null;
     }
+    return foundModels;
+  }
+
+  @Override
+  public @NotNull Stream<String> streamIdsSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    // SCAN may return a key more than once if the table is modified meanwhile
+    final var connection = this.connection();
+    final var prefixLength = this.tableName.length() + 1;
+    return this.stream(new KeyScanIterator(connection.jedis(), this.scanParams(batchSize)))
+             .onClose(connection::close)
+             .map(key -> key.substring(prefixLength));
+  }
+
+  @Override
+  public @NotNull Stream<ModelType> streamAllSync(final int batchSize) {
+    ModelRepository.checkBatchSize(batchSize);
+    final var connection = this.connection();
+    final var keys = new KeyScanIterator(connection.jedis(), this.scanParams(batchSize));
+    return this.stream(new BatchedModelIterator(connection.jedis(), keys, batchSize))
+             .onClose(connection::close);
   }
 
   @Override
   public boolean existsSync(final @NotNull String id) {
-    try (final var jedis = this.jedisPool.getResource()) {
+    try (final var connection = this.connection()) {
+      final var jedis = connection.jedis();
       return jedis.exists(this.tableName + ":" + id);
     }
   }
 
+  @Override
+  public @NotNull Collection<String> existsManySync(final @NotNull Collection<String> ids) {
+    final var existingIds = new ArrayList<String>(ids.size());
+    if (ids.isEmpty()) {
+      return existingIds;
+    }
+    try (
+      final var connection = this.connection();
+      final var pipeline = connection.jedis()
+                             .pipelined()
+    ) {
+      final var responses = new ArrayList<Response<Boolean>>(ids.size());
+      for (final var id : ids) {
+        responses.add(pipeline.exists(this.tableName + ":" + id));
+      }
+      pipeline.sync();
+      var index = 0;
+      for (final var id : ids) {
+        if (responses.get(index++)
+              .get()) {
+          existingIds.add(id);
+        }
+      }
+      return existingIds;
+    }
+  }
+
+  protected @NotNull Map<String, String> writeModel(final @NotNull ModelType model) {
+    final var object = this.modelSerializer.serialize(model);
+    final var map = new HashMap<String, String>(object.size());
+    for (final var entry : object.entrySet()) {
+      final var stringWriter = new StringWriter();
+      try (final var writer = new JsonWriter(stringWriter)) {
+        writer.setSerializeNulls(false);
+        TypeAdapters.JSON_ELEMENT.write(writer, entry.getValue());
+      } catch (final IOException e) {
+        throw new RuntimeException(e);
+      }
+      map.put(entry.getKey(), stringWriter.toString());
+    }
+    return map;
+  }
+
+  protected @NotNull String writeValue(final @Nullable Object value) {
+    final JsonElement element;
+    if (value instanceof JsonElement jsonElement) {
+      element = jsonElement;
+    } else if (value instanceof String string) {
+      element = new JsonPrimitive(string);
+    } else if (value instanceof Number number) {
+      element = new JsonPrimitive(number);
+    } else if (value instanceof Boolean bool) {
+      element = new JsonPrimitive(bool);
+    } else if (value instanceof Character character) {
+      element = new JsonPrimitive(character);
+    } else {
+      throw new IllegalArgumentException("Unsupported patch value type: "
+                                           + (value == null ? "null" : value.getClass()
+                                                                         .getName()));
+    }
+    final var stringWriter = new StringWriter();
+    try (final var writer = new JsonWriter(stringWriter)) {
+      TypeAdapters.JSON_ELEMENT.write(writer, element);
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+    return stringWriter.toString();
+  }
+
+  protected void writeChanges(
+    final @NotNull Pipeline pipeline,
+    final @NotNull String key,
+    final @NotNull FieldChanges<String> changes
+  ) {
+    if (!changes.changed()
+           .isEmpty()) {
+      pipeline.hset(key, changes.changed());
+    }
+    if (!changes.removed()
+           .isEmpty()) {
+      pipeline.hdel(key, changes.removed()
+                           .toArray(String[]::new));
+    }
+    if (this.expireAfterSave > 0) {
+      pipeline.expire(key, this.expireAfterSave);
+    }
+  }
+
+  protected @NotNull List<ModelType> readModels(final @NotNull Jedis jedis, final @NotNull Collection<String> keys) {
+    final var responses = new ArrayList<Response<Map<String, String>>>(keys.size());
+    try (final var pipeline = jedis.pipelined()) {
+      for (final var key : keys) {
+        responses.add(pipeline.hgetAll(key));
+        if (this.expireAfterAccess > 0) {
+          pipeline.expire(key, this.expireAfterAccess);
+        }
+      }
+      pipeline.sync();
+    }
+    final var models = new ArrayList<ModelType>(responses.size());
+    for (final var response : responses) {
+      final var model = this.readModel(response.get());
+      if (model != null) {
+        models.add(model);
+      }
+    }
+    return models;
+  }
+
   protected @Nullable ModelType readModel(final @NotNull Jedis jedis, final @NotNull String key) {
+    final var stamp = this.trackerStamp();
     final var map = jedis.hgetAll(key);
     if (map.isEmpty()) {
       return null;
@@ -166,6 +633,24 @@ public class RedisModelRepository<ModelType extends Model> extends AbstractAsync
     if (this.expireAfterAccess > 0) {
       jedis.expire(key, this.expireAfterAccess);
     }
+    this.recordLoaded(key, map, stamp);
+    return this.readModel(map);
+  }
+
+  protected long trackerStamp() {
+    return this.dirtyFieldTracker == null ? 0 : this.dirtyFieldTracker.stamp();
+  }
+
+  protected void recordLoaded(final @NotNull String key, final @NotNull Map<String, String> map, final long stamp) {
+    if (this.dirtyFieldTracker != null && !map.isEmpty()) {
+      this.dirtyFieldTracker.recordLoaded(key.substring(this.tableName.length() + 1), map, stamp);
+    }
+  }
+
+  protected @Nullable ModelType readModel(final @NotNull Map<String, String> map) {
+    if (map.isEmpty()) {
+      return null;
+    }
     final var jsonObject = new JsonObject();
     for (final var entry : map.entrySet()) {
       try (final var reader = new JsonReader(new StringReader(entry.getValue()))) {
@@ -176,4 +661,156 @@ public class RedisModelRepository<ModelType extends Model> extends AbstractAsync
     }
     return this.modelDeserializer.deserialize(jsonObject);
   }
+
+  /**
+   * Lowers the socket timeout of the connection to the time left before the {@link Deadline} of the
+   * current thread, if any, so a late reply fails the command.
+   *
+   * @param jedis the connection
+   * @return the handle restoring the timeout
+   */
+  protected @NotNull SocketTimeout boundTimeout(final @NotNull Jedis jedis) {
+    final var deadline = Deadline.current();
+    if (deadline == null) {
+      return SocketTimeout.UNCHANGED;
+    }
+    deadline.check();
+    final var connection = jedis.getConnection();
+    final var timeout = connection.getSoTimeout();
+    final var remaining = (int) Math.min(deadline.remainingMillis(), Integer.MAX_VALUE);
+    if (timeout > 0 && timeout <= remaining) {
+      return SocketTimeout.UNCHANGED;
+    }
+    connection.setSoTimeout(remaining);
+    return () -> {
+      if (!connection.isBroken()) {
+        connection.setSoTimeout(timeout);
+      }
+    };
+  }
+
+  /**
+   * Borrows a connection from the pool with its timeout bounded by {@link #boundTimeout(Jedis)}.
+   *
+   * @return the connection, restoring the timeout once closed
+   */
+  protected @NotNull BoundConnection connection() {
+    Deadline.checkCurrent();
+    final var jedis = this.jedisPool.getResource();
+    try {
+      return new BoundConnection(jedis, this.boundTimeout(jedis));
+    } catch (final RuntimeException e) {
+      jedis.close();
+      throw e;
+    }
+  }
+
+  protected @NotNull ScanParams scanParams(final int batchSize) {
+    return new ScanParams().match(this.tableName + ":*")
+             .count(batchSize);
+  }
+
+  protected <T> @NotNull Stream<T> stream(final @NotNull Iterator<T> iterator) {
+    final var spliterator = Spliterators.spliteratorUnknownSize(
+      iterator,
+      Spliterator.ORDERED | Spliterator.NONNULL);
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  @FunctionalInterface
+  protected interface SocketTimeout extends AutoCloseable {
+    SocketTimeout UNCHANGED = () -> {
+    };
+
+    @Override
+    void close();
+  }
+
+  protected record BoundConnection(@NotNull Jedis jedis, @NotNull SocketTimeout timeout) implements AutoCloseable {
+    @Override
+    public void close() {
+      try {
+        this.timeout.close();
+      } finally {
+        this.jedis.close();
+      }
+    }
+  }
+
+  protected static final class KeyScanIterator implements Iterator<String> {
+    private final Jedis jedis;
+    private final ScanParams scanParams;
+    private String cursor = ScanParams.SCAN_POINTER_START;
+    private Iterator<String> page = Collections.emptyIterator();
+    private boolean finished;
+
+    private KeyScanIterator(final @NotNull Jedis jedis, final @NotNull ScanParams scanParams) {
+      this.jedis = jedis;
+      this.scanParams = scanParams;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!this.page.hasNext()) {
+        if (this.finished) {
+          return false;
+        }
+        final var result = this.jedis.scan(this.cursor, this.scanParams);
+        this.cursor = result.getCursor();
+        this.finished = ScanParams.SCAN_POINTER_START.equals(this.cursor);
+        this.page = result.getResult()
+                      .iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public @NotNull String next() {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return this.page.next();
+    }
+  }
+
+  protected final class BatchedModelIterator implements Iterator<ModelType> {
+    private final Jedis jedis;
+    private final Iterator<String> keys;
+    private final int batchSize;
+    private Iterator<ModelType> page = Collections.emptyIterator();
+
+    private BatchedModelIterator(
+      final @NotNull Jedis jedis,
+      final @NotNull Iterator<String> keys,
+      final int batchSize
+    ) {
+      this.jedis = jedis;
+      this.keys = keys;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!this.page.hasNext()) {
+        if (!this.keys.hasNext()) {
+          return false;
+        }
+        final var batch = new ArrayList<String>(this.batchSize);
+        while (batch.size() < this.batchSize && this.keys.hasNext()) {
+          batch.add(this.keys.next());
+        }
+        this.page = RedisModelRepository.this.readModels(this.jedis, batch)
+                      .iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public @NotNull ModelType next() {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return this.page.next();
+    }
+  }
 }
@@ -2,6 +2,7 @@ package org.fenixteam.storage.redis;
 
 import com.google.gson.JsonObject;
 import java.util.concurrent.Executor;
+import org.fenixteam.storage.codec.DirtyFieldTracker;
 import org.fenixteam.storage.codec.ModelDeserializer;
 import org.fenixteam.storage.codec.ModelSerializer;
 import org.fenixteam.storage.model.Model;
@@ -20,6 +21,7 @@ public class RedisModelRepositoryBuilder<ModelType extends Model>
   private JedisPool jedisPool;
   private ModelSerializer<ModelType, JsonObject> modelSerializer;
   private ModelDeserializer<ModelType, JsonObject> modelDeserializer;
+  private int trackedModels;
 
   protected RedisModelRepositoryBuilder() {
   }
@@ -64,8 +66,38 @@ public class RedisModelRepositoryBuilder<ModelType extends Model>
     return this;
   }
 
+  /**
+   * Enables dirty field tracking, so a save only writes the fields changed since the hash was last
+   * written or read. No other process may write to the table, and keys must not expire.
+   *
+   * @return this builder
+   */
+  @Contract(" -> this")
+  public @NotNull RedisModelRepositoryBuilder<ModelType> trackDirtyFields() {
+    return this.trackDirtyFields(DirtyFieldTracker.DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Enables dirty field tracking of at most {@code maxTrackedModels} hashes, the saves of the others
+   * write every field.
+   *
+   * @param maxTrackedModels the maximum amount of remembered hashes
+   * @return this builder
+   */
+  @Contract("_ -> this")
+  public @NotNull RedisModelRepositoryBuilder<ModelType> trackDirtyFields(final int maxTrackedModels) {
+    if (maxTrackedModels < 1) {
+      throw new IllegalArgumentException("maxTrackedModels must be positive");
+    }
+    this.trackedModels = maxTrackedModels;
+    return this;
+  }
+
   @Contract("_ -> new")
   public @NotNull AsyncModelRepository<ModelType> build(final @NotNull Executor executor) {
+    if (this.trackedModels > 0 && (this.expireAfterSave > 0 || this.expireAfterAccess > 0)) {
+      throw new IllegalStateException("Dirty field tracking can't be combined with key expiration");
+    }
     if (this.expireAfterSave <= 0) {
       this.expireAfterSave = -1;
     }
@@ -79,6 +111,7 @@ public class RedisModelRepositoryBuilder<ModelType extends Model>
       this.jedisPool,
       this.tableName,
       this.expireAfterSave,
-      this.expireAfterAccess);
+      this.expireAfterAccess,
+      this.trackedModels > 0 ? DirtyFieldTracker.create(this.trackedModels) : null);
   }
 }
@@ -0,0 +1,186 @@
+package org.fenixteam.storage.redis.invalidation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.fenixteam.storage.redis.channel.RedisChannel;
+import org.fenixteam.storage.redis.messenger.RedisMessenger;
+import org.fenixteam.storage.repository.cache.InvalidationBus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link InvalidationBus} backed by a {@link RedisMessenger} channel, sending the published ids in
+ * batches.
+ */
+@SuppressWarnings("unused")
+public final class RedisInvalidationBus implements InvalidationBus, AutoCloseable {
+  private static final String IDS_FIELD = "ids";
+  private final RedisChannel<List<String>> channel;
+  private final Set<String> pendingIds;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+  private final ReentrantLock flushLock;
+  private final AtomicBoolean flushRequested;
+  private final ScheduledFuture<?> flushTask;
+
+  private RedisInvalidationBus(
+    final @NotNull RedisChannel<List<String>> channel,
+    final @Nullable ScheduledExecutorService scheduler,
+    final @NotNull Duration flushInterval,
+    final int maxBatchSize
+  ) {
+    this.channel = channel;
+    this.pendingIds = ConcurrentHashMap.newKeySet();
+    this.maxBatchSize = maxBatchSize;
+    this.ownsScheduler = scheduler == null;
+    this.scheduler = scheduler == null ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final var thread = new Thread(runnable, "storage-invalidation-bus");
+      thread.setDaemon(true);
+      return thread;
+    }) : scheduler;
+    this.flushLock = new ReentrantLock();
+    this.flushRequested = new AtomicBoolean();
+    final var intervalMillis = flushInterval.toMillis();
+    this.flushTask = this.scheduler.scheduleWithFixedDelay(
+      this::scheduledFlush,
+      intervalMillis,
+      intervalMillis,
+      TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates a new invalidation bus over the given messenger.
+   *
+   * @param messenger     the messenger
+   * @param channelName   the channel name, unique per persistent repository
+   * @param scheduler     the scheduler which sends the batches, or {@code null} for an owned daemon
+   *                      thread
+   * @param flushInterval the delay between two consecutive batches
+   * @param maxBatchSize  the maximum amount of ids per message
+   * @return the created bus
+   */
+  @Contract("_, _, _, _, _ -> new")
+  public static @NotNull RedisInvalidationBus create(
+    final @NotNull RedisMessenger messenger,
+    final @NotNull String channelName,
+    final @Nullable ScheduledExecutorService scheduler,
+    final @NotNull Duration flushInterval,
+    final int maxBatchSize
+  ) {
+    if (flushInterval.isNegative() || flushInterval.isZero()) {
+      throw new IllegalArgumentException("Flush interval must be positive");
+    }
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Max batch size must be positive");
+    }
+    final var channel = messenger.channel(
+      channelName,
+      RedisInvalidationBus::serialize,
+      RedisInvalidationBus::deserialize);
+    return new RedisInvalidationBus(channel, scheduler, flushInterval, maxBatchSize);
+  }
+
+  @Override
+  public void publish(final @NotNull Collection<String> ids) {
+    this.pendingIds.addAll(ids);
+    if (this.pendingIds.size() >= this.maxBatchSize && this.flushRequested.compareAndSet(false, true)) {
+      this.scheduler.execute(this::scheduledFlush);
+    }
+  }
+
+  @Override
+  public void subscribe(final @NotNull Consumer<Collection<String>> listener) {
+    this.channel.addListener((channel, server, ids) -> listener.accept(ids));
+  }
+
+  public int pendingCount() {
+    return this.pendingIds.size();
+  }
+
+  public void flush() {
+    this.flushLock.lock();
+    try {
+      this.flushRequested.set(false);
+      final var batch = new ArrayList<String>(Math.min(this.maxBatchSize, this.pendingIds.size()));
+      for (final var id : this.pendingIds) {
+        if (!this.pendingIds.remove(id)) {
+          continue;
+        }
+        batch.add(id);
+        if (batch.size() >= this.maxBatchSize) {
+          this.send(batch);
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        this.send(batch);
+      }
+    } finally {
+      this.flushLock.unlock();
+    }
+  }
+
+  /**
+   * Stops the periodic batches and sends the pending ids from the calling thread.
+   */
+  @Override
+  public void close() {
+    this.flushTask.cancel(false);
+    if (this.ownsScheduler) {
+      this.scheduler.shutdown();
+    }
+    this.flush();
+  }
+
+  private void send(final @NotNull List<String> batch) {
+    try {
+      this.channel.sendMessage(List.copyOf(batch));
+    } catch (final RuntimeException e) {
+      this.pendingIds.addAll(batch);
+      throw e;
+    }
+  }
+
+  private void scheduledFlush() {
+    try {
+      this.flush();
+    } catch (final RuntimeException ignored) {
+      // the ids were enqueued again and the next flush retries them, the periodic task would be
+      // cancelled if the exception escaped
+    }
+  }
+
+  private static @NotNull JsonObject serialize(final @NotNull List<String> ids) {
+    final var array = new JsonArray(ids.size());
+    for (final var id : ids) {
+      array.add(id);
+    }
+    final var object = new JsonObject();
+    object.add(IDS_FIELD, array);
+    return object;
+  }
+
+  private static @NotNull List<String> deserialize(final @NotNull JsonObject object) {
+    final var array = object.getAsJsonArray(IDS_FIELD);
+    final var ids = new ArrayList<String>(array.size());
+    for (final var element : array) {
+      ids.add(element.getAsString());
+    }
+    return ids;
+  }
+}